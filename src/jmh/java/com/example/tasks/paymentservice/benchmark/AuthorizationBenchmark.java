@@ -0,0 +1,84 @@
+package com.example.tasks.paymentservice.benchmark;
+
+import com.example.tasks.paymentservice.exception.PaymentAuthorizationException;
+import com.example.tasks.paymentservice.security.GatewayPrincipal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthorizationBenchmark {
+    // PaymentAccessRules is package-private; a constant MethodHandle is inlined by the JIT like a direct call.
+    private static final MethodHandle VALIDATE_AUTHORIZATION;
+
+    static {
+        try {
+            Method method = Class.forName("com.example.tasks.paymentservice.service.PaymentAccessRules")
+                    .getDeclaredMethod("validateAuthorization",
+                    String.class, GatewayPrincipal.class, String.class);
+            method.setAccessible(true);
+            VALIDATE_AUTHORIZATION = MethodHandles.lookup().unreflect(method);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private String userId;
+    private String otherUserId;
+    private String userRoles;
+    private GatewayPrincipal user;
+    private GatewayPrincipal admin;
+    private String action;
+
+    @Setup
+    public void setUp() {
+        userId = BenchmarkStubs.USER_ID;
+        otherUserId = BenchmarkStubs.OTHER_USER_ID;
+        userRoles = "ROLE_USER";
+        user = GatewayPrincipal.of(userId, userRoles);
+        admin = GatewayPrincipal.of(userId, "ROLE_USER,ROLE_ADMIN");
+        action = "get";
+    }
+
+    @Benchmark
+    public GatewayPrincipal parseGatewayHeaders() {
+        return GatewayPrincipal.of(userId, userRoles);
+    }
+
+    @Benchmark
+    public void userAccessingOwnPayment() throws Throwable {
+        VALIDATE_AUTHORIZATION.invokeExact(userId, user, action);
+    }
+
+    @Benchmark
+    public void adminAccessingOtherUserPayment() throws Throwable {
+        VALIDATE_AUTHORIZATION.invokeExact(otherUserId, admin, action);
+    }
+
+    @Benchmark
+    public boolean userDeniedOtherUserPayment() throws Throwable {
+        try {
+            VALIDATE_AUTHORIZATION.invokeExact(otherUserId, user, action);
+            return true;
+        } catch (PaymentAuthorizationException e) {
+            return false;
+        }
+    }
+}
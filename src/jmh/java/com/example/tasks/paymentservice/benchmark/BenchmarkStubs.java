@@ -0,0 +1,173 @@
+package com.example.tasks.paymentservice.benchmark;
+
+import com.example.tasks.paymentservice.cache.PaymentResponseCache;
+import com.example.tasks.paymentservice.dedup.OrderEventDeduplicator;
+import com.example.tasks.paymentservice.dto.ExternalPaymentApiResponse;
+import com.example.tasks.paymentservice.dto.PaymentRequestDto;
+import com.example.tasks.paymentservice.dto.PaymentResponseDto;
+import com.example.tasks.paymentservice.dto.mapper.PaymentMapperImpl;
+import com.example.tasks.paymentservice.model.Payment;
+import com.example.tasks.paymentservice.monitoring.PaymentMetrics;
+import com.example.tasks.paymentservice.processor.AdaptiveTimeout;
+import com.example.tasks.paymentservice.processor.CircuitBreaker;
+import com.example.tasks.paymentservice.processor.ResilientPaymentProcessor;
+import com.example.tasks.paymentservice.processor.gateway.PaymentProcessorGateway;
+import com.example.tasks.paymentservice.repository.OutboxEventRepository;
+import com.example.tasks.paymentservice.repository.PaymentRepository;
+import com.example.tasks.paymentservice.service.PaymentService;
+import com.example.tasks.paymentservice.service.RevenueRollupService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.bson.types.ObjectId;
+import org.example.tasks.dto.OrderCreatedEvent;
+import org.example.tasks.dto.PaymentCreatedEvent;
+import org.example.tasks.model.PaymentStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+final class BenchmarkStubs {
+    static final String USER_ID = "b25c69da-00d6-442a-a922-a8c88ad34b62";
+    static final String OTHER_USER_ID = "5f0d2c1e-7a43-4b8e-9c61-0e6f1a2b3c4d";
+    static final String ORDER_ID = "68d6ccaa-bec0-4d1a-a328-f771c5b78d44";
+
+    private BenchmarkStubs() {
+    }
+
+    static PaymentService paymentService() {
+        PaymentRepository paymentRepository = repository(PaymentRepository.class);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        return new PaymentService(
+                paymentRepository,
+                new ResilientPaymentProcessor(
+                        new StubPaymentProcessorGateway(),
+                        new CircuitBreaker(100, 20, 50, 80, Duration.ofSeconds(1), Duration.ofSeconds(10), 5),
+                        new AdaptiveTimeout(1024, 0.99, 3, 0.95, Duration.ofMillis(50), Duration.ofSeconds(2)),
+                        meterRegistry,
+                        false),
+                new PaymentMapperImpl(),
+                repository(OutboxEventRepository.class),
+                null,
+                new NoOpTransactionManager(),
+                new OrderEventDeduplicator(paymentRepository, meterRegistry, 100_000),
+                new PaymentResponseCache(meterRegistry, 10_000, Duration.ofMinutes(10)),
+                new NoOpRevenueRollupService(),
+                new PaymentMetrics(meterRegistry),
+                Validation.buildDefaultValidatorFactory().getValidator());
+    }
+
+    static PaymentRequestDto paymentRequest() {
+        PaymentRequestDto requestDto = new PaymentRequestDto();
+        requestDto.setOrderId(ORDER_ID);
+        requestDto.setUserId(USER_ID);
+        requestDto.setAmount(new BigDecimal("100.50"));
+        requestDto.setCurrency("USD");
+        requestDto.setPaymentMethodToken("pm_token_123");
+        requestDto.setDescription("Benchmark payment");
+        return requestDto;
+    }
+
+    static Payment payment() {
+        Payment payment = new Payment();
+        payment.setId(new ObjectId().toHexString());
+        payment.setOrderId(ORDER_ID);
+        payment.setUserId(USER_ID);
+        payment.setStatus(PaymentStatus.SUCCESS);
+        payment.setTimestamp(LocalDateTime.of(2024, 1, 15, 10, 30));
+        payment.setPaymentAmount(new BigDecimal("100.50"));
+        payment.setCurrency("USD");
+        payment.setPaymentMethodToken("pm_token_123");
+        payment.setProcessorTransactionId("proc_tx_1705314600000_42");
+        payment.setDescription("Benchmark payment");
+        return payment;
+    }
+
+    static PaymentResponseDto paymentResponse() {
+        return new PaymentMapperImpl().toDto(payment());
+    }
+
+    static OrderCreatedEvent orderCreatedEvent() {
+        OrderCreatedEvent event = new OrderCreatedEvent();
+        event.setOrderId(UUID.fromString(ORDER_ID));
+        event.setUserId(UUID.fromString(USER_ID));
+        event.setTotalAmount(new BigDecimal("150.75"));
+        event.setCurrency("EUR");
+        event.setPaymentMethodToken("pm_token_456");
+        return event;
+    }
+
+    static PaymentCreatedEvent paymentCreatedEvent() {
+        PaymentCreatedEvent event = new PaymentCreatedEvent();
+        event.setOrderId(UUID.fromString(ORDER_ID));
+        event.setPaymentId(new ObjectId().toHexString());
+        event.setStatus(PaymentStatus.SUCCESS);
+        return event;
+    }
+
+    // Only the calls made on the benchmarked paths are answered; anything else fails loudly
+    // so a new repository call on a hot path cannot go unnoticed.
+    private static <T> T repository(Class<T> type) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) ->
+                switch (method.getName()) {
+                    case "save", "insert" -> {
+                        if (args[0] instanceof Payment payment && payment.getId() == null) {
+                            payment.setId(new ObjectId().toHexString());
+                        }
+                        yield args[0];
+                    }
+                    case "existsChargedByOrderIdAndSource", "existsArchivedByOrderIdAndSource" -> false;
+                    case "completeCharge" -> true;
+                    case "findResponseViewById", "findArchivedResponseViewById", "findById" -> Optional.empty();
+                    case "findOwnersByOrderId", "findArchivedOwnersByOrderId",
+                         "findResponseViewByOrderId", "findArchivedResponseViewByOrderId" -> List.of();
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "in-memory " + type.getSimpleName();
+                    default -> throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+                }));
+    }
+
+    private static final class StubPaymentProcessorGateway implements PaymentProcessorGateway {
+        @Override
+        public ExternalPaymentApiResponse processPayment(Payment payment) {
+            ExternalPaymentApiResponse response = new ExternalPaymentApiResponse();
+            response.setPaymentStatusNumber(2);
+            response.setTransactionId("proc_tx_benchmark");
+            return response;
+        }
+    }
+
+    private static final class NoOpRevenueRollupService extends RevenueRollupService {
+        private NoOpRevenueRollupService() {
+            super(null, null, null);
+        }
+
+        @Override
+        public void record(List<Payment> payments) {
+        }
+    }
+
+    private static final class NoOpTransactionManager implements PlatformTransactionManager {
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
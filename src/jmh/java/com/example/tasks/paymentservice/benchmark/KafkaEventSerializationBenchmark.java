@@ -0,0 +1,97 @@
+package com.example.tasks.paymentservice.benchmark;
+
+import com.example.tasks.paymentservice.kafka.serde.EventFormat;
+import com.example.tasks.paymentservice.kafka.serde.PaymentEventDeserializer;
+import com.example.tasks.paymentservice.kafka.serde.PaymentEventSerializer;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.example.tasks.dto.OrderCreatedEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON against the binary encoding for the events on the order and payment topics. The setup prints the bytes per
+ * event, value and headers, for each combination; run with {@code -Djmh.args="KafkaEventSerializationBenchmark"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KafkaEventSerializationBenchmark {
+    private static final String TOPIC = "benchmark-topic";
+
+    @Param({"JSON", "BINARY"})
+    private EventFormat format;
+
+    @Param({"ORDER_CREATED", "PAYMENT_CREATED"})
+    private String event;
+
+    private PaymentEventSerializer serializer;
+    private PaymentEventDeserializer deserializer;
+    private Object value;
+    private byte[] serialized;
+    private Headers serializedHeaders;
+
+    @Setup
+    public void setUp() {
+        serializer = new PaymentEventSerializer();
+        serializer.configure(Map.of(
+                PaymentEventSerializer.JSON_DELEGATE_CONFIG, JsonSerializer.class,
+                PaymentEventSerializer.FORMAT_CONFIG, format.name()), false);
+        deserializer = new PaymentEventDeserializer();
+        deserializer.configure(Map.of(
+                PaymentEventDeserializer.JSON_DELEGATE_CONFIG, JsonDeserializer.class,
+                JsonDeserializer.TRUSTED_PACKAGES, "*"), false);
+
+        if (event.equals("ORDER_CREATED")) {
+            OrderCreatedEvent orderCreatedEvent = BenchmarkStubs.orderCreatedEvent();
+            orderCreatedEvent.setTimestamp(Instant.now());
+            value = orderCreatedEvent;
+        } else {
+            value = BenchmarkStubs.paymentCreatedEvent();
+        }
+        serializedHeaders = new RecordHeaders();
+        serialized = serializer.serialize(TOPIC, serializedHeaders, value);
+
+        int headerBytes = 0;
+        for (Header header : serializedHeaders) {
+            headerBytes += header.key().length() + header.value().length;
+        }
+        System.out.printf("%n%s %s: %d value bytes + %d header bytes per event%n", format, event, serialized.length, headerBytes);
+    }
+
+    @TearDown
+    public void tearDown() {
+        serializer.close();
+        deserializer.close();
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(TOPIC, new RecordHeaders(), value);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return deserializer.deserialize(TOPIC, serializedHeaders, serialized);
+    }
+}
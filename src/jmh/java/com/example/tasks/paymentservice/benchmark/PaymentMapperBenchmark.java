@@ -0,0 +1,48 @@
+package com.example.tasks.paymentservice.benchmark;
+
+import com.example.tasks.paymentservice.dto.PaymentRequestDto;
+import com.example.tasks.paymentservice.dto.PaymentResponseDto;
+import com.example.tasks.paymentservice.dto.mapper.PaymentMapper;
+import com.example.tasks.paymentservice.dto.mapper.PaymentMapperImpl;
+import com.example.tasks.paymentservice.model.Payment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PaymentMapperBenchmark {
+    private PaymentMapper paymentMapper;
+    private PaymentRequestDto requestDto;
+    private Payment payment;
+
+    @Setup
+    public void setUp() {
+        paymentMapper = new PaymentMapperImpl();
+        requestDto = BenchmarkStubs.paymentRequest();
+        payment = BenchmarkStubs.payment();
+    }
+
+    @Benchmark
+    public Payment toEntity() {
+        return paymentMapper.toEntity(requestDto);
+    }
+
+    @Benchmark
+    public PaymentResponseDto toDto() {
+        return paymentMapper.toDto(payment);
+    }
+}
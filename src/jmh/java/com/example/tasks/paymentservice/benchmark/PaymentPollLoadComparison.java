@@ -0,0 +1,127 @@
+package com.example.tasks.paymentservice.benchmark;
+
+import com.example.tasks.paymentservice.constants.HttpHeaders;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop GET /payment/{id} polling against several running instances, one after another, so the
+ * servlet and the reactive profile can be compared under the same client. Start one instance per stack
+ * (e.g. the default profile on 8084 and {@code --spring.profiles.active=reactive --server.port=8085}) and run:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:java -Dexec.classpathScope=test \
+ *   -Dexec.mainClass=com.example.tasks.paymentservice.benchmark.PaymentPollLoadComparison \
+ *   -Dexec.args="servlet=http://localhost:8084 reactive=http://localhost:8085"
+ * </pre>
+ * System properties: {@code load.payment-id}, {@code load.user-id}, {@code load.secret},
+ * {@code load.concurrency} (default 2000), {@code load.duration} (default PT60S), {@code load.warmup} (default PT15S).
+ */
+public final class PaymentPollLoadComparison {
+
+    private PaymentPollLoadComparison() {
+    }
+
+    public static void main(String[] args) {
+        String paymentId = System.getProperty("load.payment-id", "payment-123");
+        String userId = System.getProperty("load.user-id", BenchmarkStubs.USER_ID);
+        String secret = System.getProperty("load.secret", "change-me");
+        int concurrency = Integer.getInteger("load.concurrency", 2000);
+        Duration duration = Duration.parse(System.getProperty("load.duration", "PT60S"));
+        Duration warmup = Duration.parse(System.getProperty("load.warmup", "PT15S"));
+
+        Map<String, String> targets = new LinkedHashMap<>();
+        for (String arg : args) {
+            String[] target = arg.split("=", 2);
+            targets.put(target[0], target[1]);
+        }
+
+        System.out.printf("%-10s %10s %8s %10s %9s %9s %9s %9s %14s%n",
+                "stack", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms", "server threads");
+        targets.forEach((name, baseUrl) -> {
+            WebClient client = client(baseUrl, secret, userId, concurrency);
+            run(client, paymentId, concurrency, warmup, new SimpleMeterRegistry(), new AtomicLong());
+
+            SimpleMeterRegistry registry = new SimpleMeterRegistry();
+            AtomicLong errors = new AtomicLong();
+            Timer timer = run(client, paymentId, concurrency, duration, registry, errors);
+            Map<Double, Double> percentiles = new LinkedHashMap<>();
+            for (ValueAtPercentile value : timer.takeSnapshot().percentileValues()) {
+                percentiles.put(value.percentile(), value.value(TimeUnit.MILLISECONDS));
+            }
+            System.out.printf("%-10s %10d %8d %10.0f %9.2f %9.2f %9.2f %9.2f %14s%n",
+                    name, timer.count(), errors.get(), timer.count() / (double) duration.toSeconds(),
+                    percentiles.get(0.5), percentiles.get(0.9), percentiles.get(0.99),
+                    timer.max(TimeUnit.MILLISECONDS), serverThreads(client));
+        });
+    }
+
+    private static Timer run(WebClient client, String paymentId, int concurrency, Duration duration,
+                             SimpleMeterRegistry registry, AtomicLong errors) {
+        Timer timer = Timer.builder("poll")
+                .publishPercentiles(0.5, 0.9, 0.99)
+                .distributionStatisticExpiry(duration.plusMinutes(1))
+                .distributionStatisticBufferLength(1)
+                .register(registry);
+        long deadline = System.nanoTime() + duration.toNanos();
+        Flux.range(0, concurrency)
+                .flatMap(worker -> pollUntil(client, paymentId, deadline, timer, errors), concurrency)
+                .blockLast();
+        return timer;
+    }
+
+    private static Mono<Void> pollUntil(WebClient client, String paymentId, long deadline, Timer timer, AtomicLong errors) {
+        return Mono.defer(() -> {
+                    long start = System.nanoTime();
+                    return client.get().uri("/payment/{paymentId}", paymentId)
+                            .retrieve()
+                            .toBodilessEntity()
+                            .doOnSuccess(response -> timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS))
+                            .onErrorResume(e -> {
+                                errors.incrementAndGet();
+                                return Mono.empty();
+                            });
+                })
+                .repeat(() -> System.nanoTime() < deadline)
+                .then();
+    }
+
+    private static String serverThreads(WebClient client) {
+        try {
+            JsonNode metric = client.get().uri("/actuator/metrics/jvm.threads.live")
+                    .retrieve()
+                    .bodyToMono(JsonNode.class)
+                    .block(Duration.ofSeconds(5));
+            return metric == null ? "n/a" : metric.path("measurements").path(0).path("value").asText("n/a");
+        } catch (RuntimeException e) {
+            return "n/a";
+        }
+    }
+
+    private static WebClient client(String baseUrl, String secret, String userId, int concurrency) {
+        ConnectionProvider connections = ConnectionProvider.builder("payment-poll")
+                .maxConnections(concurrency)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        return WebClient.builder()
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connections)))
+                .defaultHeader("X-Internal-Secret", secret)
+                .defaultHeader(HttpHeaders.USER_ID, userId)
+                .defaultHeader(HttpHeaders.USER_ROLES, "ROLE_USER")
+                .build();
+    }
+}
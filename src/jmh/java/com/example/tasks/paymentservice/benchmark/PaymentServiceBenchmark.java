@@ -0,0 +1,55 @@
+package com.example.tasks.paymentservice.benchmark;
+
+import com.example.tasks.paymentservice.dto.PaymentRequestDto;
+import com.example.tasks.paymentservice.dto.PaymentResponseDto;
+import com.example.tasks.paymentservice.security.GatewayPrincipal;
+import com.example.tasks.paymentservice.service.PaymentService;
+import org.example.tasks.dto.OrderCreatedEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PaymentServiceBenchmark {
+    private PaymentService paymentService;
+    private PaymentRequestDto requestDto;
+    private GatewayPrincipal principal;
+    private OrderCreatedEvent orderCreatedEvent;
+    private long orderSequence;
+
+    @Setup
+    public void setUp() {
+        paymentService = BenchmarkStubs.paymentService();
+        requestDto = BenchmarkStubs.paymentRequest();
+        principal = GatewayPrincipal.of(BenchmarkStubs.USER_ID, "ROLE_USER");
+        orderCreatedEvent = BenchmarkStubs.orderCreatedEvent();
+    }
+
+    @Benchmark
+    public PaymentResponseDto processPayment() {
+        return paymentService.processPayment(requestDto, principal);
+    }
+
+    @Benchmark
+    public OrderCreatedEvent processOrderCreatedEvent() {
+        // A fresh order id per call, otherwise every call after the first is dropped by the deduplicator.
+        orderCreatedEvent.setOrderId(new UUID(0L, ++orderSequence));
+        paymentService.processOrderCreatedEvent(orderCreatedEvent);
+        return orderCreatedEvent;
+    }
+}
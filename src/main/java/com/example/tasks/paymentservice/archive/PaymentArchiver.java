@@ -0,0 +1,115 @@
+package com.example.tasks.paymentservice.archive;
+
+import com.example.tasks.paymentservice.model.Payment;
+import com.example.tasks.paymentservice.repository.PaymentArchive;
+import com.mongodb.client.result.DeleteResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Moves terminal payments older than min-age from payments to payments_archive. Candidates are selected by the
+// creation time in their ObjectId, so the scan runs on the _id index and the hot collection needs no extra index.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "payment.archive.enabled", havingValue = "true")
+public class PaymentArchiver {
+    private final MongoTemplate mongoTemplate;
+    private final Duration minAge;
+    private final int batchSize;
+    private final int maxPaymentsPerSecond;
+    private final Counter archivedCounter;
+    private final Timer batchTimer;
+
+    public PaymentArchiver(MongoTemplate mongoTemplate,
+                           MeterRegistry meterRegistry,
+                           @Value("${payment.archive.min-age:30d}") Duration minAge,
+                           @Value("${payment.archive.batch-size:1000}") int batchSize,
+                           @Value("${payment.archive.max-payments-per-second:2000}") int maxPaymentsPerSecond) {
+        this.mongoTemplate = mongoTemplate;
+        this.minAge = minAge;
+        this.batchSize = batchSize;
+        this.maxPaymentsPerSecond = maxPaymentsPerSecond;
+        this.archivedCounter = Counter.builder("payment.archive.archived")
+                .description("Payments moved to the archive collection")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("payment.archive.batch")
+                .description("Time to copy and delete one archive batch")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${payment.archive.interval-ms:60000}")
+    public void archive() {
+        ObjectId cutoff = new ObjectId(Date.from(Instant.now().minus(minAge)));
+        ObjectId after = null;
+        int found;
+        do {
+            long startNanos = System.nanoTime();
+            ObjectId from = after;
+            List<Payment> batch = batchTimer.record(() -> archiveBatch(cutoff, from));
+            found = batch.size();
+            if (found > 0) {
+                after = new ObjectId(batch.get(found - 1).getId());
+            }
+            throttle(found, startNanos);
+        } while (found == batchSize && !Thread.currentThread().isInterrupted());
+    }
+
+    private List<Payment> archiveBatch(ObjectId cutoff, ObjectId after) {
+        Criteria idRange = after == null ? Criteria.where("_id").lt(cutoff) : Criteria.where("_id").lt(cutoff).gt(after);
+        // Payments stay hot until the revenue rollup has counted them, including old ones it has not been handed yet.
+        Query query = Query.query(idRange.and("status").in(PaymentArchive.ARCHIVABLE_STATUSES).and("rollup_pending").is(false))
+                .with(Sort.by(Sort.Direction.ASC, "_id"))
+                .limit(batchSize);
+        List<Payment> payments = mongoTemplate.find(query, Payment.class);
+        if (payments.isEmpty()) {
+            return payments;
+        }
+
+        // Upserts keep a rerun idempotent if a previous run copied a batch but died before deleting it.
+        BulkOperations copy = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Payment.class, PaymentArchive.COLLECTION);
+        for (Payment payment : payments) {
+            copy.replaceOne(Query.query(Criteria.where("_id").is(payment.getId())), payment, FindAndReplaceOptions.options().upsert());
+        }
+        copy.execute();
+
+        List<String> ids = payments.stream().map(Payment::getId).toList();
+        DeleteResult deleted = mongoTemplate.remove(
+                Query.query(Criteria.where("_id").in(ids).and("status").in(PaymentArchive.ARCHIVABLE_STATUSES).and("rollup_pending").is(false)),
+                Payment.class);
+        archivedCounter.increment(deleted.getDeletedCount());
+        log.debug("Archived {} payments", deleted.getDeletedCount());
+        return payments;
+    }
+
+    // Spreads the copy and delete load so the job never competes with request traffic for the primary's IO.
+    private void throttle(int archived, long startNanos) {
+        long minimumNanos = TimeUnit.SECONDS.toNanos(archived) / maxPaymentsPerSecond;
+        long remainingNanos = minimumNanos - (System.nanoTime() - startNanos);
+        if (remainingNanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(remainingNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.tasks.paymentservice.cache;
+
+import com.example.tasks.paymentservice.dto.PaymentResponseDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.example.tasks.model.PaymentStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+public class PaymentResponseCache {
+    private final Cache<String, PaymentResponseDto> cache;
+
+    public PaymentResponseCache(MeterRegistry meterRegistry,
+                                @Value("${payment.cache.payments.maximum-size:10000}") long maximumSize,
+                                @Value("${payment.cache.payments.ttl:10m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "payments");
+    }
+
+    public PaymentResponseDto get(String paymentId) {
+        return cache.getIfPresent(paymentId);
+    }
+
+    public void refresh(PaymentResponseDto payment) {
+        if (isTerminal(payment.getStatus())) {
+            cache.put(payment.getId(), payment);
+        } else {
+            cache.invalidate(payment.getId());
+        }
+    }
+
+    public void invalidate(String paymentId) {
+        cache.invalidate(paymentId);
+    }
+
+    private boolean isTerminal(PaymentStatus status) {
+        return status == PaymentStatus.SUCCESS || status == PaymentStatus.FAILED;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.tasks.paymentservice.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.kafka.annotation.KafkaListener;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+
+// Under spring.main.lazy-initialization Spring Boot keeps scheduled and SmartInitializingSingleton beans eager, and
+// SmartLifecycle beans are created to be started anyway. Kafka listener endpoints are only registered when their bean
+// is created, so a lazy listener bean would never consume.
+@Configuration(proxyBeanMethods = false)
+public class LazyInitializationConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter kafkaListenerLazyInitializationExcludeFilter() {
+        return (beanName, beanDefinition, beanType) -> beanType != null && hasKafkaListener(beanType);
+    }
+
+    private static boolean hasKafkaListener(Class<?> beanType) {
+        if (AnnotatedElementUtils.hasAnnotation(beanType, KafkaListener.class)) {
+            return true;
+        }
+        Map<Method, KafkaListener> listenerMethods = MethodIntrospector.selectMethods(beanType,
+                (MethodIntrospector.MetadataLookup<KafkaListener>) method ->
+                        AnnotatedElementUtils.findMergedAnnotation(method, KafkaListener.class));
+        return !listenerMethods.isEmpty();
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.tasks.paymentservice.config;
+
+import com.example.tasks.paymentservice.routing.CausalMongoTransactionManager;
+import com.example.tasks.paymentservice.routing.CausalReadRouting;
+import com.example.tasks.paymentservice.routing.RoutingMongoTemplate;
+import com.example.tasks.paymentservice.routing.SecondaryRead;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+
+@Configuration
+public class MongoConfig {
+
+    @Bean
+    public MongoTransactionManager transactionManager(MongoDatabaseFactory mongoDatabaseFactory, CausalReadRouting causalReadRouting) {
+        return new CausalMongoTransactionManager(mongoDatabaseFactory, causalReadRouting);
+    }
+
+    @Bean
+    public MongoTemplate mongoTemplate(MongoDatabaseFactory mongoDatabaseFactory, MongoConverter mongoConverter, CausalReadRouting causalReadRouting) {
+        return new RoutingMongoTemplate(mongoDatabaseFactory, mongoConverter, causalReadRouting);
+    }
+
+    // Runs inside the authorization interceptor, so rejected calls never open a session.
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor secondaryReadAdvisor(ObjectProvider<CausalReadRouting> causalReadRouting) {
+        return new DefaultPointcutAdvisor(new AnnotationMatchingPointcut(null, SecondaryRead.class, true),
+                (MethodInterceptor) invocation -> causalReadRouting.getObject().invoke(invocation));
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.tasks.paymentservice.config;
+
+import com.example.tasks.paymentservice.security.GatewayRoleAuthorizationManager;
+import com.example.tasks.paymentservice.security.InternalAuthWebFilter;
+import com.example.tasks.paymentservice.security.RequiresRole;
+import org.reactivestreams.Publisher;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.security.authorization.method.AuthorizationInterceptorsOrder;
+import org.springframework.security.authorization.method.AuthorizationManagerBeforeReactiveMethodInterceptor;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+
+import java.lang.reflect.Method;
+
+@Configuration
+@EnableWebFluxSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveSecurityConfig {
+    private final InternalAuthWebFilter internalAuthWebFilter;
+
+    public ReactiveSecurityConfig(InternalAuthWebFilter internalAuthWebFilter) {
+        this.internalAuthWebFilter = internalAuthWebFilter;
+    }
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+        return http
+                .csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+                .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .authorizeExchange(exchange -> exchange
+                        .anyExchange().permitAll()
+                )
+                .addFilterAt(internalAuthWebFilter, SecurityWebFiltersOrder.AUTHENTICATION)
+                .build();
+    }
+
+    // Only publisher-returning methods can be checked against the Reactor security context; the blocking
+    // PaymentService stays unguarded here and is reached through ReactivePaymentService.
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor requiresRoleReactiveAuthorizationAdvisor() {
+        StaticMethodMatcherPointcut pointcut = new StaticMethodMatcherPointcut() {
+            @Override
+            public boolean matches(Method method, Class<?> targetClass) {
+                Method specificMethod = AopUtils.getMostSpecificMethod(method, targetClass);
+                return Publisher.class.isAssignableFrom(specificMethod.getReturnType())
+                        && AnnotatedElementUtils.hasAnnotation(specificMethod, RequiresRole.class);
+            }
+        };
+        AuthorizationManagerBeforeReactiveMethodInterceptor interceptor = new AuthorizationManagerBeforeReactiveMethodInterceptor(
+                pointcut, new GatewayRoleAuthorizationManager());
+        interceptor.setOrder(AuthorizationInterceptorsOrder.PRE_AUTHORIZE.getOrder());
+        return interceptor;
+    }
+}
@@ -1,9 +1,19 @@
 package com.example.tasks.paymentservice.config;
 
+import com.example.tasks.paymentservice.security.GatewayRoleAuthorizationManager;
 import com.example.tasks.paymentservice.security.InternalAuthFilter;
+import com.example.tasks.paymentservice.security.RequiresRole;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authorization.method.AuthorizationInterceptorsOrder;
+import org.springframework.security.authorization.method.AuthorizationManagerBeforeMethodInterceptor;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
@@ -13,6 +23,7 @@ import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.AuthenticationFilter;
 
 @Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @EnableWebSecurity
 @EnableMethodSecurity
 public class SecurityConfig {
@@ -36,6 +47,24 @@ public class SecurityConfig {
         return http.build();
     }
 
+    // The filter only runs inside the security chain; a second servlet registration would be redundant.
+    @Bean
+    public FilterRegistrationBean<InternalAuthFilter> internalAuthFilterRegistration() {
+        FilterRegistrationBean<InternalAuthFilter> registration = new FilterRegistrationBean<>(internalAuthFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor requiresRoleAuthorizationAdvisor() {
+        AuthorizationManagerBeforeMethodInterceptor interceptor = new AuthorizationManagerBeforeMethodInterceptor(
+                new AnnotationMatchingPointcut(null, RequiresRole.class, true),
+                new GatewayRoleAuthorizationManager());
+        interceptor.setOrder(AuthorizationInterceptorsOrder.PRE_AUTHORIZE.getOrder());
+        return interceptor;
+    }
+
     @Bean
     public AuthenticationManager authenticationManager() {
         return authentication -> {
@@ -3,6 +3,9 @@ package com.example.tasks.paymentservice.constants;
 public final class HttpHeaders {
     public static final String USER_ID = "X-User-ID";
     public static final String USER_ROLES = "X-User-Roles";
+    public static final String INTERNAL_SECRET = "X-Internal-Secret";
+    public static final String NEXT_CURSOR = "X-Next-Cursor";
+    public static final String READ_AFTER = "X-Read-After";
 
     private HttpHeaders() {
 
@@ -1,68 +1,141 @@
 package com.example.tasks.paymentservice.controller;
 
+import com.example.tasks.paymentservice.dto.PaymentBatchItemResultDto;
+import com.example.tasks.paymentservice.dto.PaymentPageDto;
 import com.example.tasks.paymentservice.dto.PaymentRequestDto;
 import com.example.tasks.paymentservice.dto.PaymentResponseDto;
+import com.example.tasks.paymentservice.dto.RevenueReportDto;
+import com.example.tasks.paymentservice.routing.CausalReadRouting;
+import com.example.tasks.paymentservice.security.GatewayPrincipal;
 import com.example.tasks.paymentservice.service.PaymentService;
 import com.example.tasks.paymentservice.constants.HttpHeaders;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import jakarta.validation.Valid;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/payment")
 public class PaymentController {
     private final PaymentService paymentService;
+    private final ObjectMapper objectMapper;
+    private final CausalReadRouting causalReadRouting;
 
-    public PaymentController(PaymentService paymentService) {
+    public PaymentController(PaymentService paymentService, ObjectMapper objectMapper, CausalReadRouting causalReadRouting) {
         this.paymentService = paymentService;
+        this.objectMapper = objectMapper;
+        this.causalReadRouting = causalReadRouting;
     }
 
     @PostMapping
     public ResponseEntity<PaymentResponseDto> processPayment(
             @Valid @RequestBody PaymentRequestDto paymentRequest,
-            @RequestHeader(name = HttpHeaders.USER_ID) String userId,
-            @RequestHeader(name = HttpHeaders.USER_ROLES) String roles
+            @AuthenticationPrincipal GatewayPrincipal principal
     ) {
-        PaymentResponseDto responseDto = paymentService.processPayment(paymentRequest, userId, roles);
-        return ResponseEntity.status(HttpStatus.CREATED).body(responseDto);
+        PaymentResponseDto responseDto = paymentService.processPayment(paymentRequest, principal);
+        return withReadAfter(ResponseEntity.status(HttpStatus.CREATED)).body(responseDto);
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<List<PaymentBatchItemResultDto>> processPayments(
+            @RequestBody List<PaymentRequestDto> paymentRequests,
+            @AuthenticationPrincipal GatewayPrincipal principal
+    ) {
+        List<PaymentBatchItemResultDto> results = paymentService.processPayments(paymentRequests, principal);
+        return withReadAfter(ResponseEntity.status(HttpStatus.OK)).body(results);
+    }
+
+    @GetMapping("/revenue")
+    public ResponseEntity<RevenueReportDto> getRevenue(
+            @RequestParam(name = "currency") String currency,
+            @RequestParam(name = "from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(name = "to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to
+    ) {
+        RevenueReportDto report = paymentService.getRevenue(currency, from, to);
+        return ResponseEntity.status(HttpStatus.OK).body(report);
     }
 
     @GetMapping("/{paymentId}")
     public ResponseEntity<PaymentResponseDto> getPaymentById(
             @PathVariable(name = "paymentId") String paymentId,
-            @RequestHeader(name = HttpHeaders.USER_ID) String userId,
-            @RequestHeader(name = HttpHeaders.USER_ROLES) String roles
+            @AuthenticationPrincipal GatewayPrincipal principal
     ) {
-        PaymentResponseDto responseDto = paymentService.getPaymentById(paymentId, userId, roles);
+        PaymentResponseDto responseDto = paymentService.getPaymentById(paymentId, principal);
         return ResponseEntity.status(HttpStatus.OK).body(responseDto);
     }
 
     @GetMapping("/order/{orderId}")
     public ResponseEntity<List<PaymentResponseDto>> getPaymentsByOrderId(
             @PathVariable(name = "orderId") String orderId,
-            @RequestHeader(name = HttpHeaders.USER_ID) String userId,
-            @RequestHeader(name = HttpHeaders.USER_ROLES) String roles
+            @AuthenticationPrincipal GatewayPrincipal principal
     ) {
-        List<PaymentResponseDto> payments = paymentService.getAllPaymentsByOrderId(orderId, userId, roles);
+        List<PaymentResponseDto> payments = paymentService.getAllPaymentsByOrderId(orderId, principal);
         return ResponseEntity.status(HttpStatus.OK).body(payments);
     }
 
     @GetMapping("/user/{userId}")
     public ResponseEntity<List<PaymentResponseDto>> getPaymentsByUserId(
             @PathVariable(name = "userId") String requestedUserId,
-            @RequestHeader(name = HttpHeaders.USER_ID) String authenticatedUserId,
-            @RequestHeader(name = HttpHeaders.USER_ROLES) String roles
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "limit", defaultValue = "50") int limit,
+            @AuthenticationPrincipal GatewayPrincipal principal
     ) {
-        List<PaymentResponseDto> payments = paymentService.getAllPaymentsByUserId(requestedUserId, authenticatedUserId, roles);
-        return ResponseEntity.status(HttpStatus.OK).body(payments);
+        PaymentPageDto page = paymentService.getPaymentsByUserId(requestedUserId, cursor, limit, principal);
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.OK);
+        if (page.nextCursor() != null) {
+            response.header(HttpHeaders.NEXT_CURSOR, page.nextCursor());
+        }
+        return response.body(page.items());
+    }
+
+    @GetMapping(value = "/user/{userId}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamPaymentsByUserId(
+            @PathVariable(name = "userId") String requestedUserId,
+            @AuthenticationPrincipal GatewayPrincipal principal
+    ) {
+        Stream<PaymentResponseDto> payments = paymentService.streamPaymentsByUserId(requestedUserId, principal);
+        StreamingResponseBody body = outputStream -> {
+            try (payments; SequenceWriter writer = objectMapper.writer()
+                    .withRootValueSeparator("\n")
+                    .writeValues(outputStream)) {
+                payments.forEach(payment -> {
+                    try {
+                        writer.write(payment);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.status(HttpStatus.OK).contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    // Clients send this back as X-Read-After so reads served by a secondary include the payments just written.
+    private ResponseEntity.BodyBuilder withReadAfter(ResponseEntity.BodyBuilder response) {
+        String readAfter = causalReadRouting.token();
+        if (readAfter != null) {
+            response.header(HttpHeaders.READ_AFTER, readAfter);
+        }
+        return response;
     }
 }
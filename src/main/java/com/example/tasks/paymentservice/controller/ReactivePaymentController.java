@@ -0,0 +1,109 @@
+package com.example.tasks.paymentservice.controller;
+
+import com.example.tasks.paymentservice.constants.HttpHeaders;
+import com.example.tasks.paymentservice.dto.PaymentBatchItemResultDto;
+import com.example.tasks.paymentservice.dto.PaymentRequestDto;
+import com.example.tasks.paymentservice.dto.PaymentResponseDto;
+import com.example.tasks.paymentservice.dto.RevenueReportDto;
+import com.example.tasks.paymentservice.security.GatewayPrincipal;
+import com.example.tasks.paymentservice.service.ReactivePaymentService;
+import jakarta.validation.Valid;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/payment")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactivePaymentController {
+    private final ReactivePaymentService paymentService;
+
+    public ReactivePaymentController(ReactivePaymentService paymentService) {
+        this.paymentService = paymentService;
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<PaymentResponseDto>> processPayment(
+            @Valid @RequestBody PaymentRequestDto paymentRequest,
+            @AuthenticationPrincipal GatewayPrincipal principal
+    ) {
+        return paymentService.processPayment(paymentRequest, principal)
+                .map(responseDto -> ResponseEntity.status(HttpStatus.CREATED).body(responseDto));
+    }
+
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<List<PaymentBatchItemResultDto>>> processPayments(
+            @RequestBody List<PaymentRequestDto> paymentRequests,
+            @AuthenticationPrincipal GatewayPrincipal principal
+    ) {
+        return paymentService.processPayments(paymentRequests, principal)
+                .map(results -> ResponseEntity.status(HttpStatus.OK).body(results));
+    }
+
+    @GetMapping("/revenue")
+    public Mono<ResponseEntity<RevenueReportDto>> getRevenue(
+            @RequestParam(name = "currency") String currency,
+            @RequestParam(name = "from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(name = "to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to
+    ) {
+        return paymentService.getRevenue(currency, from, to)
+                .map(report -> ResponseEntity.status(HttpStatus.OK).body(report));
+    }
+
+    @GetMapping("/{paymentId}")
+    public Mono<ResponseEntity<PaymentResponseDto>> getPaymentById(
+            @PathVariable(name = "paymentId") String paymentId,
+            @AuthenticationPrincipal GatewayPrincipal principal
+    ) {
+        return paymentService.getPaymentById(paymentId, principal)
+                .map(responseDto -> ResponseEntity.status(HttpStatus.OK).body(responseDto));
+    }
+
+    @GetMapping("/order/{orderId}")
+    public Flux<PaymentResponseDto> getPaymentsByOrderId(
+            @PathVariable(name = "orderId") String orderId,
+            @AuthenticationPrincipal GatewayPrincipal principal
+    ) {
+        return paymentService.getAllPaymentsByOrderId(orderId, principal);
+    }
+
+    @GetMapping("/user/{userId}")
+    public Mono<ResponseEntity<List<PaymentResponseDto>>> getPaymentsByUserId(
+            @PathVariable(name = "userId") String requestedUserId,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "limit", defaultValue = "50") int limit,
+            @AuthenticationPrincipal GatewayPrincipal principal
+    ) {
+        return paymentService.getPaymentsByUserId(requestedUserId, cursor, limit, principal)
+                .map(page -> {
+                    ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.OK);
+                    if (page.nextCursor() != null) {
+                        response.header(HttpHeaders.NEXT_CURSOR, page.nextCursor());
+                    }
+                    return response.body(page.items());
+                });
+    }
+
+    @GetMapping(value = "/user/{userId}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<PaymentResponseDto> streamPaymentsByUserId(
+            @PathVariable(name = "userId") String requestedUserId,
+            @AuthenticationPrincipal GatewayPrincipal principal
+    ) {
+        return paymentService.streamPaymentsByUserId(requestedUserId, principal);
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.tasks.paymentservice.dedup;
+
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+class BoundedRecentSet {
+    private final int capacity;
+    private final Set<String> keys = ConcurrentHashMap.newKeySet();
+    private final Queue<String> insertionOrder = new ConcurrentLinkedQueue<>();
+
+    BoundedRecentSet(int capacity) {
+        this.capacity = capacity;
+    }
+
+    boolean contains(String key) {
+        return keys.contains(key);
+    }
+
+    void add(String key) {
+        if (!keys.add(key)) {
+            return;
+        }
+        insertionOrder.add(key);
+        while (keys.size() > capacity) {
+            String eldest = insertionOrder.poll();
+            if (eldest == null) {
+                break;
+            }
+            keys.remove(eldest);
+        }
+    }
+
+    int size() {
+        return keys.size();
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.tasks.paymentservice.dedup;
+
+import com.example.tasks.paymentservice.model.PaymentSource;
+import com.example.tasks.paymentservice.repository.PaymentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+public class OrderEventDeduplicator {
+    private final PaymentRepository paymentRepository;
+    private final BoundedRecentSet recentOrderIds;
+    private final Counter recentHits;
+    private final Counter storeHits;
+
+    public OrderEventDeduplicator(PaymentRepository paymentRepository,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${payment.dedup.recent-capacity:100000}") int recentCapacity) {
+        this.paymentRepository = paymentRepository;
+        this.recentOrderIds = new BoundedRecentSet(recentCapacity);
+        this.recentHits = Counter.builder("payment.dedup.dropped")
+                .tag("tier", "recent")
+                .description("Redelivered order events dropped before processing")
+                .register(meterRegistry);
+        this.storeHits = Counter.builder("payment.dedup.dropped")
+                .tag("tier", "store")
+                .description("Redelivered order events dropped before processing")
+                .register(meterRegistry);
+        Gauge.builder("payment.dedup.recent.size", recentOrderIds, BoundedRecentSet::size)
+                .register(meterRegistry);
+        log.info("Order event dedup keeps up to {} recent order ids", recentCapacity);
+    }
+
+    // The recent set only confirms duplicates. A miss always goes to the indexed lookup: after a restart or a
+    // rebalance the order may have been charged by this instance before or by another one, which nothing local knows.
+    public boolean isDuplicate(String orderId) {
+        if (recentOrderIds.contains(orderId)) {
+            recentHits.increment();
+            return true;
+        }
+        if (paymentRepository.existsChargedByOrderIdAndSource(orderId, PaymentSource.ORDER_EVENT)
+                || paymentRepository.existsArchivedByOrderIdAndSource(orderId, PaymentSource.ORDER_EVENT)) {
+            recentOrderIds.add(orderId);
+            storeHits.increment();
+            return true;
+        }
+        return false;
+    }
+
+    public void markProcessed(String orderId) {
+        recentOrderIds.add(orderId);
+    }
+}
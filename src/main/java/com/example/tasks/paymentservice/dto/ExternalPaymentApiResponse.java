@@ -9,4 +9,8 @@ public class ExternalPaymentApiResponse {
 	private Integer paymentStatusNumber;
 
 	private String transactionId;
+
+	public boolean isApproved() {
+		return paymentStatusNumber % 2 == 0;
+	}
 }
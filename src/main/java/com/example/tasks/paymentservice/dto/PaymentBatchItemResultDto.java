@@ -0,0 +1,26 @@
+package com.example.tasks.paymentservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.springframework.http.HttpStatus;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record PaymentBatchItemResultDto(
+		int index,
+		int status,
+		PaymentResponseDto payment,
+		String error,
+		String message
+) {
+	public static PaymentBatchItemResultDto processed(int index, PaymentResponseDto payment) {
+		return new PaymentBatchItemResultDto(index, HttpStatus.CREATED.value(), payment, null, null);
+	}
+
+	// Charged, but the result is not stored yet; the payment must not be submitted again.
+	public static PaymentBatchItemResultDto pending(int index, PaymentResponseDto payment) {
+		return new PaymentBatchItemResultDto(index, HttpStatus.ACCEPTED.value(), payment, null, null);
+	}
+
+	public static PaymentBatchItemResultDto failed(int index, HttpStatus status, String error, String message) {
+		return new PaymentBatchItemResultDto(index, status.value(), null, error, message);
+	}
+}
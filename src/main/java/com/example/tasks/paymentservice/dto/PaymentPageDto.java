@@ -0,0 +1,12 @@
+package com.example.tasks.paymentservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record PaymentPageDto(
+		List<PaymentResponseDto> items,
+		String nextCursor
+) {
+}
@@ -0,0 +1,9 @@
+package com.example.tasks.paymentservice.dto;
+
+import org.example.tasks.model.PaymentStatus;
+import org.springframework.data.annotation.Id;
+
+import java.math.BigDecimal;
+
+public record RevenueByStatusDto(@Id PaymentStatus status, BigDecimal totalAmount, long paymentCount) {
+}
@@ -0,0 +1,7 @@
+package com.example.tasks.paymentservice.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record RevenueReportDto(String currency, LocalDateTime from, LocalDateTime to, List<RevenueByStatusDto> statuses) {
+}
@@ -15,6 +15,9 @@ public interface PaymentMapper {
 	@Mapping(target = "processorTransactionId", ignore = true)
 	@Mapping(target = "errorCode", ignore = true)
 	@Mapping(target = "errorMessage", ignore = true)
+	@Mapping(target = "source", ignore = true)
+	@Mapping(target = "rollupPending", ignore = true)
+	@Mapping(target = "chargePending", ignore = true)
 	@Mapping(source = "amount", target = "paymentAmount")
 	Payment toEntity(PaymentRequestDto requestDto);
 
@@ -1,13 +1,16 @@
 package com.example.tasks.paymentservice.exception;
 
 import com.example.tasks.paymentservice.dto.ErrorResponseDto;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.context.request.WebRequest;
 
 @ControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class GlobalExceptionHandler {
     @ExceptionHandler(PaymentAuthorizationException.class)
     public ResponseEntity<ErrorResponseDto> handleAuthorization(PaymentAuthorizationException ex, WebRequest request) {
@@ -21,6 +24,18 @@ public class GlobalExceptionHandler {
                 ));
     }
 
+    @ExceptionHandler(AccessDeniedException.class)
+    public ResponseEntity<ErrorResponseDto> handleAccessDenied(AccessDeniedException ex, WebRequest request) {
+        return ResponseEntity
+                .status(HttpStatus.FORBIDDEN)
+                .body(new ErrorResponseDto(
+                        HttpStatus.FORBIDDEN.value(),
+                        "VALIDATION_ACCESS_ERROR",
+                        ex.getMessage(),
+                        request.getDescription(false).replace("uri=", "")
+                ));
+    }
+
     @ExceptionHandler(PaymentNotFoundException.class)
     public ResponseEntity<ErrorResponseDto> handlePaymentNotFound(PaymentNotFoundException ex, WebRequest request) {
         return ResponseEntity
@@ -32,4 +47,40 @@ public class GlobalExceptionHandler {
                         request.getDescription(false).replace("uri=", "")
                 ));
     }
+
+    @ExceptionHandler(InvalidPaymentCursorException.class)
+    public ResponseEntity<ErrorResponseDto> handleInvalidCursor(InvalidPaymentCursorException ex, WebRequest request) {
+        return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(new ErrorResponseDto(
+                        HttpStatus.BAD_REQUEST.value(),
+                        "INVALID_CURSOR",
+                        ex.getMessage(),
+                        request.getDescription(false).replace("uri=", "")
+                ));
+    }
+
+    @ExceptionHandler(InvalidReadAfterTokenException.class)
+    public ResponseEntity<ErrorResponseDto> handleInvalidReadAfter(InvalidReadAfterTokenException ex, WebRequest request) {
+        return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(new ErrorResponseDto(
+                        HttpStatus.BAD_REQUEST.value(),
+                        "INVALID_READ_AFTER",
+                        ex.getMessage(),
+                        request.getDescription(false).replace("uri=", "")
+                ));
+    }
+
+    @ExceptionHandler(InvalidPaymentBatchException.class)
+    public ResponseEntity<ErrorResponseDto> handleInvalidBatch(InvalidPaymentBatchException ex, WebRequest request) {
+        return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(new ErrorResponseDto(
+                        HttpStatus.BAD_REQUEST.value(),
+                        "INVALID_BATCH",
+                        ex.getMessage(),
+                        request.getDescription(false).replace("uri=", "")
+                ));
+    }
 }
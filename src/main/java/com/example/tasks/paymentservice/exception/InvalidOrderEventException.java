@@ -0,0 +1,7 @@
+package com.example.tasks.paymentservice.exception;
+
+public class InvalidOrderEventException extends RuntimeException {
+    public InvalidOrderEventException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.tasks.paymentservice.exception;
+
+public class InvalidPaymentBatchException extends RuntimeException {
+    public InvalidPaymentBatchException(String message) {
+        super(message);
+    }
+}
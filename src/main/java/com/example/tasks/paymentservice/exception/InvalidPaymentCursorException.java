@@ -0,0 +1,7 @@
+package com.example.tasks.paymentservice.exception;
+
+public class InvalidPaymentCursorException extends RuntimeException {
+    public InvalidPaymentCursorException(String message) {
+        super(message);
+    }
+}
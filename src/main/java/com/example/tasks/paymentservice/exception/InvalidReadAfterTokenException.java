@@ -0,0 +1,7 @@
+package com.example.tasks.paymentservice.exception;
+
+public class InvalidReadAfterTokenException extends RuntimeException {
+    public InvalidReadAfterTokenException(String message) {
+        super(message);
+    }
+}
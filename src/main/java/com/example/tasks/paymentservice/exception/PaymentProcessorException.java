@@ -0,0 +1,22 @@
+package com.example.tasks.paymentservice.exception;
+
+import lombok.Getter;
+import org.example.tasks.model.PaymentStatus;
+
+@Getter
+public class PaymentProcessorException extends RuntimeException {
+    private final String errorCode;
+    private final PaymentStatus paymentStatus;
+
+    public PaymentProcessorException(String errorCode, PaymentStatus paymentStatus, String message) {
+        super(message);
+        this.errorCode = errorCode;
+        this.paymentStatus = paymentStatus;
+    }
+
+    public PaymentProcessorException(String errorCode, PaymentStatus paymentStatus, String message, Throwable cause) {
+        super(message, cause);
+        this.errorCode = errorCode;
+        this.paymentStatus = paymentStatus;
+    }
+}
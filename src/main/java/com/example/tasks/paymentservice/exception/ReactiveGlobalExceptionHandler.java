@@ -0,0 +1,45 @@
+package com.example.tasks.paymentservice.exception;
+
+import com.example.tasks.paymentservice.dto.ErrorResponseDto;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+
+@ControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveGlobalExceptionHandler {
+    @ExceptionHandler(PaymentAuthorizationException.class)
+    public ResponseEntity<ErrorResponseDto> handleAuthorization(PaymentAuthorizationException ex, ServerHttpRequest request) {
+        return error(HttpStatus.FORBIDDEN, "VALIDATION_ACCESS_ERROR", ex, request);
+    }
+
+    @ExceptionHandler(AccessDeniedException.class)
+    public ResponseEntity<ErrorResponseDto> handleAccessDenied(AccessDeniedException ex, ServerHttpRequest request) {
+        return error(HttpStatus.FORBIDDEN, "VALIDATION_ACCESS_ERROR", ex, request);
+    }
+
+    @ExceptionHandler(PaymentNotFoundException.class)
+    public ResponseEntity<ErrorResponseDto> handlePaymentNotFound(PaymentNotFoundException ex, ServerHttpRequest request) {
+        return error(HttpStatus.NOT_FOUND, "PAYMENT_NOT_FOUND", ex, request);
+    }
+
+    @ExceptionHandler(InvalidPaymentCursorException.class)
+    public ResponseEntity<ErrorResponseDto> handleInvalidCursor(InvalidPaymentCursorException ex, ServerHttpRequest request) {
+        return error(HttpStatus.BAD_REQUEST, "INVALID_CURSOR", ex, request);
+    }
+
+    @ExceptionHandler(InvalidPaymentBatchException.class)
+    public ResponseEntity<ErrorResponseDto> handleInvalidBatch(InvalidPaymentBatchException ex, ServerHttpRequest request) {
+        return error(HttpStatus.BAD_REQUEST, "INVALID_BATCH", ex, request);
+    }
+
+    private ResponseEntity<ErrorResponseDto> error(HttpStatus status, String code, RuntimeException ex, ServerHttpRequest request) {
+        return ResponseEntity
+                .status(status)
+                .body(new ErrorResponseDto(status.value(), code, ex.getMessage(), request.getPath().value()));
+    }
+}
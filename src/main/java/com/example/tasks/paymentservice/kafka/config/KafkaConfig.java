@@ -1,41 +1,154 @@
 package com.example.tasks.paymentservice.kafka.config;
 
+import com.example.tasks.paymentservice.exception.InvalidOrderEventException;
+import com.example.tasks.paymentservice.kafka.consumer.OrderCreatedDeadLetterHandler;
+import com.example.tasks.paymentservice.kafka.consumer.OrderCreatedEventBatchConsumer;
+import com.example.tasks.paymentservice.kafka.serde.EventFormat;
+import com.example.tasks.paymentservice.kafka.serde.PaymentEventDeserializer;
+import com.example.tasks.paymentservice.kafka.serde.PaymentEventSerializer;
+import com.example.tasks.paymentservice.monitoring.PartitionAssignmentMetrics;
+import com.example.tasks.paymentservice.monitoring.PaymentMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.config.TopicConfig;
 import org.example.tasks.config.KafkaSharedConfig;
+import org.springframework.beans.factory.ListableBeanFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerConsumerListener;
+import org.springframework.kafka.core.MicrometerProducerListener;
 import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
 import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.util.backoff.ExponentialBackOff;
 
+import java.util.HashMap;
 import java.util.Map;
 
 @Configuration
 public class KafkaConfig {
+    private final MeterRegistry meterRegistry;
+    private final PartitionAssignmentMetrics partitionAssignmentMetrics;
+    private final PaymentMetrics paymentMetrics;
+
+    public KafkaConfig(MeterRegistry meterRegistry, PartitionAssignmentMetrics partitionAssignmentMetrics, PaymentMetrics paymentMetrics) {
+        this.meterRegistry = meterRegistry;
+        this.partitionAssignmentMetrics = partitionAssignmentMetrics;
+        this.paymentMetrics = paymentMetrics;
+    }
 
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    @Value("${kafka.listener.batch.enabled:false}")
+    private boolean batchListenerEnabled;
+
+    @Value("${kafka.listener.batch.max-records:500}")
+    private int batchMaxRecords;
+
+    @Value("${kafka.listener.batch.max-wait-ms:500}")
+    private int batchMaxWaitMs;
+
+    @Value("${kafka.listener.batch.fetch-min-bytes:1}")
+    private int batchFetchMinBytes;
+
+    @Value("${kafka.listener.concurrency:1}")
+    private int listenerConcurrency;
+
+    // Single-record listeners retry through retry topics (OrderRetryTopicConfig); batch listeners retry in place.
+    @Value("${kafka.listener.retry.attempts:4}")
+    private int retryAttempts;
+
+    @Value("${kafka.listener.retry.initial-delay-ms:1000}")
+    private long retryInitialDelayMs;
+
+    @Value("${kafka.listener.retry.multiplier:5}")
+    private double retryMultiplier;
+
+    @Value("${kafka.listener.retry.max-delay-ms:60000}")
+    private long retryMaxDelayMs;
+
+    @Value("${kafka.topics.partitions:1}")
+    private int topicPartitions;
+
+    @Value("${kafka.topics.replicas:1}")
+    private int topicReplicas;
+
+    @Value("${kafka.producer.profile:BALANCED}")
+    private ProducerTuningProfile producerProfile;
+
+    // Explicit settings override the selected profile.
+    @Value("${kafka.producer.compression-type:#{null}}")
+    private String producerCompressionType;
+
+    @Value("${kafka.producer.linger-ms:#{null}}")
+    private Integer producerLingerMs;
+
+    @Value("${kafka.producer.batch-size:#{null}}")
+    private Integer producerBatchSize;
+
+    @Value("${kafka.producer.delivery-timeout-ms:120000}")
+    private int producerDeliveryTimeoutMs;
+
+    // Consumers read both formats, so producers can switch to BINARY once every consumer of their topics can.
+    @Value("${kafka.producer.serialization:JSON}")
+    private EventFormat producerSerialization;
+
+    @Value("${payment.virtual-threads.kafka.enabled:false}")
+    private boolean virtualThreadsEnabled;
+
     @Bean
     public ProducerFactory<String, Object> producerFactory() {
-        return new DefaultKafkaProducerFactory<>(
-                KafkaSharedConfig.producerConfig(bootstrapServers)
-        );
+        Map<String, Object> props = new HashMap<>(KafkaSharedConfig.producerConfig(bootstrapServers));
+        props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG,
+                producerCompressionType != null ? producerCompressionType : producerProfile.compressionType());
+        props.put(ProducerConfig.LINGER_MS_CONFIG, producerLingerMs != null ? producerLingerMs : producerProfile.lingerMs());
+        props.put(ProducerConfig.BATCH_SIZE_CONFIG, producerBatchSize != null ? producerBatchSize : producerProfile.batchSize());
+        // Idempotence keeps the producer's own retries free of duplicates and reordering within a partition.
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        props.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+        props.put(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, producerDeliveryTimeoutMs);
+        props.put(PaymentEventSerializer.JSON_DELEGATE_CONFIG, props.get(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG));
+        props.put(PaymentEventSerializer.FORMAT_CONFIG, producerSerialization.name());
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, PaymentEventSerializer.class);
+        DefaultKafkaProducerFactory<String, Object> producerFactory = new DefaultKafkaProducerFactory<>(props);
+        producerFactory.addListener(new MicrometerProducerListener<>(meterRegistry));
+        return producerFactory;
     }
 
     @Bean
     public ConsumerFactory<String, Object> consumerFactory() {
-        Map<String, Object> props = KafkaSharedConfig.consumerConfig(
+        Map<String, Object> props = new HashMap<>(KafkaSharedConfig.consumerConfig(
                 bootstrapServers, "payment-service-group"
-        );
-        return new DefaultKafkaConsumerFactory<>(props);
+        ));
+        if (batchListenerEnabled) {
+            props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, batchMaxRecords);
+            props.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, batchMaxWaitMs);
+            props.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, batchFetchMinBytes);
+        }
+        props.put(PaymentEventDeserializer.JSON_DELEGATE_CONFIG, props.get(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG));
+        // A record that cannot be deserialized reaches the error handler, and from there the dead-letter topic,
+        // instead of failing every poll of its partition.
+        props.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, PaymentEventDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+        DefaultKafkaConsumerFactory<String, Object> consumerFactory = new DefaultKafkaConsumerFactory<>(props);
+        consumerFactory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+        return consumerFactory;
     }
 
     @Value("${kafka.topics.order-created}")
@@ -50,20 +163,75 @@ public class KafkaConfig {
     }
 
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, Object> kafkaListenerContainerFactory() {
+    public ConcurrentKafkaListenerContainerFactory<String, Object> kafkaListenerContainerFactory(ListableBeanFactory beanFactory) {
+        checkListenerMode(beanFactory);
         ConcurrentKafkaListenerContainerFactory<String, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
-        factory.setCommonErrorHandler(new DefaultErrorHandler());
+        factory.setCommonErrorHandler(batchListenerEnabled ? batchErrorHandler() : new DefaultErrorHandler());
         factory.setConsumerFactory(consumerFactory());
+        factory.setBatchListener(batchListenerEnabled);
+        factory.setConcurrency(listenerConcurrency);
+        factory.getContainerProperties().setConsumerRebalanceListener(partitionAssignmentMetrics);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        // Backpressure pauses take effect after the current record rather than after the rest of the poll.
+        factory.getContainerProperties().setPauseImmediate(true);
+        if (virtualThreadsEnabled) {
+            SimpleAsyncTaskExecutor listenerTaskExecutor = new SimpleAsyncTaskExecutor("kafka-listener-vt-");
+            listenerTaskExecutor.setVirtualThreads(true);
+            factory.getContainerProperties().setListenerTaskExecutor(listenerTaskExecutor);
+        }
         return factory;
     }
 
+    // The listener beans are chosen by @ConditionalOnProperty, which an AOT build evaluates once when the jar is
+    // built, while this factory reads the flag at startup. A batch factory feeding the record listener, or the
+    // reverse, would fail every delivery, so a flag that no longer matches the build stops startup instead.
+    private void checkListenerMode(ListableBeanFactory beanFactory) {
+        boolean batchListenerBuilt = beanFactory.getBeanNamesForType(OrderCreatedEventBatchConsumer.class, false, false).length > 0;
+        if (batchListenerBuilt != batchListenerEnabled) {
+            throw new IllegalStateException("kafka.listener.batch.enabled is " + batchListenerEnabled
+                    + " but this build registered the " + (batchListenerBuilt ? "batch" : "single-record")
+                    + " order listener; rebuild the AOT image with the same setting");
+        }
+    }
+
+    // Retries the whole batch with the retry back-off, then sends each remaining record to <topic>-dlt. A record the
+    // listener reports through BatchListenerFailedException, such as one that failed to deserialize, goes alone.
+    private DefaultErrorHandler batchErrorHandler() {
+        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(kafkaTemplate(),
+                (record, exception) -> new TopicPartition(record.topic() + "-dlt", record.partition()));
+        recoverer.setHeadersFunction(OrderCreatedDeadLetterHandler::failureHeaders);
+        ExponentialBackOff backOff = new ExponentialBackOff(retryInitialDelayMs, retryMultiplier);
+        backOff.setMaxInterval(retryMaxDelayMs);
+        backOff.setMaxAttempts(retryAttempts - 1);
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler((record, exception) -> {
+            recoverer.accept(record, exception);
+            Throwable cause = exception.getCause() != null ? exception.getCause() : exception;
+            paymentMetrics.recordDeadLetter(cause.getClass().getSimpleName());
+        }, backOff);
+        // Deserialization failures are not retried by default; invalid events join them, as on the retry topics.
+        errorHandler.addNotRetryableExceptions(InvalidOrderEventException.class);
+        return errorHandler;
+    }
+
     //
     @Bean
     public NewTopic createOrderTopic() {
         return TopicBuilder
                 .name(createOrderTopic)
-                .partitions(1)
-                .replicas(1)
+                .partitions(topicPartitions)
+                .replicas(topicReplicas)
+                .config(TopicConfig.RETENTION_MS_CONFIG, "604800000")
+                .build();
+    }
+
+    // With record listeners the retry topic configuration creates the dead-letter topic along with the retry topics.
+    @Bean
+    @ConditionalOnProperty(name = "kafka.listener.batch.enabled", havingValue = "true")
+    public NewTopic createOrderDeadLetterTopic() {
+        return TopicBuilder
+                .name(createOrderTopic + "-dlt")
+                .partitions(topicPartitions)
+                .replicas(topicReplicas)
                 .config(TopicConfig.RETENTION_MS_CONFIG, "604800000")
                 .build();
     }
@@ -72,8 +240,8 @@ public class KafkaConfig {
     public NewTopic createPaymentTopic() {
         return TopicBuilder
                 .name(createPaymentTopic)
-                .partitions(1)
-                .replicas(1)
+                .partitions(topicPartitions)
+                .replicas(topicReplicas)
                 .config(TopicConfig.RETENTION_MS_CONFIG, "604800000")
                 .build();
     }
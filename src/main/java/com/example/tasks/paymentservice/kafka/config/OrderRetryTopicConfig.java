@@ -0,0 +1,72 @@
+package com.example.tasks.paymentservice.kafka.config;
+
+import com.example.tasks.paymentservice.exception.InvalidOrderEventException;
+import com.example.tasks.paymentservice.kafka.consumer.OrderCreatedDeadLetterHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.retrytopic.DeadLetterPublishingRecovererFactory;
+import org.springframework.kafka.retrytopic.RetryTopicConfiguration;
+import org.springframework.kafka.retrytopic.RetryTopicConfigurationBuilder;
+import org.springframework.kafka.retrytopic.RetryTopicConfigurationSupport;
+import org.springframework.kafka.support.serializer.DeserializationException;
+import org.springframework.messaging.converter.MessageConversionException;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+// Failed OrderCreatedEvents move to <topic>-retry-0, -retry-1, ... with growing delays and finally to <topic>-dlt,
+// so a slow retry waits on its own topic instead of holding up the main partition. Retry topics need record listeners,
+// so the batch listener keeps the container's blocking retries and dead-letter recoverer instead.
+@Configuration
+@ConditionalOnProperty(name = "kafka.listener.batch.enabled", havingValue = "false", matchIfMissing = true)
+public class OrderRetryTopicConfig extends RetryTopicConfigurationSupport {
+
+    @Value("${kafka.topics.order-created}")
+    private String createOrderTopic;
+
+    @Value("${kafka.topics.partitions:1}")
+    private int topicPartitions;
+
+    @Value("${kafka.topics.replicas:1}")
+    private short topicReplicas;
+
+    // Attempts include the first delivery on the main topic.
+    @Value("${kafka.listener.retry.attempts:4}")
+    private int retryAttempts;
+
+    @Value("${kafka.listener.retry.initial-delay-ms:1000}")
+    private long retryInitialDelayMs;
+
+    @Value("${kafka.listener.retry.multiplier:5}")
+    private double retryMultiplier;
+
+    @Value("${kafka.listener.retry.max-delay-ms:60000}")
+    private long retryMaxDelayMs;
+
+    @Bean
+    public RetryTopicConfiguration orderCreatedRetryTopics(KafkaTemplate<String, Object> kafkaTemplate) {
+        return RetryTopicConfigurationBuilder.newInstance()
+                .includeTopic(createOrderTopic)
+                .maxAttempts(retryAttempts)
+                .exponentialBackoff(retryInitialDelayMs, retryMultiplier, retryMaxDelayMs)
+                .suffixTopicsWithIndexValues()
+                .autoCreateTopicsWith(topicPartitions, topicReplicas)
+                // Only poison messages skip the retries: records that cannot be read and events that fail validation.
+                // Anything else, including bugs and outages, may pass on a later attempt.
+                .notRetryOn(List.of(DeserializationException.class, MessageConversionException.class, InvalidOrderEventException.class))
+                .listenerFactory("kafkaListenerContainerFactory")
+                .dltHandlerMethod("orderCreatedDeadLetterHandler", "handle")
+                // The record is already on the dead-letter topic; a failing report must not publish it again.
+                .doNotRetryOnDltFailure()
+                .create(kafkaTemplate);
+    }
+
+    @Override
+    protected Consumer<DeadLetterPublishingRecovererFactory> configureDeadLetterPublishingContainerFactory() {
+        return factory -> factory.setDeadLetterPublishingRecovererCustomizer(
+                recoverer -> recoverer.setHeadersFunction(OrderCreatedDeadLetterHandler::failureHeaders));
+    }
+}
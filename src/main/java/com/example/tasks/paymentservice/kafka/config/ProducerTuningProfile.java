@@ -0,0 +1,29 @@
+package com.example.tasks.paymentservice.kafka.config;
+
+public enum ProducerTuningProfile {
+    LATENCY("none", 0, 16384),
+    BALANCED("lz4", 5, 32768),
+    THROUGHPUT("zstd", 20, 131072);
+
+    private final String compressionType;
+    private final int lingerMs;
+    private final int batchSize;
+
+    ProducerTuningProfile(String compressionType, int lingerMs, int batchSize) {
+        this.compressionType = compressionType;
+        this.lingerMs = lingerMs;
+        this.batchSize = batchSize;
+    }
+
+    public String compressionType() {
+        return compressionType;
+    }
+
+    public int lingerMs() {
+        return lingerMs;
+    }
+
+    public int batchSize() {
+        return batchSize;
+    }
+}
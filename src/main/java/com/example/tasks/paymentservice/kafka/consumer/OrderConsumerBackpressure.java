@@ -0,0 +1,234 @@
+package com.example.tasks.paymentservice.kafka.consumer;
+
+import com.example.tasks.paymentservice.processor.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+
+// Pauses the order listener when processing gets slow or starts failing, or while the processor's circuit is open,
+// so records wait in Kafka instead of piling up as timeouts. After the pause the assigned partitions are resumed a
+// step at a time, and the next step is only taken while processing stays healthy; tripping again doubles the pause.
+@Slf4j
+@Component
+public class OrderConsumerBackpressure {
+    public static final String LISTENER_ID = "orderCreatedEventListener";
+
+    public enum State {
+        RUNNING,
+        RECOVERING,
+        PAUSED
+    }
+
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final CircuitBreaker processorCircuitBreaker;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int windowSize;
+    private final int minimumCalls;
+    private final float failureRateThreshold;
+    private final float slowCallRateThreshold;
+    private final long slowCallNanos;
+    private final long initialPauseNanos;
+    private final long maxPauseNanos;
+    private final int resumeSteps;
+    private final long stepIntervalNanos;
+    private final Counter resumeCounter;
+
+    private final boolean[] failures;
+    private final boolean[] slowCalls;
+    private int next;
+    private int recorded;
+    private int failureCount;
+    private int slowCallCount;
+    private volatile State state = State.RUNNING;
+    private long changedAtNanos;
+    private long pauseNanos;
+    private int partitionsPerStep;
+    private final Deque<TopicPartition> heldPartitions = new ArrayDeque<>();
+
+    public OrderConsumerBackpressure(KafkaListenerEndpointRegistry listenerRegistry,
+                                     CircuitBreaker processorCircuitBreaker,
+                                     ApplicationEventPublisher eventPublisher,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${kafka.listener.backpressure.enabled:true}") boolean enabled,
+                                     @Value("${kafka.listener.backpressure.window-size:50}") int windowSize,
+                                     @Value("${kafka.listener.backpressure.minimum-calls:10}") int minimumCalls,
+                                     @Value("${kafka.listener.backpressure.failure-rate-threshold:50}") float failureRateThreshold,
+                                     @Value("${kafka.listener.backpressure.slow-call-rate-threshold:80}") float slowCallRateThreshold,
+                                     @Value("${kafka.listener.backpressure.slow-call-duration:2s}") Duration slowCallDuration,
+                                     @Value("${kafka.listener.backpressure.initial-pause:5s}") Duration initialPause,
+                                     @Value("${kafka.listener.backpressure.max-pause:2m}") Duration maxPause,
+                                     @Value("${kafka.listener.backpressure.resume-steps:3}") int resumeSteps,
+                                     @Value("${kafka.listener.backpressure.step-interval:5s}") Duration stepInterval) {
+        this.listenerRegistry = listenerRegistry;
+        this.processorCircuitBreaker = processorCircuitBreaker;
+        this.eventPublisher = eventPublisher;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.windowSize = windowSize;
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallNanos = slowCallDuration.toNanos();
+        this.initialPauseNanos = initialPause.toNanos();
+        this.maxPauseNanos = Math.max(maxPause.toNanos(), initialPauseNanos);
+        this.resumeSteps = Math.max(resumeSteps, 1);
+        this.stepIntervalNanos = stepInterval.toNanos();
+        this.pauseNanos = initialPauseNanos;
+        this.failures = new boolean[windowSize];
+        this.slowCalls = new boolean[windowSize];
+        this.resumeCounter = Counter.builder("payment.kafka.backpressure.resumes")
+                .description("Resume steps taken by the order listener after a pause")
+                .register(meterRegistry);
+        meterRegistry.gauge("payment.kafka.backpressure.state", this, backpressure -> backpressure.getState().ordinal());
+        meterRegistry.gauge("payment.kafka.backpressure.held.partitions", this, OrderConsumerBackpressure::heldPartitionCount);
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    // Called by the listener thread after each record, or once per batch with the per-record average.
+    public void record(long durationNanos, boolean success) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (this) {
+            if (state == State.PAUSED) {
+                // Finished after the pause was requested; the window restarts on resume.
+                return;
+            }
+            boolean slow = durationNanos >= slowCallNanos;
+            if (recorded == windowSize) {
+                failureCount -= failures[next] ? 1 : 0;
+                slowCallCount -= slowCalls[next] ? 1 : 0;
+            } else {
+                recorded++;
+            }
+            failures[next] = !success;
+            slowCalls[next] = slow;
+            failureCount += success ? 0 : 1;
+            slowCallCount += slow ? 1 : 0;
+            next = (next + 1) % windowSize;
+
+            if (recorded < minimumCalls) {
+                return;
+            }
+            if (failureCount * 100f / recorded >= failureRateThreshold) {
+                pause("failure-rate");
+            } else if (slowCallCount * 100f / recorded >= slowCallRateThreshold) {
+                pause("slow-call-rate");
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${kafka.listener.backpressure.check-interval-ms:1000}")
+    public synchronized void check() {
+        if (!enabled || container() == null) {
+            return;
+        }
+        boolean processorOpen = processorCircuitBreaker.isRejecting();
+        long elapsedNanos = System.nanoTime() - changedAtNanos;
+        switch (state) {
+            case RUNNING -> {
+                if (processorOpen) {
+                    pause("processor-circuit-open");
+                }
+            }
+            case PAUSED -> {
+                if (elapsedNanos >= pauseNanos && !processorOpen) {
+                    startRecovery();
+                }
+            }
+            case RECOVERING -> {
+                if (processorOpen) {
+                    pause("processor-circuit-open");
+                } else if (elapsedNanos >= stepIntervalNanos) {
+                    resumeStep();
+                }
+            }
+        }
+    }
+
+    private void pause(String reason) {
+        MessageListenerContainer container = container();
+        if (container == null) {
+            return;
+        }
+        if (state == State.RECOVERING) {
+            pauseNanos = Math.min(pauseNanos * 2, maxPauseNanos);
+        }
+        // With pauseImmediate the listener stops after the current record instead of draining the whole poll.
+        container.pause();
+        transitionTo(State.PAUSED);
+        Counter.builder("payment.kafka.backpressure.pauses")
+                .description("Times the order listener was paused to protect downstream systems")
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+        log.warn("Pausing order listener for {} ms: {}", pauseNanos / 1_000_000, reason);
+        Collection<TopicPartition> assigned = container.getAssignedPartitions();
+        eventPublisher.publishEvent(new OrderConsumerBackpressureEvent(State.PAUSED, reason, assigned == null ? 0 : assigned.size()));
+    }
+
+    private void startRecovery() {
+        MessageListenerContainer container = container();
+        heldPartitions.clear();
+        Collection<TopicPartition> assigned = container.getAssignedPartitions();
+        if (assigned != null) {
+            heldPartitions.addAll(assigned);
+        }
+        heldPartitions.forEach(container::pausePartition);
+        partitionsPerStep = Math.max(1, (heldPartitions.size() + resumeSteps - 1) / resumeSteps);
+        container.resume();
+        transitionTo(State.RECOVERING);
+        resumeStep();
+    }
+
+    private void resumeStep() {
+        MessageListenerContainer container = container();
+        for (int i = 0; i < partitionsPerStep && !heldPartitions.isEmpty(); i++) {
+            container.resumePartition(heldPartitions.poll());
+        }
+        resumeCounter.increment();
+        if (heldPartitions.isEmpty()) {
+            pauseNanos = initialPauseNanos;
+            transitionTo(State.RUNNING);
+            log.info("Order listener fully resumed");
+        } else {
+            transitionTo(State.RECOVERING);
+            log.info("Order listener resumed a step, {} partitions still paused", heldPartitions.size());
+        }
+        eventPublisher.publishEvent(new OrderConsumerBackpressureEvent(state, "recovering", heldPartitions.size()));
+    }
+
+    private void transitionTo(State newState) {
+        state = newState;
+        changedAtNanos = System.nanoTime();
+        next = 0;
+        recorded = 0;
+        failureCount = 0;
+        slowCallCount = 0;
+    }
+
+    private MessageListenerContainer container() {
+        return listenerRegistry.getListenerContainer(LISTENER_ID);
+    }
+
+    private synchronized int heldPartitionCount() {
+        return heldPartitions.size();
+    }
+}
@@ -0,0 +1,4 @@
+package com.example.tasks.paymentservice.kafka.consumer;
+
+public record OrderConsumerBackpressureEvent(OrderConsumerBackpressure.State state, String reason, int pausedPartitions) {
+}
@@ -0,0 +1,64 @@
+package com.example.tasks.paymentservice.kafka.consumer;
+
+import com.example.tasks.paymentservice.exception.PaymentProcessorException;
+import com.example.tasks.paymentservice.monitoring.PaymentMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+// Receives OrderCreatedEvents that exhausted their retries or failed with a non-retryable error. The records stay on
+// the dead-letter topic for replay; this only reports them. Spring adds the exception, stack trace and original
+// topic, partition and offset headers, and failureHeaders adds the processor error code and the time of failure.
+@Slf4j
+@Component
+public class OrderCreatedDeadLetterHandler {
+    public static final String ERROR_CODE_HEADER = "payment-error-code";
+    public static final String FAILED_AT_HEADER = "payment-failed-at";
+
+    private final PaymentMetrics paymentMetrics;
+
+    public OrderCreatedDeadLetterHandler(PaymentMetrics paymentMetrics) {
+        this.paymentMetrics = paymentMetrics;
+    }
+
+    public void handle(ConsumerRecord<String, Object> record) {
+        String exception = header(record.headers(), KafkaHeaders.DLT_EXCEPTION_CAUSE_FQCN);
+        if (exception == null) {
+            exception = header(record.headers(), KafkaHeaders.DLT_EXCEPTION_FQCN);
+        }
+        Header originalPartition = record.headers().lastHeader(KafkaHeaders.DLT_ORIGINAL_PARTITION);
+        Header originalOffset = record.headers().lastHeader(KafkaHeaders.DLT_ORIGINAL_OFFSET);
+        log.error("OrderCreatedEvent dead-lettered from {}-{}@{}: {} ({}, error code {}, failed at {})",
+                header(record.headers(), KafkaHeaders.DLT_ORIGINAL_TOPIC),
+                originalPartition == null ? null : ByteBuffer.wrap(originalPartition.value()).getInt(),
+                originalOffset == null ? null : ByteBuffer.wrap(originalOffset.value()).getLong(),
+                header(record.headers(), KafkaHeaders.DLT_EXCEPTION_MESSAGE), exception,
+                header(record.headers(), ERROR_CODE_HEADER), header(record.headers(), FAILED_AT_HEADER));
+        paymentMetrics.recordDeadLetter(exception == null ? null : exception.substring(exception.lastIndexOf('.') + 1));
+    }
+
+    public static Headers failureHeaders(ConsumerRecord<?, ?> record, Exception exception) {
+        Headers headers = new RecordHeaders();
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof PaymentProcessorException processorException && processorException.getErrorCode() != null) {
+                headers.add(ERROR_CODE_HEADER, processorException.getErrorCode().getBytes(StandardCharsets.UTF_8));
+                break;
+            }
+        }
+        headers.add(FAILED_AT_HEADER, Instant.now().toString().getBytes(StandardCharsets.UTF_8));
+        return headers;
+    }
+
+    private static String header(Headers headers, String name) {
+        Header header = headers.lastHeader(name);
+        return header == null ? null : new String(header.value(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.tasks.paymentservice.kafka.consumer;
+
+import com.example.tasks.paymentservice.monitoring.PaymentMetrics;
+import com.example.tasks.paymentservice.service.PaymentService;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.example.tasks.dto.OrderCreatedEvent;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "kafka.listener.batch.enabled", havingValue = "true")
+public class OrderCreatedEventBatchConsumer {
+
+    private final PaymentService paymentService;
+    private final PaymentMetrics paymentMetrics;
+    private final OrderConsumerBackpressure backpressure;
+
+    public OrderCreatedEventBatchConsumer(PaymentService paymentService, PaymentMetrics paymentMetrics, OrderConsumerBackpressure backpressure) {
+        this.paymentService = paymentService;
+        this.paymentMetrics = paymentMetrics;
+        this.backpressure = backpressure;
+    }
+
+    @KafkaListener(
+            id = OrderConsumerBackpressure.LISTENER_ID,
+            topics = "${kafka.topics.order-created}",
+            groupId = "payment-service-group",
+            containerFactory = "kafkaListenerContainerFactory"
+    )
+    public void handleOrderCreatedEvents(List<OrderCreatedEvent> orderCreatedEvents) {
+        log.info("Received batch of {} OrderCreatedEvents", orderCreatedEvents.size());
+        // A record that failed to deserialize arrives as null; the error handler commits everything before it, sends
+        // it to the dead-letter topic and redelivers the rest.
+        int undeserializable = orderCreatedEvents.indexOf(null);
+        List<OrderCreatedEvent> events = undeserializable < 0 ? orderCreatedEvents : orderCreatedEvents.subList(0, undeserializable);
+        Timer.Sample sample = paymentMetrics.startTimer();
+        long startNanos = System.nanoTime();
+        boolean success = false;
+        try {
+            if (!events.isEmpty()) {
+                paymentService.processOrderCreatedEvents(events);
+            }
+            success = true;
+        } catch (RuntimeException e) {
+            log.error("Error handling batch of {} OrderCreatedEvents", events.size(), e);
+            throw e;
+        } finally {
+            paymentMetrics.recordConsume(sample, "batch", "mixed", success);
+            backpressure.record((System.nanoTime() - startNanos) / Math.max(1, events.size()), success);
+        }
+        if (undeserializable >= 0) {
+            throw new BatchListenerFailedException("OrderCreatedEvent could not be deserialized", undeserializable);
+        }
+    }
+}
@@ -2,34 +2,63 @@ package com.example.tasks.paymentservice.kafka.consumer;
 
 
 
+import com.example.tasks.paymentservice.monitoring.PaymentMetrics;
 import com.example.tasks.paymentservice.service.PaymentService;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.example.tasks.dto.OrderCreatedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Component;
 
 @Slf4j
 @Component
+@ConditionalOnProperty(name = "kafka.listener.batch.enabled", havingValue = "false", matchIfMissing = true)
 public class OrderCreatedEventConsumer {
 
     private final PaymentService paymentService;
+    private final PaymentMetrics paymentMetrics;
+    private final OrderConsumerBackpressure backpressure;
+    private final String orderCreatedTopic;
 
-    public OrderCreatedEventConsumer(PaymentService paymentService) {
+    public OrderCreatedEventConsumer(PaymentService paymentService, PaymentMetrics paymentMetrics, OrderConsumerBackpressure backpressure,
+                                     @Value("${kafka.topics.order-created}") String orderCreatedTopic) {
         this.paymentService = paymentService;
+        this.paymentMetrics = paymentMetrics;
+        this.backpressure = backpressure;
+        this.orderCreatedTopic = orderCreatedTopic;
     }
 
     @KafkaListener(
+            id = OrderConsumerBackpressure.LISTENER_ID,
             topics = "${kafka.topics.order-created}",
             groupId = "payment-service-group",
             containerFactory = "kafkaListenerContainerFactory"
     )
-    public void handleOrderCreatedEvent(OrderCreatedEvent orderCreatedEvent) {
-        log.info("Received OrderCreatedEvent for order: {}", orderCreatedEvent.getOrderId());
+    public void handleOrderCreatedEvent(OrderCreatedEvent orderCreatedEvent, @Header(KafkaHeaders.RECEIVED_TOPIC) String topic) {
+        log.info("Received OrderCreatedEvent for order: {} from {}", orderCreatedEvent.getOrderId(), topic);
+        Timer.Sample sample = paymentMetrics.startTimer();
+        long startNanos = System.nanoTime();
+        boolean success = false;
         try {
             paymentService.processOrderCreatedEvent(orderCreatedEvent);
-        } catch (Exception e) {
-            log.error("Error handling OrderCreatedEvent for order: {}",
-                    orderCreatedEvent.getOrderId(), e);
+            success = true;
+        } catch (RuntimeException e) {
+            // Rethrown so the error handler moves the record to the next retry topic, or the dead-letter topic.
+            log.warn("Error handling OrderCreatedEvent for order: {} from {}: {}",
+                    orderCreatedEvent.getOrderId(), topic, e.getMessage());
+            throw e;
+        } finally {
+            paymentMetrics.recordConsume(sample, "single", orderCreatedEvent.getCurrency(), success);
+            // Only the main topic feeds backpressure; retry topics replay records that already failed once.
+            if (orderCreatedTopic.equals(topic)) {
+                backpressure.record(System.nanoTime() - startNanos, success);
+            } else {
+                paymentMetrics.recordRetry(topic, success);
+            }
         }
     }
 }
@@ -0,0 +1,200 @@
+package com.example.tasks.paymentservice.kafka.producer;
+
+import com.example.tasks.paymentservice.model.OutboxEvent;
+import com.example.tasks.paymentservice.model.OutboxStatus;
+import com.example.tasks.paymentservice.monitoring.PaymentMetrics;
+import com.example.tasks.paymentservice.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.apache.kafka.common.errors.SerializationException;
+import org.example.tasks.dto.PaymentCreatedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+@Slf4j
+@Component
+public class PaymentCreatedEventRelay {
+    private final OutboxEventRepository outboxEventRepository;
+    private final MongoTemplate mongoTemplate;
+    private final PaymentEventPublisher paymentEventPublisher;
+    private final Counter sentCounter;
+    private final Counter failedCounter;
+    private final Timer batchTimer;
+    private final PaymentMetrics paymentMetrics;
+    // Claims outbox entries for this instance; other replicas skip them until the lease runs out.
+    private final String relayId = UUID.randomUUID().toString();
+    private final Queue<String> acknowledgedIds = new ConcurrentLinkedQueue<>();
+    private final Queue<String> failedIds = new ConcurrentLinkedQueue<>();
+    private final Queue<String> rejectedIds = new ConcurrentLinkedQueue<>();
+
+    @Value("${kafka.topics.payment-created}")
+    private String paymentCreatedTopic;
+
+    @Value("${payment.outbox.relay.batch-size:500}")
+    private int batchSize;
+
+    // Longer than a publish can take with its retries, or a slow send is published again by another replica.
+    @Value("${payment.outbox.relay.lease:5m}")
+    private Duration lease;
+
+    @Value("${payment.outbox.relay.max-attempts:20}")
+    private int maxAttempts;
+
+    public PaymentCreatedEventRelay(OutboxEventRepository outboxEventRepository, MongoTemplate mongoTemplate,
+                                    PaymentEventPublisher paymentEventPublisher, MeterRegistry meterRegistry,
+                                    PaymentMetrics paymentMetrics) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.paymentMetrics = paymentMetrics;
+        this.mongoTemplate = mongoTemplate;
+        this.paymentEventPublisher = paymentEventPublisher;
+        this.sentCounter = Counter.builder("payment.outbox.relay.sent")
+                .description("Outbox entries published to Kafka")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("payment.outbox.relay.failed")
+                .description("Outbox entries whose publish failed and will be retried")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("payment.outbox.relay.batch")
+                .description("Time to hand one outbox batch to the publisher")
+                .register(meterRegistry);
+        Gauge.builder("payment.outbox.backlog", outboxEventRepository,
+                        repository -> repository.countByStatus(OutboxStatus.PENDING))
+                .description("Outbox entries waiting to be published")
+                .register(meterRegistry);
+        Gauge.builder("payment.outbox.failed", outboxEventRepository,
+                        repository -> repository.countByStatus(OutboxStatus.FAILED))
+                .description("Outbox entries given up on; they need a manual replay")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${payment.outbox.relay.interval-ms:500}")
+    public void relay() {
+        int published;
+        do {
+            markAcknowledgedSent();
+            releaseFailed();
+            published = batchTimer.record(this::relayBatch);
+        } while (published == batchSize);
+        markAcknowledgedSent();
+        releaseFailed();
+    }
+
+    private int relayBatch() {
+        List<OutboxEvent> entries = outboxEventRepository.claimBatch(relayId, batchSize, lease);
+        for (OutboxEvent entry : entries) {
+            PaymentCreatedEvent event;
+            try {
+                event = toPaymentCreatedEvent(entry);
+            } catch (IllegalArgumentException e) {
+                rejectedIds.add(entry.getId());
+                log.error("Giving up on outbox entry {} for payment: {}", entry.getId(), entry.getPaymentId(), e);
+                continue;
+            }
+            long startNanos = System.nanoTime();
+            paymentEventPublisher.publish(paymentCreatedTopic, entry.getOrderId(), event)
+                    .whenComplete((result, ex) -> {
+                        paymentMetrics.recordKafkaSend(startNanos, entry, ex == null);
+                        if (ex == null) {
+                            acknowledgedIds.add(entry.getId());
+                        } else if (isPermanent(ex)) {
+                            rejectedIds.add(entry.getId());
+                            log.error("Giving up on PaymentCreatedEvent for payment: {}", entry.getPaymentId(), ex);
+                        } else {
+                            failedIds.add(entry.getId());
+                            failedCounter.increment();
+                            log.error("Failed to send PaymentCreatedEvent for payment: {}", entry.getPaymentId(), ex);
+                        }
+                    });
+        }
+        log.debug("Handed {} PaymentCreatedEvents to the publisher", entries.size());
+        return entries.size();
+    }
+
+    private void markAcknowledgedSent() {
+        List<String> sentIds = drain(acknowledgedIds);
+        if (sentIds.isEmpty()) {
+            return;
+        }
+        // If the update fails the entries stay SENDING and are published again once their lease runs out.
+        mongoTemplate.updateMulti(
+                Query.query(Criteria.where("_id").in(sentIds)),
+                new Update().set("status", OutboxStatus.SENT).set("sent_at", LocalDateTime.now())
+                        .unset("owner").unset("lease_until"),
+                OutboxEvent.class
+        );
+        sentCounter.increment(sentIds.size());
+    }
+
+    // Hands failed entries back right away instead of waiting for the lease to expire. Entries that cannot succeed, or
+    // ran out of attempts, move to FAILED so they stop coming back at the head of every batch.
+    private void releaseFailed() {
+        List<String> retryIds = drain(failedIds);
+        if (!retryIds.isEmpty()) {
+            mongoTemplate.updateMulti(
+                    claimed(retryIds).addCriteria(Criteria.where("attempts").gte(maxAttempts - 1)),
+                    new Update().set("status", OutboxStatus.FAILED).inc("attempts", 1).unset("owner").unset("lease_until"),
+                    OutboxEvent.class
+            );
+            mongoTemplate.updateMulti(
+                    claimed(retryIds),
+                    new Update().set("status", OutboxStatus.PENDING).inc("attempts", 1).unset("owner").unset("lease_until"),
+                    OutboxEvent.class
+            );
+        }
+        List<String> permanentIds = drain(rejectedIds);
+        if (!permanentIds.isEmpty()) {
+            mongoTemplate.updateMulti(
+                    claimed(permanentIds),
+                    new Update().set("status", OutboxStatus.FAILED).inc("attempts", 1).unset("owner").unset("lease_until"),
+                    OutboxEvent.class
+            );
+        }
+    }
+
+    private Query claimed(List<String> ids) {
+        return Query.query(Criteria.where("_id").in(ids).and("status").is(OutboxStatus.SENDING).and("owner").is(relayId));
+    }
+
+    private static List<String> drain(Queue<String> queue) {
+        List<String> ids = new ArrayList<>();
+        for (String id = queue.poll(); id != null; id = queue.poll()) {
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    // Failures the same record hits on every try; anything else may pass on a later run.
+    private static boolean isPermanent(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RecordTooLargeException || cause instanceof SerializationException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private PaymentCreatedEvent toPaymentCreatedEvent(OutboxEvent entry) {
+        PaymentCreatedEvent event = new PaymentCreatedEvent();
+        event.setOrderId(UUID.fromString(entry.getOrderId()));
+        event.setStatus(entry.getPaymentStatus());
+        event.setPaymentId(entry.getPaymentId());
+        event.setErrorMessage(entry.getErrorMessage());
+        return event;
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.tasks.paymentservice.kafka.producer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.errors.RetriableException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@Slf4j
+@Component
+public class PaymentEventPublisher {
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Semaphore inFlightPermits;
+    private final int maxRetries;
+    private final long retryBackoffMs;
+    private final long acquireTimeoutMs;
+    private final Counter retryCounter;
+    private final Timer backpressureTimer;
+
+    public PaymentEventPublisher(KafkaTemplate<String, Object> kafkaTemplate,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${kafka.producer.publisher.max-in-flight:1000}") int maxInFlight,
+                                 @Value("${kafka.producer.publisher.max-retries:3}") int maxRetries,
+                                 @Value("${kafka.producer.publisher.retry-backoff-ms:200}") long retryBackoffMs,
+                                 @Value("${kafka.producer.publisher.acquire-timeout-ms:10000}") long acquireTimeoutMs) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.meterRegistry = meterRegistry;
+        this.inFlightPermits = new Semaphore(maxInFlight);
+        this.maxRetries = maxRetries;
+        this.retryBackoffMs = retryBackoffMs;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.retryCounter = Counter.builder("payment.kafka.publish.retries")
+                .description("Sends retried after a retriable asynchronous failure")
+                .register(meterRegistry);
+        this.backpressureTimer = Timer.builder("payment.kafka.publish.backpressure")
+                .description("Time callers waited for an in-flight send permit")
+                .register(meterRegistry);
+        Gauge.builder("payment.kafka.publish.in-flight", inFlightPermits, permits -> maxInFlight - permits.availablePermits())
+                .description("Sends handed to the producer and not yet acknowledged")
+                .register(meterRegistry);
+    }
+
+    // Blocks the caller while the in-flight limit is reached, so a slow broker slows the producer side down
+    // instead of piling records up in the producer buffer. The permit is held until the send finally succeeds or fails.
+    public CompletableFuture<SendResult<String, Object>> publish(String topic, String key, Object value) {
+        try {
+            if (!acquirePermit()) {
+                TimeoutException timeout = new TimeoutException("No in-flight send permit within " + acquireTimeoutMs + " ms");
+                failure(topic, timeout);
+                return CompletableFuture.failedFuture(timeout);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        }
+
+        CompletableFuture<SendResult<String, Object>> result = new CompletableFuture<>();
+        result.whenComplete((sendResult, ex) -> inFlightPermits.release());
+        send(topic, key, value, 0, result);
+        return result;
+    }
+
+    private boolean acquirePermit() throws InterruptedException {
+        if (inFlightPermits.tryAcquire()) {
+            return true;
+        }
+        long startNanos = System.nanoTime();
+        try {
+            return inFlightPermits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } finally {
+            backpressureTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // The idempotent producer already retries transient errors within delivery.timeout.ms; this covers sends that
+    // still expire, at the cost of a possible duplicate that consumers dedup on the order id.
+    private void send(String topic, String key, Object value, int attempt, CompletableFuture<SendResult<String, Object>> result) {
+        CompletableFuture<SendResult<String, Object>> sendFuture;
+        try {
+            sendFuture = kafkaTemplate.send(topic, key, value);
+        } catch (RuntimeException e) {
+            sendFuture = CompletableFuture.failedFuture(e);
+        }
+        sendFuture.whenComplete((sendResult, ex) -> {
+            if (ex == null) {
+                result.complete(sendResult);
+                return;
+            }
+            Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+            if (attempt < maxRetries && isRetriable(cause)) {
+                retryCounter.increment();
+                log.warn("Retrying send to {} for key {} after attempt {}: {}", topic, key, attempt + 1, cause.getMessage());
+                CompletableFuture.delayedExecutor(retryBackoffMs << attempt, TimeUnit.MILLISECONDS)
+                        .execute(() -> send(topic, key, value, attempt + 1, result));
+                return;
+            }
+            failure(topic, cause);
+            result.completeExceptionally(cause);
+        });
+    }
+
+    private void failure(String topic, Throwable cause) {
+        Counter.builder("payment.kafka.publish.failures")
+                .description("Sends that failed permanently")
+                .tag("topic", topic)
+                .tag("exception", cause.getClass().getSimpleName())
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private static boolean isRetriable(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RetriableException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.tasks.paymentservice.kafka.serde;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.bson.types.ObjectId;
+import org.example.tasks.dto.OrderCreatedEvent;
+import org.example.tasks.dto.PaymentCreatedEvent;
+import org.example.tasks.model.PaymentStatus;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.UUID;
+
+// Big-endian layout: schema version (1 byte), event type (1 byte), presence flags (1 byte), then the present fields
+// in the order below. UUIDs take 16 bytes, amounts an unscaled long and a one-byte scale, instants epoch seconds and
+// nanos, strings an unsigned short length and UTF-8, and statuses their ordinal, so reordering PaymentStatus or
+// changing a field needs a new version. Decoders accept every version up to their own.
+public final class BinaryEventCodec {
+    public static final byte VERSION = 1;
+
+    private static final byte ORDER_CREATED = 1;
+    private static final byte PAYMENT_CREATED = 2;
+
+    private static final int ORDER_ID = 1;
+    private static final int USER_ID = 1 << 1;
+    private static final int TOTAL_AMOUNT = 1 << 2;
+    private static final int CURRENCY = 1 << 3;
+    private static final int TIMESTAMP = 1 << 4;
+    private static final int PAYMENT_METHOD_TOKEN = 1 << 5;
+
+    private static final int PAYMENT_ID = 1 << 1;
+    private static final int PAYMENT_ID_OBJECT_ID = 1 << 2;
+    private static final int STATUS = 1 << 3;
+    private static final int ERROR_MESSAGE = 1 << 4;
+
+    private static final int HEADER_BYTES = 3;
+    private static final int UUID_BYTES = 16;
+    private static final int AMOUNT_BYTES = Long.BYTES + 1;
+    private static final int INSTANT_BYTES = Long.BYTES + Integer.BYTES;
+    private static final int OBJECT_ID_BYTES = 12;
+    private static final int MAX_STRING_BYTES = 0xFFFF;
+    private static final PaymentStatus[] STATUSES = PaymentStatus.values();
+
+    private BinaryEventCodec() {
+    }
+
+    public static boolean supports(Object event) {
+        return event instanceof OrderCreatedEvent || event instanceof PaymentCreatedEvent;
+    }
+
+    // Throws IllegalArgumentException for values the layout cannot hold, such as an amount beyond a long.
+    public static byte[] encode(Object event) {
+        return switch (event) {
+            case OrderCreatedEvent orderCreated -> encode(orderCreated);
+            case PaymentCreatedEvent paymentCreated -> encode(paymentCreated);
+            default -> throw new IllegalArgumentException("No binary encoding for " + event.getClass().getName());
+        };
+    }
+
+    public static Object decode(byte[] data) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            byte version = buffer.get();
+            if (version < 1 || version > VERSION) {
+                throw new SerializationException("Unsupported binary event version " + version);
+            }
+            byte type = buffer.get();
+            int flags = Byte.toUnsignedInt(buffer.get());
+            return switch (type) {
+                case ORDER_CREATED -> decodeOrderCreated(buffer, flags);
+                case PAYMENT_CREATED -> decodePaymentCreated(buffer, flags);
+                default -> throw new SerializationException("Unknown binary event type " + type);
+            };
+        } catch (BufferUnderflowException e) {
+            throw new SerializationException("Truncated binary event of " + data.length + " bytes", e);
+        }
+    }
+
+    private static byte[] encode(OrderCreatedEvent event) {
+        byte[] currency = utf8(event.getCurrency());
+        byte[] paymentMethodToken = utf8(event.getPaymentMethodToken());
+        int flags = flag(event.getOrderId(), ORDER_ID) | flag(event.getUserId(), USER_ID)
+                | flag(event.getTotalAmount(), TOTAL_AMOUNT) | flag(currency, CURRENCY)
+                | flag(event.getTimestamp(), TIMESTAMP) | flag(paymentMethodToken, PAYMENT_METHOD_TOKEN);
+        int size = HEADER_BYTES + ((flags & ORDER_ID) != 0 ? UUID_BYTES : 0) + ((flags & USER_ID) != 0 ? UUID_BYTES : 0)
+                + ((flags & TOTAL_AMOUNT) != 0 ? AMOUNT_BYTES : 0) + stringBytes(currency)
+                + ((flags & TIMESTAMP) != 0 ? INSTANT_BYTES : 0) + stringBytes(paymentMethodToken);
+
+        ByteBuffer buffer = header(size, ORDER_CREATED, flags);
+        putUuid(buffer, event.getOrderId());
+        putUuid(buffer, event.getUserId());
+        putAmount(buffer, event.getTotalAmount());
+        putString(buffer, currency);
+        if (event.getTimestamp() != null) {
+            buffer.putLong(event.getTimestamp().getEpochSecond()).putInt(event.getTimestamp().getNano());
+        }
+        putString(buffer, paymentMethodToken);
+        return buffer.array();
+    }
+
+    private static byte[] encode(PaymentCreatedEvent event) {
+        // Payment ids are ObjectIds, which pack into 12 bytes instead of 24 hex characters.
+        String paymentId = event.getPaymentId();
+        boolean objectId = paymentId != null && ObjectId.isValid(paymentId) && new ObjectId(paymentId).toHexString().equals(paymentId);
+        byte[] paymentIdText = objectId ? null : utf8(paymentId);
+        byte[] errorMessage = utf8(event.getErrorMessage());
+        int flags = flag(event.getOrderId(), ORDER_ID) | flag(paymentIdText, PAYMENT_ID) | (objectId ? PAYMENT_ID_OBJECT_ID : 0)
+                | flag(event.getStatus(), STATUS) | flag(errorMessage, ERROR_MESSAGE);
+        int size = HEADER_BYTES + ((flags & ORDER_ID) != 0 ? UUID_BYTES : 0) + stringBytes(paymentIdText)
+                + (objectId ? OBJECT_ID_BYTES : 0) + ((flags & STATUS) != 0 ? 1 : 0) + stringBytes(errorMessage);
+
+        ByteBuffer buffer = header(size, PAYMENT_CREATED, flags);
+        putUuid(buffer, event.getOrderId());
+        putString(buffer, paymentIdText);
+        if (objectId) {
+            buffer.put(new ObjectId(paymentId).toByteArray());
+        }
+        if (event.getStatus() != null) {
+            buffer.put((byte) event.getStatus().ordinal());
+        }
+        putString(buffer, errorMessage);
+        return buffer.array();
+    }
+
+    private static OrderCreatedEvent decodeOrderCreated(ByteBuffer buffer, int flags) {
+        OrderCreatedEvent event = new OrderCreatedEvent();
+        event.setOrderId((flags & ORDER_ID) != 0 ? getUuid(buffer) : null);
+        event.setUserId((flags & USER_ID) != 0 ? getUuid(buffer) : null);
+        event.setTotalAmount((flags & TOTAL_AMOUNT) != 0 ? getAmount(buffer) : null);
+        event.setCurrency((flags & CURRENCY) != 0 ? getString(buffer) : null);
+        event.setTimestamp((flags & TIMESTAMP) != 0 ? Instant.ofEpochSecond(buffer.getLong(), buffer.getInt()) : null);
+        event.setPaymentMethodToken((flags & PAYMENT_METHOD_TOKEN) != 0 ? getString(buffer) : null);
+        return event;
+    }
+
+    private static PaymentCreatedEvent decodePaymentCreated(ByteBuffer buffer, int flags) {
+        PaymentCreatedEvent event = new PaymentCreatedEvent();
+        event.setOrderId((flags & ORDER_ID) != 0 ? getUuid(buffer) : null);
+        if ((flags & PAYMENT_ID) != 0) {
+            event.setPaymentId(getString(buffer));
+        } else if ((flags & PAYMENT_ID_OBJECT_ID) != 0) {
+            byte[] objectId = new byte[OBJECT_ID_BYTES];
+            buffer.get(objectId);
+            event.setPaymentId(new ObjectId(objectId).toHexString());
+        }
+        if ((flags & STATUS) != 0) {
+            int ordinal = Byte.toUnsignedInt(buffer.get());
+            if (ordinal >= STATUSES.length) {
+                throw new SerializationException("Unknown payment status ordinal " + ordinal);
+            }
+            event.setStatus(STATUSES[ordinal]);
+        }
+        event.setErrorMessage((flags & ERROR_MESSAGE) != 0 ? getString(buffer) : null);
+        return event;
+    }
+
+    private static ByteBuffer header(int size, byte type, int flags) {
+        return ByteBuffer.allocate(size).put(VERSION).put(type).put((byte) flags);
+    }
+
+    private static int flag(Object value, int flag) {
+        return value != null ? flag : 0;
+    }
+
+    private static byte[] utf8(String value) {
+        if (value == null) {
+            return null;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_STRING_BYTES) {
+            throw new IllegalArgumentException("String of " + bytes.length + " bytes exceeds " + MAX_STRING_BYTES);
+        }
+        return bytes;
+    }
+
+    private static int stringBytes(byte[] value) {
+        return value == null ? 0 : Short.BYTES + value.length;
+    }
+
+    private static void putUuid(ByteBuffer buffer, UUID value) {
+        if (value != null) {
+            buffer.putLong(value.getMostSignificantBits()).putLong(value.getLeastSignificantBits());
+        }
+    }
+
+    private static void putAmount(ByteBuffer buffer, BigDecimal value) {
+        if (value == null) {
+            return;
+        }
+        BigInteger unscaled = value.unscaledValue();
+        if (unscaled.bitLength() > 63 || value.scale() < Byte.MIN_VALUE || value.scale() > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Amount " + value + " does not fit an unscaled long and a one-byte scale");
+        }
+        buffer.putLong(unscaled.longValue()).put((byte) value.scale());
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] value) {
+        if (value != null) {
+            buffer.putShort((short) value.length).put(value);
+        }
+    }
+
+    private static UUID getUuid(ByteBuffer buffer) {
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    private static BigDecimal getAmount(ByteBuffer buffer) {
+        long unscaled = buffer.getLong();
+        return BigDecimal.valueOf(unscaled, buffer.get());
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
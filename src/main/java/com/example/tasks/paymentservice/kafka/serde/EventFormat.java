@@ -0,0 +1,19 @@
+package com.example.tasks.paymentservice.kafka.serde;
+
+public enum EventFormat {
+    JSON("application/json"),
+    BINARY("application/vnd.payment-event+binary");
+
+    // Set on every record this service produces; records without it are read as JSON.
+    public static final String CONTENT_TYPE_HEADER = "content-type";
+
+    private final String contentType;
+
+    EventFormat(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+}
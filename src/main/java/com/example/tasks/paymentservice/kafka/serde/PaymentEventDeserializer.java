@@ -0,0 +1,50 @@
+package com.example.tasks.paymentservice.kafka.serde;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+
+// Reads binary records by their content-type header and hands everything else, including records from producers
+// that predate the header, to the JSON delegate, so both formats can share a topic during a rollout.
+public class PaymentEventDeserializer implements Deserializer<Object> {
+    public static final String JSON_DELEGATE_CONFIG = "payment.deserializer.json.delegate.class";
+
+    private static final byte[] BINARY = EventFormat.BINARY.contentType().getBytes(StandardCharsets.UTF_8);
+
+    private Deserializer<Object> json;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        json = SerdeDelegates.newInstance(configs.get(JSON_DELEGATE_CONFIG), Deserializer.class);
+        json.configure(configs, isKey);
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        return json.deserialize(topic, data);
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        Header contentType = headers.lastHeader(EventFormat.CONTENT_TYPE_HEADER);
+        if (contentType != null && Arrays.equals(contentType.value(), BINARY)) {
+            return BinaryEventCodec.decode(data);
+        }
+        return json.deserialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        if (json != null) {
+            json.close();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.tasks.paymentservice.kafka.serde;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+// Writes order and payment events in the configured format and labels every record with its content type. Anything
+// the binary layout cannot hold, and every other payload, goes through the JSON delegate; raw bytes pass through as is.
+@Slf4j
+public class PaymentEventSerializer implements Serializer<Object> {
+    public static final String FORMAT_CONFIG = "payment.serializer.format";
+    public static final String JSON_DELEGATE_CONFIG = "payment.serializer.json.delegate.class";
+
+    private static final byte[] JSON = EventFormat.JSON.contentType().getBytes(StandardCharsets.UTF_8);
+    private static final byte[] BINARY = EventFormat.BINARY.contentType().getBytes(StandardCharsets.UTF_8);
+
+    private Serializer<Object> json;
+    private EventFormat format = EventFormat.JSON;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        json = SerdeDelegates.newInstance(configs.get(JSON_DELEGATE_CONFIG), Serializer.class);
+        json.configure(configs, isKey);
+        Object configuredFormat = configs.get(FORMAT_CONFIG);
+        if (configuredFormat != null) {
+            format = EventFormat.valueOf(configuredFormat.toString().toUpperCase());
+        }
+    }
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        return json.serialize(topic, data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, Object data) {
+        if (data == null) {
+            return null;
+        }
+        // Records that could not be deserialized reach the dead-letter topic as their original bytes and headers.
+        if (data instanceof byte[] raw) {
+            return raw;
+        }
+        // A record that is sent again still carries the header from its first attempt.
+        headers.remove(EventFormat.CONTENT_TYPE_HEADER);
+        if (format == EventFormat.BINARY && BinaryEventCodec.supports(data)) {
+            try {
+                byte[] bytes = BinaryEventCodec.encode(data);
+                headers.add(EventFormat.CONTENT_TYPE_HEADER, BINARY);
+                return bytes;
+            } catch (IllegalArgumentException e) {
+                log.debug("Falling back to JSON for {} on {}: {}", data.getClass().getSimpleName(), topic, e.getMessage());
+            }
+        }
+        headers.add(EventFormat.CONTENT_TYPE_HEADER, JSON);
+        return json.serialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        if (json != null) {
+            json.close();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.tasks.paymentservice.kafka.serde;
+
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.common.utils.Utils;
+
+final class SerdeDelegates {
+
+    private SerdeDelegates() {
+    }
+
+    // Kafka passes class settings either as a Class or as its name.
+    static <T> T newInstance(Object configured, Class<T> type) {
+        if (configured == null) {
+            throw new ConfigException("No JSON delegate configured for " + type.getSimpleName());
+        }
+        if (configured instanceof Class<?> delegateClass) {
+            return Utils.newInstance(delegateClass, type);
+        }
+        try {
+            return Utils.newInstance(configured.toString(), type);
+        } catch (ClassNotFoundException e) {
+            throw new KafkaException("JSON delegate " + configured + " not found", e);
+        }
+    }
+}
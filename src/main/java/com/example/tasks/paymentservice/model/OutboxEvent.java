@@ -0,0 +1,58 @@
+package com.example.tasks.paymentservice.model;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.example.tasks.model.PaymentStatus;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@Document(collection = "payment_outbox")
+@ToString
+public class OutboxEvent {
+	@Id
+	private String id;
+
+	@Field("payment_id")
+	private String paymentId;
+
+	@Field("order_id")
+	private String orderId;
+
+	@Field(value = "payment_status", targetType = FieldType.STRING)
+	private PaymentStatus paymentStatus;
+
+	@Field("error_message")
+	private String errorMessage;
+
+	@Field("currency")
+	private String currency;
+
+	@Field("order_created_at")
+	private Instant orderCreatedAt;
+
+	@Field(value = "status", targetType = FieldType.STRING)
+	private OutboxStatus status;
+
+	@Field("created_at")
+	private LocalDateTime createdAt;
+
+	@Field("sent_at")
+	private LocalDateTime sentAt;
+
+	@Field("owner")
+	private String owner;
+
+	@Field("lease_until")
+	private LocalDateTime leaseUntil;
+
+	@Field("attempts")
+	private int attempts;
+}
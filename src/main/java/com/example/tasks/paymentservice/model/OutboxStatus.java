@@ -0,0 +1,8 @@
+package com.example.tasks.paymentservice.model;
+
+public enum OutboxStatus {
+	PENDING,
+	SENDING,
+	SENT,
+	FAILED
+}
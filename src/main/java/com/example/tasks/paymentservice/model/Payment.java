@@ -32,12 +32,13 @@ public class Payment {
 	@Field("timestamp")
 	private LocalDateTime timestamp;
 
-	@Field("payment_amount")
+	@Field(value = "payment_amount", targetType = FieldType.DECIMAL128)
 	private BigDecimal paymentAmount;
 
 	@Field("currency")
 	private String currency;
 
+	@ToString.Exclude
 	@Field("payment_method_token")
 	private String paymentMethodToken;
 
@@ -52,6 +53,18 @@ public class Payment {
 
 	@Field("description")
 	private String description;
+
+	@Field(value = "source", targetType = FieldType.STRING)
+	private PaymentSource source;
+
+	// True while the payment is not yet counted in the hourly revenue rollups, false once it is. Payments from before
+	// the rollups have no value until PaymentDataMigrator queues them.
+	@Field("rollup_pending")
+	private Boolean rollupPending;
+
+	// Set on an order payment reserved before its charge; a redelivered event resumes it instead of charging again.
+	@Field("charge_pending")
+	private Boolean chargePending;
 }
 
 
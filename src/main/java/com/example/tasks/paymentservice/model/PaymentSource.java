@@ -0,0 +1,6 @@
+package com.example.tasks.paymentservice.model;
+
+public enum PaymentSource {
+	API,
+	ORDER_EVENT
+}
@@ -0,0 +1,37 @@
+package com.example.tasks.paymentservice.model;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.example.tasks.model.PaymentStatus;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@Document(collection = "payment_revenue_hourly")
+@ToString
+public class RevenueRollup {
+	@Id
+	private String id;
+
+	@Field("currency")
+	private String currency;
+
+	@Field("hour")
+	private LocalDateTime hour;
+
+	@Field(value = "status", targetType = FieldType.STRING)
+	private PaymentStatus status;
+
+	@Field(value = "total_amount", targetType = FieldType.DECIMAL128)
+	private BigDecimal totalAmount;
+
+	@Field("payment_count")
+	private long paymentCount;
+}
@@ -0,0 +1,56 @@
+package com.example.tasks.paymentservice.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.listener.ConsumerAwareRebalanceListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+@Component
+public class PartitionAssignmentMetrics implements ConsumerAwareRebalanceListener {
+    private final Set<TopicPartition> assignedPartitions = ConcurrentHashMap.newKeySet();
+    private final MultiGauge assignedPartitionsGauge;
+
+    public PartitionAssignmentMetrics(MeterRegistry meterRegistry) {
+        this.assignedPartitionsGauge = MultiGauge.builder("payment.kafka.partition.assigned")
+                .description("Partitions currently assigned to this instance's listener consumers")
+                .register(meterRegistry);
+        meterRegistry.gauge("payment.kafka.partitions.assigned.count", assignedPartitions, Set::size);
+    }
+
+    @Override
+    public void onPartitionsAssigned(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        assignedPartitions.addAll(partitions);
+        log.info("Partitions assigned: {}", partitions);
+        refresh();
+    }
+
+    @Override
+    public void onPartitionsRevokedAfterCommit(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        assignedPartitions.removeAll(partitions);
+        log.info("Partitions revoked: {}", partitions);
+        refresh();
+    }
+
+    @Override
+    public void onPartitionsLost(Consumer<?, ?> consumer, Collection<TopicPartition> partitions) {
+        assignedPartitions.removeAll(partitions);
+        log.warn("Partitions lost: {}", partitions);
+        refresh();
+    }
+
+    private void refresh() {
+        assignedPartitionsGauge.register(assignedPartitions.stream()
+                .map(partition -> MultiGauge.Row.of(
+                        Tags.of("topic", partition.topic(), "partition", String.valueOf(partition.partition())), 1))
+                .toList(), true);
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.tasks.paymentservice.monitoring;
+
+import com.example.tasks.paymentservice.model.OutboxEvent;
+import com.example.tasks.paymentservice.model.Payment;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.example.tasks.model.PaymentStatus;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+@Component
+public class PaymentMetrics {
+    private static final String UNKNOWN = "unknown";
+    private static final String MIXED = "mixed";
+
+    private final MeterRegistry meterRegistry;
+    private final Meter.MeterProvider<Timer> processorTimer;
+    private final Meter.MeterProvider<Timer> saveTimer;
+    private final Meter.MeterProvider<Timer> kafkaSendTimer;
+    private final Meter.MeterProvider<Timer> consumerTimer;
+    private final Meter.MeterProvider<Timer> endToEndTimer;
+    private final Meter.MeterProvider<Counter> retryCounter;
+    private final Meter.MeterProvider<Counter> deadLetterCounter;
+
+    public PaymentMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.processorTimer = histogram("payment.processor.call", "External payment processor call",
+                Duration.ofMillis(1), Duration.ofSeconds(30), meterRegistry);
+        this.saveTimer = histogram("payment.repository.save", "Payment write to MongoDB",
+                Duration.ofMillis(1), Duration.ofSeconds(10), meterRegistry);
+        this.kafkaSendTimer = histogram("payment.kafka.send", "PaymentCreatedEvent send until broker ack",
+                Duration.ofMillis(1), Duration.ofSeconds(30), meterRegistry);
+        this.consumerTimer = histogram("payment.kafka.consume", "Time spent handling OrderCreatedEvents in the listener",
+                Duration.ofMillis(1), Duration.ofSeconds(60), meterRegistry);
+        this.endToEndTimer = histogram("payment.end-to-end", "OrderCreatedEvent timestamp until PaymentCreatedEvent ack",
+                Duration.ofMillis(10), Duration.ofMinutes(10), meterRegistry);
+        this.retryCounter = Counter.builder("payment.kafka.retries")
+                .description("OrderCreatedEvents handled again from a retry topic")
+                .withRegistry(meterRegistry);
+        this.deadLetterCounter = Counter.builder("payment.kafka.dead-letters")
+                .description("OrderCreatedEvents that reached the dead-letter topic")
+                .withRegistry(meterRegistry);
+    }
+
+    public Timer.Sample startTimer() {
+        return Timer.start(meterRegistry);
+    }
+
+    public void recordProcessorCall(Timer.Sample sample, String currency, String outcome) {
+        sample.stop(processorTimer.withTags("status", outcome, "currency", currency(currency)));
+    }
+
+    public void recordSave(Timer.Sample sample, Payment payment) {
+        sample.stop(saveTimer.withTags("mode", "single",
+                "status", status(payment.getStatus()), "currency", currency(payment.getCurrency())));
+    }
+
+    public void recordBulkSave(Timer.Sample sample) {
+        sample.stop(saveTimer.withTags("mode", "bulk", "status", MIXED, "currency", MIXED));
+    }
+
+    public void recordKafkaSend(long startNanos, OutboxEvent entry, boolean acked) {
+        kafkaSendTimer.withTags("status", status(entry.getPaymentStatus()), "currency", currency(entry.getCurrency()),
+                        "outcome", acked ? "ack" : "error")
+                .record(Duration.ofNanos(System.nanoTime() - startNanos));
+        if (acked && entry.getOrderCreatedAt() != null) {
+            endToEndTimer.withTags("status", status(entry.getPaymentStatus()), "currency", currency(entry.getCurrency()))
+                    .record(Duration.between(entry.getOrderCreatedAt(), Instant.now()));
+        }
+    }
+
+    public void recordConsume(Timer.Sample sample, String mode, String currency, boolean success) {
+        sample.stop(consumerTimer.withTags("mode", mode, "currency", currency(currency),
+                "outcome", success ? "success" : "error"));
+    }
+
+    public void recordRetry(String topic, boolean success) {
+        retryCounter.withTags("topic", topic, "outcome", success ? "success" : "error").increment();
+    }
+
+    public void recordDeadLetter(String exception) {
+        deadLetterCounter.withTags("exception", exception == null ? UNKNOWN : exception).increment();
+    }
+
+    private static Meter.MeterProvider<Timer> histogram(String name, String description,
+                                                        Duration min, Duration max, MeterRegistry meterRegistry) {
+        return Timer.builder(name)
+                .description(description)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(min)
+                .maximumExpectedValue(max)
+                .withRegistry(meterRegistry);
+    }
+
+    private static String status(PaymentStatus status) {
+        return status == null ? UNKNOWN : status.name();
+    }
+
+    private static String currency(String currency) {
+        return currency == null ? UNKNOWN : currency;
+    }
+}
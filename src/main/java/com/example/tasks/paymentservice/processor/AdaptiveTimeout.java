@@ -0,0 +1,70 @@
+package com.example.tasks.paymentservice.processor;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+// Derives the per-call timeout from a high percentile of recent processor latencies, so the limit follows the
+// processor instead of being a fixed guess. Percentiles are recomputed every few samples rather than per call.
+public class AdaptiveTimeout {
+    private final long[] samples;
+    private final int recomputeEvery;
+    private final double timeoutPercentile;
+    private final double multiplier;
+    private final double hedgePercentile;
+    private final long minNanos;
+    private final long maxNanos;
+
+    private int next;
+    private int count;
+    private int sinceRecompute;
+    private volatile long timeoutNanos;
+    private volatile long hedgeDelayNanos;
+
+    public AdaptiveTimeout(int sampleSize, double timeoutPercentile, double multiplier, double hedgePercentile,
+                           Duration min, Duration max) {
+        this.samples = new long[sampleSize];
+        this.recomputeEvery = Math.max(1, sampleSize / 16);
+        this.timeoutPercentile = timeoutPercentile;
+        this.multiplier = multiplier;
+        this.hedgePercentile = hedgePercentile;
+        this.minNanos = min.toNanos();
+        this.maxNanos = max.toNanos();
+        this.timeoutNanos = maxNanos;
+        this.hedgeDelayNanos = maxNanos / 2;
+    }
+
+    public long getTimeoutNanos() {
+        return timeoutNanos;
+    }
+
+    public long getHedgeDelayNanos() {
+        return hedgeDelayNanos;
+    }
+
+    public synchronized void record(long latencyNanos) {
+        samples[next] = latencyNanos;
+        next = (next + 1) % samples.length;
+        count = Math.min(count + 1, samples.length);
+        if (++sinceRecompute >= recomputeEvery) {
+            sinceRecompute = 0;
+            recompute();
+        }
+    }
+
+    private void recompute() {
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        long timeout = clamp((long) (percentile(sorted, timeoutPercentile) * multiplier), minNanos, maxNanos);
+        timeoutNanos = timeout;
+        hedgeDelayNanos = clamp(percentile(sorted, hedgePercentile), minNanos, timeout);
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.clamp(index, 0, sorted.length - 1)];
+    }
+
+    private static long clamp(long value, long min, long max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.tasks.paymentservice.processor;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+// Count-based sliding window over the last calls. Opens when either the failure rate or the slow-call rate
+// reaches its threshold, then lets a few trial calls through after the wait duration to decide whether to close.
+public class CircuitBreaker {
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int windowSize;
+    private final int minimumCalls;
+    private final float failureRateThreshold;
+    private final float slowCallRateThreshold;
+    private final long slowCallNanos;
+    private final long waitInOpenNanos;
+    private final int permittedCallsInHalfOpen;
+    private final LongSupplier nanoClock;
+
+    private final boolean[] failures;
+    private final boolean[] slowCalls;
+    private int next;
+    private int recorded;
+    private int failureCount;
+    private int slowCallCount;
+    private State state = State.CLOSED;
+    private long openedAtNanos;
+    private int halfOpenPermits;
+
+    public CircuitBreaker(int windowSize, int minimumCalls, float failureRateThreshold, float slowCallRateThreshold,
+                          Duration slowCallDuration, Duration waitInOpen, int permittedCallsInHalfOpen) {
+        this(windowSize, minimumCalls, failureRateThreshold, slowCallRateThreshold, slowCallDuration, waitInOpen,
+                permittedCallsInHalfOpen, System::nanoTime);
+    }
+
+    public CircuitBreaker(int windowSize, int minimumCalls, float failureRateThreshold, float slowCallRateThreshold,
+                          Duration slowCallDuration, Duration waitInOpen, int permittedCallsInHalfOpen, LongSupplier nanoClock) {
+        this.windowSize = windowSize;
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallNanos = slowCallDuration.toNanos();
+        this.waitInOpenNanos = waitInOpen.toNanos();
+        this.permittedCallsInHalfOpen = permittedCallsInHalfOpen;
+        this.nanoClock = nanoClock;
+        this.failures = new boolean[windowSize];
+        this.slowCalls = new boolean[windowSize];
+    }
+
+    public synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (nanoClock.getAsLong() - openedAtNanos < waitInOpenNanos) {
+                return false;
+            }
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenPermits == 0) {
+                return false;
+            }
+            halfOpenPermits--;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess(long durationNanos) {
+        record(false, durationNanos);
+    }
+
+    public synchronized void onError(long durationNanos) {
+        record(true, durationNanos);
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    // True while calls are still being turned away; an open breaker only moves to half-open when a call asks for permission.
+    public synchronized boolean isRejecting() {
+        return state == State.OPEN && nanoClock.getAsLong() - openedAtNanos < waitInOpenNanos;
+    }
+
+    public synchronized float getFailureRate() {
+        return recorded == 0 ? 0 : failureCount * 100f / recorded;
+    }
+
+    public synchronized float getSlowCallRate() {
+        return recorded == 0 ? 0 : slowCallCount * 100f / recorded;
+    }
+
+    private void record(boolean failure, long durationNanos) {
+        if (state == State.OPEN) {
+            // A call admitted before the breaker opened; its outcome no longer matters.
+            return;
+        }
+        boolean slow = durationNanos >= slowCallNanos;
+        if (recorded == windowSize) {
+            failureCount -= failures[next] ? 1 : 0;
+            slowCallCount -= slowCalls[next] ? 1 : 0;
+        } else {
+            recorded++;
+        }
+        failures[next] = failure;
+        slowCalls[next] = slow;
+        failureCount += failure ? 1 : 0;
+        slowCallCount += slow ? 1 : 0;
+        next = (next + 1) % windowSize;
+
+        int requiredCalls = state == State.HALF_OPEN ? permittedCallsInHalfOpen : minimumCalls;
+        if (recorded < requiredCalls) {
+            return;
+        }
+        boolean tripped = getFailureRate() >= failureRateThreshold || getSlowCallRate() >= slowCallRateThreshold;
+        if (tripped) {
+            transitionTo(State.OPEN);
+        } else if (state == State.HALF_OPEN) {
+            transitionTo(State.CLOSED);
+        }
+    }
+
+    private void transitionTo(State newState) {
+        state = newState;
+        next = 0;
+        recorded = 0;
+        failureCount = 0;
+        slowCallCount = 0;
+        if (newState == State.OPEN) {
+            openedAtNanos = nanoClock.getAsLong();
+        } else if (newState == State.HALF_OPEN) {
+            halfOpenPermits = permittedCallsInHalfOpen;
+        }
+    }
+}
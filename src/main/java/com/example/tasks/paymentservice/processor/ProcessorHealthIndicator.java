@@ -0,0 +1,30 @@
+package com.example.tasks.paymentservice.processor;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component("paymentProcessor")
+public class ProcessorHealthIndicator implements HealthIndicator {
+    private final CircuitBreaker circuitBreaker;
+    private final AdaptiveTimeout adaptiveTimeout;
+
+    public ProcessorHealthIndicator(CircuitBreaker circuitBreaker, AdaptiveTimeout adaptiveTimeout) {
+        this.circuitBreaker = circuitBreaker;
+        this.adaptiveTimeout = adaptiveTimeout;
+    }
+
+    // Always UP: an open breaker is the service handling a processor outage as designed. Reporting DOWN would take every
+    // replica, and with it the read endpoints, out of the load balancer over a dependency it cannot fix.
+    @Override
+    public Health health() {
+        return Health.up()
+                .withDetail("circuitBreaker", circuitBreaker.getState())
+                .withDetail("failureRate", circuitBreaker.getFailureRate())
+                .withDetail("slowCallRate", circuitBreaker.getSlowCallRate())
+                .withDetail("timeout", Duration.ofNanos(adaptiveTimeout.getTimeoutNanos()).toString())
+                .build();
+    }
+}
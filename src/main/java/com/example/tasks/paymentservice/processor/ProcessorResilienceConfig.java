@@ -0,0 +1,35 @@
+package com.example.tasks.paymentservice.processor;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class ProcessorResilienceConfig {
+
+    @Bean
+    public CircuitBreaker processorCircuitBreaker(
+            @Value("${payment.processor.circuit-breaker.sliding-window-size:100}") int slidingWindowSize,
+            @Value("${payment.processor.circuit-breaker.minimum-calls:20}") int minimumCalls,
+            @Value("${payment.processor.circuit-breaker.failure-rate-threshold:50}") float failureRateThreshold,
+            @Value("${payment.processor.circuit-breaker.slow-call-rate-threshold:80}") float slowCallRateThreshold,
+            @Value("${payment.processor.circuit-breaker.slow-call-duration:1s}") Duration slowCallDuration,
+            @Value("${payment.processor.circuit-breaker.wait-duration-in-open:10s}") Duration waitDurationInOpen,
+            @Value("${payment.processor.circuit-breaker.permitted-calls-in-half-open:5}") int permittedCallsInHalfOpen) {
+        return new CircuitBreaker(slidingWindowSize, minimumCalls, failureRateThreshold, slowCallRateThreshold,
+                slowCallDuration, waitDurationInOpen, permittedCallsInHalfOpen);
+    }
+
+    @Bean
+    public AdaptiveTimeout processorTimeout(
+            @Value("${payment.processor.timeout.sample-size:1024}") int sampleSize,
+            @Value("${payment.processor.timeout.percentile:0.99}") double percentile,
+            @Value("${payment.processor.timeout.multiplier:3}") double multiplier,
+            @Value("${payment.processor.hedging.percentile:0.95}") double hedgePercentile,
+            @Value("${payment.processor.timeout.min:50ms}") Duration min,
+            @Value("${payment.processor.timeout.max:2s}") Duration max) {
+        return new AdaptiveTimeout(sampleSize, percentile, multiplier, hedgePercentile, min, max);
+    }
+}
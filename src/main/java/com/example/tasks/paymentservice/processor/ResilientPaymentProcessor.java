@@ -0,0 +1,144 @@
+package com.example.tasks.paymentservice.processor;
+
+import com.example.tasks.paymentservice.dto.ExternalPaymentApiResponse;
+import com.example.tasks.paymentservice.exception.PaymentProcessorException;
+import com.example.tasks.paymentservice.model.Payment;
+import com.example.tasks.paymentservice.processor.gateway.PaymentProcessorGateway;
+import com.example.tasks.paymentservice.processor.gateway.ProcessorThrottledException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.tasks.model.PaymentStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@Slf4j
+@Component
+public class ResilientPaymentProcessor {
+    public static final String CIRCUIT_OPEN = "PROCESSOR_CIRCUIT_OPEN";
+    public static final String TIMEOUT = "PROCESSOR_TIMEOUT";
+    public static final String THROTTLED = "PROCESSOR_THROTTLED";
+    public static final String PROCESSOR_ERROR = "PROCESSOR_ERROR";
+
+    private final PaymentProcessorGateway gateway;
+    private final CircuitBreaker circuitBreaker;
+    private final AdaptiveTimeout adaptiveTimeout;
+    private final boolean hedgingEnabled;
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("processor-vt-", 0).factory());
+    private final Counter rejectedCounter;
+    private final Counter timeoutCounter;
+    private final Counter hedgedCounter;
+
+    public ResilientPaymentProcessor(PaymentProcessorGateway gateway,
+                                     CircuitBreaker circuitBreaker,
+                                     AdaptiveTimeout adaptiveTimeout,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${payment.processor.hedging.enabled:false}") boolean hedgingEnabled) {
+        this.gateway = gateway;
+        this.circuitBreaker = circuitBreaker;
+        this.adaptiveTimeout = adaptiveTimeout;
+        this.hedgingEnabled = hedgingEnabled;
+        this.rejectedCounter = Counter.builder("payment.processor.rejected")
+                .description("Processor calls rejected because the circuit breaker is open")
+                .register(meterRegistry);
+        this.timeoutCounter = Counter.builder("payment.processor.timeouts")
+                .description("Processor calls abandoned after the adaptive timeout")
+                .register(meterRegistry);
+        this.hedgedCounter = Counter.builder("payment.processor.hedged")
+                .description("Hedged duplicate processor calls issued")
+                .register(meterRegistry);
+        Gauge.builder("payment.processor.circuit.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+                .description("Processor circuit breaker state: 0 closed, 1 open, 2 half-open")
+                .register(meterRegistry);
+        Gauge.builder("payment.processor.timeout", adaptiveTimeout, timeout -> timeout.getTimeoutNanos() / 1_000_000.0)
+                .baseUnit("milliseconds")
+                .description("Current adaptive processor timeout")
+                .register(meterRegistry);
+    }
+
+    public ExternalPaymentApiResponse processPayment(Payment payment) {
+        try {
+            return processPaymentAsync(payment).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // Never blocks the caller: an open breaker fails immediately and a slow processor is cut off at the adaptive timeout.
+    public CompletableFuture<ExternalPaymentApiResponse> processPaymentAsync(Payment payment) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            rejectedCounter.increment();
+            return CompletableFuture.failedFuture(new PaymentProcessorException(
+                    CIRCUIT_OPEN, PaymentStatus.FAILED, "Payment processor is unavailable"));
+        }
+
+        long startNanos = System.nanoTime();
+        CompletableFuture<ExternalPaymentApiResponse> call = hedgingEnabled ? hedgedCall(payment) : call(payment);
+        return call
+                .orTimeout(adaptiveTimeout.getTimeoutNanos(), TimeUnit.NANOSECONDS)
+                .handle((response, ex) -> {
+                    long elapsedNanos = System.nanoTime() - startNanos;
+                    adaptiveTimeout.record(elapsedNanos);
+                    if (ex == null) {
+                        circuitBreaker.onSuccess(elapsedNanos);
+                        return response;
+                    }
+                    circuitBreaker.onError(elapsedNanos);
+                    Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                    if (cause instanceof TimeoutException) {
+                        timeoutCounter.increment();
+                        // The processor may still charge the payment, so its outcome is unknown rather than failed.
+                        throw new PaymentProcessorException(TIMEOUT, PaymentStatus.PENDING,
+                                "Payment processor did not answer within " + TimeUnit.NANOSECONDS.toMillis(elapsedNanos) + " ms");
+                    }
+                    if (cause instanceof ProcessorThrottledException) {
+                        throw new PaymentProcessorException(THROTTLED, PaymentStatus.FAILED, cause.getMessage(), cause);
+                    }
+                    throw new PaymentProcessorException(PROCESSOR_ERROR, PaymentStatus.FAILED, cause.getMessage(), cause);
+                });
+    }
+
+    private CompletableFuture<ExternalPaymentApiResponse> call(Payment payment) {
+        return CompletableFuture.supplyAsync(() -> gateway.processPayment(payment), executor);
+    }
+
+    // A second call is only issued when the first is slower than the hedge percentile; the first answer wins.
+    // Only enable this against a processor that deduplicates charges on the order id.
+    private CompletableFuture<ExternalPaymentApiResponse> hedgedCall(Payment payment) {
+        CompletableFuture<ExternalPaymentApiResponse> result = new CompletableFuture<>();
+        call(payment).whenComplete((response, ex) -> complete(result, response, ex));
+        CompletableFuture.delayedExecutor(adaptiveTimeout.getHedgeDelayNanos(), TimeUnit.NANOSECONDS, executor)
+                .execute(() -> {
+                    if (!result.isDone()) {
+                        hedgedCounter.increment();
+                        call(payment).whenComplete((response, ex) -> complete(result, response, ex));
+                    }
+                });
+        return result;
+    }
+
+    private static void complete(CompletableFuture<ExternalPaymentApiResponse> result, ExternalPaymentApiResponse response, Throwable ex) {
+        if (ex == null) {
+            result.complete(response);
+        } else {
+            result.completeExceptionally(ex);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
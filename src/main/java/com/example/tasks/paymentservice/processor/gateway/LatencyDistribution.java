@@ -0,0 +1,8 @@
+package com.example.tasks.paymentservice.processor.gateway;
+
+public enum LatencyDistribution {
+    FIXED,
+    LOG_NORMAL,
+    // Log-normal body with a Pareto tail on a small share of calls, like a processor with occasional GC or queueing stalls.
+    LONG_TAIL
+}
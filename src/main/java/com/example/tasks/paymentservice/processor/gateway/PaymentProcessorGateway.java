@@ -0,0 +1,11 @@
+package com.example.tasks.paymentservice.processor.gateway;
+
+import com.example.tasks.paymentservice.dto.ExternalPaymentApiResponse;
+import com.example.tasks.paymentservice.model.Payment;
+
+// Blocking call to the card processor. The implementation is picked with payment.processor.gateway.type;
+// timeouts, the circuit breaker and hedging are applied around it by ResilientPaymentProcessor. An order payment keeps
+// its id across redeliveries of the order event, so a gateway to a real processor sends it as the idempotency key.
+public interface PaymentProcessorGateway {
+    ExternalPaymentApiResponse processPayment(Payment payment);
+}
@@ -0,0 +1,15 @@
+package com.example.tasks.paymentservice.processor.gateway;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+@Getter
+public class ProcessorThrottledException extends RuntimeException {
+    private final Duration retryAfter;
+
+    public ProcessorThrottledException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+}
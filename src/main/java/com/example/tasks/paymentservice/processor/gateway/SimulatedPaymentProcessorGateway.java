@@ -0,0 +1,108 @@
+package com.example.tasks.paymentservice.processor.gateway;
+
+import com.example.tasks.paymentservice.dto.ExternalPaymentApiResponse;
+import com.example.tasks.paymentservice.model.Payment;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Local stand-in for the card processor for load tests: every call waits for a sampled latency and then
+// approves, declines, fails, throttles or hangs according to the configured rates.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "payment.processor.gateway.type", havingValue = "simulator")
+public class SimulatedPaymentProcessorGateway implements PaymentProcessorGateway {
+    private final LatencyDistribution distribution;
+    private final long medianNanos;
+    private final double sigma;
+    private final double tailProbability;
+    private final double tailShape;
+    private final long maxLatencyNanos;
+    private final double approvalRate;
+    private final double errorRate;
+    private final double throttleRate;
+    private final double timeoutRate;
+    private final long hangNanos;
+    private final Duration retryAfter;
+
+    public SimulatedPaymentProcessorGateway(
+            @Value("${payment.processor.simulator.latency.distribution:LOG_NORMAL}") LatencyDistribution distribution,
+            @Value("${payment.processor.simulator.latency.median:120ms}") Duration median,
+            @Value("${payment.processor.simulator.latency.sigma:0.5}") double sigma,
+            @Value("${payment.processor.simulator.latency.tail-probability:0.01}") double tailProbability,
+            @Value("${payment.processor.simulator.latency.tail-shape:1.5}") double tailShape,
+            @Value("${payment.processor.simulator.latency.max:10s}") Duration maxLatency,
+            @Value("${payment.processor.simulator.approval-rate:0.9}") double approvalRate,
+            @Value("${payment.processor.simulator.error-rate:0.01}") double errorRate,
+            @Value("${payment.processor.simulator.throttle-rate:0.0}") double throttleRate,
+            @Value("${payment.processor.simulator.timeout-rate:0.001}") double timeoutRate,
+            @Value("${payment.processor.simulator.hang-duration:30s}") Duration hangDuration,
+            @Value("${payment.processor.simulator.retry-after:1s}") Duration retryAfter) {
+        this.distribution = distribution;
+        this.medianNanos = median.toNanos();
+        this.sigma = sigma;
+        this.tailProbability = tailProbability;
+        this.tailShape = tailShape;
+        this.maxLatencyNanos = maxLatency.toNanos();
+        this.approvalRate = approvalRate;
+        this.errorRate = errorRate;
+        this.throttleRate = throttleRate;
+        this.timeoutRate = timeoutRate;
+        this.hangNanos = hangDuration.toNanos();
+        this.retryAfter = retryAfter;
+        log.warn("Using simulated payment processor: {} latency, median {}", distribution, median);
+    }
+
+    @Override
+    public ExternalPaymentApiResponse processPayment(Payment payment) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        // Throttling is answered before any work, like a rate limiter in front of the processor.
+        if (random.nextDouble() < throttleRate) {
+            throw new ProcessorThrottledException("Simulated processor throttled the request", retryAfter);
+        }
+        if (random.nextDouble() < timeoutRate) {
+            sleep(hangNanos);
+            throw new IllegalStateException("Simulated processor hung for " + Duration.ofNanos(hangNanos));
+        }
+        sleep(sampleLatencyNanos(random));
+        if (random.nextDouble() < errorRate) {
+            throw new IllegalStateException("Simulated processor error");
+        }
+
+        ExternalPaymentApiResponse response = new ExternalPaymentApiResponse();
+        // The response contract treats even status numbers as approved.
+        int statusNumber = 2 * (random.nextInt(50) + 1);
+        response.setPaymentStatusNumber(random.nextDouble() < approvalRate ? statusNumber : statusNumber - 1);
+        response.setTransactionId("sim_tx_" + Long.toHexString(random.nextLong()));
+        return response;
+    }
+
+    private long sampleLatencyNanos(ThreadLocalRandom random) {
+        double latency = switch (distribution) {
+            case FIXED -> medianNanos;
+            case LOG_NORMAL -> logNormal(random);
+            case LONG_TAIL -> random.nextDouble() < tailProbability
+                    ? logNormal(random) * Math.pow(1 - random.nextDouble(), -1 / tailShape)
+                    : logNormal(random);
+        };
+        return Math.min((long) latency, maxLatencyNanos);
+    }
+
+    private double logNormal(ThreadLocalRandom random) {
+        return medianNanos * Math.exp(sigma * random.nextGaussian());
+    }
+
+    private static void sleep(long nanos) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Simulated processor call interrupted", e);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.tasks.paymentservice.repository;
+
+import com.example.tasks.paymentservice.model.OutboxEvent;
+import com.example.tasks.paymentservice.model.OutboxStatus;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OutboxEventRepository extends MongoRepository<OutboxEvent, String>, OutboxEventRepositoryCustom {
+    long countByStatus(OutboxStatus status);
+}
@@ -0,0 +1,12 @@
+package com.example.tasks.paymentservice.repository;
+
+import com.example.tasks.paymentservice.model.OutboxEvent;
+
+import java.time.Duration;
+import java.util.List;
+
+public interface OutboxEventRepositoryCustom {
+    // Moves up to limit of the oldest PENDING entries, and SENDING entries whose lease expired, to SENDING under the
+    // given owner and returns the ones this call won.
+    List<OutboxEvent> claimBatch(String owner, int limit, Duration lease);
+}
@@ -0,0 +1,48 @@
+package com.example.tasks.paymentservice.repository;
+
+import com.example.tasks.paymentservice.model.OutboxEvent;
+import com.example.tasks.paymentservice.model.OutboxStatus;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class OutboxEventRepositoryCustomImpl implements OutboxEventRepositoryCustom {
+    private final MongoTemplate mongoTemplate;
+
+    public OutboxEventRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<OutboxEvent> claimBatch(String owner, int limit, Duration lease) {
+        LocalDateTime now = LocalDateTime.now();
+        Query candidates = Query.query(claimable(now)).with(Sort.by("createdAt")).limit(limit);
+        candidates.fields().include("id");
+        List<String> ids = mongoTemplate.find(candidates, OutboxEvent.class).stream().map(OutboxEvent::getId).toList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        // The update checks every entry again, so one that another relay claimed since the find is left to it.
+        mongoTemplate.updateMulti(
+                Query.query(new Criteria().andOperator(Criteria.where("id").in(ids), claimable(now))),
+                new Update().set("status", OutboxStatus.SENDING).set("owner", owner).set("leaseUntil", now.plus(lease)),
+                OutboxEvent.class);
+        return mongoTemplate.find(
+                Query.query(Criteria.where("id").in(ids).and("status").is(OutboxStatus.SENDING).and("owner").is(owner))
+                        .with(Sort.by("createdAt")),
+                OutboxEvent.class);
+    }
+
+    private static Criteria claimable(LocalDateTime now) {
+        return new Criteria().orOperator(
+                Criteria.where("status").is(OutboxStatus.PENDING),
+                Criteria.where("status").is(OutboxStatus.SENDING).and("leaseUntil").lt(now));
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.tasks.paymentservice.repository;
+
+import com.example.tasks.paymentservice.model.Payment;
+import org.example.tasks.model.PaymentStatus;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// Terminal payments older than payment.archive.min-age live in a separate collection with the same document shape.
+// Reads that can span both collections merge them in the order of the user/timestamp/_id index.
+public final class PaymentArchive {
+    public static final String COLLECTION = "payments_archive";
+    public static final List<PaymentStatus> ARCHIVABLE_STATUSES = List.of(PaymentStatus.SUCCESS, PaymentStatus.FAILED);
+    public static final Comparator<Payment> NEWEST_FIRST = Comparator
+            .comparing(Payment::getTimestamp, Comparator.nullsLast(Comparator.<LocalDateTime>reverseOrder()))
+            .thenComparing(Payment::getId, Comparator.reverseOrder());
+
+    private PaymentArchive() {
+    }
+
+    // Everything in the archive was older than the cutoff when it was moved, so a full hot page whose last entry is
+    // newer than the cutoff cannot be interleaved with archived payments.
+    static boolean mayContinueInArchive(List<Payment> hotPage, int limit, Duration minAge) {
+        if (hotPage.size() < limit) {
+            return true;
+        }
+        LocalDateTime oldest = hotPage.get(hotPage.size() - 1).getTimestamp();
+        return oldest == null || oldest.isBefore(LocalDateTime.now().minus(minAge));
+    }
+
+    // A payment is briefly in both collections while the archiver moves it; keep one copy.
+    static List<Payment> mergePage(List<Payment> hot, List<Payment> archived, int limit) {
+        List<Payment> page = new ArrayList<>(Math.min(limit, hot.size() + archived.size()));
+        Iterator<Payment> merged = merge(hot.iterator(), archived.iterator());
+        while (merged.hasNext() && page.size() < limit) {
+            page.add(merged.next());
+        }
+        return page;
+    }
+
+    public static Stream<Payment> merge(Stream<Payment> hot, Stream<Payment> archived) {
+        Iterator<Payment> merged = merge(hot.iterator(), archived.iterator());
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(merged, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    try {
+                        hot.close();
+                    } finally {
+                        archived.close();
+                    }
+                });
+    }
+
+    private static Iterator<Payment> merge(Iterator<Payment> left, Iterator<Payment> right) {
+        return new Iterator<>() {
+            private Payment nextLeft = left.hasNext() ? left.next() : null;
+            private Payment nextRight = right.hasNext() ? right.next() : null;
+
+            @Override
+            public boolean hasNext() {
+                return nextLeft != null || nextRight != null;
+            }
+
+            @Override
+            public Payment next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int order = nextLeft == null ? 1 : nextRight == null ? -1 : NEWEST_FIRST.compare(nextLeft, nextRight);
+                Payment next;
+                if (order <= 0) {
+                    next = nextLeft;
+                    nextLeft = left.hasNext() ? left.next() : null;
+                    if (order == 0) {
+                        nextRight = right.hasNext() ? right.next() : null;
+                    }
+                } else {
+                    next = nextRight;
+                    nextRight = right.hasNext() ? right.next() : null;
+                }
+                return next;
+            }
+        };
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.tasks.paymentservice.repository;
+
+import com.example.tasks.paymentservice.exception.InvalidPaymentCursorException;
+import com.example.tasks.paymentservice.model.Payment;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+public record PaymentCursor(LocalDateTime timestamp, String id) {
+    private static final String SEPARATOR = "|";
+
+    public static PaymentCursor after(Payment payment) {
+        return new PaymentCursor(payment.getTimestamp(), payment.getId());
+    }
+
+    public static PaymentCursor decode(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new InvalidPaymentCursorException("Invalid cursor: " + cursor);
+            }
+            return new PaymentCursor(LocalDateTime.parse(decoded.substring(0, separator)), decoded.substring(separator + 1));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidPaymentCursorException("Invalid cursor: " + cursor);
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((timestamp + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,22 +1,48 @@
 package com.example.tasks.paymentservice.repository;
 
 import com.example.tasks.paymentservice.model.Payment;
+import com.example.tasks.paymentservice.model.PaymentSource;
+import com.example.tasks.paymentservice.repository.projection.PaymentOwnerView;
 import org.example.tasks.model.PaymentStatus;
 import org.springframework.data.mongodb.repository.Aggregation;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface PaymentRepository extends MongoRepository<Payment, String> {
+public interface PaymentRepository extends MongoRepository<Payment, String>, PaymentRepositoryCustom {
+    String RESPONSE_FIELDS = "{'_id': 1, 'order_id': 1, 'user_id': 1, 'status': 1, 'timestamp': 1, 'payment_amount': 1, "
+            + "'currency': 1, 'description': 1, 'processor_transaction_id': 1, 'error_code': 1, 'error_message': 1}";
+    String OWNER_FIELDS = "{'_id': 0, 'user_id': 1}";
+
     List<Payment> findByOrderId(String orderId);
 
+    @Query(value = "{'order_id': ?0}", fields = OWNER_FIELDS)
+    List<PaymentOwnerView> findOwnersByOrderId(String orderId);
+
+    @Query(value = "{'order_id': ?0}", fields = RESPONSE_FIELDS)
+    List<Payment> findResponseViewByOrderId(String orderId);
+
+    @Query(value = "{'_id': ?0}", fields = RESPONSE_FIELDS)
+    Optional<Payment> findResponseViewById(String id);
+
+    // A reservation whose charge is not stored yet is not a duplicate: the redelivered event has to resume it.
+    @Query(value = "{'order_id': ?0, 'source': ?1, 'charge_pending': {$ne: true}}", exists = true)
+    boolean existsChargedByOrderIdAndSource(String orderId, PaymentSource source);
+
+    Optional<Payment> findByOrderIdAndSource(String orderId, PaymentSource source);
+
     List<Payment> findByUserId(String userId);
 
+    @Query(value = "{'user_id': ?0}", fields = RESPONSE_FIELDS, sort = "{'timestamp': -1, '_id': -1}")
+    Stream<Payment> streamResponseViewByUserId(String userId);
+
     List<Payment> findByStatus(PaymentStatus status);
 
     List<Payment> findAllByStatusIn(List<PaymentStatus> statuses);
@@ -29,7 +55,7 @@ public interface PaymentRepository extends MongoRepository<Payment, String> {
 
     @Aggregation(pipeline = {
             "{'$match': {'timestamp': {$gte: ?0, $lte: ?1}}}",
-            "{'$group': {'_id': null, 'totalAmount': {'$sum': {'$toDouble': '$payment_amount'}}}}"
+            "{'$group': {'_id': null, 'totalAmount': {'$sum': {'$toDecimal': '$payment_amount'}}}}"
     })
-    Optional<Double> sumPaymentAmountByPeriod(LocalDateTime startDate, LocalDateTime endDate);
+    Optional<BigDecimal> sumPaymentAmountByPeriod(LocalDateTime startDate, LocalDateTime endDate);
 }
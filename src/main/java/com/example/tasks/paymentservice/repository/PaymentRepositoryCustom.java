@@ -0,0 +1,30 @@
+package com.example.tasks.paymentservice.repository;
+
+import com.example.tasks.paymentservice.model.Payment;
+import com.example.tasks.paymentservice.model.PaymentSource;
+import com.example.tasks.paymentservice.repository.projection.PaymentOwnerView;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface PaymentRepositoryCustom {
+    // Spans the hot collection and the archive.
+    List<Payment> findPageByUserId(String userId, PaymentCursor after, int limit);
+
+    Optional<Payment> findArchivedResponseViewById(String id);
+
+    List<PaymentOwnerView> findArchivedOwnersByOrderId(String orderId);
+
+    List<Payment> findArchivedResponseViewByOrderId(String orderId);
+
+    Stream<Payment> streamArchivedResponseViewByUserId(String userId);
+
+    boolean existsArchivedByOrderIdAndSource(String orderId, PaymentSource source);
+
+    // Stores the charge result on reserved order payments. Only reservations still pending match, so a payment
+    // completed by a concurrent attempt is not overwritten.
+    boolean completeCharge(Payment payment);
+
+    int completeCharges(List<Payment> payments);
+}
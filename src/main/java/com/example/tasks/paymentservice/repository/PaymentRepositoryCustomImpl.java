@@ -0,0 +1,117 @@
+package com.example.tasks.paymentservice.repository;
+
+import com.example.tasks.paymentservice.model.Payment;
+import com.example.tasks.paymentservice.model.PaymentSource;
+import com.example.tasks.paymentservice.repository.projection.PaymentOwnerView;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public class PaymentRepositoryCustomImpl implements PaymentRepositoryCustom {
+    private final MongoTemplate mongoTemplate;
+    private final Duration archiveMinAge;
+
+    public PaymentRepositoryCustomImpl(MongoTemplate mongoTemplate,
+                                       @Value("${payment.archive.min-age:30d}") Duration archiveMinAge) {
+        this.mongoTemplate = mongoTemplate;
+        this.archiveMinAge = archiveMinAge;
+    }
+
+    @Override
+    public List<Payment> findPageByUserId(String userId, PaymentCursor after, int limit) {
+        Query query = pageQuery(userId, after, limit);
+        List<Payment> hot = mongoTemplate.find(query, Payment.class);
+        if (!PaymentArchive.mayContinueInArchive(hot, limit, archiveMinAge)) {
+            return hot;
+        }
+        List<Payment> archived = mongoTemplate.find(query, Payment.class, PaymentArchive.COLLECTION);
+        return archived.isEmpty() ? hot : PaymentArchive.mergePage(hot, archived, limit);
+    }
+
+    @Override
+    public Optional<Payment> findArchivedResponseViewById(String id) {
+        return Optional.ofNullable(mongoTemplate.findOne(responseView(Criteria.where("id").is(id)), Payment.class, PaymentArchive.COLLECTION));
+    }
+
+    @Override
+    public List<PaymentOwnerView> findArchivedOwnersByOrderId(String orderId) {
+        return mongoTemplate.find(ownersQuery(orderId), Payment.class, PaymentArchive.COLLECTION).stream()
+                .map(payment -> (PaymentOwnerView) payment::getUserId)
+                .toList();
+    }
+
+    @Override
+    public List<Payment> findArchivedResponseViewByOrderId(String orderId) {
+        return mongoTemplate.find(responseView(Criteria.where("orderId").is(orderId)), Payment.class, PaymentArchive.COLLECTION);
+    }
+
+    @Override
+    public Stream<Payment> streamArchivedResponseViewByUserId(String userId) {
+        Query query = responseView(Criteria.where("userId").is(userId)).with(Sort.by(Sort.Direction.DESC, "timestamp", "id"));
+        return mongoTemplate.stream(query, Payment.class, PaymentArchive.COLLECTION);
+    }
+
+    @Override
+    public boolean existsArchivedByOrderIdAndSource(String orderId, PaymentSource source) {
+        return mongoTemplate.exists(Query.query(Criteria.where("orderId").is(orderId).and("source").is(source)),
+                Payment.class, PaymentArchive.COLLECTION);
+    }
+
+    @Override
+    public boolean completeCharge(Payment payment) {
+        return mongoTemplate.updateFirst(pendingCharge(payment), chargeResult(payment), Payment.class).getMatchedCount() == 1;
+    }
+
+    @Override
+    public int completeCharges(List<Payment> payments) {
+        BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Payment.class);
+        payments.forEach(payment -> bulkOperations.updateOne(pendingCharge(payment), chargeResult(payment)));
+        return bulkOperations.execute().getMatchedCount();
+    }
+
+    private static Query pendingCharge(Payment payment) {
+        return Query.query(Criteria.where("id").is(payment.getId()).and("chargePending").is(true));
+    }
+
+    private static Update chargeResult(Payment payment) {
+        return new Update()
+                .set("status", payment.getStatus())
+                .set("processorTransactionId", payment.getProcessorTransactionId())
+                .set("errorCode", payment.getErrorCode())
+                .set("errorMessage", payment.getErrorMessage())
+                .set("rollupPending", true)
+                .unset("chargePending");
+    }
+
+    static Query pageQuery(String userId, PaymentCursor after, int limit) {
+        Criteria criteria = Criteria.where("userId").is(userId);
+        if (after != null) {
+            criteria = criteria.orOperator(
+                    Criteria.where("timestamp").lt(after.timestamp()),
+                    Criteria.where("timestamp").is(after.timestamp()).and("id").lt(after.id())
+            );
+        }
+        return responseView(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "timestamp", "id"))
+                .limit(limit);
+    }
+
+    static Query ownersQuery(String orderId) {
+        return new BasicQuery(Query.query(Criteria.where("orderId").is(orderId)).getQueryObject(), Document.parse(PaymentRepository.OWNER_FIELDS));
+    }
+
+    static Query responseView(Criteria criteria) {
+        return new BasicQuery(Query.query(criteria).getQueryObject(), Document.parse(PaymentRepository.RESPONSE_FIELDS));
+    }
+}
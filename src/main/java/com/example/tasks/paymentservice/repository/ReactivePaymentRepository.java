@@ -0,0 +1,28 @@
+package com.example.tasks.paymentservice.repository;
+
+import com.example.tasks.paymentservice.model.Payment;
+import com.example.tasks.paymentservice.repository.projection.PaymentOwnerView;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static com.example.tasks.paymentservice.repository.PaymentRepository.OWNER_FIELDS;
+import static com.example.tasks.paymentservice.repository.PaymentRepository.RESPONSE_FIELDS;
+
+@Repository
+public interface ReactivePaymentRepository extends ReactiveMongoRepository<Payment, String>, ReactivePaymentRepositoryCustom {
+
+    @Query(value = "{'order_id': ?0}", fields = OWNER_FIELDS)
+    Flux<PaymentOwnerView> findOwnersByOrderId(String orderId);
+
+    @Query(value = "{'order_id': ?0}", fields = RESPONSE_FIELDS)
+    Flux<Payment> findResponseViewByOrderId(String orderId);
+
+    @Query(value = "{'_id': ?0}", fields = RESPONSE_FIELDS)
+    Mono<Payment> findResponseViewById(String paymentId);
+
+    @Query(value = "{'user_id': ?0}", fields = RESPONSE_FIELDS, sort = "{'timestamp': -1, '_id': -1}")
+    Flux<Payment> streamResponseViewByUserId(String userId);
+}
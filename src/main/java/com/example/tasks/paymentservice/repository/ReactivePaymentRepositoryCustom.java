@@ -0,0 +1,19 @@
+package com.example.tasks.paymentservice.repository;
+
+import com.example.tasks.paymentservice.model.Payment;
+import com.example.tasks.paymentservice.repository.projection.PaymentOwnerView;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactivePaymentRepositoryCustom {
+    // Spans the hot collection and the archive.
+    Flux<Payment> findPageByUserId(String userId, PaymentCursor after, int limit);
+
+    Mono<Payment> findArchivedResponseViewById(String id);
+
+    Flux<PaymentOwnerView> findArchivedOwnersByOrderId(String orderId);
+
+    Flux<Payment> findArchivedResponseViewByOrderId(String orderId);
+
+    Flux<Payment> streamArchivedResponseViewByUserId(String userId);
+}
@@ -0,0 +1,61 @@
+package com.example.tasks.paymentservice.repository;
+
+import com.example.tasks.paymentservice.model.Payment;
+import com.example.tasks.paymentservice.repository.projection.PaymentOwnerView;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+public class ReactivePaymentRepositoryCustomImpl implements ReactivePaymentRepositoryCustom {
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final Duration archiveMinAge;
+
+    public ReactivePaymentRepositoryCustomImpl(ReactiveMongoTemplate reactiveMongoTemplate,
+                                               @Value("${payment.archive.min-age:30d}") Duration archiveMinAge) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+        this.archiveMinAge = archiveMinAge;
+    }
+
+    @Override
+    public Flux<Payment> findPageByUserId(String userId, PaymentCursor after, int limit) {
+        Query query = PaymentRepositoryCustomImpl.pageQuery(userId, after, limit);
+        return reactiveMongoTemplate.find(query, Payment.class)
+                .collectList()
+                .flatMapMany(hot -> PaymentArchive.mayContinueInArchive(hot, limit, archiveMinAge)
+                        ? reactiveMongoTemplate.find(query, Payment.class, PaymentArchive.COLLECTION)
+                                .collectList()
+                                .flatMapIterable(archived -> archived.isEmpty() ? hot : PaymentArchive.mergePage(hot, archived, limit))
+                        : Flux.fromIterable(hot));
+    }
+
+    @Override
+    public Mono<Payment> findArchivedResponseViewById(String id) {
+        return reactiveMongoTemplate.findOne(PaymentRepositoryCustomImpl.responseView(Criteria.where("id").is(id)),
+                Payment.class, PaymentArchive.COLLECTION);
+    }
+
+    @Override
+    public Flux<PaymentOwnerView> findArchivedOwnersByOrderId(String orderId) {
+        return reactiveMongoTemplate.find(PaymentRepositoryCustomImpl.ownersQuery(orderId), Payment.class, PaymentArchive.COLLECTION)
+                .map(payment -> (PaymentOwnerView) payment::getUserId);
+    }
+
+    @Override
+    public Flux<Payment> findArchivedResponseViewByOrderId(String orderId) {
+        return reactiveMongoTemplate.find(PaymentRepositoryCustomImpl.responseView(Criteria.where("orderId").is(orderId)),
+                Payment.class, PaymentArchive.COLLECTION);
+    }
+
+    @Override
+    public Flux<Payment> streamArchivedResponseViewByUserId(String userId) {
+        Query query = PaymentRepositoryCustomImpl.responseView(Criteria.where("userId").is(userId))
+                .with(Sort.by(Sort.Direction.DESC, "timestamp", "id"));
+        return reactiveMongoTemplate.find(query, Payment.class, PaymentArchive.COLLECTION);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.tasks.paymentservice.repository;
+
+import com.example.tasks.paymentservice.dto.RevenueByStatusDto;
+import com.example.tasks.paymentservice.model.RevenueRollup;
+import org.springframework.data.mongodb.repository.Aggregation;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RevenueRollupRepository extends MongoRepository<RevenueRollup, String> {
+
+    @Aggregation(pipeline = {
+            "{'$match': {'currency': ?0, 'hour': {$gte: ?1, $lt: ?2}}}",
+            "{'$group': {'_id': '$status', 'totalAmount': {'$sum': '$total_amount'}, 'paymentCount': {'$sum': '$payment_count'}}}",
+            "{'$sort': {'_id': 1}}"
+    })
+    List<RevenueByStatusDto> sumByStatus(String currency, LocalDateTime fromHour, LocalDateTime toHour);
+}
@@ -0,0 +1,21 @@
+package com.example.tasks.paymentservice.repository.index;
+
+import java.time.Instant;
+import java.util.Map;
+
+public record IndexUsage(
+        String collection,
+        String name,
+        Map<String, Object> key,
+        boolean declared,
+        long accesses,
+        Instant accessesSince,
+        long sizeBytes,
+        long insertCalls,
+        long removeCalls,
+        long bytesWritten) {
+
+    public boolean isUnused() {
+        return accesses == 0;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.tasks.paymentservice.repository.index;
+
+import org.bson.Document;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// GET /actuator/indexes: $indexStats reads per index next to what each index costs on writes. Access counters reset
+// when mongod restarts, so an index is only a drop candidate once accessesSince is well in the past.
+@Component
+@Endpoint(id = "indexes")
+public class IndexUsageEndpoint {
+    private final MongoTemplate mongoTemplate;
+
+    public IndexUsageEndpoint(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @ReadOperation
+    public List<IndexUsage> indexes() {
+        List<IndexUsage> usage = new ArrayList<>();
+        MongoIndexes.DECLARED.forEach((collection, declared) -> usage.addAll(collect(collection, declared)));
+        return usage;
+    }
+
+    private List<IndexUsage> collect(String collection, List<Index> declared) {
+        Set<String> declaredNames = declared.stream()
+                .map(index -> (String) index.getIndexOptions().get("name"))
+                .collect(Collectors.toSet());
+        Document storageStats = storageStats(collection);
+        Document indexSizes = storageStats.get("indexSizes", new Document());
+        Document indexDetails = storageStats.get("indexDetails", new Document());
+
+        List<IndexUsage> usage = new ArrayList<>();
+        for (Document stats : mongoTemplate.getCollection(collection).aggregate(List.of(new Document("$indexStats", new Document())))) {
+            String name = stats.getString("name");
+            Document accesses = stats.get("accesses", new Document());
+            Document details = indexDetails.get(name, new Document());
+            Document cursor = details.get("cursor", new Document());
+            Document cache = details.get("cache", new Document());
+            usage.add(new IndexUsage(
+                    collection,
+                    name,
+                    stats.get("key", new Document()),
+                    "_id_".equals(name) || declaredNames.contains(name),
+                    number(accesses.get("ops")),
+                    accesses.getDate("since") == null ? null : accesses.getDate("since").toInstant(),
+                    number(indexSizes.get(name)),
+                    number(cursor.get("insert calls")),
+                    number(cursor.get("remove calls")),
+                    number(cache.get("bytes written from cache"))));
+        }
+        return usage;
+    }
+
+    // Per-index insert/remove calls and bytes written come from the WiredTiger statistics of each index table.
+    private Document storageStats(String collection) {
+        Document collStats = new Document("$collStats", new Document("storageStats", new Document()));
+        Document result = mongoTemplate.getCollection(collection).aggregate(List.of(collStats)).first();
+        return result == null ? new Document() : result.get("storageStats", new Document());
+    }
+
+    private static long number(Object value) {
+        return value instanceof Number number ? number.longValue() : 0;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.tasks.paymentservice.repository.index;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Runs before the Kafka listeners and the web server start, so no write reaches a collection with a missing unique index.
+// The switch is read at runtime rather than as a condition, which an AOT build would fix when the jar is built.
+@Slf4j
+@Component
+public class MongoIndexInitializer implements SmartInitializingSingleton {
+    private static final String ID_INDEX = "_id_";
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean initialize;
+    private final boolean dropUndeclared;
+
+    public MongoIndexInitializer(MongoTemplate mongoTemplate,
+                                 @Value("${payment.indexes.initialize:true}") boolean initialize,
+                                 @Value("${payment.indexes.drop-undeclared:false}") boolean dropUndeclared) {
+        this.mongoTemplate = mongoTemplate;
+        this.initialize = initialize;
+        this.dropUndeclared = dropUndeclared;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!initialize) {
+            return;
+        }
+        MongoIndexes.DECLARED.forEach(this::apply);
+    }
+
+    private void apply(String collection, List<Index> declared) {
+        IndexOperations indexOperations = mongoTemplate.indexOps(collection);
+        Set<String> declaredNames = declared.stream()
+                .map(index -> (String) index.getIndexOptions().get("name"))
+                .collect(Collectors.toSet());
+        for (Index index : declared) {
+            indexOperations.ensureIndex(index);
+        }
+
+        for (IndexInfo existing : indexOperations.getIndexInfo()) {
+            String name = existing.getName();
+            if (ID_INDEX.equals(name) || declaredNames.contains(name)) {
+                continue;
+            }
+            if (dropUndeclared) {
+                log.warn("Dropping undeclared index {} on {}", name, collection);
+                indexOperations.dropIndex(name);
+            } else {
+                log.warn("Index {} on {} is not declared; every write still maintains it", name, collection);
+            }
+        }
+        log.info("Ensured {} indexes on {}", declared.size(), collection);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.tasks.paymentservice.repository.index;
+
+import com.example.tasks.paymentservice.model.PaymentSource;
+import com.example.tasks.paymentservice.repository.PaymentArchive;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+// The only indexes the service needs. Each one backs a query in the repositories; every extra index is paid for on
+// every insert, so add one here only together with the query that uses it.
+public final class MongoIndexes {
+    public static final Map<String, List<Index>> DECLARED = Map.of(
+            "payments", List.of(
+                    // Order lookups and the ownership check on order_id.
+                    new Index().named("order_user_idx")
+                            .on("order_id", Sort.Direction.ASC)
+                            .on("user_id", Sort.Direction.ASC),
+                    // Keyset pagination and streaming of a user's payments.
+                    new Index().named("user_timestamp_id_idx")
+                            .on("user_id", Sort.Direction.ASC)
+                            .on("timestamp", Sort.Direction.DESC)
+                            .on("_id", Sort.Direction.DESC),
+                    // At most one payment per order event, so redelivered events fail on insert.
+                    new Index().named("order_event_unique_idx")
+                            .on("order_id", Sort.Direction.ASC)
+                            .unique()
+                            .partial(PartialIndexFilter.of(Criteria.where("source").is(PaymentSource.ORDER_EVENT.name()))),
+                    // Payments the revenue rollup has not counted yet; they leave the index once counted.
+                    new Index().named("rollup_pending_idx")
+                            .on("rollup_pending", Sort.Direction.ASC)
+                            .partial(PartialIndexFilter.of(Criteria.where("rollup_pending").is(true)))),
+            // Fallback reads only; uniqueness of order events is enforced in the hot collection.
+            PaymentArchive.COLLECTION, List.of(
+                    new Index().named("order_user_idx")
+                            .on("order_id", Sort.Direction.ASC)
+                            .on("user_id", Sort.Direction.ASC),
+                    new Index().named("user_timestamp_id_idx")
+                            .on("user_id", Sort.Direction.ASC)
+                            .on("timestamp", Sort.Direction.DESC)
+                            .on("_id", Sort.Direction.DESC)),
+            "payment_outbox", List.of(
+                    new Index().named("status_created_at_idx")
+                            .on("status", Sort.Direction.ASC)
+                            .on("created_at", Sort.Direction.ASC),
+                    new Index().named("sent_at_ttl_idx")
+                            .on("sent_at", Sort.Direction.ASC)
+                            .expire(Duration.ofDays(7))),
+            "payment_revenue_hourly", List.of(
+                    new Index().named("currency_hour_status_idx")
+                            .on("currency", Sort.Direction.ASC)
+                            .on("hour", Sort.Direction.ASC)
+                            .on("status", Sort.Direction.ASC)
+                            .unique()));
+
+    private MongoIndexes() {
+    }
+}
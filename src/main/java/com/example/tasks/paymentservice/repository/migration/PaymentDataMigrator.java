@@ -0,0 +1,111 @@
+package com.example.tasks.paymentservice.repository.migration;
+
+import com.example.tasks.paymentservice.model.PaymentSource;
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Brings payments written by earlier versions up to what the current code expects. Every step only matches documents
+// still in the old shape, so running it on each startup and on several replicas at once is harmless. Like the index
+// initializer, the switch is read at runtime so an AOT build does not fix it.
+@Slf4j
+@Component
+public class PaymentDataMigrator implements SmartInitializingSingleton {
+    static final String PAYMENTS = "payments";
+    private static final String ORDER_EVENT_DESCRIPTION = "Payment for order: ";
+    private static final int BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean enabled;
+
+    public PaymentDataMigrator(MongoTemplate mongoTemplate,
+                               @Value("${payment.migrations.enabled:true}") boolean enabled) {
+        this.mongoTemplate = mongoTemplate;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled) {
+            return;
+        }
+        convertStringAmounts();
+        queueUncountedForRollup();
+        tagOrderEventPayments();
+    }
+
+    // Amounts used to be stored as strings; sums and the rollup need Decimal128.
+    long convertStringAmounts() {
+        long converted = mongoTemplate.getCollection(PAYMENTS).updateMany(
+                new Document("payment_amount", new Document("$type", "string")),
+                List.of(new Document("$set", new Document("payment_amount", new Document("$toDecimal", "$payment_amount")))))
+                .getModifiedCount();
+        log.info("Converted {} string payment amounts to Decimal128", converted);
+        return converted;
+    }
+
+    // Counted payments carry rollup_pending=false, so a payment without the field was written before the rollups
+    // existed. Flagging it hands it to the regular rollup job, which counts it exactly once like any new payment.
+    // Reservations are left alone: they are flagged when their charge is stored.
+    long queueUncountedForRollup() {
+        long queued = mongoTemplate.getCollection(PAYMENTS).updateMany(
+                new Document("rollup_pending", new Document("$exists", false))
+                        .append("charge_pending", new Document("$ne", true)),
+                new Document("$set", new Document("rollup_pending", true)))
+                .getModifiedCount();
+        log.info("Queued {} payments written before the revenue rollups for counting", queued);
+        return queued;
+    }
+
+    // Payments from order events used to be stored without a source, so neither the dedup lookup nor the unique
+    // order index saw them and a replayed event would charge the order again. Those payments are recognised by the
+    // description the order path always wrote. Orders that were already charged twice keep one tagged payment, the
+    // oldest; the others stay untagged so the unique index can be applied.
+    long tagOrderEventPayments() {
+        List<Document> pipeline = List.of(
+                new Document("$match", new Document("source", new Document("$exists", false))
+                        .append("$expr", new Document("$eq", List.of("$description",
+                                new Document("$concat", List.of(ORDER_EVENT_DESCRIPTION, "$order_id")))))),
+                new Document("$group", new Document("_id", "$order_id").append("paymentId", new Document("$min", "$_id"))));
+        long tagged = 0;
+        List<WriteModel<Document>> updates = new ArrayList<>(BATCH_SIZE);
+        for (Document order : mongoTemplate.getCollection(PAYMENTS).aggregate(pipeline).allowDiskUse(true)) {
+            updates.add(new UpdateOneModel<>(
+                    new Document("_id", order.get("paymentId")).append("source", new Document("$exists", false)),
+                    new Document("$set", new Document("source", PaymentSource.ORDER_EVENT.name()))));
+            if (updates.size() == BATCH_SIZE) {
+                tagged += tag(updates);
+                updates.clear();
+            }
+        }
+        if (!updates.isEmpty()) {
+            tagged += tag(updates);
+        }
+        log.info("Tagged {} payments from before the source field as order event payments", tagged);
+        return tagged;
+    }
+
+    // An order that got a tagged payment from a replica already running this version keeps that one.
+    private long tag(List<WriteModel<Document>> updates) {
+        try {
+            return mongoTemplate.getCollection(PAYMENTS).bulkWrite(updates, new BulkWriteOptions().ordered(false)).getModifiedCount();
+        } catch (MongoBulkWriteException e) {
+            if (e.getWriteErrors().stream().anyMatch(error -> ErrorCategory.fromErrorCode(error.getCode()) != ErrorCategory.DUPLICATE_KEY)) {
+                throw e;
+            }
+            log.warn("{} orders already had an order event payment; left the older one untagged", e.getWriteErrors().size());
+            return e.getWriteResult().getModifiedCount();
+        }
+    }
+}
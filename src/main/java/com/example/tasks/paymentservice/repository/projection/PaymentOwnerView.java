@@ -0,0 +1,5 @@
+package com.example.tasks.paymentservice.repository.projection;
+
+public interface PaymentOwnerView {
+    String getUserId();
+}
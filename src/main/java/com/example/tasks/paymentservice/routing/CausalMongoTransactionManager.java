@@ -0,0 +1,19 @@
+package com.example.tasks.paymentservice.routing;
+
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
+
+public class CausalMongoTransactionManager extends MongoTransactionManager {
+    private final CausalReadRouting causalReadRouting;
+
+    public CausalMongoTransactionManager(MongoDatabaseFactory mongoDatabaseFactory, CausalReadRouting causalReadRouting) {
+        super(mongoDatabaseFactory);
+        this.causalReadRouting = causalReadRouting;
+    }
+
+    @Override
+    protected void doCommit(MongoTransactionObject transactionObject) throws Exception {
+        super.doCommit(transactionObject);
+        causalReadRouting.committed(transactionObject.getSession());
+    }
+}
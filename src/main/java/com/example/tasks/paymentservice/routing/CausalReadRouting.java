@@ -0,0 +1,144 @@
+package com.example.tasks.paymentservice.routing;
+
+import com.mongodb.ClientSessionOptions;
+import com.mongodb.ReadPreference;
+import com.mongodb.client.ClientSession;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Sends @SecondaryRead service methods to secondaries no staler than max-staleness, while writes stay on the primary.
+// Each request runs in a causally consistent session that its own writes and the caller's X-Read-After token advance;
+// a secondary read waits until the secondary has applied that point, so a client always sees its own payments.
+@Component
+public class CausalReadRouting implements MethodInterceptor {
+    private static final ClientSessionOptions CAUSALLY_CONSISTENT = ClientSessionOptions.builder()
+            .causallyConsistent(true)
+            .build();
+
+    private final MongoDatabaseFactory mongoDatabaseFactory;
+    private final boolean enabled;
+    private final ReadPreference readPreference;
+    private final ThreadLocal<RequestScope> requestScope = new ThreadLocal<>();
+    private final ThreadLocal<ClientSession> secondarySession = new ThreadLocal<>();
+
+    public CausalReadRouting(MongoDatabaseFactory mongoDatabaseFactory,
+                             @Value("${payment.read-routing.enabled:true}") boolean enabled,
+                             @Value("${payment.read-routing.max-staleness:90s}") Duration maxStaleness) {
+        this.mongoDatabaseFactory = mongoDatabaseFactory;
+        this.enabled = enabled;
+        this.readPreference = ReadPreference.secondaryPreferred(maxStaleness.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void open(String readAfter) {
+        if (enabled) {
+            requestScope.set(new RequestScope(readAfter));
+        }
+    }
+
+    public void close() {
+        RequestScope scope = requestScope.get();
+        requestScope.remove();
+        if (scope != null && scope.session != null) {
+            scope.session.close();
+        }
+    }
+
+    // What the caller sends back as X-Read-After; null when the request wrote nothing.
+    public String token() {
+        RequestScope scope = requestScope.get();
+        return scope == null || scope.session == null ? null : ReadAfterToken.of(scope.session).encode();
+    }
+
+    ClientSession currentSession() {
+        ClientSession session = secondarySession.get();
+        if (session != null) {
+            return session;
+        }
+        RequestScope scope = requestScope.get();
+        return scope == null ? null : requestSession(scope);
+    }
+
+    boolean readsFromSecondary() {
+        return secondarySession.get() != null;
+    }
+
+    ReadPreference readPreference() {
+        return readPreference;
+    }
+
+    // Transactions run in their own session, so their commit time is carried over by hand.
+    void committed(ClientSession transactionSession) {
+        RequestScope scope = requestScope.get();
+        if (scope != null) {
+            ReadAfterToken.of(transactionSession).applyTo(requestSession(scope));
+        }
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        if (!enabled || secondarySession.get() != null || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return invocation.proceed();
+        }
+
+        ClientSession session = mongoDatabaseFactory.getSession(CAUSALLY_CONSISTENT);
+        boolean streaming = false;
+        try {
+            ReadAfterToken readAfter = readAfter(requestScope.get());
+            if (readAfter != null) {
+                readAfter.applyTo(session);
+            }
+            secondarySession.set(session);
+            Object result = invocation.proceed();
+            // A stream keeps fetching batches after the method returns, so its session lives until the stream is closed.
+            if (result instanceof Stream<?> stream) {
+                streaming = true;
+                return stream.onClose(session::close);
+            }
+            return result;
+        } finally {
+            secondarySession.remove();
+            if (!streaming) {
+                session.close();
+            }
+        }
+    }
+
+    private ReadAfterToken readAfter(RequestScope scope) {
+        if (scope == null) {
+            return null;
+        }
+        if (scope.session != null) {
+            return ReadAfterToken.of(scope.session);
+        }
+        return scope.readAfter == null ? null : ReadAfterToken.decode(scope.readAfter);
+    }
+
+    private ClientSession requestSession(RequestScope scope) {
+        if (scope.session == null) {
+            ReadAfterToken readAfter = scope.readAfter == null ? null : ReadAfterToken.decode(scope.readAfter);
+            ClientSession session = mongoDatabaseFactory.getSession(CAUSALLY_CONSISTENT);
+            if (readAfter != null) {
+                readAfter.applyTo(session);
+            }
+            scope.session = session;
+        }
+        return scope.session;
+    }
+
+    private static final class RequestScope {
+        private final String readAfter;
+        private ClientSession session;
+
+        private RequestScope(String readAfter) {
+            this.readAfter = readAfter;
+        }
+    }
+}
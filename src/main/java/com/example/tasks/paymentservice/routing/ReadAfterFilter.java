@@ -0,0 +1,33 @@
+package com.example.tasks.paymentservice.routing;
+
+import com.example.tasks.paymentservice.constants.HttpHeaders;
+import jakarta.annotation.Nonnull;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ReadAfterFilter extends OncePerRequestFilter {
+    private final CausalReadRouting causalReadRouting;
+
+    public ReadAfterFilter(CausalReadRouting causalReadRouting) {
+        this.causalReadRouting = causalReadRouting;
+    }
+
+    @Override
+    protected void doFilterInternal(@Nonnull HttpServletRequest request, @Nonnull HttpServletResponse response, @Nonnull FilterChain filterChain) throws ServletException, IOException {
+        causalReadRouting.open(request.getHeader(HttpHeaders.READ_AFTER));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            causalReadRouting.close();
+        }
+    }
+}
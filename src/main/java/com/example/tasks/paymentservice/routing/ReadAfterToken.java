@@ -0,0 +1,53 @@
+package com.example.tasks.paymentservice.routing;
+
+import com.example.tasks.paymentservice.exception.InvalidReadAfterTokenException;
+import com.mongodb.client.ClientSession;
+import org.bson.BsonDocument;
+import org.bson.BsonInvalidOperationException;
+import org.bson.BsonTimestamp;
+import org.bson.json.JsonParseException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// The operation and cluster time of a session, so a later request on any instance can read after it. The cluster
+// time keeps the server's signature, which lets secondaries accept it on clusters with authentication.
+public record ReadAfterToken(BsonTimestamp operationTime, BsonDocument clusterTime) {
+    private static final String OPERATION_TIME = "operationTime";
+    private static final String CLUSTER_TIME = "clusterTime";
+
+    public static ReadAfterToken of(ClientSession session) {
+        return new ReadAfterToken(session.getOperationTime(), session.getClusterTime());
+    }
+
+    public static ReadAfterToken decode(String token) {
+        try {
+            BsonDocument document = BsonDocument.parse(new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8));
+            return new ReadAfterToken(document.getTimestamp(OPERATION_TIME), document.getDocument(CLUSTER_TIME, null));
+        } catch (IllegalArgumentException | BsonInvalidOperationException | JsonParseException e) {
+            throw new InvalidReadAfterTokenException("Invalid read-after token: " + token);
+        }
+    }
+
+    public void applyTo(ClientSession session) {
+        if (clusterTime != null) {
+            session.advanceClusterTime(clusterTime);
+        }
+        if (operationTime != null) {
+            session.advanceOperationTime(operationTime);
+        }
+    }
+
+    // Standalone servers report no operation time, so there is nothing to wait for.
+    public String encode() {
+        if (operationTime == null) {
+            return null;
+        }
+        BsonDocument document = new BsonDocument(OPERATION_TIME, operationTime);
+        if (clusterTime != null) {
+            document.append(CLUSTER_TIME, clusterTime);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(document.toJson().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.tasks.paymentservice.routing;
+
+import com.mongodb.client.ClientSession;
+import com.mongodb.client.MongoDatabase;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.MongoDatabaseUtils;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+
+// Runs request work in the session CausalReadRouting binds, and on a secondary inside @SecondaryRead methods.
+// Transactions keep their own session and always stay on the primary.
+public class RoutingMongoTemplate extends MongoTemplate {
+    private final CausalReadRouting causalReadRouting;
+
+    public RoutingMongoTemplate(MongoDatabaseFactory mongoDatabaseFactory, MongoConverter mongoConverter, CausalReadRouting causalReadRouting) {
+        super(mongoDatabaseFactory, mongoConverter);
+        this.causalReadRouting = causalReadRouting;
+    }
+
+    @Override
+    protected MongoDatabase doGetDatabase() {
+        if (MongoDatabaseUtils.isTransactionActive(getMongoDatabaseFactory())) {
+            return super.doGetDatabase();
+        }
+        ClientSession session = causalReadRouting.currentSession();
+        if (session == null) {
+            return super.doGetDatabase();
+        }
+        MongoDatabase database = getMongoDatabaseFactory().withSession(session).getMongoDatabase();
+        return causalReadRouting.readsFromSecondary() ? database.withReadPreference(causalReadRouting.readPreference()) : database;
+    }
+}
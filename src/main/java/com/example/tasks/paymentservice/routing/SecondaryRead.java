@@ -0,0 +1,12 @@
+package com.example.tasks.paymentservice.routing;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Service reads that may be served by a secondary; see CausalReadRouting.
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SecondaryRead {
+}
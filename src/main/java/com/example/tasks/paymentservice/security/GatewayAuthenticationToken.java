@@ -0,0 +1,28 @@
+package com.example.tasks.paymentservice.security;
+
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+
+public class GatewayAuthenticationToken extends AbstractAuthenticationToken {
+    private final GatewayPrincipal principal;
+
+    public GatewayAuthenticationToken(GatewayPrincipal principal) {
+        super(GatewayRole.authorities(principal.roles()));
+        this.principal = principal;
+        setAuthenticated(true);
+    }
+
+    @Override
+    public GatewayPrincipal getPrincipal() {
+        return principal;
+    }
+
+    @Override
+    public Object getCredentials() {
+        return null;
+    }
+
+    @Override
+    public String getName() {
+        return principal.userId();
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.tasks.paymentservice.security;
+
+public record GatewayPrincipal(String userId, int roles) {
+    private static final int PAYMENT_ROLES = GatewayRole.mask(GatewayRole.USER, GatewayRole.ADMIN);
+
+    public static GatewayPrincipal of(String userId, String rolesHeader) {
+        return new GatewayPrincipal(userId, GatewayRole.parse(rolesHeader));
+    }
+
+    public boolean hasAnyRole(int mask) {
+        return (roles & mask) != 0;
+    }
+
+    public boolean isAdmin() {
+        return (roles & GatewayRole.ADMIN.mask()) != 0;
+    }
+
+    public boolean canAccess(String ownerId) {
+        return (roles & PAYMENT_ROLES) != 0 && (isAdmin() || userId.equals(ownerId));
+    }
+}
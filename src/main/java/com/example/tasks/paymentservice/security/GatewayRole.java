@@ -0,0 +1,84 @@
+package com.example.tasks.paymentservice.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public enum GatewayRole {
+    USER("ROLE_USER"),
+    ADMIN("ROLE_ADMIN");
+
+    // The gateway only ever sends a handful of distinct role headers, so parsed masks are cached by header value.
+    private static final int MAX_CACHED_HEADERS = 256;
+    private static final Map<String, Integer> MASKS_BY_HEADER = new ConcurrentHashMap<>();
+    private static final List<List<GrantedAuthority>> AUTHORITIES_BY_MASK = authoritiesByMask();
+
+    private final String authority;
+    private final int mask;
+
+    GatewayRole(String authority) {
+        this.authority = authority;
+        this.mask = 1 << ordinal();
+    }
+
+    public String authority() {
+        return authority;
+    }
+
+    public int mask() {
+        return mask;
+    }
+
+    public static int mask(GatewayRole... roles) {
+        int mask = 0;
+        for (GatewayRole role : roles) {
+            mask |= role.mask;
+        }
+        return mask;
+    }
+
+    public static int parse(String rolesHeader) {
+        if (rolesHeader == null || rolesHeader.isEmpty()) {
+            return 0;
+        }
+        Integer cached = MASKS_BY_HEADER.get(rolesHeader);
+        if (cached != null) {
+            return cached;
+        }
+        int mask = 0;
+        for (String token : rolesHeader.split("[,\\s]+")) {
+            for (GatewayRole role : values()) {
+                if (role.authority.equals(token)) {
+                    mask |= role.mask;
+                }
+            }
+        }
+        if (MASKS_BY_HEADER.size() < MAX_CACHED_HEADERS) {
+            MASKS_BY_HEADER.putIfAbsent(rolesHeader, mask);
+        }
+        return mask;
+    }
+
+    public static List<GrantedAuthority> authorities(int mask) {
+        return AUTHORITIES_BY_MASK.get(mask & ((1 << values().length) - 1));
+    }
+
+    private static List<List<GrantedAuthority>> authoritiesByMask() {
+        GatewayRole[] roles = values();
+        List<List<GrantedAuthority>> authoritiesByMask = new ArrayList<>(1 << roles.length);
+        for (int mask = 0; mask < 1 << roles.length; mask++) {
+            List<GrantedAuthority> authorities = new ArrayList<>(roles.length);
+            for (GatewayRole role : roles) {
+                if ((mask & role.mask) != 0) {
+                    authorities.add(new SimpleGrantedAuthority(role.authority));
+                }
+            }
+            authoritiesByMask.add(List.copyOf(authorities));
+        }
+        return List.copyOf(authoritiesByMask);
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.tasks.paymentservice.security;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.authorization.ReactiveAuthorizationManager;
+import org.springframework.security.core.Authentication;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+public class GatewayRoleAuthorizationManager implements AuthorizationManager<MethodInvocation>, ReactiveAuthorizationManager<MethodInvocation> {
+    private static final AuthorizationDecision GRANTED = new AuthorizationDecision(true);
+    private static final AuthorizationDecision DENIED = new AuthorizationDecision(false);
+
+    private final Map<Method, Integer> requiredMasks = new ConcurrentHashMap<>();
+
+    @Override
+    public AuthorizationResult authorize(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        return decide(authentication.get(), invocation.getMethod());
+    }
+
+    @Override
+    public Mono<AuthorizationResult> authorize(Mono<Authentication> authentication, MethodInvocation invocation) {
+        return authentication
+                .map(auth -> (AuthorizationResult) decide(auth, invocation.getMethod()))
+                .defaultIfEmpty(DENIED);
+    }
+
+    // Still abstract in Spring Security 6; the method interceptors only call authorize.
+    @Override
+    @Deprecated
+    public AuthorizationDecision check(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        return decide(authentication.get(), invocation.getMethod());
+    }
+
+    @Override
+    @Deprecated
+    public Mono<AuthorizationDecision> check(Mono<Authentication> authentication, MethodInvocation invocation) {
+        return authentication
+                .map(auth -> decide(auth, invocation.getMethod()))
+                .defaultIfEmpty(DENIED);
+    }
+
+    private AuthorizationDecision decide(Authentication authentication, Method method) {
+        if (authentication != null && authentication.getPrincipal() instanceof GatewayPrincipal principal
+                && principal.hasAnyRole(requiredMask(method))) {
+            return GRANTED;
+        }
+        return DENIED;
+    }
+
+    private int requiredMask(Method method) {
+        return requiredMasks.computeIfAbsent(method, m -> {
+            RequiresRole requiresRole = AnnotatedElementUtils.findMergedAnnotation(m, RequiresRole.class);
+            return requiresRole == null ? 0 : GatewayRole.mask(requiresRole.value());
+        });
+    }
+}
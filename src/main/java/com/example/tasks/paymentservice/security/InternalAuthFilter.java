@@ -1,29 +1,59 @@
 package com.example.tasks.paymentservice.security;
 
+import com.example.tasks.paymentservice.constants.HttpHeaders;
 import jakarta.annotation.Nonnull;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextHolderStrategy;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Set;
 
 @Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class InternalAuthFilter extends OncePerRequestFilter {
+    static final Set<String> UNAUTHENTICATED_PATHS = Set.of("/actuator/health", "/actuator/prometheus");
 
-    @Value("${gateway.internal.secret}")
-    private String gatewaySecret;
+    private final byte[] gatewaySecret;
+    private final SecurityContextHolderStrategy securityContextHolderStrategy = SecurityContextHolder.getContextHolderStrategy();
+
+    public InternalAuthFilter(@Value("${gateway.internal.secret}") String gatewaySecret) {
+        this.gatewaySecret = gatewaySecret.getBytes(StandardCharsets.UTF_8);
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, @Nonnull HttpServletResponse response, @Nonnull FilterChain filterChain) throws ServletException, IOException {
-        String receivedSecret = request.getHeader("X-Internal-Secret");
-        if (!gatewaySecret.equals(receivedSecret)) {
+        if (!isTrustedGateway(gatewaySecret, request.getHeader(HttpHeaders.INTERNAL_SECRET))) {
             response.sendError(HttpServletResponse.SC_FORBIDDEN, "Forbidden: Direct access not allowed");
             return;
         }
+
+        String userId = request.getHeader(HttpHeaders.USER_ID);
+        if (userId != null) {
+            GatewayPrincipal principal = GatewayPrincipal.of(userId, request.getHeader(HttpHeaders.USER_ROLES));
+            SecurityContext context = securityContextHolderStrategy.createEmptyContext();
+            context.setAuthentication(new GatewayAuthenticationToken(principal));
+            securityContextHolderStrategy.setContext(context);
+        }
         filterChain.doFilter(request, response);
     }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return UNAUTHENTICATED_PATHS.contains(request.getRequestURI());
+    }
+
+    static boolean isTrustedGateway(byte[] gatewaySecret, String receivedSecret) {
+        return receivedSecret != null && MessageDigest.isEqual(gatewaySecret, receivedSecret.getBytes(StandardCharsets.UTF_8));
+    }
 }
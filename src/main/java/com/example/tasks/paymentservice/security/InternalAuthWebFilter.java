@@ -0,0 +1,44 @@
+package com.example.tasks.paymentservice.security;
+
+import com.example.tasks.paymentservice.constants.HttpHeaders;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class InternalAuthWebFilter implements WebFilter {
+    private final byte[] gatewaySecret;
+
+    public InternalAuthWebFilter(@Value("${gateway.internal.secret}") String gatewaySecret) {
+        this.gatewaySecret = gatewaySecret.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (InternalAuthFilter.UNAUTHENTICATED_PATHS.contains(exchange.getRequest().getPath().value())) {
+            return chain.filter(exchange);
+        }
+        org.springframework.http.HttpHeaders headers = exchange.getRequest().getHeaders();
+        if (!InternalAuthFilter.isTrustedGateway(gatewaySecret, headers.getFirst(HttpHeaders.INTERNAL_SECRET))) {
+            return Mono.error(new ResponseStatusException(HttpStatus.FORBIDDEN, "Forbidden: Direct access not allowed"));
+        }
+
+        String userId = headers.getFirst(HttpHeaders.USER_ID);
+        if (userId == null) {
+            return chain.filter(exchange);
+        }
+        GatewayPrincipal principal = GatewayPrincipal.of(userId, headers.getFirst(HttpHeaders.USER_ROLES));
+        return chain.filter(exchange)
+                .contextWrite(ReactiveSecurityContextHolder.withAuthentication(new GatewayAuthenticationToken(principal)));
+    }
+}
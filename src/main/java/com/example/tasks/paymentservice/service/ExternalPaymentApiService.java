@@ -2,24 +2,26 @@ package com.example.tasks.paymentservice.service;
 
 import com.example.tasks.paymentservice.dto.ExternalPaymentApiResponse;
 import com.example.tasks.paymentservice.model.Payment;
+import com.example.tasks.paymentservice.processor.gateway.PaymentProcessorGateway;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Service
 @Slf4j
-public class ExternalPaymentApiService {
-	private final Random random = new Random();
-
+@ConditionalOnProperty(name = "payment.processor.gateway.type", havingValue = "stub", matchIfMissing = true)
+public class ExternalPaymentApiService implements PaymentProcessorGateway {
+	@Override
 	public ExternalPaymentApiResponse processPayment(Payment payment) {
-		log.info("Processing payment...\n" + payment);
+		ThreadLocalRandom random = ThreadLocalRandom.current();
 		ExternalPaymentApiResponse response = new ExternalPaymentApiResponse();
 		int number = random.nextInt(100) + 1;
 		String transactionId = "proc_tx_" + System.currentTimeMillis() + "_" + random.nextInt(1000);
 		response.setPaymentStatusNumber(number);
 		response.setTransactionId(transactionId);
-		log.info("Status number was: " + number);
+		log.debug("Processed payment for order {}: status number {}", payment.getOrderId(), number);
 		return response;
 	}
 }
@@ -0,0 +1,20 @@
+package com.example.tasks.paymentservice.service;
+
+import com.example.tasks.paymentservice.exception.PaymentAuthorizationException;
+import com.example.tasks.paymentservice.security.GatewayPrincipal;
+
+final class PaymentAccessRules {
+
+    private PaymentAccessRules() {
+    }
+
+    static void validateAuthorization(String targetUserId, GatewayPrincipal principal, String action) {
+        if (principal == null || !principal.canAccess(targetUserId)) {
+            throw new PaymentAuthorizationException("You are not authorized to " + action + " this payment!");
+        }
+    }
+
+    static boolean isAdmin(GatewayPrincipal principal) {
+        return principal != null && principal.isAdmin();
+    }
+}
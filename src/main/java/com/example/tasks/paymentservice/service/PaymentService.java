@@ -1,132 +1,384 @@
 package com.example.tasks.paymentservice.service;
 
+import com.example.tasks.paymentservice.cache.PaymentResponseCache;
+import com.example.tasks.paymentservice.dedup.OrderEventDeduplicator;
 import com.example.tasks.paymentservice.dto.ExternalPaymentApiResponse;
+import com.example.tasks.paymentservice.dto.PaymentBatchItemResultDto;
+import com.example.tasks.paymentservice.dto.PaymentPageDto;
 import com.example.tasks.paymentservice.dto.PaymentRequestDto;
 import com.example.tasks.paymentservice.dto.PaymentResponseDto;
+import com.example.tasks.paymentservice.dto.RevenueReportDto;
 import com.example.tasks.paymentservice.dto.mapper.PaymentMapper;
+import com.example.tasks.paymentservice.exception.InvalidOrderEventException;
+import com.example.tasks.paymentservice.exception.InvalidPaymentBatchException;
 import com.example.tasks.paymentservice.exception.PaymentAuthorizationException;
 import com.example.tasks.paymentservice.exception.PaymentNotFoundException;
+import com.example.tasks.paymentservice.exception.PaymentProcessorException;
+import com.example.tasks.paymentservice.model.OutboxEvent;
+import com.example.tasks.paymentservice.model.OutboxStatus;
 import com.example.tasks.paymentservice.model.Payment;
+import com.example.tasks.paymentservice.model.PaymentSource;
+import com.example.tasks.paymentservice.monitoring.PaymentMetrics;
+import com.example.tasks.paymentservice.processor.ResilientPaymentProcessor;
+import com.example.tasks.paymentservice.repository.OutboxEventRepository;
+import com.example.tasks.paymentservice.repository.PaymentArchive;
+import com.example.tasks.paymentservice.repository.PaymentCursor;
 import com.example.tasks.paymentservice.repository.PaymentRepository;
+import com.example.tasks.paymentservice.repository.projection.PaymentOwnerView;
+import com.example.tasks.paymentservice.routing.SecondaryRead;
+import com.example.tasks.paymentservice.security.GatewayPrincipal;
+import com.example.tasks.paymentservice.security.GatewayRole;
+import com.example.tasks.paymentservice.security.RequiresRole;
+import com.mongodb.ErrorCategory;
+import com.mongodb.bulk.BulkWriteError;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
 import org.example.tasks.dto.OrderCreatedEvent;
-import org.example.tasks.dto.PaymentCreatedEvent;
 import org.example.tasks.model.PaymentStatus;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.kafka.listener.BatchListenerFailedException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
-import java.util.UUID;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
 public class PaymentService {
     private final PaymentRepository paymentRepository;
-    private final ExternalPaymentApiService externalPaymentApiService;
+    private final ResilientPaymentProcessor paymentProcessor;
     private final PaymentMapper paymentMapper;
-    private final KafkaTemplate<String, Object> kafkaTemplate;
-    @Value("${kafka.topics.payment-created}")
-    private String paymentCreatedTopic;
+    private final OutboxEventRepository outboxEventRepository;
+    private final MongoTemplate mongoTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final OrderEventDeduplicator orderEventDeduplicator;
+    private final PaymentResponseCache paymentResponseCache;
+    private final RevenueRollupService revenueRollupService;
+    private final PaymentMetrics paymentMetrics;
+    private final Validator validator;
+    @Value("${payment.pagination.max-limit:500}")
+    private int maxPageSize;
+    @Value("${payment.batch.max-size:1000}")
+    private int maxBatchSize;
+    @Value("${payment.batch.processor-parallelism:16}")
+    private int batchProcessorParallelism;
 
-    public PaymentService(PaymentRepository paymentRepository, ExternalPaymentApiService externalPaymentApiService, PaymentMapper paymentMapper, KafkaTemplate<String, Object> kafkaTemplate) {
+    public PaymentService(PaymentRepository paymentRepository, ResilientPaymentProcessor paymentProcessor, PaymentMapper paymentMapper, OutboxEventRepository outboxEventRepository, MongoTemplate mongoTemplate, PlatformTransactionManager transactionManager, OrderEventDeduplicator orderEventDeduplicator, PaymentResponseCache paymentResponseCache, RevenueRollupService revenueRollupService, PaymentMetrics paymentMetrics, Validator validator) {
         this.paymentRepository = paymentRepository;
-        this.externalPaymentApiService = externalPaymentApiService;
+        this.paymentProcessor = paymentProcessor;
         this.paymentMapper = paymentMapper;
-        this.kafkaTemplate = kafkaTemplate;
+        this.outboxEventRepository = outboxEventRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.orderEventDeduplicator = orderEventDeduplicator;
+        this.paymentResponseCache = paymentResponseCache;
+        this.revenueRollupService = revenueRollupService;
+        this.paymentMetrics = paymentMetrics;
+        this.validator = validator;
     }
 
-    @Transactional
-    public PaymentResponseDto processPayment(PaymentRequestDto requestDto, String authenticatedId, String roles) {
-        validateAuthorization(requestDto.getUserId(), authenticatedId, roles, "perform");
+    // Not transactional: the processor call must not hold a Mongo transaction open, and the payment is a single write.
+    @RequiresRole({GatewayRole.USER, GatewayRole.ADMIN})
+    public PaymentResponseDto processPayment(PaymentRequestDto requestDto, GatewayPrincipal principal) {
+        PaymentAccessRules.validateAuthorization(requestDto.getUserId(), principal, "perform");
 
         Payment payment = paymentMapper.toEntity(requestDto);
         payment.setStatus(PaymentStatus.PENDING);
+        payment.setSource(PaymentSource.API);
         payment.setTimestamp(LocalDateTime.now());
+        payment.setRollupPending(true);
         try {
-            ExternalPaymentApiResponse paymentResponse = externalPaymentApiService.processPayment(payment);
-            if (isPaymentSuccessful(paymentResponse)) {
+            ExternalPaymentApiResponse paymentResponse = callProcessor(payment);
+            if (paymentResponse.isApproved()) {
                 payment.setStatus(PaymentStatus.SUCCESS);
             } else {
                 payment.setStatus(PaymentStatus.FAILED);
             }
             payment.setProcessorTransactionId(paymentResponse.getTransactionId());
-            payment = paymentRepository.save(payment);
+            payment = savePayment(payment);
         } catch (Exception e) {
-            payment.setStatus(PaymentStatus.FAILED);
-            payment.setErrorMessage(e.getMessage());
-            payment.setErrorCode("API_ERROR");
-            payment = paymentRepository.save(payment);
+            markProcessorFailure(payment, e, "API_ERROR");
+            payment = savePayment(payment);
         }
-        return paymentMapper.toDto(payment);
+        PaymentResponseDto responseDto = paymentMapper.toDto(payment);
+        paymentResponseCache.refresh(responseDto);
+        return responseDto;
     }
 
-    @Transactional
-    public PaymentResponseDto getPaymentById(String paymentId, String authenticatedId, String roles) {
-        Payment payment = paymentRepository.findById(paymentId)
-                .orElseThrow(() -> new PaymentNotFoundException(String.format("Payment with id=%s not found", paymentId)));
+    @RequiresRole({GatewayRole.USER, GatewayRole.ADMIN})
+    public List<PaymentBatchItemResultDto> processPayments(List<PaymentRequestDto> requestDtos, GatewayPrincipal principal) {
+        if (requestDtos.size() > maxBatchSize) {
+            throw new InvalidPaymentBatchException(String.format("Batch of %d payments exceeds the limit of %d", requestDtos.size(), maxBatchSize));
+        }
 
-        validateAuthorization(payment.getUserId(), authenticatedId, roles, "get");
-        return paymentMapper.toDto(payment);
-    }
+        PaymentBatchItemResultDto[] results = new PaymentBatchItemResultDto[requestDtos.size()];
+        List<Payment> payments = new ArrayList<>(requestDtos.size());
+        List<Integer> paymentIndexes = new ArrayList<>(requestDtos.size());
+        for (int i = 0; i < requestDtos.size(); i++) {
+            PaymentRequestDto requestDto = requestDtos.get(i);
+            if (requestDto == null) {
+                results[i] = PaymentBatchItemResultDto.failed(i, HttpStatus.BAD_REQUEST, "VALIDATION_ERROR", "Payment request is required");
+                continue;
+            }
+            Set<ConstraintViolation<PaymentRequestDto>> violations = validator.validate(requestDto);
+            if (!violations.isEmpty()) {
+                String message = violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining("; "));
+                results[i] = PaymentBatchItemResultDto.failed(i, HttpStatus.BAD_REQUEST, "VALIDATION_ERROR", message);
+                continue;
+            }
+            try {
+                PaymentAccessRules.validateAuthorization(requestDto.getUserId(), principal, "perform");
+            } catch (PaymentAuthorizationException e) {
+                results[i] = PaymentBatchItemResultDto.failed(i, HttpStatus.FORBIDDEN, "VALIDATION_ACCESS_ERROR", e.getMessage());
+                continue;
+            }
 
-    @Transactional
-    public List<PaymentResponseDto> getAllPaymentsByOrderId(String orderId, String authenticatedId, String roles) {
-        List<Payment> payments = paymentRepository.findByOrderId(orderId);
+            Payment payment = paymentMapper.toEntity(requestDto);
+            payment.setId(new ObjectId().toHexString());
+            payment.setStatus(PaymentStatus.PENDING);
+            payment.setSource(PaymentSource.API);
+            payment.setTimestamp(LocalDateTime.now());
+            payment.setChargePending(true);
+            payments.add(payment);
+            paymentIndexes.add(i);
+        }
 
-        if (payments.isEmpty()) {
-            return Collections.emptyList();
+        // Reserved before the charge, so an item that could not be stored was never charged and is safe to retry,
+        // while a charged item always has its payment id to look up.
+        Set<Integer> failedWrites = insertPayments(payments);
+        List<Payment> reservedPayments = new ArrayList<>(payments.size());
+        for (int j = 0; j < payments.size(); j++) {
+            int index = paymentIndexes.get(j);
+            if (failedWrites.contains(j)) {
+                results[index] = PaymentBatchItemResultDto.failed(index, HttpStatus.INTERNAL_SERVER_ERROR, "PERSISTENCE_ERROR", "Payment could not be stored");
+                continue;
+            }
+            reservedPayments.add(payments.get(j));
         }
 
-        if (!isAdmin(roles)) {
-            boolean unauthorizedPayment = payments.stream().anyMatch(payment -> !payment.getUserId().equals(String.valueOf(authenticatedId)));
+        chargeApiPayments(reservedPayments);
+        Set<Integer> failedCompletions = completeApiCharges(reservedPayments);
+
+        for (int j = 0, reserved = 0; j < payments.size(); j++) {
+            if (failedWrites.contains(j)) {
+                continue;
+            }
+            int index = paymentIndexes.get(j);
+            Payment payment = payments.get(j);
+            if (failedCompletions.contains(reserved++)) {
+                results[index] = PaymentBatchItemResultDto.pending(index, paymentMapper.toDto(asReserved(payment)));
+                continue;
+            }
+            PaymentResponseDto responseDto = paymentMapper.toDto(payment);
+            paymentResponseCache.refresh(responseDto);
+            results[index] = PaymentBatchItemResultDto.processed(index, responseDto);
+        }
+        return Arrays.asList(results);
+    }
+
+    @SecondaryRead
+    @RequiresRole({GatewayRole.USER, GatewayRole.ADMIN})
+    public PaymentResponseDto getPaymentById(String paymentId, GatewayPrincipal principal) {
+        PaymentResponseDto cached = paymentResponseCache.get(paymentId);
+        if (cached != null) {
+            PaymentAccessRules.validateAuthorization(cached.getUserId(), principal, "get");
+            return cached;
+        }
+
+        Payment payment = paymentRepository.findResponseViewById(paymentId)
+                .or(() -> paymentRepository.findArchivedResponseViewById(paymentId))
+                .orElseThrow(() -> new PaymentNotFoundException(String.format("Payment with id=%s not found", paymentId)));
+
+        PaymentAccessRules.validateAuthorization(payment.getUserId(), principal, "get");
+        PaymentResponseDto responseDto = paymentMapper.toDto(payment);
+        paymentResponseCache.refresh(responseDto);
+        return responseDto;
+    }
+
+    @SecondaryRead
+    @RequiresRole({GatewayRole.USER, GatewayRole.ADMIN})
+    public List<PaymentResponseDto> getAllPaymentsByOrderId(String orderId, GatewayPrincipal principal) {
+        if (!PaymentAccessRules.isAdmin(principal)) {
+            List<PaymentOwnerView> owners = new ArrayList<>(paymentRepository.findOwnersByOrderId(orderId));
+            owners.addAll(paymentRepository.findArchivedOwnersByOrderId(orderId));
+            if (owners.isEmpty()) {
+                return Collections.emptyList();
+            }
+            boolean unauthorizedPayment = owners.stream().anyMatch(owner -> !principal.userId().equals(owner.getUserId()));
             if (unauthorizedPayment) {
                 throw new PaymentAuthorizationException("You are not authorized to access these payments!");
             }
         }
 
-        return payments.stream().map(paymentMapper::toDto).toList();
+        return Stream.concat(paymentRepository.findResponseViewByOrderId(orderId).stream(),
+                        paymentRepository.findArchivedResponseViewByOrderId(orderId).stream())
+                .map(paymentMapper::toDto)
+                .toList();
     }
 
-    @Transactional
-    public List<PaymentResponseDto> getAllPaymentsByUserId(String requestedUserId, String authenticatedId, String roles) {
-        validateAuthorization(requestedUserId, authenticatedId, roles, "get");
-        List<Payment> payments = paymentRepository.findByUserId(requestedUserId);
-        return payments.stream().map(paymentMapper::toDto).toList();
-    }
+    @SecondaryRead
+    @RequiresRole({GatewayRole.USER, GatewayRole.ADMIN})
+    public PaymentPageDto getPaymentsByUserId(String requestedUserId, String cursor, int limit, GatewayPrincipal principal) {
+        PaymentAccessRules.validateAuthorization(requestedUserId, principal, "get");
+        PaymentCursor after = cursor == null ? null : PaymentCursor.decode(cursor);
+        int pageSize = Math.clamp(limit, 1, maxPageSize);
 
-    private void validateAuthorization(String targetUserId, String authenticatedId, String roles, String action) {
-        if (!hasRequiredRole(roles)) {
-            throw new PaymentAuthorizationException("You are not authorized to " + action + " this payment!");
-        }
-        if (!isAdmin(roles) && !targetUserId.equals(authenticatedId)) {
-            throw new PaymentAuthorizationException("You are not authorized to " + action + " this payment!");
+        List<Payment> payments = paymentRepository.findPageByUserId(requestedUserId, after, pageSize + 1);
+        String nextCursor = null;
+        if (payments.size() > pageSize) {
+            payments = payments.subList(0, pageSize);
+            nextCursor = PaymentCursor.after(payments.get(pageSize - 1)).encode();
         }
+        return new PaymentPageDto(payments.stream().map(paymentMapper::toDto).toList(), nextCursor);
     }
 
-    private boolean hasRequiredRole(String roles) {
-        return isUser(roles) || isAdmin(roles);
+    @SecondaryRead
+    @RequiresRole({GatewayRole.USER, GatewayRole.ADMIN})
+    public Stream<PaymentResponseDto> streamPaymentsByUserId(String requestedUserId, GatewayPrincipal principal) {
+        PaymentAccessRules.validateAuthorization(requestedUserId, principal, "get");
+        return PaymentArchive.merge(paymentRepository.streamResponseViewByUserId(requestedUserId),
+                        paymentRepository.streamArchivedResponseViewByUserId(requestedUserId))
+                .map(paymentMapper::toDto);
     }
 
-    private boolean isAdmin(String roles) {
-        return roles != null && roles.contains("ROLE_ADMIN");
+    @SecondaryRead
+    @RequiresRole(GatewayRole.ADMIN)
+    public RevenueReportDto getRevenue(String currency, LocalDateTime from, LocalDateTime to) {
+        return revenueRollupService.report(currency, from, to);
     }
 
-    private boolean isUser(String roles) {
-        return roles != null && roles.contains("ROLE_USER");
+    public void processOrderCreatedEvent(OrderCreatedEvent orderCreatedEvent) {
+        log.info("Processing OrderCreatedEvent for order: {}", orderCreatedEvent.getOrderId());
+        validateOrderCreatedEvent(orderCreatedEvent);
+        String orderId = orderCreatedEvent.getOrderId().toString();
+        if (orderEventDeduplicator.isDuplicate(orderId)) {
+            log.info("Skipping duplicate OrderCreatedEvent for order: {}", orderId);
+            return;
+        }
+
+        Payment payment = reservePayment(createPaymentForOrder(orderCreatedEvent));
+        if (payment == null) {
+            log.info("Payment for order: {} already stored, skipping", orderId);
+            orderEventDeduplicator.markProcessed(orderId);
+            return;
+        }
+        chargePaymentForOrder(payment);
+        // The processor turned the charge away without attempting it, so the order goes to the retry topics instead
+        // of being stored as failed. The reservation stays pending for the retry to resume.
+        if (isRejectedByProcessor(payment)) {
+            throw new PaymentProcessorException(payment.getErrorCode(), payment.getStatus(), payment.getErrorMessage());
+        }
+        completePaymentWithOutbox(payment, createOutboxEvent(payment, orderCreatedAt(orderCreatedEvent)));
     }
 
-    private boolean isPaymentSuccessful(ExternalPaymentApiResponse response) {
-        return response.getPaymentStatusNumber() % 2 == 0;
+    // Stops at the first event that cannot be completed: everything before it is stored, and the listener container
+    // commits up to that index and redelivers the rest, as it does for records that fail to deserialize.
+    public void processOrderCreatedEvents(List<OrderCreatedEvent> orderCreatedEvents) {
+        log.info("Processing batch of {} OrderCreatedEvents", orderCreatedEvents.size());
+
+        List<Payment> payments = new ArrayList<>(orderCreatedEvents.size());
+        List<Integer> eventIndexes = new ArrayList<>(orderCreatedEvents.size());
+        Set<String> batchOrderIds = new HashSet<>();
+        int failedIndex = -1;
+        RuntimeException failure = null;
+        for (int i = 0; i < orderCreatedEvents.size() && failure == null; i++) {
+            OrderCreatedEvent orderCreatedEvent = orderCreatedEvents.get(i);
+            try {
+                validateOrderCreatedEvent(orderCreatedEvent);
+                String orderId = orderCreatedEvent.getOrderId().toString();
+                if (!batchOrderIds.add(orderId) || orderEventDeduplicator.isDuplicate(orderId)) {
+                    log.info("Skipping duplicate OrderCreatedEvent for order: {}", orderId);
+                    continue;
+                }
+                Payment payment = createPaymentForOrder(orderCreatedEvent);
+                payment.setId(new ObjectId().toHexString());
+                payments.add(payment);
+                eventIndexes.add(i);
+            } catch (RuntimeException e) {
+                failedIndex = i;
+                failure = e;
+            }
+        }
+
+        if (!payments.isEmpty()) {
+            List<Payment> reservedPayments;
+            try {
+                reservedPayments = reservePayments(payments);
+            } catch (DataAccessException e) {
+                throw new BatchListenerFailedException("Failed to reserve payments for OrderCreatedEvents", e, eventIndexes.get(0));
+            }
+            List<Payment> chargedPayments = new ArrayList<>(reservedPayments.size());
+            List<OutboxEvent> outboxEvents = new ArrayList<>(reservedPayments.size());
+            List<Integer> chargedIndexes = new ArrayList<>(reservedPayments.size());
+            for (int i = 0; i < reservedPayments.size(); i++) {
+                Payment payment = reservedPayments.get(i);
+                int eventIndex = eventIndexes.get(i);
+                if (payment == null) {
+                    log.info("Payment for order: {} already stored, skipping", payments.get(i).getOrderId());
+                    orderEventDeduplicator.markProcessed(payments.get(i).getOrderId());
+                    continue;
+                }
+                chargePaymentForOrder(payment);
+                // Rejections go back to Kafka like on the single-record path; the later orders would be turned away too.
+                if (isRejectedByProcessor(payment)) {
+                    failedIndex = eventIndex;
+                    failure = new PaymentProcessorException(payment.getErrorCode(), payment.getStatus(), payment.getErrorMessage());
+                    break;
+                }
+                chargedPayments.add(payment);
+                outboxEvents.add(createOutboxEvent(payment, orderCreatedAt(orderCreatedEvents.get(eventIndex))));
+                chargedIndexes.add(eventIndex);
+            }
+            completePaymentsWithOutbox(chargedPayments, outboxEvents, chargedIndexes);
+        }
+        if (failure != null) {
+            throw new BatchListenerFailedException("Failed to process OrderCreatedEvent for order: "
+                    + orderCreatedEvents.get(failedIndex).getOrderId(), failure, failedIndex);
+        }
     }
 
-    @Transactional
-    public void processOrderCreatedEvent(OrderCreatedEvent orderCreatedEvent) {
-        log.info("Processing OrderCreatedEvent for order: {}", orderCreatedEvent.getOrderId());
+    // An event missing what the payment is built from fails the same way on every delivery, so it goes straight to
+    // the dead-letter topic instead of through the retries.
+    static void validateOrderCreatedEvent(OrderCreatedEvent orderCreatedEvent) {
+        if (orderCreatedEvent.getOrderId() == null) {
+            throw new InvalidOrderEventException("OrderCreatedEvent has no order id");
+        }
+        if (orderCreatedEvent.getUserId() == null) {
+            throw new InvalidOrderEventException("OrderCreatedEvent for order " + orderCreatedEvent.getOrderId() + " has no user id");
+        }
+        if (orderCreatedEvent.getTotalAmount() == null || orderCreatedEvent.getTotalAmount().signum() <= 0) {
+            throw new InvalidOrderEventException("OrderCreatedEvent for order " + orderCreatedEvent.getOrderId() + " has no positive total amount");
+        }
+        if (orderCreatedEvent.getCurrency() == null || orderCreatedEvent.getCurrency().isBlank()) {
+            throw new InvalidOrderEventException("OrderCreatedEvent for order " + orderCreatedEvent.getOrderId() + " has no currency");
+        }
+    }
 
+    private Payment createPaymentForOrder(OrderCreatedEvent orderCreatedEvent) {
         Payment payment = new Payment();
         payment.setOrderId(orderCreatedEvent.getOrderId().toString());
         payment.setUserId(orderCreatedEvent.getUserId().toString());
@@ -136,10 +388,15 @@ public class PaymentService {
         payment.setStatus(PaymentStatus.PENDING);
         payment.setDescription("Payment for order: " + orderCreatedEvent.getOrderId());
         payment.setPaymentMethodToken(orderCreatedEvent.getPaymentMethodToken());
+        payment.setSource(PaymentSource.ORDER_EVENT);
+        payment.setChargePending(true);
+        return payment;
+    }
 
+    private void chargePaymentForOrder(Payment payment) {
         try {
-            ExternalPaymentApiResponse paymentResponse = externalPaymentApiService.processPayment(payment);
-            if (isPaymentSuccessful(paymentResponse)) {
+            ExternalPaymentApiResponse paymentResponse = callProcessor(payment);
+            if (paymentResponse.isApproved()) {
                 payment.setStatus(PaymentStatus.SUCCESS);
             } else {
                 payment.setStatus(PaymentStatus.FAILED);
@@ -148,29 +405,242 @@ public class PaymentService {
             payment.setProcessorTransactionId(paymentResponse.getTransactionId());
 
         } catch (Exception e) {
+            markProcessorFailure(payment, e, "PAYMENT_PROCESSING_ERROR");
+        }
+    }
+
+    private ExternalPaymentApiResponse callProcessor(Payment payment) {
+        Timer.Sample sample = paymentMetrics.startTimer();
+        try {
+            ExternalPaymentApiResponse paymentResponse = paymentProcessor.processPayment(payment);
+            paymentMetrics.recordProcessorCall(sample, payment.getCurrency(),
+                    paymentResponse.isApproved() ? PaymentStatus.SUCCESS.name() : PaymentStatus.FAILED.name());
+            return paymentResponse;
+        } catch (RuntimeException e) {
+            paymentMetrics.recordProcessorCall(sample, payment.getCurrency(), "ERROR");
+            throw e;
+        }
+    }
+
+    // Processor calls dominate a batch, so they run concurrently on virtual threads, capped by a semaphore
+    // so a burst cannot flood the processor.
+    private void chargeApiPayments(List<Payment> payments) {
+        Semaphore permits = new Semaphore(batchProcessorParallelism);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Payment payment : payments) {
+                executor.execute(() -> {
+                    permits.acquireUninterruptibly();
+                    try {
+                        chargeApiPayment(payment);
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        }
+    }
+
+    private void chargeApiPayment(Payment payment) {
+        try {
+            ExternalPaymentApiResponse paymentResponse = callProcessor(payment);
+            payment.setStatus(paymentResponse.isApproved() ? PaymentStatus.SUCCESS : PaymentStatus.FAILED);
+            payment.setProcessorTransactionId(paymentResponse.getTransactionId());
+        } catch (Exception e) {
+            markProcessorFailure(payment, e, "API_ERROR");
+        }
+    }
+
+    // Breaker rejections and timeouts carry their own status and code; anything else is a plain failure.
+    static void markProcessorFailure(Payment payment, Throwable e, String errorCode) {
+        if (e instanceof PaymentProcessorException processorException) {
+            payment.setStatus(processorException.getPaymentStatus());
+            payment.setErrorCode(processorException.getErrorCode());
+        } else {
             payment.setStatus(PaymentStatus.FAILED);
-            payment.setErrorMessage(e.getMessage());
-            payment.setErrorCode("PAYMENT_PROCESSING_ERROR");
+            payment.setErrorCode(errorCode);
+        }
+        payment.setErrorMessage(e.getMessage());
+    }
+
+    private static boolean isRejectedByProcessor(Payment payment) {
+        return ResilientPaymentProcessor.CIRCUIT_OPEN.equals(payment.getErrorCode())
+                || ResilientPaymentProcessor.THROTTLED.equals(payment.getErrorCode());
+    }
+
+    private Set<Integer> insertPayments(List<Payment> payments) {
+        if (payments.isEmpty()) {
+            return Set.of();
+        }
+        Timer.Sample sample = paymentMetrics.startTimer();
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Payment.class)
+                    .insert(payments)
+                    .execute();
+            return Set.of();
+        } catch (BulkOperationException e) {
+            log.error("Bulk insert failed for {} of {} payments", e.getErrors().size(), payments.size(), e);
+            return e.getErrors().stream().map(BulkWriteError::getIndex).collect(Collectors.toSet());
+        } catch (DataAccessException e) {
+            log.error("Bulk insert of {} payments failed", payments.size(), e);
+            return IntStream.range(0, payments.size()).boxed().collect(Collectors.toSet());
+        } finally {
+            paymentMetrics.recordBulkSave(sample);
+        }
+    }
+
+    // Stores the charge results of reserved API payments and returns the indexes of those still stored as
+    // reservations. They were charged, so they are reported as pending: a failure would invite a second charge.
+    private Set<Integer> completeApiCharges(List<Payment> payments) {
+        if (payments.isEmpty()) {
+            return Set.of();
+        }
+        Timer.Sample sample = paymentMetrics.startTimer();
+        try {
+            paymentRepository.completeCharges(payments);
+            return Set.of();
+        } catch (BulkOperationException e) {
+            log.error("Charge results of {} of {} payments could not be stored", e.getErrors().size(), payments.size(), e);
+            return e.getErrors().stream().map(BulkWriteError::getIndex).collect(Collectors.toSet());
+        } catch (DataAccessException e) {
+            log.warn("Bulk completion of {} charged payments failed, retrying one by one", payments.size(), e);
+        } finally {
+            paymentMetrics.recordBulkSave(sample);
+        }
+        // A payment the failed bulk did complete no longer matches, so retrying it writes nothing.
+        Set<Integer> failedCompletions = new HashSet<>();
+        for (int i = 0; i < payments.size(); i++) {
+            Payment payment = payments.get(i);
+            try {
+                paymentRepository.completeCharge(payment);
+            } catch (DataAccessException e) {
+                log.error("Charge result of payment {} could not be stored (status {}, processor transaction {})",
+                        payment.getId(), payment.getStatus(), payment.getProcessorTransactionId(), e);
+                failedCompletions.add(i);
+            }
         }
+        return failedCompletions;
+    }
 
+    // The payment as it is stored until its charge result is written.
+    private static Payment asReserved(Payment payment) {
+        payment.setStatus(PaymentStatus.PENDING);
+        payment.setProcessorTransactionId(null);
+        payment.setErrorCode(null);
+        payment.setErrorMessage(null);
+        return payment;
+    }
+
+    private Payment savePayment(Payment payment) {
+        Timer.Sample sample = paymentMetrics.startTimer();
         Payment savedPayment = paymentRepository.save(payment);
-        sendPaymentCreatedEvent(savedPayment);
+        paymentMetrics.recordSave(sample, savedPayment);
+        return savedPayment;
     }
 
-    private void sendPaymentCreatedEvent(Payment payment) {
+    // The reservation is written before the charge and is the order's idempotency marker: a redelivery that finds it
+    // through the unique order index resumes it, and the processor sees the same payment id again. Returns null when
+    // the order's payment is already complete.
+    private Payment reservePayment(Payment payment) {
         try {
-            PaymentCreatedEvent event = new PaymentCreatedEvent();
-            event.setOrderId(UUID.fromString(payment.getOrderId()));
-            event.setStatus(payment.getStatus());
-            event.setPaymentId(payment.getId());
-            event.setErrorMessage(payment.getErrorMessage());
+            return paymentRepository.insert(payment);
+        } catch (DuplicateKeyException e) {
+            return resumeReservation(payment.getOrderId());
+        }
+    }
 
-            kafkaTemplate.send(paymentCreatedTopic, event);
-            log.info("PaymentCreatedEvent sent for order: {}, status: {}",
-                    payment.getOrderId(), payment.getStatus());
+    // Same as reservePayment for a batch, in one unordered bulk insert; slots of completed orders come back null.
+    private List<Payment> reservePayments(List<Payment> payments) {
+        List<Payment> reservedPayments = new ArrayList<>(payments);
+        Timer.Sample sample = paymentMetrics.startTimer();
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Payment.class)
+                    .insert(payments)
+                    .execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                if (ErrorCategory.fromErrorCode(error.getCode()) != ErrorCategory.DUPLICATE_KEY) {
+                    throw e;
+                }
+                reservedPayments.set(error.getIndex(), resumeReservation(payments.get(error.getIndex()).getOrderId()));
+            }
+        } finally {
+            paymentMetrics.recordBulkSave(sample);
+        }
+        return reservedPayments;
+    }
 
-        } catch (Exception e) {
-            log.error("Failed to send PaymentCreatedEvent for payment: {}", payment.getId(), e);
+    private Payment resumeReservation(String orderId) {
+        return paymentRepository.findByOrderIdAndSource(orderId, PaymentSource.ORDER_EVENT)
+                .filter(payment -> Boolean.TRUE.equals(payment.getChargePending()))
+                .orElse(null);
+    }
+
+    private void completePaymentsWithOutbox(List<Payment> payments, List<OutboxEvent> outboxEvents, List<Integer> eventIndexes) {
+        if (payments.isEmpty()) {
+            return;
         }
+        try {
+            Timer.Sample sample = paymentMetrics.startTimer();
+            transactionTemplate.executeWithoutResult(status -> {
+                // A reservation completed meanwhile by another delivery already has its outbox entry; the one-by-one
+                // path skips it.
+                if (paymentRepository.completeCharges(payments) != payments.size()) {
+                    throw new IllegalStateException("Some reserved payments were completed by another delivery");
+                }
+                mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, OutboxEvent.class)
+                        .insert(outboxEvents)
+                        .execute();
+            });
+            paymentMetrics.recordBulkSave(sample);
+            payments.forEach(payment -> {
+                orderEventDeduplicator.markProcessed(payment.getOrderId());
+                paymentResponseCache.invalidate(payment.getId());
+            });
+        } catch (DataAccessException | TransactionException | IllegalStateException e) {
+            log.warn("Bulk completion of {} payments failed, retrying one by one", payments.size(), e);
+            for (int i = 0; i < payments.size(); i++) {
+                try {
+                    completePaymentWithOutbox(payments.get(i), outboxEvents.get(i));
+                } catch (DataAccessException | TransactionException ex) {
+                    throw new BatchListenerFailedException("Failed to store payment for order: " + payments.get(i).getOrderId(),
+                            ex, eventIndexes.get(i));
+                }
+            }
+        }
+    }
+
+    private void completePaymentWithOutbox(Payment payment, OutboxEvent outboxEvent) {
+        Timer.Sample sample = paymentMetrics.startTimer();
+        boolean completed = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            if (!paymentRepository.completeCharge(payment)) {
+                return false;
+            }
+            outboxEventRepository.save(outboxEvent);
+            return true;
+        }));
+        paymentMetrics.recordSave(sample, payment);
+        if (completed) {
+            paymentResponseCache.invalidate(payment.getId());
+        } else {
+            log.warn("Payment for order: {} was completed by another delivery, dropping duplicate", payment.getOrderId());
+        }
+        orderEventDeduplicator.markProcessed(payment.getOrderId());
+    }
+
+    private Instant orderCreatedAt(OrderCreatedEvent orderCreatedEvent) {
+        return orderCreatedEvent.getTimestamp() != null ? orderCreatedEvent.getTimestamp() : Instant.now();
+    }
+
+    private OutboxEvent createOutboxEvent(Payment payment, Instant orderCreatedAt) {
+        OutboxEvent outboxEvent = new OutboxEvent();
+        outboxEvent.setPaymentId(payment.getId());
+        outboxEvent.setOrderId(payment.getOrderId());
+        outboxEvent.setCurrency(payment.getCurrency());
+        outboxEvent.setOrderCreatedAt(orderCreatedAt);
+        outboxEvent.setPaymentStatus(payment.getStatus());
+        outboxEvent.setErrorMessage(payment.getErrorMessage());
+        outboxEvent.setStatus(OutboxStatus.PENDING);
+        outboxEvent.setCreatedAt(LocalDateTime.now());
+        return outboxEvent;
     }
-}
\ No newline at end of file
+}
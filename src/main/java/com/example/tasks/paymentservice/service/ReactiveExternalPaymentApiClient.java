@@ -0,0 +1,23 @@
+package com.example.tasks.paymentservice.service;
+
+import com.example.tasks.paymentservice.dto.ExternalPaymentApiResponse;
+import com.example.tasks.paymentservice.model.Payment;
+import com.example.tasks.paymentservice.processor.ResilientPaymentProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveExternalPaymentApiClient {
+    private final ResilientPaymentProcessor paymentProcessor;
+
+    public ReactiveExternalPaymentApiClient(ResilientPaymentProcessor paymentProcessor) {
+        this.paymentProcessor = paymentProcessor;
+    }
+
+    // The processor call runs on its own virtual thread, so the event loop only waits on the future.
+    public Mono<ExternalPaymentApiResponse> processPayment(Payment payment) {
+        return Mono.fromFuture(() -> paymentProcessor.processPaymentAsync(payment));
+    }
+}
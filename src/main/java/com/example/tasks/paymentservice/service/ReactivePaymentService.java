@@ -0,0 +1,182 @@
+package com.example.tasks.paymentservice.service;
+
+import com.example.tasks.paymentservice.cache.PaymentResponseCache;
+import com.example.tasks.paymentservice.dto.ExternalPaymentApiResponse;
+import com.example.tasks.paymentservice.dto.PaymentBatchItemResultDto;
+import com.example.tasks.paymentservice.dto.PaymentPageDto;
+import com.example.tasks.paymentservice.dto.PaymentRequestDto;
+import com.example.tasks.paymentservice.dto.PaymentResponseDto;
+import com.example.tasks.paymentservice.dto.RevenueReportDto;
+import com.example.tasks.paymentservice.dto.mapper.PaymentMapper;
+import com.example.tasks.paymentservice.exception.PaymentAuthorizationException;
+import com.example.tasks.paymentservice.exception.PaymentNotFoundException;
+import com.example.tasks.paymentservice.model.Payment;
+import com.example.tasks.paymentservice.model.PaymentSource;
+import com.example.tasks.paymentservice.monitoring.PaymentMetrics;
+import com.example.tasks.paymentservice.repository.PaymentArchive;
+import com.example.tasks.paymentservice.repository.PaymentCursor;
+import com.example.tasks.paymentservice.repository.ReactivePaymentRepository;
+import com.example.tasks.paymentservice.security.GatewayPrincipal;
+import com.example.tasks.paymentservice.security.GatewayRole;
+import com.example.tasks.paymentservice.security.RequiresRole;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.example.tasks.model.PaymentStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+@Slf4j
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactivePaymentService {
+    private final ReactivePaymentRepository paymentRepository;
+    private final ReactiveExternalPaymentApiClient externalPaymentApiClient;
+    private final PaymentMapper paymentMapper;
+    private final PaymentResponseCache paymentResponseCache;
+    private final RevenueRollupService revenueRollupService;
+    private final PaymentMetrics paymentMetrics;
+    private final PaymentService paymentService;
+    @Value("${payment.pagination.max-limit:500}")
+    private int maxPageSize;
+
+    public ReactivePaymentService(ReactivePaymentRepository paymentRepository, ReactiveExternalPaymentApiClient externalPaymentApiClient, PaymentMapper paymentMapper, PaymentResponseCache paymentResponseCache, RevenueRollupService revenueRollupService, PaymentMetrics paymentMetrics, PaymentService paymentService) {
+        this.paymentRepository = paymentRepository;
+        this.externalPaymentApiClient = externalPaymentApiClient;
+        this.paymentMapper = paymentMapper;
+        this.paymentResponseCache = paymentResponseCache;
+        this.revenueRollupService = revenueRollupService;
+        this.paymentMetrics = paymentMetrics;
+        this.paymentService = paymentService;
+    }
+
+    @RequiresRole({GatewayRole.USER, GatewayRole.ADMIN})
+    public Mono<PaymentResponseDto> processPayment(PaymentRequestDto requestDto, GatewayPrincipal principal) {
+        return Mono.fromCallable(() -> {
+                    PaymentAccessRules.validateAuthorization(requestDto.getUserId(), principal, "perform");
+                    Payment payment = paymentMapper.toEntity(requestDto);
+                    payment.setStatus(PaymentStatus.PENDING);
+                    payment.setSource(PaymentSource.API);
+                    payment.setTimestamp(LocalDateTime.now());
+                    payment.setRollupPending(true);
+                    return payment;
+                })
+                .flatMap(payment -> callProcessor(payment)
+                        .map(paymentResponse -> {
+                            payment.setStatus(paymentResponse.isApproved() ? PaymentStatus.SUCCESS : PaymentStatus.FAILED);
+                            payment.setProcessorTransactionId(paymentResponse.getTransactionId());
+                            return payment;
+                        })
+                        .onErrorResume(e -> {
+                            PaymentService.markProcessorFailure(payment, e, "API_ERROR");
+                            return Mono.just(payment);
+                        }))
+                .flatMap(this::savePayment)
+                .map(paymentMapper::toDto)
+                .doOnNext(paymentResponseCache::refresh);
+    }
+
+    // Batches are processor-bound and use the blocking bulk write, so they run off the event loop.
+    @RequiresRole({GatewayRole.USER, GatewayRole.ADMIN})
+    public Mono<List<PaymentBatchItemResultDto>> processPayments(List<PaymentRequestDto> requestDtos, GatewayPrincipal principal) {
+        return Mono.fromCallable(() -> paymentService.processPayments(requestDtos, principal))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @RequiresRole({GatewayRole.USER, GatewayRole.ADMIN})
+    public Mono<PaymentResponseDto> getPaymentById(String paymentId, GatewayPrincipal principal) {
+        PaymentResponseDto cached = paymentResponseCache.get(paymentId);
+        if (cached != null) {
+            return Mono.fromCallable(() -> {
+                PaymentAccessRules.validateAuthorization(cached.getUserId(), principal, "get");
+                return cached;
+            });
+        }
+
+        return paymentRepository.findResponseViewById(paymentId)
+                .switchIfEmpty(Mono.defer(() -> paymentRepository.findArchivedResponseViewById(paymentId)))
+                .switchIfEmpty(Mono.error(() -> new PaymentNotFoundException(String.format("Payment with id=%s not found", paymentId))))
+                .map(payment -> {
+                    PaymentAccessRules.validateAuthorization(payment.getUserId(), principal, "get");
+                    return paymentMapper.toDto(payment);
+                })
+                .doOnNext(paymentResponseCache::refresh);
+    }
+
+    @RequiresRole({GatewayRole.USER, GatewayRole.ADMIN})
+    public Flux<PaymentResponseDto> getAllPaymentsByOrderId(String orderId, GatewayPrincipal principal) {
+        Mono<Boolean> authorized = PaymentAccessRules.isAdmin(principal)
+                ? Mono.just(true)
+                : Flux.concat(paymentRepository.findOwnersByOrderId(orderId), paymentRepository.findArchivedOwnersByOrderId(orderId))
+                        .all(owner -> principal.userId().equals(owner.getUserId()));
+
+        return authorized.flatMapMany(allowed -> allowed
+                ? Flux.concat(paymentRepository.findResponseViewByOrderId(orderId), paymentRepository.findArchivedResponseViewByOrderId(orderId))
+                        .map(paymentMapper::toDto)
+                : Flux.error(new PaymentAuthorizationException("You are not authorized to access these payments!")));
+    }
+
+    @RequiresRole({GatewayRole.USER, GatewayRole.ADMIN})
+    public Mono<PaymentPageDto> getPaymentsByUserId(String requestedUserId, String cursor, int limit, GatewayPrincipal principal) {
+        return Mono.defer(() -> {
+            PaymentAccessRules.validateAuthorization(requestedUserId, principal, "get");
+            PaymentCursor after = cursor == null ? null : PaymentCursor.decode(cursor);
+            int pageSize = Math.clamp(limit, 1, maxPageSize);
+
+            return paymentRepository.findPageByUserId(requestedUserId, after, pageSize + 1)
+                    .collectList()
+                    .map(payments -> {
+                        String nextCursor = null;
+                        List<Payment> page = payments;
+                        if (payments.size() > pageSize) {
+                            page = payments.subList(0, pageSize);
+                            nextCursor = PaymentCursor.after(page.get(pageSize - 1)).encode();
+                        }
+                        return new PaymentPageDto(page.stream().map(paymentMapper::toDto).toList(), nextCursor);
+                    });
+        });
+    }
+
+    @RequiresRole({GatewayRole.USER, GatewayRole.ADMIN})
+    public Flux<PaymentResponseDto> streamPaymentsByUserId(String requestedUserId, GatewayPrincipal principal) {
+        return Flux.defer(() -> {
+            PaymentAccessRules.validateAuthorization(requestedUserId, principal, "get");
+            return Flux.mergeComparing(PaymentArchive.NEWEST_FIRST,
+                            paymentRepository.streamResponseViewByUserId(requestedUserId),
+                            paymentRepository.streamArchivedResponseViewByUserId(requestedUserId))
+                    // A payment being moved can be read from both collections; the copies are adjacent.
+                    .distinctUntilChanged(Payment::getId)
+                    .map(paymentMapper::toDto);
+        });
+    }
+
+    @RequiresRole(GatewayRole.ADMIN)
+    public Mono<RevenueReportDto> getRevenue(String currency, LocalDateTime from, LocalDateTime to) {
+        return Mono.fromCallable(() -> revenueRollupService.report(currency, from, to))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private Mono<ExternalPaymentApiResponse> callProcessor(Payment payment) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = paymentMetrics.startTimer();
+            return externalPaymentApiClient.processPayment(payment)
+                    .doOnNext(paymentResponse -> paymentMetrics.recordProcessorCall(sample, payment.getCurrency(),
+                            paymentResponse.isApproved() ? PaymentStatus.SUCCESS.name() : PaymentStatus.FAILED.name()))
+                    .doOnError(e -> paymentMetrics.recordProcessorCall(sample, payment.getCurrency(), "ERROR"));
+        });
+    }
+
+    private Mono<Payment> savePayment(Payment payment) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = paymentMetrics.startTimer();
+            return paymentRepository.save(payment)
+                    .doOnNext(savedPayment -> paymentMetrics.recordSave(sample, savedPayment));
+        });
+    }
+}
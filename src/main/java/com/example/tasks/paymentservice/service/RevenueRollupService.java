@@ -0,0 +1,135 @@
+package com.example.tasks.paymentservice.service;
+
+import com.example.tasks.paymentservice.dto.RevenueReportDto;
+import com.example.tasks.paymentservice.model.Payment;
+import com.example.tasks.paymentservice.model.RevenueRollup;
+import com.example.tasks.paymentservice.repository.RevenueRollupRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.Decimal128;
+import org.example.tasks.model.PaymentStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@Slf4j
+public class RevenueRollupService {
+    private final MongoTemplate mongoTemplate;
+    private final RevenueRollupRepository revenueRollupRepository;
+    private final TransactionTemplate transactionTemplate;
+    @Value("${payment.revenue.rollup.batch-size:1000}")
+    private int batchSize;
+
+    public RevenueRollupService(MongoTemplate mongoTemplate, RevenueRollupRepository revenueRollupRepository, PlatformTransactionManager transactionManager) {
+        this.mongoTemplate = mongoTemplate;
+        this.revenueRollupRepository = revenueRollupRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // Payments are stored with rollup_pending set and counted here in batches, away from the payment writes: every
+    // payment of an hour hits the same rollup document, so a $inc per payment would turn it into a write-conflict hotspot.
+    @Scheduled(fixedDelayString = "${payment.revenue.rollup.interval-ms:1000}")
+    public void applyPending() {
+        int applied;
+        do {
+            applied = applyPendingBatch();
+        } while (applied == batchSize);
+    }
+
+    // Clearing the flags and the $inc commit together, so a crash cannot lose a payment and a second replica
+    // working on the same payments cannot count them twice.
+    int applyPendingBatch() {
+        Query pending = Query.query(Criteria.where("rollupPending").is(true)).limit(batchSize);
+        pending.fields().include("id", "currency", "paymentAmount", "timestamp", "status");
+        List<Payment> payments = mongoTemplate.find(pending, Payment.class);
+        if (payments.isEmpty()) {
+            return 0;
+        }
+        List<String> ids = payments.stream().map(Payment::getId).toList();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                long cleared = mongoTemplate.updateMulti(
+                        Query.query(Criteria.where("id").in(ids).and("rollupPending").is(true)),
+                        new Update().set("rollupPending", false),
+                        Payment.class).getModifiedCount();
+                if (cleared != ids.size()) {
+                    throw new IllegalStateException("Rollup of " + (ids.size() - cleared) + " payments already applied elsewhere");
+                }
+                record(payments);
+            });
+        } catch (DataAccessException | TransactionException | IllegalStateException e) {
+            // Nothing was applied; whatever is still pending is picked up on the next run.
+            log.warn("Revenue rollup of {} payments rolled back: {}", payments.size(), e.getMessage());
+            return 0;
+        }
+        return payments.size();
+    }
+
+    public void record(Payment payment) {
+        record(List.of(payment));
+    }
+
+    public void record(List<Payment> payments) {
+        Map<RollupKey, RollupDelta> deltas = new HashMap<>();
+        for (Payment payment : payments) {
+            if (payment.getCurrency() == null || payment.getPaymentAmount() == null || payment.getTimestamp() == null) {
+                log.warn("Skipping revenue rollup for incomplete payment: {}", payment.getId());
+                continue;
+            }
+            RollupKey key = new RollupKey(payment.getCurrency(), payment.getTimestamp().truncatedTo(ChronoUnit.HOURS), payment.getStatus());
+            deltas.computeIfAbsent(key, k -> new RollupDelta()).add(payment.getPaymentAmount());
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, RevenueRollup.class);
+        deltas.forEach((key, delta) -> bulkOperations.upsert(
+                Query.query(Criteria.where("currency").is(key.currency())
+                        .and("hour").is(key.hour())
+                        .and("status").is(key.status())),
+                new Update()
+                        .inc("totalAmount", new Decimal128(delta.amount))
+                        .inc("paymentCount", delta.count)));
+        bulkOperations.execute();
+    }
+
+    public RevenueReportDto report(String currency, LocalDateTime from, LocalDateTime to) {
+        LocalDateTime fromHour = from.truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime toHour = to.truncatedTo(ChronoUnit.HOURS);
+        if (toHour.isBefore(to)) {
+            toHour = toHour.plusHours(1);
+        }
+        return new RevenueReportDto(currency, fromHour, toHour,
+                revenueRollupRepository.sumByStatus(currency, fromHour, toHour));
+    }
+
+    private record RollupKey(String currency, LocalDateTime hour, PaymentStatus status) {
+    }
+
+    private static final class RollupDelta {
+        private BigDecimal amount = BigDecimal.ZERO;
+        private long count;
+
+        private void add(BigDecimal paymentAmount) {
+            amount = amount.add(paymentAmount);
+            count++;
+        }
+    }
+}
@@ -2,8 +2,8 @@ package com.example.tasks.paymentservice.integration;
 
 import com.example.tasks.paymentservice.dto.ExternalPaymentApiResponse;
 import com.example.tasks.paymentservice.model.Payment;
+import com.example.tasks.paymentservice.processor.gateway.PaymentProcessorGateway;
 import com.example.tasks.paymentservice.repository.PaymentRepository;
-import com.example.tasks.paymentservice.service.ExternalPaymentApiService;
 import org.example.tasks.dto.OrderCreatedEvent;
 import org.example.tasks.dto.PaymentCreatedEvent;
 import org.example.tasks.model.PaymentStatus;
@@ -67,7 +67,7 @@ class KafkaPaymentIntegrationTest {
     @Autowired
     private TestKafkaConsumer testKafkaConsumer;
     @MockitoBean
-    private ExternalPaymentApiService externalPaymentApiService;
+    private PaymentProcessorGateway paymentProcessorGateway;
 
     @BeforeEach
     void setUp() throws InterruptedException {
@@ -78,7 +78,7 @@ class KafkaPaymentIntegrationTest {
         successResponse.setTransactionId("txn_test_" + UUID.randomUUID());
         successResponse.setPaymentStatusNumber(10);
 
-        when(externalPaymentApiService.processPayment(any(Payment.class)))
+        when(paymentProcessorGateway.processPayment(any(Payment.class)))
                 .thenReturn(successResponse);
         Thread.sleep(2000);
     }
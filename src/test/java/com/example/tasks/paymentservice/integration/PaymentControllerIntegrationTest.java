@@ -2,10 +2,15 @@ package com.example.tasks.paymentservice.integration;
 
 import com.example.tasks.paymentservice.config.SecurityConfig;
 import com.example.tasks.paymentservice.controller.PaymentController;
+import com.example.tasks.paymentservice.dto.PaymentBatchItemResultDto;
+import com.example.tasks.paymentservice.dto.PaymentPageDto;
 import com.example.tasks.paymentservice.dto.PaymentRequestDto;
 import com.example.tasks.paymentservice.dto.PaymentResponseDto;
+import com.example.tasks.paymentservice.exception.InvalidPaymentCursorException;
 import com.example.tasks.paymentservice.exception.PaymentAuthorizationException;
 import com.example.tasks.paymentservice.exception.PaymentNotFoundException;
+import com.example.tasks.paymentservice.routing.CausalReadRouting;
+import com.example.tasks.paymentservice.security.GatewayPrincipal;
 import com.example.tasks.paymentservice.security.InternalAuthFilter;
 import com.example.tasks.paymentservice.service.PaymentService;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -13,8 +18,8 @@ import org.example.tasks.model.PaymentStatus;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
-import org.springframework.context.annotation.ComponentScan;
-import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
@@ -26,16 +31,17 @@ import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
-@WebMvcTest(
-        controllers = PaymentController.class,
-        excludeAutoConfiguration = SecurityConfig.class,
-        excludeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = InternalAuthFilter.class))
+@WebMvcTest(controllers = PaymentController.class)
+@Import({SecurityConfig.class, InternalAuthFilter.class})
 @ActiveProfiles("test")
 public class PaymentControllerIntegrationTest {
     @Autowired
@@ -47,12 +53,16 @@ public class PaymentControllerIntegrationTest {
     @MockitoBean
     private PaymentService paymentService;
 
+    @MockitoBean
+    private CausalReadRouting causalReadRouting;
+
     private final String TEST_USER_ID = "123e4567-e89b-12d3-a456-426614174000";
     private final String TEST_USER_ID_2 = "123e4567-e89b-12d3-a456-426614174001";
     private final String TEST_ORDER_ID = "223e4567-e89b-12d3-a456-426614174000";
     private final String TEST_PAYMENT_ID = "payment-123";
     private final String USER_ROLES = "ROLE_USER";
     private final String ADMIN_ROLES = "ROLE_ADMIN,ROLE_USER";
+    private final String INTERNAL_SECRET = "test-internal-secret";
 
     @Test
     void processPayment_WithValidRequest_ShouldReturnCreated() throws Exception {
@@ -60,11 +70,12 @@ public class PaymentControllerIntegrationTest {
         PaymentRequestDto request = createPaymentRequest();
         PaymentResponseDto response = createPaymentResponse();
 
-        when(paymentService.processPayment(any(PaymentRequestDto.class), eq(TEST_USER_ID), eq(USER_ROLES)))
+        when(paymentService.processPayment(any(PaymentRequestDto.class), eq(GatewayPrincipal.of(TEST_USER_ID, USER_ROLES))))
                 .thenReturn(response);
 
         // When & Then
         mockMvc.perform(post("/payment")
+                        .header("X-Internal-Secret", INTERNAL_SECRET)
                         .header("X-User-ID", TEST_USER_ID)
                         .header("X-User-Roles", USER_ROLES)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -77,6 +88,54 @@ public class PaymentControllerIntegrationTest {
                 .andExpect(jsonPath("$.status").value("SUCCESS"));
     }
 
+    @Test
+    void processPayment_WithWrite_ShouldReturnReadAfterToken() throws Exception {
+        // Given
+        PaymentRequestDto request = createPaymentRequest();
+
+        when(paymentService.processPayment(any(PaymentRequestDto.class), eq(GatewayPrincipal.of(TEST_USER_ID, USER_ROLES))))
+                .thenReturn(createPaymentResponse());
+        when(causalReadRouting.token()).thenReturn("read-after-token");
+
+        // When & Then
+        mockMvc.perform(post("/payment")
+                        .header("X-Internal-Secret", INTERNAL_SECRET)
+                        .header("X-User-ID", TEST_USER_ID)
+                        .header("X-User-Roles", USER_ROLES)
+                        .header("X-Read-After", "previous-token")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("X-Read-After", "read-after-token"));
+        verify(causalReadRouting).open("previous-token");
+        verify(causalReadRouting).close();
+    }
+
+    @Test
+    void processPayments_WithBatch_ShouldReturnPerItemResults() throws Exception {
+        // Given
+        List<PaymentRequestDto> requests = List.of(createPaymentRequest(), new PaymentRequestDto());
+        List<PaymentBatchItemResultDto> results = List.of(
+                PaymentBatchItemResultDto.processed(0, createPaymentResponse()),
+                PaymentBatchItemResultDto.failed(1, HttpStatus.BAD_REQUEST, "VALIDATION_ERROR", "Amount is required"));
+
+        when(paymentService.processPayments(any(), eq(GatewayPrincipal.of(TEST_USER_ID, USER_ROLES)))).thenReturn(results);
+
+        // When & Then
+        mockMvc.perform(post("/payment/batch")
+                        .header("X-Internal-Secret", INTERNAL_SECRET)
+                        .header("X-User-ID", TEST_USER_ID)
+                        .header("X-User-Roles", USER_ROLES)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requests)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(201))
+                .andExpect(jsonPath("$[0].payment.id").value(TEST_PAYMENT_ID))
+                .andExpect(jsonPath("$[1].status").value(400))
+                .andExpect(jsonPath("$[1].error").value("VALIDATION_ERROR"))
+                .andExpect(jsonPath("$[1].payment").doesNotExist());
+    }
+
     @Test
     void processPayment_WithInvalidRequest_ShouldReturnBadRequest() throws Exception {
         // Given
@@ -84,6 +143,7 @@ public class PaymentControllerIntegrationTest {
 
         // When & Then
         mockMvc.perform(post("/payment")
+                        .header("X-Internal-Secret", INTERNAL_SECRET)
                         .header("X-User-ID", TEST_USER_ID)
                         .header("X-User-Roles", USER_ROLES)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -96,11 +156,12 @@ public class PaymentControllerIntegrationTest {
         // Given
         PaymentRequestDto request = createPaymentRequest();
 
-        when(paymentService.processPayment(any(PaymentRequestDto.class), eq(TEST_USER_ID_2), eq(USER_ROLES)))
+        when(paymentService.processPayment(any(PaymentRequestDto.class), eq(GatewayPrincipal.of(TEST_USER_ID_2, USER_ROLES))))
                 .thenThrow(new PaymentAuthorizationException("Not authorized"));
 
         // When & Then
         mockMvc.perform(post("/payment")
+                        .header("X-Internal-Secret", INTERNAL_SECRET)
                         .header("X-User-ID", TEST_USER_ID_2)
                         .header("X-User-Roles", USER_ROLES)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -113,11 +174,12 @@ public class PaymentControllerIntegrationTest {
         // Given
         PaymentResponseDto response = createPaymentResponse();
 
-        when(paymentService.getPaymentById(TEST_PAYMENT_ID, TEST_USER_ID, USER_ROLES))
+        when(paymentService.getPaymentById(TEST_PAYMENT_ID, GatewayPrincipal.of(TEST_USER_ID, USER_ROLES)))
                 .thenReturn(response);
 
         // When & Then
         mockMvc.perform(get("/payment/{paymentId}", TEST_PAYMENT_ID)
+                        .header("X-Internal-Secret", INTERNAL_SECRET)
                         .header("X-User-ID", TEST_USER_ID)
                         .header("X-User-Roles", USER_ROLES))
                 .andExpect(status().isOk())
@@ -128,11 +190,12 @@ public class PaymentControllerIntegrationTest {
     @Test
     void getPaymentById_WithNonExistingPayment_ShouldReturnNotFound() throws Exception {
         // Given
-        when(paymentService.getPaymentById("non-existing", TEST_USER_ID, USER_ROLES))
+        when(paymentService.getPaymentById("non-existing", GatewayPrincipal.of(TEST_USER_ID, USER_ROLES)))
                 .thenThrow(new PaymentNotFoundException("Payment not found"));
 
         // When & Then
         mockMvc.perform(get("/payment/{paymentId}", "non-existing")
+                        .header("X-Internal-Secret", INTERNAL_SECRET)
                         .header("X-User-ID", TEST_USER_ID)
                         .header("X-User-Roles", USER_ROLES))
                 .andExpect(status().isNotFound());
@@ -146,11 +209,12 @@ public class PaymentControllerIntegrationTest {
                 createPaymentResponse()
         );
 
-        when(paymentService.getAllPaymentsByOrderId(TEST_ORDER_ID, TEST_USER_ID, USER_ROLES))
+        when(paymentService.getAllPaymentsByOrderId(TEST_ORDER_ID, GatewayPrincipal.of(TEST_USER_ID, USER_ROLES)))
                 .thenReturn(responses);
 
         // When & Then
         mockMvc.perform(get("/payment/order/{orderId}", TEST_ORDER_ID)
+                        .header("X-Internal-Secret", INTERNAL_SECRET)
                         .header("X-User-ID", TEST_USER_ID)
                         .header("X-User-Roles", USER_ROLES))
                 .andExpect(status().isOk())
@@ -162,11 +226,12 @@ public class PaymentControllerIntegrationTest {
     @Test
     void getPaymentsByOrderId_WithUnauthorizedUser_ShouldReturnForbidden() throws Exception {
         // Given
-        when(paymentService.getAllPaymentsByOrderId(TEST_ORDER_ID, TEST_USER_ID_2, USER_ROLES))
+        when(paymentService.getAllPaymentsByOrderId(TEST_ORDER_ID, GatewayPrincipal.of(TEST_USER_ID_2, USER_ROLES)))
                 .thenThrow(new PaymentAuthorizationException("Not authorized"));
 
         // When & Then
         mockMvc.perform(get("/payment/order/{orderId}", TEST_ORDER_ID)
+                        .header("X-Internal-Secret", INTERNAL_SECRET)
                         .header("X-User-ID", TEST_USER_ID_2)
                         .header("X-User-Roles", USER_ROLES))
                 .andExpect(status().isForbidden());
@@ -180,11 +245,12 @@ public class PaymentControllerIntegrationTest {
                 createPaymentResponse()
         );
 
-        when(paymentService.getAllPaymentsByUserId(TEST_USER_ID, TEST_USER_ID, ADMIN_ROLES))
-                .thenReturn(responses);
+        when(paymentService.getPaymentsByUserId(TEST_USER_ID, null, 50, GatewayPrincipal.of(TEST_USER_ID, ADMIN_ROLES)))
+                .thenReturn(new PaymentPageDto(responses, null));
 
         // When & Then
         mockMvc.perform(get("/payment/user/{userId}", TEST_USER_ID)
+                        .header("X-Internal-Secret", INTERNAL_SECRET)
                         .header("X-User-ID", TEST_USER_ID)
                         .header("X-User-Roles", ADMIN_ROLES))
                 .andExpect(status().isOk())
@@ -197,11 +263,12 @@ public class PaymentControllerIntegrationTest {
         // Given
         List<PaymentResponseDto> responses = List.of(createPaymentResponse());
 
-        when(paymentService.getAllPaymentsByUserId(TEST_USER_ID, TEST_USER_ID, USER_ROLES))
-                .thenReturn(responses);
+        when(paymentService.getPaymentsByUserId(TEST_USER_ID, null, 50, GatewayPrincipal.of(TEST_USER_ID, USER_ROLES)))
+                .thenReturn(new PaymentPageDto(responses, null));
 
         // When & Then
         mockMvc.perform(get("/payment/user/{userId}", TEST_USER_ID)
+                        .header("X-Internal-Secret", INTERNAL_SECRET)
                         .header("X-User-ID", TEST_USER_ID)
                         .header("X-User-Roles", USER_ROLES))
                 .andExpect(status().isOk())
@@ -212,16 +279,63 @@ public class PaymentControllerIntegrationTest {
     @Test
     void getPaymentsByUserId_WithDifferentUser_ShouldReturnForbidden() throws Exception {
         // Given
-        when(paymentService.getAllPaymentsByUserId(TEST_USER_ID, TEST_USER_ID_2, USER_ROLES))
+        when(paymentService.getPaymentsByUserId(TEST_USER_ID, null, 50, GatewayPrincipal.of(TEST_USER_ID_2, USER_ROLES)))
                 .thenThrow(new PaymentAuthorizationException("Not authorized"));
 
         // When & Then
         mockMvc.perform(get("/payment/user/{userId}", TEST_USER_ID)
+                        .header("X-Internal-Secret", INTERNAL_SECRET)
                         .header("X-User-ID", TEST_USER_ID_2)
                         .header("X-User-Roles", USER_ROLES))
                 .andExpect(status().isForbidden());
     }
 
+    @Test
+    void getPaymentsByUserId_WithNextPage_ShouldReturnCursorHeader() throws Exception {
+        // Given
+        List<PaymentResponseDto> responses = List.of(createPaymentResponse());
+
+        when(paymentService.getPaymentsByUserId(TEST_USER_ID, "cursor-1", 1, GatewayPrincipal.of(TEST_USER_ID, USER_ROLES)))
+                .thenReturn(new PaymentPageDto(responses, "cursor-2"));
+
+        // When & Then
+        mockMvc.perform(get("/payment/user/{userId}", TEST_USER_ID)
+                        .param("cursor", "cursor-1")
+                        .param("limit", "1")
+                        .header("X-Internal-Secret", INTERNAL_SECRET)
+                        .header("X-User-ID", TEST_USER_ID)
+                        .header("X-User-Roles", USER_ROLES))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "cursor-2"))
+                .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    void getPaymentsByUserId_WithInvalidCursor_ShouldReturnBadRequest() throws Exception {
+        // Given
+        when(paymentService.getPaymentsByUserId(TEST_USER_ID, "broken", 50, GatewayPrincipal.of(TEST_USER_ID, USER_ROLES)))
+                .thenThrow(new InvalidPaymentCursorException("Invalid cursor: broken"));
+
+        // When & Then
+        mockMvc.perform(get("/payment/user/{userId}", TEST_USER_ID)
+                        .param("cursor", "broken")
+                        .header("X-Internal-Secret", INTERNAL_SECRET)
+                        .header("X-User-ID", TEST_USER_ID)
+                        .header("X-User-Roles", USER_ROLES))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("INVALID_CURSOR"));
+    }
+
+    @Test
+    void getPaymentById_WithoutInternalSecret_ShouldReturnForbidden() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/payment/{paymentId}", TEST_PAYMENT_ID)
+                        .header("X-User-ID", TEST_USER_ID)
+                        .header("X-User-Roles", USER_ROLES))
+                .andExpect(status().isForbidden());
+        verify(paymentService, never()).getPaymentById(any(), any());
+    }
+
     // Helper methods
     private PaymentRequestDto createPaymentRequest() {
         PaymentRequestDto request = new PaymentRequestDto();
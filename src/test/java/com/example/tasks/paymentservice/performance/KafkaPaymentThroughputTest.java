@@ -0,0 +1,261 @@
+package com.example.tasks.paymentservice.performance;
+
+import com.example.tasks.paymentservice.repository.PaymentRepository;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.apache.kafka.clients.admin.Admin;
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.ListOffsetsResult;
+import org.apache.kafka.clients.admin.OffsetSpec;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.example.tasks.dto.OrderCreatedEvent;
+import org.example.tasks.dto.PaymentCreatedEvent;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Open-loop throughput run over the real consumer, Mongo and outbox relay path. Excluded from the default build; run with
+ * <pre>
+ * mvn -Pperformance test [-Dperf.events=50000 -Dperf.rate=5000 -Dperf.gateway=simulator]
+ * </pre>
+ * System properties: {@code perf.events} (default 20000), {@code perf.rate} events/s (default 2000),
+ * {@code perf.warmup-events} (default 2000), {@code perf.timeout} (default PT5M), {@code perf.max-p99-ms} (unset: no check).
+ * Histograms are written to {@code target/performance} in HdrHistogram percentile format.
+ */
+@Tag("performance")
+@SpringBootTest(properties = {
+        "payment.processor.gateway.type=${perf.gateway:stub}",
+        "logging.level.com.example.tasks.paymentservice=WARN"
+})
+@EmbeddedKafka(
+        partitions = 6,
+        topics = {"order-created-topic-test", "payment-created-topic-test"},
+        brokerProperties = {
+                "listeners=PLAINTEXT://localhost:0",
+                "port=0"
+        }
+)
+@Testcontainers
+@ActiveProfiles("test")
+@DirtiesContext
+class KafkaPaymentThroughputTest {
+    private static final String CONSUMER_GROUP = "payment-service-group";
+    private static final String ORDER_CREATED_TOPIC = "order-created-topic-test";
+
+    @Container
+    @ServiceConnection
+    static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:7.0");
+
+    @DynamicPropertySource
+    static void setProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongoDBContainer::getReplicaSetUrl);
+    }
+
+    @Autowired
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private LatencyRecorder latencyRecorder;
+
+    @Value("${spring.embedded.kafka.brokers}")
+    private String brokers;
+
+    @Test
+    void orderCreatedToPaymentCreated_ShouldSustainTargetRate() throws Exception {
+        int events = Integer.getInteger("perf.events", 20_000);
+        int rate = Integer.getInteger("perf.rate", 2_000);
+        int warmupEvents = Integer.getInteger("perf.warmup-events", 2_000);
+        Duration timeout = Duration.parse(System.getProperty("perf.timeout", "PT5M"));
+
+        // Given
+        paymentRepository.deleteAll();
+        assertThat(run(warmupEvents, rate, timeout)).as("warm-up completed").isTrue();
+        latencyRecorder.reset();
+
+        Histogram lag = new ConcurrentHistogram(3);
+        try (Admin admin = Admin.create(Map.of(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, brokers))) {
+            ScheduledExecutorService lagSampler = Executors.newSingleThreadScheduledExecutor();
+            lagSampler.scheduleAtFixedRate(() -> lag.recordValue(consumerLag(admin)), 0, 100, TimeUnit.MILLISECONDS);
+
+            // When
+            long startNanos = System.nanoTime();
+            boolean completed = run(events, rate, timeout);
+            long elapsedNanos = latencyRecorder.lastArrivalNanos() - startNanos;
+            lagSampler.shutdownNow();
+
+            // Then
+            Histogram latency = latencyRecorder.histogram();
+            double eventsPerSecond = latency.getTotalCount() / (elapsedNanos / 1e9);
+            report(events, rate, eventsPerSecond, latency, lag);
+            assertThat(completed).as("all %d PaymentCreatedEvents arrived within %s", events, timeout).isTrue();
+            String maxP99 = System.getProperty("perf.max-p99-ms");
+            if (maxP99 != null) {
+                assertThat(latency.getValueAtPercentile(99) / 1000.0).isLessThanOrEqualTo(Double.parseDouble(maxP99));
+            }
+        }
+    }
+
+    // Sends are paced against a schedule and latency is measured from the scheduled time, not the actual send,
+    // so a stalled producer or broker shows up in the latency instead of silently lowering the offered load.
+    private boolean run(int events, int rate, Duration timeout) throws InterruptedException {
+        CountDownLatch arrivals = latencyRecorder.expect(events);
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < events; i++) {
+            long scheduledNanos = startNanos + i * intervalNanos;
+            long waitNanos = scheduledNanos - System.nanoTime();
+            if (waitNanos > 0) {
+                LockSupport.parkNanos(waitNanos);
+            }
+            OrderCreatedEvent event = orderCreatedEvent();
+            latencyRecorder.sent(event.getOrderId(), scheduledNanos);
+            kafkaTemplate.send(ORDER_CREATED_TOPIC, event.getOrderId().toString(), event);
+        }
+        kafkaTemplate.flush();
+        return arrivals.await(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private long consumerLag(Admin admin) {
+        try {
+            Map<TopicPartition, OffsetAndMetadata> committed = admin.listConsumerGroupOffsets(CONSUMER_GROUP)
+                    .partitionsToOffsetAndMetadata().get();
+            Map<TopicPartition, OffsetSpec> latest = committed.keySet().stream()
+                    .filter(partition -> partition.topic().equals(ORDER_CREATED_TOPIC))
+                    .collect(Collectors.toMap(partition -> partition, partition -> OffsetSpec.latest()));
+            Map<TopicPartition, ListOffsetsResult.ListOffsetsResultInfo> endOffsets = admin.listOffsets(latest).all().get();
+            return endOffsets.entrySet().stream()
+                    .mapToLong(entry -> Math.max(0, entry.getValue().offset() - committed.get(entry.getKey()).offset()))
+                    .sum();
+        } catch (Exception e) {
+            return 0;
+        }
+    }
+
+    private void report(int events, int rate, double eventsPerSecond, Histogram latency, Histogram lag) throws IOException {
+        System.out.printf("%n=== Kafka path: %d events at %d/s offered ===%n", events, rate);
+        System.out.printf("sustained  %10.0f events/s%n", eventsPerSecond);
+        System.out.printf("e2e ms     p50 %8.2f  p99 %8.2f  p99.9 %8.2f  max %8.2f%n",
+                latency.getValueAtPercentile(50) / 1000.0, latency.getValueAtPercentile(99) / 1000.0,
+                latency.getValueAtPercentile(99.9) / 1000.0, latency.getMaxValue() / 1000.0);
+        System.out.printf("lag        p50 %8d  p99 %8d  max %8d records%n",
+                lag.getValueAtPercentile(50), lag.getValueAtPercentile(99), lag.getMaxValue());
+
+        Path directory = Files.createDirectories(Path.of("target", "performance"));
+        try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve("e2e-latency-ms.hgrm")))) {
+            latency.outputPercentileDistribution(out, 1000.0);
+        }
+        try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve("consumer-lag.hgrm")))) {
+            lag.outputPercentileDistribution(out, 1.0);
+        }
+    }
+
+    private static OrderCreatedEvent orderCreatedEvent() {
+        OrderCreatedEvent orderEvent = new OrderCreatedEvent();
+        orderEvent.setOrderId(UUID.randomUUID());
+        orderEvent.setUserId(UUID.randomUUID());
+        orderEvent.setTotalAmount(new BigDecimal("150.75"));
+        orderEvent.setCurrency("USD");
+        orderEvent.setTimestamp(Instant.now());
+        orderEvent.setPaymentMethodToken("pm_token_123");
+        return orderEvent;
+    }
+
+    @TestConfiguration
+    @EnableKafka
+    static class TestConfig {
+
+        @Bean
+        public LatencyRecorder latencyRecorder() {
+            return new LatencyRecorder();
+        }
+    }
+
+    static class LatencyRecorder {
+        private final Map<UUID, Long> scheduledNanos = new ConcurrentHashMap<>();
+        private final Histogram histogram = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(10), 3);
+        private volatile CountDownLatch arrivals = new CountDownLatch(0);
+        private volatile long lastArrivalNanos;
+        private final String consumerGroupId = "perf-consumer-group-" + UUID.randomUUID();
+
+        @KafkaListener(
+                topics = "payment-created-topic-test",
+                groupId = "#{__listener.consumerGroupId}"
+        )
+        public void handlePaymentCreatedEvent(PaymentCreatedEvent event) {
+            Long scheduled = scheduledNanos.remove(event.getOrderId());
+            if (scheduled == null) {
+                return;
+            }
+            long now = System.nanoTime();
+            histogram.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(now - scheduled), histogram.getHighestTrackableValue()));
+            lastArrivalNanos = now;
+            arrivals.countDown();
+        }
+
+        public String getConsumerGroupId() {
+            return consumerGroupId;
+        }
+
+        CountDownLatch expect(int events) {
+            arrivals = new CountDownLatch(events);
+            return arrivals;
+        }
+
+        void sent(UUID orderId, long scheduledNanos) {
+            this.scheduledNanos.put(orderId, scheduledNanos);
+        }
+
+        long lastArrivalNanos() {
+            return lastArrivalNanos;
+        }
+
+        Histogram histogram() {
+            return histogram;
+        }
+
+        void reset() {
+            scheduledNanos.clear();
+            histogram.reset();
+        }
+    }
+}
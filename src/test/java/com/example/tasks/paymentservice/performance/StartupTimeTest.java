@@ -0,0 +1,187 @@
+package com.example.tasks.paymentservice.performance;
+
+import com.example.tasks.paymentservice.constants.HttpHeaders;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cold-start run over the packaged jar: every start is a fresh JVM against embedded Kafka and a MongoDB container, timed
+ * from process launch until the first API request is answered. Excluded from the default build; run with
+ * <pre>
+ * mvn -Paot package -DskipTests
+ * mvn -Pperformance test -Dtest=StartupTimeTest [-Dstartup.modes=jar,extracted,cds -Dstartup.aot=true]
+ * </pre>
+ * System properties: {@code startup.jar} (default: the jar in {@code target}), {@code startup.modes} (default
+ * {@code jar,cds}), {@code startup.aot} (default false; needs a jar built with {@code -Paot}), {@code startup.runs}
+ * (default 5), {@code startup.timeout} (default PT2M), {@code startup.max-ms} (unset: no check on the last mode's median).
+ * The cds mode trains its archive the way the Dockerfile does. Process output is written to {@code target/startup}.
+ */
+@Tag("performance")
+@EmbeddedKafka(
+        partitions = 6,
+        topics = {"order-created-topic", "payment-created-topic"},
+        brokerProperties = {
+                "listeners=PLAINTEXT://localhost:0",
+                "port=0"
+        }
+)
+@Testcontainers
+class StartupTimeTest {
+    private static final String GATEWAY_SECRET = "startup-gateway-secret";
+
+    @Container
+    static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:7.0");
+
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+    @Test
+    void coldStart_ShouldServeFirstRequestQuickly(EmbeddedKafkaBroker broker) throws Exception {
+        Path jar = jar();
+        List<String> modes = Arrays.asList(System.getProperty("startup.modes", "jar,cds").split(","));
+        boolean aot = Boolean.getBoolean("startup.aot");
+        int runs = Integer.getInteger("startup.runs", 5);
+        Duration timeout = Duration.parse(System.getProperty("startup.timeout", "PT2M"));
+        Path directory = Files.createDirectories(Path.of("target", "startup"));
+
+        // Given
+        Path extracted = directory.resolve("extracted");
+        if (modes.contains("extracted") || modes.contains("cds")) {
+            exec(directory.resolve("extract.log"), List.of(java(), "-Djarmode=tools", "-jar", jar.toString(),
+                    "extract", "--force", "--destination", extracted.toString()));
+        }
+        Path archive = extracted.resolve("application.jsa").toAbsolutePath();
+        if (modes.contains("cds")) {
+            exec(directory.resolve("cds-training.log"), command(broker, extracted.resolve(jar.getFileName()), aot,
+                    List.of("-XX:ArchiveClassesAtExit=" + archive, "-Dspring.context.exit=onRefresh")));
+        }
+
+        long lastMedianMs = 0;
+        System.out.printf("%n=== Cold start to first served request (%s, aot %s) ===%n", jar.getFileName(), aot);
+        for (String mode : modes) {
+            List<String> command = switch (mode) {
+                case "jar" -> command(broker, jar, aot, List.of());
+                case "extracted" -> command(broker, extracted.resolve(jar.getFileName()), aot, List.of());
+                case "cds" -> command(broker, extracted.resolve(jar.getFileName()), aot,
+                        List.of("-XX:SharedArchiveFile=" + archive));
+                default -> throw new IllegalArgumentException("Unknown startup mode " + mode);
+            };
+
+            // When
+            long[] startMs = new long[runs];
+            for (int run = 0; run < runs; run++) {
+                startMs[run] = timeToFirstRequest(command, directory.resolve(mode + "-" + run + ".log"), timeout);
+            }
+
+            // Then
+            Arrays.sort(startMs);
+            lastMedianMs = startMs[runs / 2];
+            System.out.printf("%-10s min %6d  median %6d  max %6d ms%n", mode, startMs[0], lastMedianMs, startMs[runs - 1]);
+        }
+        String maxMs = System.getProperty("startup.max-ms");
+        if (maxMs != null) {
+            assertThat(lastMedianMs).isLessThanOrEqualTo(Long.parseLong(maxMs));
+        }
+    }
+
+    private long timeToFirstRequest(List<String> command, Path log, Duration timeout) throws Exception {
+        int port = freePort();
+        List<String> withPort = new ArrayList<>(command);
+        withPort.add("--server.port=" + port);
+        // A real read through security, the controller, the service and MongoDB, so beans created lazily count too.
+        String userId = UUID.randomUUID().toString();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/payment/user/" + userId))
+                .header(HttpHeaders.INTERNAL_SECRET, GATEWAY_SECRET)
+                .header(HttpHeaders.USER_ID, userId)
+                .header(HttpHeaders.USER_ROLES, "USER")
+                .timeout(Duration.ofSeconds(10))
+                .build();
+
+        long startNanos = System.nanoTime();
+        Process process = new ProcessBuilder(withPort).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+        try {
+            while (System.nanoTime() - startNanos < timeout.toNanos()) {
+                assertThat(process.isAlive()).as("application started, see %s", log).isTrue();
+                try {
+                    HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                    assertThat(response.statusCode()).as("first response, see %s", log).isEqualTo(200);
+                    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+                } catch (IOException e) {
+                    // Not listening yet.
+                    TimeUnit.MILLISECONDS.sleep(10);
+                }
+            }
+            throw new AssertionError("No response within " + timeout + ", see " + log);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private List<String> command(EmbeddedKafkaBroker broker, Path jar, boolean aot, List<String> jvmArgs) {
+        List<String> command = new ArrayList<>();
+        command.add(java());
+        command.addAll(jvmArgs);
+        if (aot) {
+            command.add("-Dspring.aot.enabled=true");
+        }
+        command.addAll(List.of("-jar", jar.toString(),
+                "--spring.data.mongodb.uri=" + mongoDBContainer.getReplicaSetUrl(),
+                "--spring.kafka.bootstrap-servers=" + broker.getBrokersAsString(),
+                "--gateway.internal.secret=" + GATEWAY_SECRET,
+                "--logging.level.com.example.tasks.paymentservice=WARN"));
+        return command;
+    }
+
+    private static void exec(Path log, List<String> command) throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+        assertThat(process.waitFor(5, TimeUnit.MINUTES)).as("%s finished", command).isTrue();
+        assertThat(process.exitValue()).as("exit code, see %s", log).isZero();
+    }
+
+    private static Path jar() throws IOException {
+        String configured = System.getProperty("startup.jar");
+        if (configured != null) {
+            return Path.of(configured);
+        }
+        try (Stream<Path> files = Files.list(Path.of("target"))) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".jar"))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException("No jar in target; run mvn package first"));
+        }
+    }
+
+    private static String java() {
+        return Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package com.example.tasks.paymentservice.performance;
+
+import com.example.tasks.paymentservice.constants.HttpHeaders;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.example.tasks.dto.OrderCreatedEvent;
+import org.example.tasks.dto.PaymentCreatedEvent;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.ClassOrderer;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestClassOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Before/after run of payment.virtual-threads.http.enabled and payment.virtual-threads.kafka.enabled: the same HTTP and
+ * listener load against one application context with both switches off and one with both on. The simulated processor
+ * blocks every charge for its latency distribution, which is what the virtual threads are meant to absorb. Excluded
+ * from the default build; run with
+ * <pre>
+ * mvn -Pperformance test -Dtest=VirtualThreadThroughputTest [-Dvt.http-concurrency=2000 -Dvt.events=5000]
+ * </pre>
+ * System properties: {@code vt.http-concurrency} closed-loop POST /payment clients (default 1000), {@code vt.duration}
+ * (default PT30S), {@code vt.warmup} (default PT10S), {@code vt.events} OrderCreatedEvents per listener run (default
+ * 2000), {@code vt.listener-concurrency} (default 6), {@code vt.timeout} (default PT5M).
+ */
+@Tag("performance")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "payment.processor.gateway.type=simulator",
+        "payment.processor.simulator.error-rate=0",
+        "payment.processor.simulator.timeout-rate=0",
+        "kafka.listener.concurrency=${vt.listener-concurrency:6}",
+        "logging.level.com.example.tasks.paymentservice=WARN"
+})
+@EmbeddedKafka(
+        partitions = 6,
+        topics = {"order-created-topic-test", "payment-created-topic-test"},
+        brokerProperties = {
+                "listeners=PLAINTEXT://localhost:0",
+                "port=0"
+        }
+)
+@Testcontainers
+@ActiveProfiles("test")
+@Import(VirtualThreadThroughputTest.TestConfig.class)
+@TestClassOrder(ClassOrderer.OrderAnnotation.class)
+class VirtualThreadThroughputTest {
+    private static final String ORDER_CREATED_TOPIC = "order-created-topic-test";
+    private static final String GATEWAY_SECRET = "test-internal-secret";
+    private static final Map<String, String> RESULTS = new LinkedHashMap<>();
+
+    @Container
+    @ServiceConnection
+    static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:7.0");
+
+    @DynamicPropertySource
+    static void setProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongoDBContainer::getReplicaSetUrl);
+    }
+
+    @AfterAll
+    static void report() {
+        System.out.printf("%n=== Virtual threads off vs on (simulated processor) ===%n");
+        System.out.printf("%-10s %10s %8s %10s %9s %9s %12s%n",
+                "threads", "requests", "errors", "req/s", "p50 ms", "p99 ms", "events/s");
+        RESULTS.values().forEach(System.out::println);
+    }
+
+    // Both runs share the topics and the consumer group, so each context is closed before the next one subscribes.
+    @Nested
+    @Order(1)
+    @DirtiesContext
+    @TestPropertySource(properties = {
+            "payment.virtual-threads.http.enabled=false",
+            "payment.virtual-threads.kafka.enabled=false"
+    })
+    class PlatformThreads extends ThroughputRun {
+        PlatformThreads() {
+            super("platform");
+        }
+    }
+
+    @Nested
+    @Order(2)
+    @DirtiesContext
+    @TestPropertySource(properties = {
+            "payment.virtual-threads.http.enabled=true",
+            "payment.virtual-threads.kafka.enabled=true"
+    })
+    class VirtualThreads extends ThroughputRun {
+        VirtualThreads() {
+            super("virtual");
+        }
+    }
+
+    abstract static class ThroughputRun {
+        private final String name;
+        private final HttpClient httpClient = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        @LocalServerPort
+        private int port;
+
+        @Autowired
+        private KafkaTemplate<String, Object> kafkaTemplate;
+
+        @Autowired
+        private PaymentCreatedRecorder paymentCreatedRecorder;
+
+        ThroughputRun(String name) {
+            this.name = name;
+        }
+
+        @Test
+        void httpAndListenerPaths_ShouldReportThroughput() throws Exception {
+            int httpConcurrency = Integer.getInteger("vt.http-concurrency", 1000);
+            Duration duration = Duration.parse(System.getProperty("vt.duration", "PT30S"));
+            Duration warmup = Duration.parse(System.getProperty("vt.warmup", "PT10S"));
+            int events = Integer.getInteger("vt.events", 2000);
+            Duration timeout = Duration.parse(System.getProperty("vt.timeout", "PT5M"));
+
+            // Given
+            postPayments(httpConcurrency, warmup, new ConcurrentHistogram(3), new AtomicLong());
+            assertThat(sendOrderEvents(events / 10, timeout)).as("listener warm-up completed").isPositive();
+
+            // When
+            Histogram latency = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(10), 3);
+            AtomicLong errors = new AtomicLong();
+            postPayments(httpConcurrency, duration, latency, errors);
+            double eventsPerSecond = sendOrderEvents(events, timeout);
+
+            // Then
+            RESULTS.put(name, String.format("%-10s %10d %8d %10.0f %9.2f %9.2f %12.0f",
+                    name, latency.getTotalCount(), errors.get(), latency.getTotalCount() / (double) duration.toSeconds(),
+                    latency.getValueAtPercentile(50) / 1000.0, latency.getValueAtPercentile(99) / 1000.0, eventsPerSecond));
+            assertThat(latency.getTotalCount()).as("payments created over HTTP").isPositive();
+            assertThat(eventsPerSecond).as("all %d OrderCreatedEvents processed within %s", events, timeout).isPositive();
+        }
+
+        // Closed loop: every client posts its next payment as soon as the previous one is answered.
+        private void postPayments(int concurrency, Duration duration, Histogram latency, AtomicLong errors) {
+            String userId = UUID.randomUUID().toString();
+            long deadline = System.nanoTime() + duration.toNanos();
+            try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < concurrency; i++) {
+                    clients.execute(() -> {
+                        while (System.nanoTime() < deadline) {
+                            long startNanos = System.nanoTime();
+                            try {
+                                HttpResponse<Void> response = httpClient.send(paymentRequest(userId), HttpResponse.BodyHandlers.discarding());
+                                if (response.statusCode() == 201) {
+                                    latency.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos),
+                                            latency.getHighestTrackableValue()));
+                                } else {
+                                    errors.incrementAndGet();
+                                }
+                            } catch (Exception e) {
+                                errors.incrementAndGet();
+                            }
+                        }
+                    });
+                }
+            }
+        }
+
+        private HttpRequest paymentRequest(String userId) {
+            String body = """
+                    {"paymentMethodToken":"pm_token_123","amount":150.75,"currency":"USD","orderId":"%s","userId":"%s"}
+                    """.formatted(UUID.randomUUID(), userId);
+            return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/payment"))
+                    .header("Content-Type", "application/json")
+                    .header(HttpHeaders.INTERNAL_SECRET, GATEWAY_SECRET)
+                    .header(HttpHeaders.USER_ID, userId)
+                    .header(HttpHeaders.USER_ROLES, "USER")
+                    .timeout(Duration.ofSeconds(30))
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+        }
+
+        // All events are sent up front, so the rate is what the listener drains; returns 0 if they did not all arrive.
+        private double sendOrderEvents(int events, Duration timeout) throws InterruptedException {
+            CountDownLatch arrivals = paymentCreatedRecorder.expect(events);
+            long startNanos = System.nanoTime();
+            for (int i = 0; i < events; i++) {
+                OrderCreatedEvent event = orderCreatedEvent();
+                paymentCreatedRecorder.sent(event.getOrderId());
+                kafkaTemplate.send(ORDER_CREATED_TOPIC, event.getOrderId().toString(), event);
+            }
+            kafkaTemplate.flush();
+            if (!arrivals.await(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                return 0;
+            }
+            return events / ((System.nanoTime() - startNanos) / 1e9);
+        }
+    }
+
+    private static OrderCreatedEvent orderCreatedEvent() {
+        OrderCreatedEvent orderEvent = new OrderCreatedEvent();
+        orderEvent.setOrderId(UUID.randomUUID());
+        orderEvent.setUserId(UUID.randomUUID());
+        orderEvent.setTotalAmount(new BigDecimal("150.75"));
+        orderEvent.setCurrency("USD");
+        orderEvent.setTimestamp(Instant.now());
+        orderEvent.setPaymentMethodToken("pm_token_123");
+        return orderEvent;
+    }
+
+    @TestConfiguration
+    @EnableKafka
+    static class TestConfig {
+
+        @Bean
+        public PaymentCreatedRecorder paymentCreatedRecorder() {
+            return new PaymentCreatedRecorder();
+        }
+    }
+
+    static class PaymentCreatedRecorder {
+        private final Set<String> pending = ConcurrentHashMap.newKeySet();
+        private volatile CountDownLatch arrivals = new CountDownLatch(0);
+        private final String consumerGroupId = "vt-perf-consumer-group-" + UUID.randomUUID();
+
+        @KafkaListener(
+                topics = "payment-created-topic-test",
+                groupId = "#{__listener.consumerGroupId}"
+        )
+        public void handlePaymentCreatedEvent(PaymentCreatedEvent event) {
+            if (pending.remove(String.valueOf(event.getOrderId()))) {
+                arrivals.countDown();
+            }
+        }
+
+        public String getConsumerGroupId() {
+            return consumerGroupId;
+        }
+
+        CountDownLatch expect(int events) {
+            pending.clear();
+            arrivals = new CountDownLatch(events);
+            return arrivals;
+        }
+
+        void sent(UUID orderId) {
+            pending.add(orderId.toString());
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.tasks.paymentservice.repository;
+
+import com.example.tasks.paymentservice.TestContainerConfig;
+import com.example.tasks.paymentservice.model.Payment;
+import com.example.tasks.paymentservice.model.PaymentSource;
+import com.example.tasks.paymentservice.repository.index.IndexUsage;
+import com.example.tasks.paymentservice.repository.index.IndexUsageEndpoint;
+import com.example.tasks.paymentservice.repository.index.MongoIndexInitializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataMongoTest
+@Testcontainers
+@Import({TestContainerConfig.class, MongoIndexInitializer.class, IndexUsageEndpoint.class})
+@ActiveProfiles("test")
+class MongoIndexInitializerTest {
+
+	@Autowired
+	private MongoTemplate mongoTemplate;
+
+	@Autowired
+	private PaymentRepository paymentRepository;
+
+	@Autowired
+	private IndexUsageEndpoint indexUsageEndpoint;
+
+	@Test
+	void afterSingletonsInstantiated_ShouldCreateOnlyDeclaredPaymentIndexes() {
+		// When
+		List<String> names = paymentIndexNames();
+
+		// Then
+		assertThat(names).containsExactlyInAnyOrder("_id_", "order_user_idx", "user_timestamp_id_idx", "order_event_unique_idx", "rollup_pending_idx");
+	}
+
+	@Test
+	void afterSingletonsInstantiated_WithDropUndeclared_ShouldDropRedundantIndexes() {
+		// Given
+		mongoTemplate.indexOps(Payment.class).ensureIndex(new Index().named("status_idx").on("status", Sort.Direction.ASC));
+
+		// When
+		new MongoIndexInitializer(mongoTemplate, true, true).afterSingletonsInstantiated();
+
+		// Then
+		assertThat(paymentIndexNames()).doesNotContain("status_idx").contains("order_user_idx");
+	}
+
+	@Test
+	void orderEventUniqueIndex_ShouldRejectSecondPaymentForSameOrderEvent() {
+		// Given
+		paymentRepository.deleteAll();
+		paymentRepository.save(createPayment("order-1", PaymentSource.ORDER_EVENT));
+		paymentRepository.save(createPayment("order-1", PaymentSource.API));
+
+		// When & Then
+		assertThatThrownBy(() -> paymentRepository.save(createPayment("order-1", PaymentSource.ORDER_EVENT)))
+				.isInstanceOf(DuplicateKeyException.class);
+	}
+
+	@Test
+	void indexes_ShouldReportAccessesAndWriteCounters() {
+		// Given
+		paymentRepository.deleteAll();
+		paymentRepository.save(createPayment("order-2", PaymentSource.API));
+		paymentRepository.findOwnersByOrderId("order-2");
+
+		// When
+		List<IndexUsage> usage = indexUsageEndpoint.indexes();
+
+		// Then
+		IndexUsage orderUser = usage.stream()
+				.filter(index -> index.collection().equals("payments") && index.name().equals("order_user_idx"))
+				.findFirst()
+				.orElseThrow();
+		assertThat(orderUser.declared()).isTrue();
+		assertThat(orderUser.accesses()).isPositive();
+		assertThat(orderUser.sizeBytes()).isPositive();
+		assertThat(usage).extracting(IndexUsage::collection).contains("payment_outbox", "payment_revenue_hourly");
+	}
+
+	private List<String> paymentIndexNames() {
+		return mongoTemplate.indexOps(Payment.class).getIndexInfo().stream().map(IndexInfo::getName).toList();
+	}
+
+	private Payment createPayment(String orderId, PaymentSource source) {
+		Payment payment = new Payment();
+		payment.setOrderId(orderId);
+		payment.setUserId("user1");
+		payment.setSource(source);
+		return payment;
+	}
+}
@@ -0,0 +1,90 @@
+package com.example.tasks.paymentservice.repository;
+
+import com.example.tasks.paymentservice.TestContainerConfig;
+import com.example.tasks.paymentservice.model.OutboxEvent;
+import com.example.tasks.paymentservice.model.OutboxStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataMongoTest
+@Testcontainers
+@Import(TestContainerConfig.class)
+@ActiveProfiles("test")
+class OutboxEventRepositoryTest {
+
+	@Autowired
+	private OutboxEventRepository outboxEventRepository;
+
+	@BeforeEach
+	void setUp() {
+		outboxEventRepository.deleteAll();
+	}
+
+	private OutboxEvent createOutboxEvent(String id, OutboxStatus status, LocalDateTime createdAt) {
+		OutboxEvent outboxEvent = new OutboxEvent();
+		outboxEvent.setId(id);
+		outboxEvent.setPaymentId("payment-" + id);
+		outboxEvent.setOrderId("68d6ccaa-bec0-4d1a-a328-f771c5b78d44");
+		outboxEvent.setStatus(status);
+		outboxEvent.setCreatedAt(createdAt);
+		return outboxEvent;
+	}
+
+	@Test
+	void claimBatch_WithTwoRelays_ShouldHandEachEntryToOneOwnerOldestFirst() {
+		// Given
+		LocalDateTime now = LocalDateTime.now();
+		outboxEventRepository.saveAll(List.of(
+				createOutboxEvent("outbox-3", OutboxStatus.PENDING, now.minusSeconds(1)),
+				createOutboxEvent("outbox-1", OutboxStatus.PENDING, now.minusSeconds(3)),
+				createOutboxEvent("outbox-2", OutboxStatus.PENDING, now.minusSeconds(2))));
+
+		// When
+		List<OutboxEvent> first = outboxEventRepository.claimBatch("relay-a", 2, Duration.ofMinutes(5));
+		List<OutboxEvent> second = outboxEventRepository.claimBatch("relay-b", 2, Duration.ofMinutes(5));
+		List<OutboxEvent> third = outboxEventRepository.claimBatch("relay-c", 2, Duration.ofMinutes(5));
+
+		// Then
+		assertThat(first).extracting(OutboxEvent::getId).containsExactly("outbox-1", "outbox-2");
+		assertThat(first).allSatisfy(entry -> {
+			assertThat(entry.getStatus()).isEqualTo(OutboxStatus.SENDING);
+			assertThat(entry.getOwner()).isEqualTo("relay-a");
+			assertThat(entry.getLeaseUntil()).isAfter(now);
+		});
+		assertThat(second).extracting(OutboxEvent::getId).containsExactly("outbox-3");
+		assertThat(third).isEmpty();
+	}
+
+	@Test
+	void claimBatch_WithExpiredLease_ShouldReclaimOnlyThatEntry() {
+		// Given
+		LocalDateTime now = LocalDateTime.now();
+		OutboxEvent expired = createOutboxEvent("outbox-1", OutboxStatus.SENDING, now.minusMinutes(10));
+		expired.setOwner("relay-gone");
+		expired.setLeaseUntil(now.minusMinutes(1));
+		OutboxEvent leased = createOutboxEvent("outbox-2", OutboxStatus.SENDING, now.minusMinutes(10));
+		leased.setOwner("relay-a");
+		leased.setLeaseUntil(now.plusMinutes(4));
+		OutboxEvent sent = createOutboxEvent("outbox-3", OutboxStatus.SENT, now.minusMinutes(10));
+		outboxEventRepository.saveAll(List.of(expired, leased, sent));
+
+		// When
+		List<OutboxEvent> claimed = outboxEventRepository.claimBatch("relay-b", 10, Duration.ofMinutes(5));
+
+		// Then
+		assertThat(claimed).extracting(OutboxEvent::getId).containsExactly("outbox-1");
+		assertThat(claimed.get(0).getOwner()).isEqualTo("relay-b");
+		assertThat(outboxEventRepository.findById("outbox-2")).get().extracting(OutboxEvent::getOwner).isEqualTo("relay-a");
+	}
+}
@@ -0,0 +1,108 @@
+package com.example.tasks.paymentservice.repository;
+
+import com.example.tasks.paymentservice.TestContainerConfig;
+import com.example.tasks.paymentservice.archive.PaymentArchiver;
+import com.example.tasks.paymentservice.model.Payment;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.types.ObjectId;
+import org.example.tasks.model.PaymentStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataMongoTest
+@Testcontainers
+@Import(TestContainerConfig.class)
+@ActiveProfiles("test")
+class PaymentArchiveRepositoryTest {
+
+	@Autowired
+	private PaymentRepository paymentRepository;
+
+	@Autowired
+	private MongoTemplate mongoTemplate;
+
+	private PaymentArchiver paymentArchiver;
+
+	@BeforeEach
+	void setUp() {
+		paymentRepository.deleteAll();
+		mongoTemplate.dropCollection(PaymentArchive.COLLECTION);
+		paymentArchiver = new PaymentArchiver(mongoTemplate, new SimpleMeterRegistry(), Duration.ofDays(30), 2, 1_000);
+	}
+
+	private Payment createPayment(String userId, PaymentStatus status, LocalDateTime timestamp) {
+		Payment payment = new Payment();
+		payment.setId(new ObjectId(Date.from(timestamp.atZone(ZoneId.systemDefault()).toInstant())).toHexString());
+		payment.setOrderId("order-" + timestamp);
+		payment.setUserId(userId);
+		payment.setStatus(status);
+		payment.setTimestamp(timestamp);
+		payment.setPaymentAmount(new BigDecimal("10.00"));
+		payment.setCurrency("USD");
+		payment.setRollupPending(false);
+		return paymentRepository.save(payment);
+	}
+
+	@Test
+	void archive_ShouldMoveOnlyOldTerminalPayments() {
+		// Given
+		LocalDateTime now = LocalDateTime.now();
+		Payment oldSuccess = createPayment("user1", PaymentStatus.SUCCESS, now.minusDays(90));
+		Payment oldFailed = createPayment("user1", PaymentStatus.FAILED, now.minusDays(60));
+		Payment oldPending = createPayment("user1", PaymentStatus.PENDING, now.minusDays(50));
+		Payment olderSuccess = createPayment("user1", PaymentStatus.SUCCESS, now.minusDays(40));
+		Payment recentSuccess = createPayment("user1", PaymentStatus.SUCCESS, now.minusDays(1));
+
+		// When
+		paymentArchiver.archive();
+
+		// Then
+		assertThat(paymentRepository.findAll()).extracting(Payment::getId)
+				.containsExactlyInAnyOrder(oldPending.getId(), recentSuccess.getId());
+		assertThat(mongoTemplate.findAll(Payment.class, PaymentArchive.COLLECTION)).extracting(Payment::getId)
+				.containsExactlyInAnyOrder(oldSuccess.getId(), oldFailed.getId(), olderSuccess.getId());
+	}
+
+	@Test
+	void reads_ShouldFallBackToArchiveTransparently() {
+		// Given
+		LocalDateTime now = LocalDateTime.now();
+		Payment archived = createPayment("user1", PaymentStatus.SUCCESS, now.minusDays(90));
+		Payment stalePending = createPayment("user1", PaymentStatus.PENDING, now.minusDays(60));
+		Payment archivedNewer = createPayment("user1", PaymentStatus.FAILED, now.minusDays(45));
+		Payment recent = createPayment("user1", PaymentStatus.SUCCESS, now.minusDays(1));
+		paymentArchiver.archive();
+
+		// When
+		List<Payment> firstPage = paymentRepository.findPageByUserId("user1", null, 2);
+		List<Payment> secondPage = paymentRepository.findPageByUserId("user1", PaymentCursor.after(firstPage.get(1)), 2);
+
+		// Then
+		assertThat(paymentRepository.findResponseViewById(archived.getId())).isEmpty();
+		assertThat(paymentRepository.findArchivedResponseViewById(archived.getId())).isPresent();
+		assertThat(firstPage).extracting(Payment::getId).containsExactly(recent.getId(), archivedNewer.getId());
+		assertThat(secondPage).extracting(Payment::getId).containsExactly(stalePending.getId(), archived.getId());
+		assertThat(paymentRepository.findArchivedOwnersByOrderId(archived.getOrderId()))
+				.extracting(owner -> owner.getUserId()).containsExactly("user1");
+		try (var stream = PaymentArchive.merge(paymentRepository.streamResponseViewByUserId("user1"),
+				paymentRepository.streamArchivedResponseViewByUserId("user1"))) {
+			assertThat(stream.map(Payment::getId))
+					.containsExactly(recent.getId(), archivedNewer.getId(), stalePending.getId(), archived.getId());
+		}
+	}
+}
@@ -2,12 +2,17 @@ package com.example.tasks.paymentservice.repository;
 
 import com.example.tasks.paymentservice.TestContainerConfig;
 import com.example.tasks.paymentservice.model.Payment;
+import com.example.tasks.paymentservice.model.PaymentSource;
+import com.example.tasks.paymentservice.repository.index.MongoIndexes;
+import com.example.tasks.paymentservice.repository.migration.PaymentDataMigrator;
+import com.example.tasks.paymentservice.repository.projection.PaymentOwnerView;
 import org.example.tasks.model.PaymentStatus;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
@@ -27,6 +32,9 @@ class PaymentRepositoryTest {
 	@Autowired
 	private PaymentRepository paymentRepository;
 
+	@Autowired
+	private MongoTemplate mongoTemplate;
+
 	private Payment payment1, payment2, payment3, payment4;
 
 	@BeforeEach
@@ -75,6 +83,39 @@ class PaymentRepositoryTest {
 		assertThat(result).extracting(Payment::getOrderId).contains("order1", "order2");
 	}
 
+	@Test
+	void findPageByUserId_ShouldReturnNewestFirstAndContinueAfterCursor() {
+		// When
+		List<Payment> firstPage = paymentRepository.findPageByUserId("user1", null, 1);
+		List<Payment> secondPage = paymentRepository.findPageByUserId("user1", PaymentCursor.after(firstPage.get(0)), 1);
+		List<Payment> thirdPage = paymentRepository.findPageByUserId("user1", PaymentCursor.after(secondPage.get(0)), 1);
+		// Then
+		assertThat(firstPage).extracting(Payment::getOrderId).containsExactly("order2");
+		assertThat(secondPage).extracting(Payment::getOrderId).containsExactly("order1");
+		assertThat(thirdPage).isEmpty();
+	}
+
+	@Test
+	void findOwnersByOrderId_ShouldReturnOnlyUserIds() {
+		// When
+		List<PaymentOwnerView> result = paymentRepository.findOwnersByOrderId("order1");
+		// Then
+		assertThat(result).extracting(PaymentOwnerView::getUserId).containsExactly("user1");
+	}
+
+	@Test
+	void findResponseViewByOrderId_ShouldNotLoadPaymentMethodToken() {
+		// Given
+		payment1.setPaymentMethodToken("pm_token_123");
+		paymentRepository.save(payment1);
+		// When
+		List<Payment> result = paymentRepository.findResponseViewByOrderId("order1");
+		// Then
+		assertThat(result).hasSize(1);
+		assertThat(result.get(0).getUserId()).isEqualTo("user1");
+		assertThat(result.get(0).getPaymentMethodToken()).isNull();
+	}
+
 	@Test
 	void findByStatus_WithEnum_ShouldReturnPaymentsWithSpecificStatus() {
 		// When
@@ -126,11 +167,11 @@ class PaymentRepositoryTest {
 		LocalDateTime startDate = LocalDateTime.of(2024, 1, 1, 0, 0);
 		LocalDateTime endDate = LocalDateTime.of(2024, 1, 31, 23, 59);
 		// When
-		Optional<Double> result = paymentRepository.sumPaymentAmountByPeriod(startDate, endDate);
+		Optional<BigDecimal> result = paymentRepository.sumPaymentAmountByPeriod(startDate, endDate);
 		// Then
 		assertThat(result).isPresent();
 		// payment1 (100.50) + payment2 (200.00) = 300.50
-		assertThat(result.get()).isEqualTo(300.50);
+		assertThat(result.get()).isEqualByComparingTo("300.50");
 	}
 
 	@Test
@@ -139,7 +180,7 @@ class PaymentRepositoryTest {
 		LocalDateTime startDate = LocalDateTime.of(2024, 3, 1, 0, 0);
 		LocalDateTime endDate = LocalDateTime.of(2024, 3, 31, 23, 59);
 		// When
-		Optional<Double> result = paymentRepository.sumPaymentAmountByPeriod(startDate, endDate);
+		Optional<BigDecimal> result = paymentRepository.sumPaymentAmountByPeriod(startDate, endDate);
 		// Then
 		assertThat(result).isEmpty();
 	}
@@ -150,10 +191,66 @@ class PaymentRepositoryTest {
 		LocalDateTime startDate = LocalDateTime.of(2024, 2, 1, 0, 0);
 		LocalDateTime endDate = LocalDateTime.of(2024, 2, 15, 23, 59);
 		// When
-		Optional<Double> result = paymentRepository.sumPaymentAmountByPeriod(startDate, endDate);
+		Optional<BigDecimal> result = paymentRepository.sumPaymentAmountByPeriod(startDate, endDate);
 		// Then
 		assertThat(result).isPresent();
 		// Sum of payment3 (150.75) + payment4 (300.25) = 451.00
-		assertThat(result.get()).isEqualTo(451.00);
+		assertThat(result.get()).isEqualByComparingTo("451.00");
+	}
+
+	@Test
+	void completeCharge_ShouldStoreResultOnlyOnPendingReservation() {
+		// Given
+		Payment reservation = createPayment("order5", "user1", PaymentStatus.PENDING,
+				LocalDateTime.of(2024, 3, 1, 12, 0), new BigDecimal("75.00"));
+		reservation.setSource(PaymentSource.ORDER_EVENT);
+		reservation.setChargePending(true);
+		paymentRepository.insert(reservation);
+		assertThat(paymentRepository.existsChargedByOrderIdAndSource("order5", PaymentSource.ORDER_EVENT)).isFalse();
+		reservation.setStatus(PaymentStatus.SUCCESS);
+		reservation.setProcessorTransactionId("tx_123");
+
+		// When
+		boolean first = paymentRepository.completeCharge(reservation);
+		boolean second = paymentRepository.completeCharge(reservation);
+
+		// Then
+		assertThat(first).isTrue();
+		assertThat(second).isFalse();
+		Payment stored = paymentRepository.findByOrderIdAndSource("order5", PaymentSource.ORDER_EVENT).orElseThrow();
+		assertThat(stored.getStatus()).isEqualTo(PaymentStatus.SUCCESS);
+		assertThat(stored.getProcessorTransactionId()).isEqualTo("tx_123");
+		assertThat(stored.getChargePending()).isNull();
+		assertThat(stored.getRollupPending()).isTrue();
+		assertThat(paymentRepository.existsChargedByOrderIdAndSource("order5", PaymentSource.ORDER_EVENT)).isTrue();
+	}
+
+	@Test
+	void existsChargedByOrderIdAndSource_AfterMigration_ShouldFindOrderEventPaymentsWrittenWithoutSource() {
+		// Given
+		Payment legacy = createPayment("order6", "user1", PaymentStatus.SUCCESS,
+				LocalDateTime.of(2023, 6, 1, 12, 0), new BigDecimal("10.00"));
+		legacy.setDescription("Payment for order: order6");
+		Payment legacyDuplicate = createPayment("order6", "user1", PaymentStatus.SUCCESS,
+				LocalDateTime.of(2023, 6, 1, 12, 1), new BigDecimal("10.00"));
+		legacyDuplicate.setDescription("Payment for order: order6");
+		Payment apiPayment = createPayment("order7", "user1", PaymentStatus.SUCCESS,
+				LocalDateTime.of(2023, 6, 1, 12, 2), new BigDecimal("10.00"));
+		apiPayment.setDescription("Renewal");
+		paymentRepository.saveAll(List.of(legacy, legacyDuplicate, apiPayment));
+		mongoTemplate.indexOps(Payment.class).ensureIndex(MongoIndexes.DECLARED.get("payments").stream()
+				.filter(index -> "order_event_unique_idx".equals(index.getIndexOptions().get("name")))
+				.findFirst().orElseThrow());
+		assertThat(paymentRepository.existsChargedByOrderIdAndSource("order6", PaymentSource.ORDER_EVENT)).isFalse();
+
+		// When
+		new PaymentDataMigrator(mongoTemplate, true).afterSingletonsInstantiated();
+		new PaymentDataMigrator(mongoTemplate, true).afterSingletonsInstantiated();
+
+		// Then
+		assertThat(paymentRepository.existsChargedByOrderIdAndSource("order6", PaymentSource.ORDER_EVENT)).isTrue();
+		assertThat(paymentRepository.findByOrderIdAndSource("order6", PaymentSource.ORDER_EVENT))
+				.get().extracting(Payment::getId).isEqualTo(legacy.getId());
+		assertThat(paymentRepository.existsChargedByOrderIdAndSource("order7", PaymentSource.ORDER_EVENT)).isFalse();
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,173 @@
+package com.example.tasks.paymentservice.repository;
+
+import com.example.tasks.paymentservice.TestContainerConfig;
+import com.example.tasks.paymentservice.dto.RevenueByStatusDto;
+import com.example.tasks.paymentservice.dto.RevenueReportDto;
+import com.example.tasks.paymentservice.model.Payment;
+import com.example.tasks.paymentservice.repository.migration.PaymentDataMigrator;
+import com.example.tasks.paymentservice.service.RevenueRollupService;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import org.example.tasks.model.PaymentStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataMongoTest
+@Testcontainers
+@Import({TestContainerConfig.class, RevenueRollupService.class})
+@ActiveProfiles("test")
+class RevenueRollupRepositoryTest {
+
+	@Autowired
+	private RevenueRollupRepository revenueRollupRepository;
+
+	@Autowired
+	private RevenueRollupService revenueRollupService;
+
+	@Autowired
+	private PaymentRepository paymentRepository;
+
+	@Autowired
+	private MongoTemplate mongoTemplate;
+
+	@BeforeEach
+	void setUp() {
+		revenueRollupRepository.deleteAll();
+		paymentRepository.deleteAll();
+	}
+
+	@TestConfiguration
+	static class TransactionConfig {
+
+		@Bean
+		MongoTransactionManager transactionManager(MongoDatabaseFactory mongoDatabaseFactory) {
+			return new MongoTransactionManager(mongoDatabaseFactory);
+		}
+	}
+
+	private Payment createPayment(String currency, PaymentStatus status, LocalDateTime dateTime, String amount) {
+		Payment payment = new Payment();
+		payment.setCurrency(currency);
+		payment.setStatus(status);
+		payment.setTimestamp(dateTime);
+		payment.setPaymentAmount(new BigDecimal(amount));
+		return payment;
+	}
+
+	@Test
+	void record_ShouldAccumulateExactAmountsPerHourCurrencyAndStatus() {
+		// Given
+		revenueRollupService.record(List.of(
+				createPayment("USD", PaymentStatus.SUCCESS, LocalDateTime.of(2024, 1, 15, 10, 5), "0.10"),
+				createPayment("USD", PaymentStatus.SUCCESS, LocalDateTime.of(2024, 1, 15, 10, 40), "0.20"),
+				createPayment("EUR", PaymentStatus.SUCCESS, LocalDateTime.of(2024, 1, 15, 10, 45), "99.99")));
+		revenueRollupService.record(createPayment("USD", PaymentStatus.FAILED, LocalDateTime.of(2024, 1, 15, 11, 0), "5.00"));
+		revenueRollupService.record(createPayment("USD", PaymentStatus.SUCCESS, LocalDateTime.of(2024, 1, 15, 10, 59), "0.05"));
+
+		// When
+		List<RevenueByStatusDto> result = revenueRollupRepository.sumByStatus("USD",
+				LocalDateTime.of(2024, 1, 15, 0, 0), LocalDateTime.of(2024, 1, 16, 0, 0));
+
+		// Then
+		assertThat(revenueRollupRepository.count()).isEqualTo(3);
+		assertThat(result).hasSize(2);
+		assertThat(result.get(0).status()).isEqualTo(PaymentStatus.FAILED);
+		assertThat(result.get(0).totalAmount()).isEqualByComparingTo("5.00");
+		assertThat(result.get(0).paymentCount()).isEqualTo(1);
+		assertThat(result.get(1).status()).isEqualTo(PaymentStatus.SUCCESS);
+		assertThat(result.get(1).totalAmount()).isEqualByComparingTo("0.35");
+		assertThat(result.get(1).paymentCount()).isEqualTo(3);
+	}
+
+	@Test
+	void report_ShouldWidenRangeToWholeHours() {
+		// Given
+		revenueRollupService.record(List.of(
+				createPayment("USD", PaymentStatus.SUCCESS, LocalDateTime.of(2024, 1, 15, 9, 59), "1.00"),
+				createPayment("USD", PaymentStatus.SUCCESS, LocalDateTime.of(2024, 1, 15, 10, 30), "2.00"),
+				createPayment("USD", PaymentStatus.SUCCESS, LocalDateTime.of(2024, 1, 15, 12, 0), "4.00")));
+
+		// When
+		RevenueReportDto report = revenueRollupService.report("USD",
+				LocalDateTime.of(2024, 1, 15, 10, 15), LocalDateTime.of(2024, 1, 15, 11, 30));
+
+		// Then
+		assertThat(report.from()).isEqualTo(LocalDateTime.of(2024, 1, 15, 10, 0));
+		assertThat(report.to()).isEqualTo(LocalDateTime.of(2024, 1, 15, 12, 0));
+		assertThat(report.statuses()).hasSize(1);
+		assertThat(report.statuses().get(0).totalAmount()).isEqualByComparingTo("2.00");
+	}
+
+	@Test
+	void applyPending_ShouldCountEachPendingPaymentExactlyOnce() {
+		// Given
+		Payment first = createPayment("USD", PaymentStatus.SUCCESS, LocalDateTime.of(2024, 1, 15, 10, 5), "1.25");
+		first.setRollupPending(true);
+		Payment second = createPayment("USD", PaymentStatus.SUCCESS, LocalDateTime.of(2024, 1, 15, 10, 50), "2.50");
+		second.setRollupPending(true);
+		Payment alreadyCounted = createPayment("USD", PaymentStatus.SUCCESS, LocalDateTime.of(2024, 1, 15, 10, 55), "100.00");
+		alreadyCounted.setRollupPending(false);
+		paymentRepository.saveAll(List.of(first, second, alreadyCounted));
+
+		// When
+		revenueRollupService.applyPending();
+		revenueRollupService.applyPending();
+
+		// Then
+		List<RevenueByStatusDto> result = revenueRollupRepository.sumByStatus("USD",
+				LocalDateTime.of(2024, 1, 15, 0, 0), LocalDateTime.of(2024, 1, 16, 0, 0));
+		assertThat(result).hasSize(1);
+		assertThat(result.get(0).totalAmount()).isEqualByComparingTo("3.75");
+		assertThat(result.get(0).paymentCount()).isEqualTo(2);
+		assertThat(paymentRepository.findAll()).allSatisfy(payment -> assertThat(payment.getRollupPending()).isFalse());
+	}
+
+	@Test
+	void applyPending_AfterMigration_ShouldCountPaymentsFromBeforeTheRollupsOnce() {
+		// Given
+		Payment legacy = paymentRepository.save(createPayment("USD", PaymentStatus.SUCCESS, LocalDateTime.of(2024, 1, 15, 10, 5), "10.10"));
+		mongoTemplate.getCollection("payments").updateOne(new Document("_id", new ObjectId(legacy.getId())),
+				new Document("$set", new Document("payment_amount", "10.10")));
+		Payment counted = createPayment("USD", PaymentStatus.SUCCESS, LocalDateTime.of(2024, 1, 15, 10, 30), "100.00");
+		counted.setRollupPending(false);
+		Payment reservation = createPayment("USD", PaymentStatus.PENDING, LocalDateTime.of(2024, 1, 15, 10, 45), "7.00");
+		reservation.setChargePending(true);
+		paymentRepository.saveAll(List.of(counted, reservation));
+		PaymentDataMigrator migrator = new PaymentDataMigrator(mongoTemplate, true);
+
+		// When
+		migrator.afterSingletonsInstantiated();
+		migrator.afterSingletonsInstantiated();
+		revenueRollupService.applyPending();
+
+		// Then
+		List<RevenueByStatusDto> result = revenueRollupRepository.sumByStatus("USD",
+				LocalDateTime.of(2024, 1, 15, 0, 0), LocalDateTime.of(2024, 1, 16, 0, 0));
+		assertThat(result).singleElement().satisfies(row -> {
+			assertThat(row.status()).isEqualTo(PaymentStatus.SUCCESS);
+			assertThat(row.totalAmount()).isEqualByComparingTo("10.10");
+			assertThat(row.paymentCount()).isEqualTo(1);
+		});
+		Document stored = mongoTemplate.getCollection("payments").find(new Document("_id", new ObjectId(legacy.getId()))).first();
+		assertThat(stored.get("payment_amount")).isInstanceOf(Decimal128.class);
+		assertThat(paymentRepository.findById(reservation.getId())).get()
+				.extracting(Payment::getRollupPending).isNull();
+	}
+}
@@ -0,0 +1,129 @@
+package com.example.tasks.paymentservice.unit;
+
+import com.example.tasks.paymentservice.exception.InvalidReadAfterTokenException;
+import com.example.tasks.paymentservice.routing.CausalReadRouting;
+import com.example.tasks.paymentservice.routing.ReadAfterToken;
+import com.mongodb.ClientSessionOptions;
+import com.mongodb.client.ClientSession;
+import org.aopalliance.intercept.MethodInvocation;
+import org.bson.BsonDocument;
+import org.bson.BsonTimestamp;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+
+import java.time.Duration;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CausalReadRoutingTest {
+
+    @Mock
+    private MongoDatabaseFactory mongoDatabaseFactory;
+
+    @Mock
+    private ClientSession session;
+
+    @Mock
+    private MethodInvocation invocation;
+
+    private CausalReadRouting causalReadRouting;
+
+    @BeforeEach
+    void setUp() {
+        causalReadRouting = new CausalReadRouting(mongoDatabaseFactory, true, Duration.ofSeconds(90));
+    }
+
+    @AfterEach
+    void tearDown() {
+        causalReadRouting.close();
+    }
+
+    @Test
+    void invoke_WithReadAfterToken_ShouldWaitForTokenAndCloseSession() throws Throwable {
+        // Given
+        BsonTimestamp operationTime = new BsonTimestamp(1_700_000_000, 7);
+        BsonDocument clusterTime = new BsonDocument("clusterTime", new BsonTimestamp(1_700_000_000, 9));
+        causalReadRouting.open(new ReadAfterToken(operationTime, clusterTime).encode());
+        when(mongoDatabaseFactory.getSession(any(ClientSessionOptions.class))).thenReturn(session);
+        when(invocation.proceed()).thenReturn("payment");
+
+        // When
+        Object result = causalReadRouting.invoke(invocation);
+
+        // Then
+        assertThat(result).isEqualTo("payment");
+        verify(session).advanceOperationTime(operationTime);
+        verify(session).advanceClusterTime(clusterTime);
+        verify(session).close();
+    }
+
+    @Test
+    void invoke_WithStreamResult_ShouldCloseSessionWhenStreamCloses() throws Throwable {
+        // Given
+        when(mongoDatabaseFactory.getSession(any(ClientSessionOptions.class))).thenReturn(session);
+        when(invocation.proceed()).thenReturn(Stream.of("payment-1", "payment-2"));
+
+        // When
+        Stream<?> result = (Stream<?>) causalReadRouting.invoke(invocation);
+
+        // Then
+        verify(session, never()).close();
+        result.close();
+        verify(session).close();
+    }
+
+    @Test
+    void invoke_WhenDisabled_ShouldNotOpenSession() throws Throwable {
+        // Given
+        CausalReadRouting disabled = new CausalReadRouting(mongoDatabaseFactory, false, Duration.ofSeconds(90));
+        disabled.open("ignored");
+        when(invocation.proceed()).thenReturn("payment");
+
+        // When
+        Object result = disabled.invoke(invocation);
+
+        // Then
+        assertThat(result).isEqualTo("payment");
+        assertThat(disabled.token()).isNull();
+        verifyNoInteractions(mongoDatabaseFactory);
+    }
+
+    @Test
+    void invoke_WithMalformedToken_ShouldThrowAndCloseSession() throws Throwable {
+        // Given
+        causalReadRouting.open("not-a-token");
+        when(mongoDatabaseFactory.getSession(any(ClientSessionOptions.class))).thenReturn(session);
+
+        // When & Then
+        assertThatThrownBy(() -> causalReadRouting.invoke(invocation))
+                .isInstanceOf(InvalidReadAfterTokenException.class);
+        verify(invocation, never()).proceed();
+        verify(session).close();
+    }
+
+    @Test
+    void readAfterToken_ShouldRoundTrip() {
+        // Given
+        ReadAfterToken token = new ReadAfterToken(new BsonTimestamp(1_700_000_000, 3),
+                new BsonDocument("clusterTime", new BsonTimestamp(1_700_000_000, 4)));
+
+        // When
+        ReadAfterToken decoded = ReadAfterToken.decode(token.encode());
+
+        // Then
+        assertThat(decoded).isEqualTo(token);
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.tasks.paymentservice.unit;
+
+import com.example.tasks.paymentservice.security.GatewayAuthenticationToken;
+import com.example.tasks.paymentservice.security.GatewayPrincipal;
+import com.example.tasks.paymentservice.security.GatewayRole;
+import com.example.tasks.paymentservice.security.GatewayRoleAuthorizationManager;
+import com.example.tasks.paymentservice.service.PaymentService;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.util.SimpleMethodInvocation;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GatewayRoleAuthorizationManagerTest {
+    private static final String USER_ID = "b25c69da-00d6-442a-a922-a8c88ad34b62";
+
+    private final GatewayRoleAuthorizationManager authorizationManager = new GatewayRoleAuthorizationManager();
+
+    @Test
+    void parse_WithRolesHeader_ShouldSetKnownRoleBits() {
+        // When
+        int mask = GatewayRole.parse("ROLE_ADMIN, ROLE_USER,ROLE_AUDITOR");
+
+        // Then
+        assertThat(mask).isEqualTo(GatewayRole.mask(GatewayRole.USER, GatewayRole.ADMIN));
+        assertThat(GatewayRole.parse(null)).isZero();
+        assertThat(GatewayRole.parse("")).isZero();
+        assertThat(GatewayRole.parse("ROLE_ADMINISTRATOR")).isZero();
+    }
+
+    @Test
+    void authorities_ShouldBeSharedPerRoleMask() {
+        // When
+        List<GrantedAuthority> first = new GatewayAuthenticationToken(GatewayPrincipal.of(USER_ID, "ROLE_USER")).getAuthorities().stream().toList();
+        List<GrantedAuthority> cached = GatewayRole.authorities(GatewayRole.USER.mask());
+
+        // Then
+        assertThat(first).extracting(GrantedAuthority::getAuthority).containsExactly("ROLE_USER");
+        assertThat(GatewayRole.authorities(GatewayRole.USER.mask())).isSameAs(cached);
+    }
+
+    @Test
+    void authorize_WithUserRoleOnUserMethod_ShouldGrant() throws Exception {
+        // Given
+        SimpleMethodInvocation invocation = invocation("getPaymentById", String.class, GatewayPrincipal.class);
+
+        // When & Then
+        assertThat(authorizationManager.authorize(() -> authentication("ROLE_USER"), invocation).isGranted()).isTrue();
+    }
+
+    @Test
+    void authorize_WithUserRoleOnAdminMethod_ShouldDeny() throws Exception {
+        // Given
+        SimpleMethodInvocation invocation = invocation("getRevenue", String.class, LocalDateTime.class, LocalDateTime.class);
+
+        // When & Then
+        assertThat(authorizationManager.authorize(() -> authentication("ROLE_USER"), invocation).isGranted()).isFalse();
+        assertThat(authorizationManager.authorize(() -> authentication("ROLE_ADMIN"), invocation).isGranted()).isTrue();
+    }
+
+    @Test
+    void authorize_WithoutGatewayPrincipal_ShouldDeny() throws Exception {
+        // Given
+        SimpleMethodInvocation invocation = invocation("getPaymentById", String.class, GatewayPrincipal.class);
+        Authentication anonymous = new AnonymousAuthenticationToken("key", "anonymousUser", AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS"));
+
+        // When & Then
+        assertThat(authorizationManager.authorize(() -> anonymous, invocation).isGranted()).isFalse();
+        assertThat(authorizationManager.authorize(() -> authentication(""), invocation).isGranted()).isFalse();
+        StepVerifier.create(authorizationManager.authorize(Mono.empty(), invocation))
+                .assertNext(decision -> assertThat(decision.isGranted()).isFalse())
+                .verifyComplete();
+    }
+
+    private Authentication authentication(String roles) {
+        return new GatewayAuthenticationToken(GatewayPrincipal.of(USER_ID, roles));
+    }
+
+    private SimpleMethodInvocation invocation(String name, Class<?>... parameterTypes) throws NoSuchMethodException {
+        return new SimpleMethodInvocation(null, PaymentService.class.getMethod(name, parameterTypes));
+    }
+}
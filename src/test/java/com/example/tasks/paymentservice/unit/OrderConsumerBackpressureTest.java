@@ -0,0 +1,179 @@
+package com.example.tasks.paymentservice.unit;
+
+import com.example.tasks.paymentservice.kafka.consumer.OrderConsumerBackpressure;
+import com.example.tasks.paymentservice.kafka.consumer.OrderConsumerBackpressureEvent;
+import com.example.tasks.paymentservice.processor.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderConsumerBackpressureTest {
+
+    private static final List<TopicPartition> PARTITIONS = List.of(
+            new TopicPartition("order-created-topic", 0),
+            new TopicPartition("order-created-topic", 1),
+            new TopicPartition("order-created-topic", 2));
+
+    @Mock
+    private KafkaListenerEndpointRegistry listenerRegistry;
+
+    @Mock
+    private MessageListenerContainer container;
+
+    @Mock
+    private CircuitBreaker processorCircuitBreaker;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OrderConsumerBackpressure backpressure;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        backpressure = new OrderConsumerBackpressure(listenerRegistry, processorCircuitBreaker, eventPublisher, meterRegistry,
+                true, 10, 4, 50, 80, Duration.ofSeconds(2), Duration.ZERO, Duration.ofMinutes(2), 3, Duration.ZERO);
+    }
+
+    @Test
+    void record_WithFailureRateAboveThreshold_ShouldPauseListener() {
+        // Given
+        givenAssignedContainer();
+        backpressure.record(1_000_000, true);
+        backpressure.record(1_000_000, false);
+        backpressure.record(1_000_000, true);
+
+        // When
+        backpressure.record(1_000_000, false);
+
+        // Then
+        assertThat(backpressure.getState()).isEqualTo(OrderConsumerBackpressure.State.PAUSED);
+        verify(container).pause();
+        verify(eventPublisher).publishEvent(new OrderConsumerBackpressureEvent(OrderConsumerBackpressure.State.PAUSED, "failure-rate", 3));
+        assertThat(meterRegistry.get("payment.kafka.backpressure.pauses").tag("reason", "failure-rate").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void record_WithSlowCalls_ShouldPauseListener() {
+        // Given
+        givenAssignedContainer();
+        long slow = Duration.ofSeconds(3).toNanos();
+
+        // When
+        for (int i = 0; i < 4; i++) {
+            backpressure.record(slow, true);
+        }
+
+        // Then
+        assertThat(backpressure.getState()).isEqualTo(OrderConsumerBackpressure.State.PAUSED);
+        assertThat(meterRegistry.get("payment.kafka.backpressure.pauses").tag("reason", "slow-call-rate").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void record_WithHealthyCalls_ShouldKeepRunning() {
+        // When
+        for (int i = 0; i < 20; i++) {
+            backpressure.record(1_000_000, i % 5 != 0);
+        }
+
+        // Then
+        assertThat(backpressure.getState()).isEqualTo(OrderConsumerBackpressure.State.RUNNING);
+        verify(container, never()).pause();
+    }
+
+    @Test
+    void check_AfterPause_ShouldResumePartitionsOneStepAtATime() {
+        // Given
+        givenAssignedContainer();
+        for (int i = 0; i < 4; i++) {
+            backpressure.record(1_000_000, false);
+        }
+
+        // When
+        backpressure.check();
+
+        // Then
+        InOrder inOrder = inOrder(container);
+        inOrder.verify(container).pausePartition(PARTITIONS.get(0));
+        inOrder.verify(container).pausePartition(PARTITIONS.get(1));
+        inOrder.verify(container).pausePartition(PARTITIONS.get(2));
+        inOrder.verify(container).resume();
+        inOrder.verify(container).resumePartition(PARTITIONS.get(0));
+        assertThat(backpressure.getState()).isEqualTo(OrderConsumerBackpressure.State.RECOVERING);
+        verify(container, never()).resumePartition(PARTITIONS.get(1));
+
+        // When
+        backpressure.check();
+        backpressure.check();
+
+        // Then
+        verify(container).resumePartition(PARTITIONS.get(1));
+        verify(container).resumePartition(PARTITIONS.get(2));
+        assertThat(backpressure.getState()).isEqualTo(OrderConsumerBackpressure.State.RUNNING);
+        assertThat(meterRegistry.get("payment.kafka.backpressure.resumes").counter().count()).isEqualTo(3.0);
+    }
+
+    @Test
+    void check_WhileProcessorCircuitRejects_ShouldPauseAndStayPaused() {
+        // Given
+        givenAssignedContainer();
+        when(processorCircuitBreaker.isRejecting()).thenReturn(true);
+
+        // When
+        backpressure.check();
+        backpressure.check();
+
+        // Then
+        assertThat(backpressure.getState()).isEqualTo(OrderConsumerBackpressure.State.PAUSED);
+        verify(container, times(1)).pause();
+        verify(container, never()).resume();
+        verify(container, never()).resumePartition(any());
+    }
+
+    @Test
+    void check_WhenProcessorCircuitRejectsDuringRecovery_ShouldPauseAgain() {
+        // Given
+        givenAssignedContainer();
+        for (int i = 0; i < 4; i++) {
+            backpressure.record(1_000_000, false);
+        }
+        backpressure.check();
+        when(processorCircuitBreaker.isRejecting()).thenReturn(true);
+
+        // When
+        backpressure.check();
+
+        // Then
+        assertThat(backpressure.getState()).isEqualTo(OrderConsumerBackpressure.State.PAUSED);
+        verify(container, times(2)).pause();
+        assertThat(meterRegistry.get("payment.kafka.backpressure.held.partitions").gauge().value()).isEqualTo(2.0);
+    }
+
+    private void givenAssignedContainer() {
+        when(listenerRegistry.getListenerContainer(OrderConsumerBackpressure.LISTENER_ID)).thenReturn(container);
+        when(container.getAssignedPartitions()).thenReturn(PARTITIONS);
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.tasks.paymentservice.unit;
+
+import com.example.tasks.paymentservice.dedup.OrderEventDeduplicator;
+import com.example.tasks.paymentservice.model.PaymentSource;
+import com.example.tasks.paymentservice.repository.PaymentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderEventDeduplicatorTest {
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    private OrderEventDeduplicator deduplicator;
+
+    @BeforeEach
+    void setUp() {
+        deduplicator = new OrderEventDeduplicator(paymentRepository, new SimpleMeterRegistry(), 2);
+    }
+
+    @Test
+    void isDuplicate_WithUnseenOrder_ShouldCheckRepository() {
+        // Given
+        String orderId = UUID.randomUUID().toString();
+
+        // When
+        boolean duplicate = deduplicator.isDuplicate(orderId);
+
+        // Then
+        assertThat(duplicate).isFalse();
+        verify(paymentRepository).existsChargedByOrderIdAndSource(orderId, PaymentSource.ORDER_EVENT);
+        verify(paymentRepository).existsArchivedByOrderIdAndSource(orderId, PaymentSource.ORDER_EVENT);
+    }
+
+    @Test
+    void isDuplicate_AfterRestartWithOrderAlreadyStored_ShouldReturnTrue() {
+        // Given
+        String orderId = UUID.randomUUID().toString();
+        OrderEventDeduplicator freshDeduplicator = new OrderEventDeduplicator(paymentRepository, new SimpleMeterRegistry(), 2);
+        when(paymentRepository.existsChargedByOrderIdAndSource(orderId, PaymentSource.ORDER_EVENT)).thenReturn(true);
+
+        // When
+        boolean duplicate = freshDeduplicator.isDuplicate(orderId);
+
+        // Then
+        assertThat(duplicate).isTrue();
+        assertThat(freshDeduplicator.isDuplicate(orderId)).isTrue();
+        verify(paymentRepository, times(1)).existsChargedByOrderIdAndSource(orderId, PaymentSource.ORDER_EVENT);
+    }
+
+    @Test
+    void isDuplicate_WithOrderOnlyInArchive_ShouldReturnTrue() {
+        // Given
+        String orderId = UUID.randomUUID().toString();
+        when(paymentRepository.existsArchivedByOrderIdAndSource(orderId, PaymentSource.ORDER_EVENT)).thenReturn(true);
+
+        // When
+        boolean duplicate = deduplicator.isDuplicate(orderId);
+
+        // Then
+        assertThat(duplicate).isTrue();
+    }
+
+    @Test
+    void isDuplicate_WithRecentlyProcessedOrder_ShouldNotQueryRepository() {
+        // Given
+        String orderId = UUID.randomUUID().toString();
+        deduplicator.markProcessed(orderId);
+
+        // When
+        boolean duplicate = deduplicator.isDuplicate(orderId);
+
+        // Then
+        assertThat(duplicate).isTrue();
+        verify(paymentRepository, never()).existsChargedByOrderIdAndSource(anyString(), eq(PaymentSource.ORDER_EVENT));
+    }
+
+    @Test
+    void isDuplicate_WithOrderEvictedFromRecentSet_ShouldConfirmWithRepository() {
+        // Given
+        String orderId = UUID.randomUUID().toString();
+        deduplicator.markProcessed(orderId);
+        deduplicator.markProcessed(UUID.randomUUID().toString());
+        deduplicator.markProcessed(UUID.randomUUID().toString());
+        when(paymentRepository.existsChargedByOrderIdAndSource(orderId, PaymentSource.ORDER_EVENT)).thenReturn(true);
+
+        // When
+        boolean duplicate = deduplicator.isDuplicate(orderId);
+
+        // Then
+        assertThat(duplicate).isTrue();
+        verify(paymentRepository).existsChargedByOrderIdAndSource(orderId, PaymentSource.ORDER_EVENT);
+    }
+}
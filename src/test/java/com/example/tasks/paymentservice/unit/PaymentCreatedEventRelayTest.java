@@ -0,0 +1,225 @@
+package com.example.tasks.paymentservice.unit;
+
+import com.example.tasks.paymentservice.kafka.producer.PaymentCreatedEventRelay;
+import com.example.tasks.paymentservice.kafka.producer.PaymentEventPublisher;
+import com.example.tasks.paymentservice.model.OutboxEvent;
+import com.example.tasks.paymentservice.model.OutboxStatus;
+import com.example.tasks.paymentservice.monitoring.PaymentMetrics;
+import com.example.tasks.paymentservice.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.bson.Document;
+import org.example.tasks.dto.PaymentCreatedEvent;
+import org.example.tasks.model.PaymentStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentCreatedEventRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Captor
+    private ArgumentCaptor<PaymentCreatedEvent> eventCaptor;
+
+    @Captor
+    private ArgumentCaptor<Query> queryCaptor;
+
+    @Captor
+    private ArgumentCaptor<Update> updateCaptor;
+
+    @Captor
+    private ArgumentCaptor<String> ownerCaptor;
+
+    private SimpleMeterRegistry meterRegistry;
+    private PaymentCreatedEventRelay relay;
+    private OutboxEvent outboxEvent;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        PaymentEventPublisher publisher = new PaymentEventPublisher(kafkaTemplate, meterRegistry, 10, 0, 1, 1000);
+        relay = new PaymentCreatedEventRelay(outboxEventRepository, mongoTemplate, publisher, meterRegistry,
+                new PaymentMetrics(meterRegistry));
+        ReflectionTestUtils.setField(relay, "paymentCreatedTopic", "payment-created-topic");
+        ReflectionTestUtils.setField(relay, "batchSize", 100);
+        ReflectionTestUtils.setField(relay, "lease", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(relay, "maxAttempts", 3);
+
+        outboxEvent = new OutboxEvent();
+        outboxEvent.setId("outbox-123");
+        outboxEvent.setPaymentId("payment-123");
+        outboxEvent.setOrderId("68d6ccaa-bec0-4d1a-a328-f771c5b78d44");
+        outboxEvent.setPaymentStatus(PaymentStatus.SUCCESS);
+        outboxEvent.setCurrency("USD");
+        outboxEvent.setOrderCreatedAt(Instant.now().minusSeconds(2));
+        outboxEvent.setStatus(OutboxStatus.PENDING);
+        outboxEvent.setCreatedAt(LocalDateTime.now());
+    }
+
+    @Test
+    void relay_WithPendingEntries_ShouldSendKeyedEventsAndMarkThemSent() {
+        // Given
+        when(outboxEventRepository.claimBatch(anyString(), eq(100), eq(Duration.ofMinutes(5))))
+                .thenReturn(List.of(outboxEvent));
+        when(kafkaTemplate.send(eq("payment-created-topic"), eq(outboxEvent.getOrderId()), any(PaymentCreatedEvent.class)))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        // When
+        relay.relay();
+
+        // Then
+        verify(kafkaTemplate).send(eq("payment-created-topic"), eq(outboxEvent.getOrderId()), eventCaptor.capture());
+        PaymentCreatedEvent sentEvent = eventCaptor.getValue();
+        assertThat(sentEvent.getOrderId()).isEqualTo(UUID.fromString(outboxEvent.getOrderId()));
+        assertThat(sentEvent.getPaymentId()).isEqualTo("payment-123");
+        assertThat(sentEvent.getStatus()).isEqualTo(PaymentStatus.SUCCESS);
+
+        verify(mongoTemplate).updateMulti(queryCaptor.capture(), updateCaptor.capture(), eq(OutboxEvent.class));
+        assertThat(queryCaptor.getValue().getQueryObject().toJson()).contains("outbox-123");
+        assertThat(updateCaptor.getValue().getUpdateObject().get("$set", Document.class)).containsEntry("status", OutboxStatus.SENT);
+        assertThat(updateCaptor.getValue().getUpdateObject().get("$unset", Document.class)).containsKeys("owner", "lease_until");
+
+        assertThat(meterRegistry.get("payment.kafka.send").tag("outcome", "ack").tag("currency", "USD").timer().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("payment.end-to-end").tag("status", "SUCCESS").timer().totalTime(TimeUnit.SECONDS))
+                .isGreaterThanOrEqualTo(2);
+    }
+
+    @Test
+    void relay_WithFailedSend_ShouldReleaseClaimBackToPending() {
+        // Given
+        when(outboxEventRepository.claimBatch(anyString(), eq(100), eq(Duration.ofMinutes(5))))
+                .thenReturn(List.of(outboxEvent));
+        when(kafkaTemplate.send(eq("payment-created-topic"), eq(outboxEvent.getOrderId()), any(PaymentCreatedEvent.class)))
+                .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Kafka error")));
+
+        // When
+        relay.relay();
+
+        // Then
+        verify(mongoTemplate, times(2)).updateMulti(queryCaptor.capture(), updateCaptor.capture(), eq(OutboxEvent.class));
+        Query exhausted = queryCaptor.getAllValues().get(0);
+        assertThat(exhausted.getQueryObject().get("attempts", Document.class)).containsEntry("$gte", 2);
+        assertThat(updateCaptor.getAllValues().get(0).getUpdateObject().get("$set", Document.class)).containsEntry("status", OutboxStatus.FAILED);
+        Query released = queryCaptor.getAllValues().get(1);
+        assertThat(released.getQueryObject()).containsEntry("status", OutboxStatus.SENDING);
+        assertThat(released.getQueryObject().get("_id", Document.class).get("$in", List.class)).containsExactly("outbox-123");
+        Update release = updateCaptor.getAllValues().get(1);
+        assertThat(release.getUpdateObject().get("$set", Document.class)).containsEntry("status", OutboxStatus.PENDING);
+        assertThat(release.getUpdateObject().get("$inc", Document.class)).containsEntry("attempts", 1);
+        assertThat(meterRegistry.get("payment.kafka.send").tag("outcome", "error").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.find("payment.end-to-end").timer()).isNull();
+    }
+
+    @Test
+    void relay_WithRecordTooLarge_ShouldMoveEntryToFailed() {
+        // Given
+        when(outboxEventRepository.claimBatch(anyString(), eq(100), eq(Duration.ofMinutes(5))))
+                .thenReturn(List.of(outboxEvent));
+        when(kafkaTemplate.send(eq("payment-created-topic"), eq(outboxEvent.getOrderId()), any(PaymentCreatedEvent.class)))
+                .thenReturn(CompletableFuture.failedFuture(new KafkaException("Send failed", new RecordTooLargeException("Too large"))));
+
+        // When
+        relay.relay();
+
+        // Then
+        verify(mongoTemplate).updateMulti(queryCaptor.capture(), updateCaptor.capture(), eq(OutboxEvent.class));
+        assertThat(queryCaptor.getValue().getQueryObject().get("_id", Document.class).get("$in", List.class)).containsExactly("outbox-123");
+        assertThat(updateCaptor.getValue().getUpdateObject().get("$set", Document.class)).containsEntry("status", OutboxStatus.FAILED);
+        assertThat(meterRegistry.get("payment.outbox.relay.failed").counter().count()).isZero();
+    }
+
+    @Test
+    void relay_WithUnmappableEntry_ShouldMoveItToFailedWithoutSending() {
+        // Given
+        outboxEvent.setOrderId("not-a-uuid");
+        when(outboxEventRepository.claimBatch(anyString(), eq(100), eq(Duration.ofMinutes(5))))
+                .thenReturn(List.of(outboxEvent));
+
+        // When
+        relay.relay();
+
+        // Then
+        verify(kafkaTemplate, never()).send(anyString(), anyString(), any());
+        verify(mongoTemplate).updateMulti(any(Query.class), updateCaptor.capture(), eq(OutboxEvent.class));
+        assertThat(updateCaptor.getValue().getUpdateObject().get("$set", Document.class)).containsEntry("status", OutboxStatus.FAILED);
+    }
+
+    @Test
+    void relay_WithSendStillInFlight_ShouldMarkItSentOnceAcked() {
+        // Given
+        CompletableFuture<SendResult<String, Object>> pendingSend = new CompletableFuture<>();
+        when(outboxEventRepository.claimBatch(anyString(), eq(100), eq(Duration.ofMinutes(5))))
+                .thenReturn(List.of(outboxEvent), List.of());
+        when(kafkaTemplate.send(eq("payment-created-topic"), eq(outboxEvent.getOrderId()), any(PaymentCreatedEvent.class)))
+                .thenReturn(pendingSend);
+
+        // When
+        relay.relay();
+        relay.relay();
+
+        // Then
+        verify(mongoTemplate, never()).updateMulti(any(Query.class), any(Update.class), eq(OutboxEvent.class));
+
+        // When
+        pendingSend.complete(null);
+        relay.relay();
+
+        // Then
+        verify(kafkaTemplate).send(eq("payment-created-topic"), eq(outboxEvent.getOrderId()), any(PaymentCreatedEvent.class));
+        verify(mongoTemplate).updateMulti(queryCaptor.capture(), any(Update.class), eq(OutboxEvent.class));
+        assertThat(queryCaptor.getValue().getQueryObject().toJson()).contains("outbox-123");
+    }
+
+    @Test
+    void relay_AcrossRuns_ShouldClaimUnderTheSameOwner() {
+        // Given
+        when(outboxEventRepository.claimBatch(anyString(), eq(100), eq(Duration.ofMinutes(5)))).thenReturn(List.of());
+
+        // When
+        relay.relay();
+        relay.relay();
+
+        // Then
+        verify(outboxEventRepository, times(2)).claimBatch(ownerCaptor.capture(), eq(100), eq(Duration.ofMinutes(5)));
+        assertThat(ownerCaptor.getAllValues()).hasSize(2).doesNotContainNull();
+        assertThat(ownerCaptor.getAllValues().get(0)).isEqualTo(ownerCaptor.getAllValues().get(1));
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.tasks.paymentservice.unit;
+
+import com.example.tasks.paymentservice.kafka.producer.PaymentEventPublisher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentEventPublisherTest {
+
+    @Mock
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private PaymentEventPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        publisher = new PaymentEventPublisher(kafkaTemplate, meterRegistry, 1, 2, 1, 50);
+    }
+
+    @Test
+    void publish_WithRetriableFailure_ShouldRetryAndComplete() {
+        // Given
+        @SuppressWarnings("unchecked")
+        SendResult<String, Object> sendResult = mock(SendResult.class);
+        when(kafkaTemplate.send("topic", "key", "value"))
+                .thenReturn(CompletableFuture.failedFuture(new TimeoutException("Expiring 1 record")))
+                .thenReturn(CompletableFuture.completedFuture(sendResult));
+
+        // When
+        SendResult<String, Object> result = publisher.publish("topic", "key", "value").join();
+
+        // Then
+        assertThat(result).isSameAs(sendResult);
+        verify(kafkaTemplate, times(2)).send("topic", "key", "value");
+        assertThat(meterRegistry.get("payment.kafka.publish.retries").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("payment.kafka.publish.in-flight").gauge().value()).isZero();
+    }
+
+    @Test
+    void publish_WithNonRetriableFailure_ShouldFailWithoutRetry() {
+        // Given
+        when(kafkaTemplate.send("topic", "key", "value"))
+                .thenReturn(CompletableFuture.failedFuture(new RecordTooLargeException("too large")));
+
+        // When
+        CompletableFuture<SendResult<String, Object>> result = publisher.publish("topic", "key", "value");
+
+        // Then
+        assertThat(result).isCompletedExceptionally();
+        verify(kafkaTemplate, times(1)).send("topic", "key", "value");
+        assertThat(meterRegistry.get("payment.kafka.publish.failures").tag("exception", "RecordTooLargeException").counter().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("payment.kafka.publish.in-flight").gauge().value()).isZero();
+    }
+
+    @Test
+    void publish_WithInFlightLimitReached_ShouldApplyBackpressure() {
+        // Given
+        CompletableFuture<SendResult<String, Object>> pendingSend = new CompletableFuture<>();
+        when(kafkaTemplate.send("topic", "key", "value")).thenReturn(pendingSend);
+        publisher.publish("topic", "key", "value");
+
+        // When
+        CompletableFuture<SendResult<String, Object>> rejected = publisher.publish("topic", "key", "value");
+
+        // Then
+        assertThat(rejected).isCompletedExceptionally();
+        assertThat(meterRegistry.get("payment.kafka.publish.in-flight").gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get("payment.kafka.publish.backpressure").timer().count()).isEqualTo(1);
+
+        pendingSend.complete(null);
+        assertThat(meterRegistry.get("payment.kafka.publish.in-flight").gauge().value()).isZero();
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.tasks.paymentservice.unit;
+
+import com.example.tasks.paymentservice.kafka.serde.BinaryEventCodec;
+import com.example.tasks.paymentservice.kafka.serde.EventFormat;
+import com.example.tasks.paymentservice.kafka.serde.PaymentEventDeserializer;
+import com.example.tasks.paymentservice.kafka.serde.PaymentEventSerializer;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.example.tasks.dto.OrderCreatedEvent;
+import org.example.tasks.dto.PaymentCreatedEvent;
+import org.example.tasks.model.PaymentStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PaymentEventSerdeTest {
+
+    private PaymentEventSerializer binarySerializer;
+    private PaymentEventSerializer jsonSerializer;
+    private PaymentEventDeserializer deserializer;
+
+    @BeforeEach
+    void setUp() {
+        binarySerializer = serializer(EventFormat.BINARY);
+        jsonSerializer = serializer(EventFormat.JSON);
+        deserializer = new PaymentEventDeserializer();
+        deserializer.configure(Map.of(
+                PaymentEventDeserializer.JSON_DELEGATE_CONFIG, JsonDeserializer.class,
+                JsonDeserializer.TRUSTED_PACKAGES, "*"), false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        binarySerializer.close();
+        jsonSerializer.close();
+        deserializer.close();
+    }
+
+    @Test
+    void binary_WithOrderCreatedEvent_ShouldRoundTripCompactly() {
+        // Given
+        OrderCreatedEvent event = orderCreatedEvent(new BigDecimal("150.75"));
+        Headers headers = new RecordHeaders();
+
+        // When
+        byte[] bytes = binarySerializer.serialize("order-created", headers, event);
+        OrderCreatedEvent decoded = (OrderCreatedEvent) deserializer.deserialize("order-created", headers, bytes);
+
+        // Then
+        assertThat(contentType(headers)).isEqualTo(EventFormat.BINARY.contentType());
+        assertThat(bytes).hasSize(3 + 16 + 16 + 9 + 5 + 12 + 14);
+        assertThat(decoded).usingRecursiveComparison().isEqualTo(event);
+    }
+
+    @Test
+    void binary_WithPaymentCreatedEvent_ShouldPackObjectIdAndStatus() {
+        // Given
+        PaymentCreatedEvent event = new PaymentCreatedEvent();
+        event.setOrderId(UUID.fromString("68d6ccaa-bec0-4d1a-a328-f771c5b78d44"));
+        event.setPaymentId("65f1a2b3c4d5e6f708192a3b");
+        event.setStatus(PaymentStatus.FAILED);
+        Headers headers = new RecordHeaders();
+
+        // When
+        byte[] bytes = binarySerializer.serialize("payment-created", headers, event);
+        PaymentCreatedEvent decoded = (PaymentCreatedEvent) deserializer.deserialize("payment-created", headers, bytes);
+
+        // Then
+        assertThat(bytes).hasSize(3 + 16 + 12 + 1);
+        assertThat(decoded).usingRecursiveComparison().isEqualTo(event);
+    }
+
+    @Test
+    void binary_WithAmountBeyondLong_ShouldFallBackToJson() {
+        // Given
+        OrderCreatedEvent event = orderCreatedEvent(new BigDecimal("123456789012345678901234567890.12"));
+        Headers headers = new RecordHeaders();
+
+        // When
+        byte[] bytes = binarySerializer.serialize("order-created", headers, event);
+        OrderCreatedEvent decoded = (OrderCreatedEvent) deserializer.deserialize("order-created", headers, bytes);
+
+        // Then
+        assertThat(contentType(headers)).isEqualTo(EventFormat.JSON.contentType());
+        assertThat(decoded.getTotalAmount()).isEqualByComparingTo(event.getTotalAmount());
+    }
+
+    @Test
+    void deserialize_WithMixedTraffic_ShouldReadJsonAndBinaryRecords() {
+        // Given
+        OrderCreatedEvent event = orderCreatedEvent(new BigDecimal("10.00"));
+        Headers jsonHeaders = new RecordHeaders();
+        Headers binaryHeaders = new RecordHeaders();
+        byte[] json = jsonSerializer.serialize("order-created", jsonHeaders, event);
+        byte[] binary = binarySerializer.serialize("order-created", binaryHeaders, event);
+        // Producers that predate the header only send the JSON type headers.
+        jsonHeaders.remove(EventFormat.CONTENT_TYPE_HEADER);
+
+        // When
+        Object fromJson = deserializer.deserialize("order-created", jsonHeaders, json);
+        Object fromBinary = deserializer.deserialize("order-created", binaryHeaders, binary);
+
+        // Then
+        assertThat(fromJson).usingRecursiveComparison().isEqualTo(event);
+        assertThat(fromBinary).usingRecursiveComparison().isEqualTo(event);
+        assertThat(binary.length).isLessThan(json.length);
+    }
+
+    @Test
+    void serialize_WithRawBytes_ShouldPassThroughWithOriginalHeaders() {
+        // Given
+        byte[] undeserializable = "{\"orderId\":".getBytes(StandardCharsets.UTF_8);
+        Headers headers = new RecordHeaders();
+        headers.add(EventFormat.CONTENT_TYPE_HEADER, EventFormat.JSON.contentType().getBytes(StandardCharsets.UTF_8));
+
+        // When
+        byte[] bytes = binarySerializer.serialize("order-created-dlt", headers, undeserializable);
+
+        // Then
+        assertThat(bytes).isSameAs(undeserializable);
+        assertThat(contentType(headers)).isEqualTo(EventFormat.JSON.contentType());
+    }
+
+    @Test
+    void decode_WithNewerVersion_ShouldThrowSerializationException() {
+        // Given
+        byte[] bytes = BinaryEventCodec.encode(orderCreatedEvent(new BigDecimal("10.00")));
+        bytes[0] = BinaryEventCodec.VERSION + 1;
+
+        // When & Then
+        assertThatThrownBy(() -> BinaryEventCodec.decode(bytes))
+                .isInstanceOf(SerializationException.class)
+                .hasMessageContaining("version");
+    }
+
+    private PaymentEventSerializer serializer(EventFormat format) {
+        PaymentEventSerializer serializer = new PaymentEventSerializer();
+        serializer.configure(Map.of(
+                PaymentEventSerializer.JSON_DELEGATE_CONFIG, JsonSerializer.class,
+                PaymentEventSerializer.FORMAT_CONFIG, format.name()), false);
+        return serializer;
+    }
+
+    private OrderCreatedEvent orderCreatedEvent(BigDecimal amount) {
+        OrderCreatedEvent event = new OrderCreatedEvent();
+        event.setOrderId(UUID.fromString("68d6ccaa-bec0-4d1a-a328-f771c5b78d44"));
+        event.setUserId(UUID.fromString("b25c69da-00d6-442a-a922-a8c88ad34b62"));
+        event.setTotalAmount(amount);
+        event.setCurrency("EUR");
+        event.setTimestamp(Instant.parse("2025-01-15T10:15:30.123456Z"));
+        event.setPaymentMethodToken("pm_token_456");
+        return event;
+    }
+
+    private String contentType(Headers headers) {
+        return new String(headers.lastHeader(EventFormat.CONTENT_TYPE_HEADER).value(), StandardCharsets.UTF_8);
+    }
+}
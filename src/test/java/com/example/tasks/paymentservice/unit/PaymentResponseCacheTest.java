@@ -0,0 +1,57 @@
+package com.example.tasks.paymentservice.unit;
+
+import com.example.tasks.paymentservice.cache.PaymentResponseCache;
+import com.example.tasks.paymentservice.dto.PaymentResponseDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.tasks.model.PaymentStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PaymentResponseCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private PaymentResponseCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new PaymentResponseCache(meterRegistry, 100, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void refresh_WithTerminalPayment_ShouldCacheIt() {
+        // Given
+        PaymentResponseDto payment = createPayment("payment-1", PaymentStatus.SUCCESS);
+
+        // When
+        cache.refresh(payment);
+
+        // Then
+        assertThat(cache.get("payment-1")).isSameAs(payment);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "payments").tag("result", "hit").functionCounter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void refresh_WithPendingPayment_ShouldEvictStaleEntry() {
+        // Given
+        cache.refresh(createPayment("payment-1", PaymentStatus.FAILED));
+
+        // When
+        cache.refresh(createPayment("payment-1", PaymentStatus.PENDING));
+
+        // Then
+        assertThat(cache.get("payment-1")).isNull();
+    }
+
+    private PaymentResponseDto createPayment(String id, PaymentStatus status) {
+        PaymentResponseDto payment = new PaymentResponseDto();
+        payment.setId(id);
+        payment.setStatus(status);
+        return payment;
+    }
+}
@@ -1,17 +1,38 @@
 package com.example.tasks.paymentservice.unit;
 
+import com.example.tasks.paymentservice.cache.PaymentResponseCache;
+import com.example.tasks.paymentservice.dedup.OrderEventDeduplicator;
 import com.example.tasks.paymentservice.dto.ExternalPaymentApiResponse;
+import com.example.tasks.paymentservice.dto.PaymentBatchItemResultDto;
+import com.example.tasks.paymentservice.dto.PaymentPageDto;
 import com.example.tasks.paymentservice.dto.PaymentRequestDto;
 import com.example.tasks.paymentservice.dto.PaymentResponseDto;
+import com.example.tasks.paymentservice.dto.RevenueReportDto;
 import com.example.tasks.paymentservice.dto.mapper.PaymentMapper;
+import com.example.tasks.paymentservice.exception.InvalidOrderEventException;
+import com.example.tasks.paymentservice.exception.InvalidPaymentBatchException;
+import com.example.tasks.paymentservice.exception.InvalidPaymentCursorException;
 import com.example.tasks.paymentservice.exception.PaymentAuthorizationException;
 import com.example.tasks.paymentservice.exception.PaymentNotFoundException;
+import com.example.tasks.paymentservice.exception.PaymentProcessorException;
+import com.example.tasks.paymentservice.model.OutboxEvent;
+import com.example.tasks.paymentservice.model.OutboxStatus;
 import com.example.tasks.paymentservice.model.Payment;
+import com.example.tasks.paymentservice.model.PaymentSource;
+import com.example.tasks.paymentservice.monitoring.PaymentMetrics;
+import com.example.tasks.paymentservice.processor.ResilientPaymentProcessor;
+import com.example.tasks.paymentservice.repository.OutboxEventRepository;
+import com.example.tasks.paymentservice.repository.PaymentCursor;
 import com.example.tasks.paymentservice.repository.PaymentRepository;
-import com.example.tasks.paymentservice.service.ExternalPaymentApiService;
+import com.example.tasks.paymentservice.repository.projection.PaymentOwnerView;
+import com.example.tasks.paymentservice.security.GatewayPrincipal;
 import com.example.tasks.paymentservice.service.PaymentService;
+import com.example.tasks.paymentservice.service.RevenueRollupService;
+import com.mongodb.bulk.BulkWriteError;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.bson.BsonDocument;
 import org.example.tasks.dto.OrderCreatedEvent;
-import org.example.tasks.dto.PaymentCreatedEvent;
 import org.example.tasks.model.PaymentStatus;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -21,23 +42,33 @@ import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.kafka.listener.BatchListenerFailedException;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -48,13 +79,37 @@ class PaymentServiceTest {
     private PaymentRepository paymentRepository;
 
     @Mock
-    private ExternalPaymentApiService externalPaymentApiService;
+    private ResilientPaymentProcessor paymentProcessor;
 
     @Mock
     private PaymentMapper paymentMapper;
 
     @Mock
-    private KafkaTemplate<String, Object> kafkaTemplate;
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    @Mock
+    private OrderEventDeduplicator orderEventDeduplicator;
+
+    @Mock
+    private PaymentResponseCache paymentResponseCache;
+
+    @Mock
+    private RevenueRollupService revenueRollupService;
+
+    @Mock
+    private PaymentMetrics paymentMetrics;
+
+    @Mock
+    private Validator validator;
 
     @InjectMocks
     private PaymentService paymentService;
@@ -63,7 +118,13 @@ class PaymentServiceTest {
     private ArgumentCaptor<Payment> paymentCaptor;
 
     @Captor
-    private ArgumentCaptor<PaymentCreatedEvent> eventCaptor;
+    private ArgumentCaptor<OutboxEvent> outboxEventCaptor;
+
+    @Captor
+    private ArgumentCaptor<List<Object>> insertedCaptor;
+
+    @Captor
+    private ArgumentCaptor<List<Payment>> paymentListCaptor;
 
     private PaymentRequestDto paymentRequestDto;
     private Payment payment;
@@ -72,7 +133,9 @@ class PaymentServiceTest {
 
     @BeforeEach
     void setUp() {
-        ReflectionTestUtils.setField(paymentService, "paymentCreatedTopic", "payment-created-topic");
+        ReflectionTestUtils.setField(paymentService, "maxPageSize", 500);
+        ReflectionTestUtils.setField(paymentService, "maxBatchSize", 3);
+        ReflectionTestUtils.setField(paymentService, "batchProcessorParallelism", 2);
 
         paymentRequestDto = new PaymentRequestDto();
         paymentRequestDto.setPaymentMethodToken("pm_token_123");
@@ -120,12 +183,12 @@ class PaymentServiceTest {
         apiResponse.setTransactionId("tx_success_123");
 
         when(paymentMapper.toEntity(paymentRequestDto)).thenReturn(payment);
-        when(externalPaymentApiService.processPayment(any(Payment.class))).thenReturn(apiResponse);
+        when(paymentProcessor.processPayment(any(Payment.class))).thenReturn(apiResponse);
         when(paymentRepository.save(any(Payment.class))).thenReturn(payment);
         when(paymentMapper.toDto(payment)).thenReturn(paymentResponseDto);
 
         // When
-        PaymentResponseDto result = paymentService.processPayment(paymentRequestDto, authenticatedId, roles);
+        PaymentResponseDto result = paymentService.processPayment(paymentRequestDto, GatewayPrincipal.of(authenticatedId, roles));
 
         // Then
         assertThat(result).isNotNull();
@@ -133,7 +196,8 @@ class PaymentServiceTest {
         Payment savedPayment = paymentCaptor.getValue();
         assertThat(savedPayment.getStatus()).isEqualTo(PaymentStatus.SUCCESS);
         assertThat(savedPayment.getProcessorTransactionId()).isEqualTo("tx_success_123");
-        verify(externalPaymentApiService).processPayment(payment);
+        verify(paymentProcessor).processPayment(payment);
+        assertThat(savedPayment.getRollupPending()).isTrue();
     }
 
     @Test
@@ -146,12 +210,12 @@ class PaymentServiceTest {
         apiResponse.setTransactionId("tx_failed_123");
 
         when(paymentMapper.toEntity(paymentRequestDto)).thenReturn(payment);
-        when(externalPaymentApiService.processPayment(any(Payment.class))).thenReturn(apiResponse);
+        when(paymentProcessor.processPayment(any(Payment.class))).thenReturn(apiResponse);
         when(paymentRepository.save(any(Payment.class))).thenReturn(payment);
         when(paymentMapper.toDto(payment)).thenReturn(paymentResponseDto);
 
         // When
-        PaymentResponseDto result = paymentService.processPayment(paymentRequestDto, authenticatedId, roles);
+        PaymentResponseDto result = paymentService.processPayment(paymentRequestDto, GatewayPrincipal.of(authenticatedId, roles));
 
         // Then
         assertThat(result).isNotNull();
@@ -169,12 +233,12 @@ class PaymentServiceTest {
         RuntimeException apiException = new RuntimeException("External API unavailable");
 
         when(paymentMapper.toEntity(paymentRequestDto)).thenReturn(payment);
-        when(externalPaymentApiService.processPayment(any(Payment.class))).thenThrow(apiException);
+        when(paymentProcessor.processPayment(any(Payment.class))).thenThrow(apiException);
         when(paymentRepository.save(any(Payment.class))).thenReturn(payment);
         when(paymentMapper.toDto(payment)).thenReturn(paymentResponseDto);
 
         // When
-        PaymentResponseDto result = paymentService.processPayment(paymentRequestDto, authenticatedId, roles);
+        PaymentResponseDto result = paymentService.processPayment(paymentRequestDto, GatewayPrincipal.of(authenticatedId, roles));
 
         // Then
         assertThat(result).isNotNull();
@@ -183,6 +247,30 @@ class PaymentServiceTest {
         assertThat(savedPayment.getStatus()).isEqualTo(PaymentStatus.FAILED);
         assertThat(savedPayment.getErrorMessage()).isEqualTo("External API unavailable");
         assertThat(savedPayment.getErrorCode()).isEqualTo("API_ERROR");
+        verify(paymentMetrics).recordProcessorCall(any(), eq("USD"), eq("ERROR"));
+    }
+
+    @Test
+    void processPayment_WithProcessorTimeout_ShouldKeepPaymentPending() {
+        // Given
+        String authenticatedId = "b25c69da-00d6-442a-a922-a8c88ad34b62";
+        String roles = "ROLE_USER";
+        PaymentProcessorException timeout = new PaymentProcessorException(ResilientPaymentProcessor.TIMEOUT,
+                PaymentStatus.PENDING, "Payment processor did not answer within 2000 ms");
+
+        when(paymentMapper.toEntity(paymentRequestDto)).thenReturn(payment);
+        when(paymentProcessor.processPayment(any(Payment.class))).thenThrow(timeout);
+        when(paymentRepository.save(any(Payment.class))).thenReturn(payment);
+        when(paymentMapper.toDto(payment)).thenReturn(paymentResponseDto);
+
+        // When
+        paymentService.processPayment(paymentRequestDto, GatewayPrincipal.of(authenticatedId, roles));
+
+        // Then
+        verify(paymentRepository).save(paymentCaptor.capture());
+        Payment savedPayment = paymentCaptor.getValue();
+        assertThat(savedPayment.getStatus()).isEqualTo(PaymentStatus.PENDING);
+        assertThat(savedPayment.getErrorCode()).isEqualTo(ResilientPaymentProcessor.TIMEOUT);
     }
 
     @Test
@@ -192,12 +280,12 @@ class PaymentServiceTest {
         String roles = "ROLE_USER";
 
         // When & Then
-        assertThatThrownBy(() -> paymentService.processPayment(paymentRequestDto, authenticatedId, roles))
+        assertThatThrownBy(() -> paymentService.processPayment(paymentRequestDto, GatewayPrincipal.of(authenticatedId, roles)))
                 .isInstanceOf(PaymentAuthorizationException.class)
                 .hasMessage("You are not authorized to perform this payment!");
 
         verify(paymentRepository, never()).save(any(Payment.class));
-        verify(externalPaymentApiService, never()).processPayment(any(Payment.class));
+        verify(paymentProcessor, never()).processPayment(any(Payment.class));
     }
 
     @Test
@@ -210,17 +298,17 @@ class PaymentServiceTest {
         apiResponse.setTransactionId("tx_admin_123");
 
         when(paymentMapper.toEntity(paymentRequestDto)).thenReturn(payment);
-        when(externalPaymentApiService.processPayment(any(Payment.class))).thenReturn(apiResponse);
+        when(paymentProcessor.processPayment(any(Payment.class))).thenReturn(apiResponse);
         when(paymentRepository.save(any(Payment.class))).thenReturn(payment);
         when(paymentMapper.toDto(payment)).thenReturn(paymentResponseDto);
 
         // When
-        PaymentResponseDto result = paymentService.processPayment(paymentRequestDto, authenticatedId, roles);
+        PaymentResponseDto result = paymentService.processPayment(paymentRequestDto, GatewayPrincipal.of(authenticatedId, roles));
 
         // Then
         assertThat(result).isNotNull();
         verify(paymentRepository).save(any(Payment.class));
-        verify(externalPaymentApiService).processPayment(any(Payment.class));
+        verify(paymentProcessor).processPayment(any(Payment.class));
     }
 
     @Test
@@ -230,16 +318,49 @@ class PaymentServiceTest {
         String authenticatedId = "b25c69da-00d6-442a-a922-a8c88ad34b62";
         String roles = "ROLE_USER";
 
-        when(paymentRepository.findById(paymentId)).thenReturn(Optional.of(payment));
+        when(paymentRepository.findResponseViewById(paymentId)).thenReturn(Optional.of(payment));
         when(paymentMapper.toDto(payment)).thenReturn(paymentResponseDto);
 
         // When
-        PaymentResponseDto result = paymentService.getPaymentById(paymentId, authenticatedId, roles);
+        PaymentResponseDto result = paymentService.getPaymentById(paymentId, GatewayPrincipal.of(authenticatedId, roles));
 
         // Then
         assertThat(result).isNotNull();
         assertThat(result.getId()).isEqualTo("payment-123");
-        verify(paymentRepository).findById(paymentId);
+        verify(paymentRepository).findResponseViewById(paymentId);
+        verify(paymentResponseCache).refresh(paymentResponseDto);
+    }
+
+    @Test
+    void getPaymentById_WithCachedPayment_ShouldSkipRepository() {
+        // Given
+        String paymentId = "payment-123";
+        String authenticatedId = "b25c69da-00d6-442a-a922-a8c88ad34b62";
+        String roles = "ROLE_USER";
+
+        when(paymentResponseCache.get(paymentId)).thenReturn(paymentResponseDto);
+
+        // When
+        PaymentResponseDto result = paymentService.getPaymentById(paymentId, GatewayPrincipal.of(authenticatedId, roles));
+
+        // Then
+        assertThat(result).isSameAs(paymentResponseDto);
+        verify(paymentRepository, never()).findResponseViewById(anyString());
+    }
+
+    @Test
+    void getPaymentById_WithCachedPaymentAndUnauthorizedUser_ShouldThrowAuthorizationException() {
+        // Given
+        String paymentId = "payment-123";
+        String authenticatedId = "user-456";
+        String roles = "ROLE_USER";
+
+        when(paymentResponseCache.get(paymentId)).thenReturn(paymentResponseDto);
+
+        // When & Then
+        assertThatThrownBy(() -> paymentService.getPaymentById(paymentId, GatewayPrincipal.of(authenticatedId, roles)))
+                .isInstanceOf(PaymentAuthorizationException.class)
+                .hasMessage("You are not authorized to get this payment!");
     }
 
     @Test
@@ -249,14 +370,51 @@ class PaymentServiceTest {
         String authenticatedId = "b25c69da-00d6-442a-a922-a8c88ad34b62";
         String roles = "ROLE_USER";
 
-        when(paymentRepository.findById(paymentId)).thenReturn(Optional.empty());
+        when(paymentRepository.findResponseViewById(paymentId)).thenReturn(Optional.empty());
 
         // When & Then
-        assertThatThrownBy(() -> paymentService.getPaymentById(paymentId, authenticatedId, roles))
+        assertThatThrownBy(() -> paymentService.getPaymentById(paymentId, GatewayPrincipal.of(authenticatedId, roles)))
                 .isInstanceOf(PaymentNotFoundException.class)
                 .hasMessage("Payment with id=non-existing-payment not found");
     }
 
+    @Test
+    void getPaymentById_WithArchivedPayment_ShouldFallBackToArchive() {
+        // Given
+        String paymentId = "payment-123";
+        String authenticatedId = "b25c69da-00d6-442a-a922-a8c88ad34b62";
+        String roles = "ROLE_USER";
+
+        when(paymentRepository.findResponseViewById(paymentId)).thenReturn(Optional.empty());
+        when(paymentRepository.findArchivedResponseViewById(paymentId)).thenReturn(Optional.of(payment));
+        when(paymentMapper.toDto(payment)).thenReturn(paymentResponseDto);
+
+        // When
+        PaymentResponseDto result = paymentService.getPaymentById(paymentId, GatewayPrincipal.of(authenticatedId, roles));
+
+        // Then
+        assertThat(result).isSameAs(paymentResponseDto);
+        verify(paymentResponseCache).refresh(paymentResponseDto);
+    }
+
+    @Test
+    void getAllPaymentsByOrderId_WithArchivedForeignPayment_ShouldThrowAuthorizationException() {
+        // Given
+        String orderId = "68d6ccaa-bec0-4d1a-a328-f771c5b78d44";
+        String authenticatedId = "b25c69da-00d6-442a-a922-a8c88ad34b62";
+        String roles = "ROLE_USER";
+        PaymentOwnerView owner = () -> authenticatedId;
+        PaymentOwnerView archivedOwner = () -> "user-999";
+
+        when(paymentRepository.findOwnersByOrderId(orderId)).thenReturn(List.of(owner));
+        when(paymentRepository.findArchivedOwnersByOrderId(orderId)).thenReturn(List.of(archivedOwner));
+
+        // When & Then
+        assertThatThrownBy(() -> paymentService.getAllPaymentsByOrderId(orderId, GatewayPrincipal.of(authenticatedId, roles)))
+                .isInstanceOf(PaymentAuthorizationException.class);
+        verify(paymentRepository, never()).findArchivedResponseViewByOrderId(orderId);
+    }
+
     @Test
     void getPaymentById_WithUnauthorizedUser_ShouldThrowAuthorizationException() {
         // Given
@@ -264,10 +422,10 @@ class PaymentServiceTest {
         String authenticatedId = "user-456";
         String roles = "ROLE_USER";
 
-        when(paymentRepository.findById(paymentId)).thenReturn(Optional.of(payment));
+        when(paymentRepository.findResponseViewById(paymentId)).thenReturn(Optional.of(payment));
 
         // When & Then
-        assertThatThrownBy(() -> paymentService.getPaymentById(paymentId, authenticatedId, roles))
+        assertThatThrownBy(() -> paymentService.getPaymentById(paymentId, GatewayPrincipal.of(authenticatedId, roles)))
                 .isInstanceOf(PaymentAuthorizationException.class)
                 .hasMessage("You are not authorized to get this payment!");
     }
@@ -279,17 +437,19 @@ class PaymentServiceTest {
         String authenticatedId = "b25c69da-00d6-442a-a922-a8c88ad34b62";
         String roles = "ROLE_USER";
         List<Payment> payments = List.of(payment);
+        PaymentOwnerView owner = () -> authenticatedId;
 
-        when(paymentRepository.findByOrderId(orderId)).thenReturn(payments);
+        when(paymentRepository.findOwnersByOrderId(orderId)).thenReturn(List.of(owner));
+        when(paymentRepository.findResponseViewByOrderId(orderId)).thenReturn(payments);
         when(paymentMapper.toDto(payment)).thenReturn(paymentResponseDto);
 
         // When
-        List<PaymentResponseDto> result = paymentService.getAllPaymentsByOrderId(orderId, authenticatedId, roles);
+        List<PaymentResponseDto> result = paymentService.getAllPaymentsByOrderId(orderId, GatewayPrincipal.of(authenticatedId, roles));
 
         // Then
         assertThat(result).hasSize(1);
         assertThat(result.get(0).getId()).isEqualTo("payment-123");
-        verify(paymentRepository).findByOrderId(orderId);
+        verify(paymentRepository).findResponseViewByOrderId(orderId);
     }
 
     @Test
@@ -299,14 +459,14 @@ class PaymentServiceTest {
         String authenticatedId = "b25c69da-00d6-442a-a922-a8c88ad34b62";
         String roles = "ROLE_USER";
 
-        when(paymentRepository.findByOrderId(orderId)).thenReturn(Collections.emptyList());
+        when(paymentRepository.findOwnersByOrderId(orderId)).thenReturn(Collections.emptyList());
 
         // When
-        List<PaymentResponseDto> result = paymentService.getAllPaymentsByOrderId(orderId, authenticatedId, roles);
+        List<PaymentResponseDto> result = paymentService.getAllPaymentsByOrderId(orderId, GatewayPrincipal.of(authenticatedId, roles));
 
         // Then
         assertThat(result).isEmpty();
-        verify(paymentRepository).findByOrderId(orderId);
+        verify(paymentRepository, never()).findResponseViewByOrderId(orderId);
     }
 
     @Test
@@ -316,17 +476,35 @@ class PaymentServiceTest {
         String authenticatedId = "user-456";
         String roles = "ROLE_USER";
 
-        Payment otherUserPayment = new Payment();
-        otherUserPayment.setUserId("user-999");
+        PaymentOwnerView owner = () -> "user-456";
+        PaymentOwnerView otherOwner = () -> "user-999";
 
-        List<Payment> payments = List.of(payment, otherUserPayment);
+        when(paymentRepository.findOwnersByOrderId(orderId)).thenReturn(List.of(owner, otherOwner));
 
-        when(paymentRepository.findByOrderId(orderId)).thenReturn(payments);
+        // When & Then
+        assertThatThrownBy(() -> paymentService.getAllPaymentsByOrderId(orderId, GatewayPrincipal.of(authenticatedId, roles)))
+                .isInstanceOf(PaymentAuthorizationException.class)
+                .hasMessage("You are not authorized to access these payments!");
+        verify(paymentRepository, never()).findResponseViewByOrderId(orderId);
+    }
+
+    @Test
+    void getAllPaymentsByOrderId_WithOwnerMissingUserId_ShouldThrowAuthorizationException() {
+        // Given
+        String orderId = "68d6ccaa-bec0-4d1a-a328-f771c5b78d44";
+        String authenticatedId = "user-456";
+        String roles = "ROLE_USER";
+
+        PaymentOwnerView owner = () -> "user-456";
+        PaymentOwnerView ownerWithoutUserId = () -> null;
+
+        when(paymentRepository.findOwnersByOrderId(orderId)).thenReturn(List.of(owner, ownerWithoutUserId));
 
         // When & Then
-        assertThatThrownBy(() -> paymentService.getAllPaymentsByOrderId(orderId, authenticatedId, roles))
+        assertThatThrownBy(() -> paymentService.getAllPaymentsByOrderId(orderId, GatewayPrincipal.of(authenticatedId, roles)))
                 .isInstanceOf(PaymentAuthorizationException.class)
                 .hasMessage("You are not authorized to access these payments!");
+        verify(paymentRepository, never()).findResponseViewByOrderId(orderId);
     }
 
     @Test
@@ -337,72 +515,124 @@ class PaymentServiceTest {
         String roles = "ROLE_ADMIN";
         List<Payment> payments = List.of(payment);
 
-        when(paymentRepository.findByOrderId(orderId)).thenReturn(payments);
+        when(paymentRepository.findResponseViewByOrderId(orderId)).thenReturn(payments);
         when(paymentMapper.toDto(payment)).thenReturn(paymentResponseDto);
 
         // When
-        List<PaymentResponseDto> result = paymentService.getAllPaymentsByOrderId(orderId, authenticatedId, roles);
+        List<PaymentResponseDto> result = paymentService.getAllPaymentsByOrderId(orderId, GatewayPrincipal.of(authenticatedId, roles));
 
         // Then
         assertThat(result).hasSize(1);
-        verify(paymentRepository).findByOrderId(orderId);
+        verify(paymentRepository, never()).findOwnersByOrderId(orderId);
     }
 
     @Test
-    void getAllPaymentsByUserId_WithAuthorizedUser_ShouldReturnPayments() {
+    void getPaymentsByUserId_WithAuthorizedUser_ShouldReturnPayments() {
         // Given
         String requestedUserId = "b25c69da-00d6-442a-a922-a8c88ad34b62";
         String authenticatedId = "b25c69da-00d6-442a-a922-a8c88ad34b62";
         String roles = "ROLE_USER";
         List<Payment> payments = List.of(payment);
 
-        when(paymentRepository.findByUserId(requestedUserId)).thenReturn(payments);
+        when(paymentRepository.findPageByUserId(requestedUserId, null, 51)).thenReturn(payments);
         when(paymentMapper.toDto(payment)).thenReturn(paymentResponseDto);
 
         // When
-        List<PaymentResponseDto> result = paymentService.getAllPaymentsByUserId(requestedUserId, authenticatedId, roles);
+        PaymentPageDto result = paymentService.getPaymentsByUserId(requestedUserId, null, 50, GatewayPrincipal.of(authenticatedId, roles));
 
         // Then
-        assertThat(result).hasSize(1);
-        assertThat(result.get(0).getId()).isEqualTo("payment-123");
-        verify(paymentRepository).findByUserId(requestedUserId);
+        assertThat(result.items()).hasSize(1);
+        assertThat(result.items().get(0).getId()).isEqualTo("payment-123");
+        assertThat(result.nextCursor()).isNull();
+        verify(paymentRepository).findPageByUserId(requestedUserId, null, 51);
+    }
+
+    @Test
+    void getPaymentsByUserId_WithMorePaymentsThanLimit_ShouldReturnCursorAfterLastItem() {
+        // Given
+        String requestedUserId = "b25c69da-00d6-442a-a922-a8c88ad34b62";
+        String roles = "ROLE_USER";
+        Payment olderPayment = new Payment();
+        olderPayment.setId("payment-456");
+        olderPayment.setUserId(requestedUserId);
+        olderPayment.setTimestamp(payment.getTimestamp().minusDays(1));
+
+        when(paymentRepository.findPageByUserId(requestedUserId, null, 2)).thenReturn(List.of(payment, olderPayment));
+        when(paymentMapper.toDto(payment)).thenReturn(paymentResponseDto);
+
+        // When
+        PaymentPageDto result = paymentService.getPaymentsByUserId(requestedUserId, null, 1, GatewayPrincipal.of(requestedUserId, roles));
+
+        // Then
+        assertThat(result.items()).hasSize(1);
+        assertThat(PaymentCursor.decode(result.nextCursor()))
+                .isEqualTo(new PaymentCursor(payment.getTimestamp(), "payment-123"));
+    }
+
+    @Test
+    void getPaymentsByUserId_WithCursor_ShouldQueryAfterCursor() {
+        // Given
+        String requestedUserId = "b25c69da-00d6-442a-a922-a8c88ad34b62";
+        String roles = "ROLE_USER";
+        PaymentCursor cursor = new PaymentCursor(LocalDateTime.of(2024, 1, 15, 10, 30), "payment-999");
+
+        when(paymentRepository.findPageByUserId(requestedUserId, cursor, 11)).thenReturn(List.of());
+
+        // When
+        PaymentPageDto result = paymentService.getPaymentsByUserId(requestedUserId, cursor.encode(), 10, GatewayPrincipal.of(requestedUserId, roles));
+
+        // Then
+        assertThat(result.items()).isEmpty();
+        verify(paymentRepository).findPageByUserId(requestedUserId, cursor, 11);
     }
 
     @Test
-    void getAllPaymentsByUserId_WithUnauthorizedUser_ShouldThrowAuthorizationException() {
+    void getPaymentsByUserId_WithMalformedCursor_ShouldThrowInvalidCursorException() {
+        // Given
+        String requestedUserId = "b25c69da-00d6-442a-a922-a8c88ad34b62";
+
+        // When & Then
+        assertThatThrownBy(() -> paymentService.getPaymentsByUserId(requestedUserId, "not-a-cursor", 10, GatewayPrincipal.of(requestedUserId, "ROLE_USER")))
+                .isInstanceOf(InvalidPaymentCursorException.class);
+    }
+
+    @Test
+    void getPaymentsByUserId_WithUnauthorizedUser_ShouldThrowAuthorizationException() {
         // Given
         String requestedUserId = "b25c69da-00d6-442a-a922-a8c88ad34b62";
         String authenticatedId = "user-456";
         String roles = "ROLE_USER";
 
         // When & Then
-        assertThatThrownBy(() -> paymentService.getAllPaymentsByUserId(requestedUserId, authenticatedId, roles))
+        assertThatThrownBy(() -> paymentService.getPaymentsByUserId(requestedUserId, null, 50, GatewayPrincipal.of(authenticatedId, roles)))
                 .isInstanceOf(PaymentAuthorizationException.class)
                 .hasMessage("You are not authorized to get this payment!");
 
-        verify(paymentRepository, never()).findByUserId(anyString());
+        verify(paymentRepository, never()).findPageByUserId(anyString(), any(), anyInt());
     }
 
     @Test
-    void processOrderCreatedEvent_WithSuccessfulPayment_ShouldSaveAndSendEvent() {
+    void processOrderCreatedEvent_WithSuccessfulPayment_ShouldReserveThenCompletePaymentAndOutboxEvent() {
         // Given
         ExternalPaymentApiResponse apiResponse = new ExternalPaymentApiResponse();
         apiResponse.setPaymentStatusNumber(2);
         apiResponse.setTransactionId("tx_event_123");
 
-        when(externalPaymentApiService.processPayment(any(Payment.class))).thenReturn(apiResponse);
-
-        when(paymentRepository.save(any(Payment.class))).thenAnswer(invocation -> {
-            Payment paymentToSave = invocation.getArgument(0);
-            paymentToSave.setId("b25c69da-00d6-442a-a922-a8c88ad34b62");
-            return paymentToSave;
+        when(paymentRepository.insert(any(Payment.class))).thenAnswer(invocation -> {
+            Payment reservation = invocation.getArgument(0);
+            assertThat(reservation.getChargePending()).isTrue();
+            assertThat(reservation.getStatus()).isEqualTo(PaymentStatus.PENDING);
+            reservation.setId("b25c69da-00d6-442a-a922-a8c88ad34b62");
+            return reservation;
         });
+        when(paymentProcessor.processPayment(any(Payment.class))).thenReturn(apiResponse);
+        when(paymentRepository.completeCharge(any(Payment.class))).thenReturn(true);
 
         // When
         paymentService.processOrderCreatedEvent(orderCreatedEvent);
 
         // Then
-        verify(paymentRepository).save(paymentCaptor.capture());
+        verify(paymentRepository).completeCharge(paymentCaptor.capture());
         Payment savedPayment = paymentCaptor.getValue();
 
         assertThat(savedPayment.getStatus()).isEqualTo(PaymentStatus.SUCCESS);
@@ -412,43 +642,41 @@ class PaymentServiceTest {
         assertThat(savedPayment.getPaymentAmount()).isEqualTo(orderCreatedEvent.getTotalAmount());
         assertThat(savedPayment.getCurrency()).isEqualTo(orderCreatedEvent.getCurrency());
 
-        verify(kafkaTemplate).send(eq("payment-created-topic"), eventCaptor.capture());
-        PaymentCreatedEvent sentEvent = eventCaptor.getValue();
-        assertThat(sentEvent.getOrderId()).isEqualTo(orderCreatedEvent.getOrderId());
-        assertThat(sentEvent.getStatus()).isEqualTo(PaymentStatus.SUCCESS);
-        assertThat(sentEvent.getPaymentId()).isEqualTo("b25c69da-00d6-442a-a922-a8c88ad34b62");
+        verify(outboxEventRepository).save(outboxEventCaptor.capture());
+        OutboxEvent outboxEvent = outboxEventCaptor.getValue();
+        assertThat(outboxEvent.getOrderId()).isEqualTo(orderCreatedEvent.getOrderId().toString());
+        assertThat(outboxEvent.getPaymentStatus()).isEqualTo(PaymentStatus.SUCCESS);
+        assertThat(outboxEvent.getPaymentId()).isEqualTo("b25c69da-00d6-442a-a922-a8c88ad34b62");
+        assertThat(outboxEvent.getStatus()).isEqualTo(OutboxStatus.PENDING);
+        verify(orderEventDeduplicator).markProcessed(orderCreatedEvent.getOrderId().toString());
     }
 
     @Test
-    void processOrderCreatedEvent_WithFailedPayment_ShouldSaveFailedPaymentAndSendEvent() {
+    void processOrderCreatedEvent_WithFailedPayment_ShouldSaveFailedPaymentAndOutboxEvent() {
         // Given
         ExternalPaymentApiResponse apiResponse = new ExternalPaymentApiResponse();
         apiResponse.setPaymentStatusNumber(3);
         apiResponse.setTransactionId("tx_event_failed_123");
 
-        when(externalPaymentApiService.processPayment(any(Payment.class))).thenReturn(apiResponse);
-
-        when(paymentRepository.save(any(Payment.class))).thenAnswer(invocation -> {
-            Payment paymentToSave = invocation.getArgument(0);
-            paymentToSave.setId("payment-123");
-            return paymentToSave;
-        });
+        when(paymentRepository.insert(any(Payment.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(paymentProcessor.processPayment(any(Payment.class))).thenReturn(apiResponse);
+        when(paymentRepository.completeCharge(any(Payment.class))).thenReturn(true);
 
         // When
         paymentService.processOrderCreatedEvent(orderCreatedEvent);
 
         // Then
-        verify(paymentRepository).save(paymentCaptor.capture());
+        verify(paymentRepository).completeCharge(paymentCaptor.capture());
         Payment savedPayment = paymentCaptor.getValue();
 
         assertThat(savedPayment.getStatus()).isEqualTo(PaymentStatus.FAILED);
         assertThat(savedPayment.getErrorMessage()).isEqualTo("Payment processing failed");
         assertThat(savedPayment.getProcessorTransactionId()).isEqualTo("tx_event_failed_123");
 
-        verify(kafkaTemplate).send(eq("payment-created-topic"), eventCaptor.capture());
-        PaymentCreatedEvent sentEvent = eventCaptor.getValue();
-        assertThat(sentEvent.getStatus()).isEqualTo(PaymentStatus.FAILED);
-        assertThat(sentEvent.getErrorMessage()).isEqualTo("Payment processing failed");
+        verify(outboxEventRepository).save(outboxEventCaptor.capture());
+        OutboxEvent outboxEvent = outboxEventCaptor.getValue();
+        assertThat(outboxEvent.getPaymentStatus()).isEqualTo(PaymentStatus.FAILED);
+        assertThat(outboxEvent.getErrorMessage()).isEqualTo("Payment processing failed");
     }
 
     @Test
@@ -456,39 +684,296 @@ class PaymentServiceTest {
         // Given
         RuntimeException apiException = new RuntimeException("API Error");
 
-        when(externalPaymentApiService.processPayment(any(Payment.class))).thenThrow(apiException);
-        when(paymentRepository.save(any(Payment.class))).thenReturn(payment);
+        when(paymentRepository.insert(any(Payment.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(paymentProcessor.processPayment(any(Payment.class))).thenThrow(apiException);
+        when(paymentRepository.completeCharge(any(Payment.class))).thenReturn(true);
 
         // When
         paymentService.processOrderCreatedEvent(orderCreatedEvent);
 
         // Then
-        verify(paymentRepository).save(paymentCaptor.capture());
+        verify(paymentRepository).completeCharge(paymentCaptor.capture());
         Payment savedPayment = paymentCaptor.getValue();
         assertThat(savedPayment.getStatus()).isEqualTo(PaymentStatus.FAILED);
         assertThat(savedPayment.getErrorMessage()).isEqualTo("API Error");
         assertThat(savedPayment.getErrorCode()).isEqualTo("PAYMENT_PROCESSING_ERROR");
 
-        verify(kafkaTemplate).send(anyString(), any(PaymentCreatedEvent.class));
+        verify(outboxEventRepository).save(any(OutboxEvent.class));
     }
 
     @Test
-    void processOrderCreatedEvent_WithKafkaException_ShouldLogErrorButNotFail() {
+    void processOrderCreatedEvent_WithProcessorCircuitOpen_ShouldThrowForRetryAndKeepReservation() {
         // Given
+        when(paymentRepository.insert(any(Payment.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(paymentProcessor.processPayment(any(Payment.class))).thenThrow(new PaymentProcessorException(
+                ResilientPaymentProcessor.CIRCUIT_OPEN, PaymentStatus.FAILED, "Payment processor is unavailable"));
+
+        // When & Then
+        assertThatThrownBy(() -> paymentService.processOrderCreatedEvent(orderCreatedEvent))
+                .isInstanceOf(PaymentProcessorException.class)
+                .extracting("errorCode")
+                .isEqualTo(ResilientPaymentProcessor.CIRCUIT_OPEN);
+        verify(paymentRepository, never()).completeCharge(any(Payment.class));
+        verify(outboxEventRepository, never()).save(any(OutboxEvent.class));
+        verify(orderEventDeduplicator, never()).markProcessed(orderCreatedEvent.getOrderId().toString());
+    }
+
+    @Test
+    void processOrderCreatedEvent_WithPendingReservationFromEarlierAttempt_ShouldChargeItAgainUnderTheSameId() {
+        // Given
+        String orderId = orderCreatedEvent.getOrderId().toString();
+        payment.setOrderId(orderId);
+        payment.setChargePending(true);
         ExternalPaymentApiResponse apiResponse = new ExternalPaymentApiResponse();
         apiResponse.setPaymentStatusNumber(2);
-        apiResponse.setTransactionId("tx_kafka_error_123");
+        apiResponse.setTransactionId("tx_event_123");
 
-        when(externalPaymentApiService.processPayment(any(Payment.class))).thenReturn(apiResponse);
-        when(paymentRepository.save(any(Payment.class))).thenReturn(payment);
-        doThrow(new RuntimeException("Kafka error")).when(kafkaTemplate).send(anyString(), any(PaymentCreatedEvent.class));
+        when(paymentRepository.insert(any(Payment.class))).thenThrow(new DuplicateKeyException("duplicate key"));
+        when(paymentRepository.findByOrderIdAndSource(orderId, PaymentSource.ORDER_EVENT)).thenReturn(Optional.of(payment));
+        when(paymentProcessor.processPayment(payment)).thenReturn(apiResponse);
+        when(paymentRepository.completeCharge(payment)).thenReturn(true);
 
         // When
         paymentService.processOrderCreatedEvent(orderCreatedEvent);
 
         // Then
-        verify(paymentRepository).save(any(Payment.class));
-        verify(kafkaTemplate).send(anyString(), any(PaymentCreatedEvent.class));
+        assertThat(payment.getStatus()).isEqualTo(PaymentStatus.SUCCESS);
+        verify(outboxEventRepository).save(outboxEventCaptor.capture());
+        assertThat(outboxEventCaptor.getValue().getPaymentId()).isEqualTo("payment-123");
+        verify(orderEventDeduplicator).markProcessed(orderId);
+    }
+
+    @Test
+    void processOrderCreatedEvent_WithCompletedPaymentForOrder_ShouldSkipProcessorAndMarkProcessed() {
+        // Given
+        String orderId = orderCreatedEvent.getOrderId().toString();
+        payment.setStatus(PaymentStatus.SUCCESS);
+
+        when(paymentRepository.insert(any(Payment.class))).thenThrow(new DuplicateKeyException("duplicate key"));
+        when(paymentRepository.findByOrderIdAndSource(orderId, PaymentSource.ORDER_EVENT)).thenReturn(Optional.of(payment));
+
+        // When
+        paymentService.processOrderCreatedEvent(orderCreatedEvent);
+
+        // Then
+        verify(paymentProcessor, never()).processPayment(any(Payment.class));
+        verify(outboxEventRepository, never()).save(any(OutboxEvent.class));
+        verify(orderEventDeduplicator).markProcessed(orderId);
+    }
+
+    @Test
+    void processOrderCreatedEvent_WithDuplicateOrder_ShouldSkipProcessorAndMongo() {
+        // Given
+        when(orderEventDeduplicator.isDuplicate(orderCreatedEvent.getOrderId().toString())).thenReturn(true);
+
+        // When
+        paymentService.processOrderCreatedEvent(orderCreatedEvent);
+
+        // Then
+        verify(paymentProcessor, never()).processPayment(any(Payment.class));
+        verify(paymentRepository, never()).insert(any(Payment.class));
+        verify(outboxEventRepository, never()).save(any(OutboxEvent.class));
+    }
+
+    @Test
+    void processOrderCreatedEvent_WithPaymentCompletedByConcurrentDelivery_ShouldDropDuplicateAndMarkProcessed() {
+        // Given
+        ExternalPaymentApiResponse apiResponse = new ExternalPaymentApiResponse();
+        apiResponse.setPaymentStatusNumber(2);
+        apiResponse.setTransactionId("tx_event_123");
+
+        when(paymentRepository.insert(any(Payment.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(paymentProcessor.processPayment(any(Payment.class))).thenReturn(apiResponse);
+        when(paymentRepository.completeCharge(any(Payment.class))).thenReturn(false);
+
+        // When
+        paymentService.processOrderCreatedEvent(orderCreatedEvent);
+
+        // Then
+        verify(outboxEventRepository, never()).save(any(OutboxEvent.class));
+        verify(orderEventDeduplicator).markProcessed(orderCreatedEvent.getOrderId().toString());
+    }
+
+    @Test
+    void processOrderCreatedEvents_ShouldBulkReserveThenCompletePaymentsWithOutboxEvents() {
+        // Given
+        OrderCreatedEvent secondOrderEvent = createOrderCreatedEvent();
+
+        ExternalPaymentApiResponse apiResponse = new ExternalPaymentApiResponse();
+        apiResponse.setPaymentStatusNumber(2);
+        apiResponse.setTransactionId("tx_batch_123");
+
+        when(mongoTemplate.bulkOps(eq(BulkOperations.BulkMode.UNORDERED), any(Class.class))).thenReturn(bulkOperations);
+        when(bulkOperations.insert(anyList())).thenReturn(bulkOperations);
+        when(paymentProcessor.processPayment(any(Payment.class))).thenReturn(apiResponse);
+        when(paymentRepository.completeCharges(anyList())).thenReturn(2);
+
+        // When
+        paymentService.processOrderCreatedEvents(List.of(orderCreatedEvent, secondOrderEvent));
+
+        // Then
+        verify(bulkOperations, times(2)).insert(insertedCaptor.capture());
+        verify(bulkOperations, times(2)).execute();
+        assertThat(insertedCaptor.getAllValues().get(0))
+                .extracting(inserted -> ((Payment) inserted).getOrderId())
+                .containsExactly(orderCreatedEvent.getOrderId().toString(), secondOrderEvent.getOrderId().toString());
+        assertThat(insertedCaptor.getAllValues().get(0))
+                .allSatisfy(inserted -> assertThat(((Payment) inserted).getChargePending()).isTrue());
+        assertThat(insertedCaptor.getAllValues().get(1))
+                .allSatisfy(inserted -> {
+                    assertThat(inserted).isInstanceOf(OutboxEvent.class);
+                    assertThat(((OutboxEvent) inserted).getPaymentId()).isNotNull();
+                });
+        verify(orderEventDeduplicator).markProcessed(secondOrderEvent.getOrderId().toString());
+    }
+
+    @Test
+    void processOrderCreatedEvents_WithRepeatedOrderInBatch_ShouldProcessItOnce() {
+        // Given
+        ExternalPaymentApiResponse apiResponse = new ExternalPaymentApiResponse();
+        apiResponse.setPaymentStatusNumber(2);
+        apiResponse.setTransactionId("tx_batch_123");
+
+        when(mongoTemplate.bulkOps(eq(BulkOperations.BulkMode.UNORDERED), any(Class.class))).thenReturn(bulkOperations);
+        when(bulkOperations.insert(anyList())).thenReturn(bulkOperations);
+        when(paymentProcessor.processPayment(any(Payment.class))).thenReturn(apiResponse);
+        when(paymentRepository.completeCharges(anyList())).thenReturn(1);
+
+        // When
+        paymentService.processOrderCreatedEvents(List.of(orderCreatedEvent, orderCreatedEvent));
+
+        // Then
+        verify(paymentProcessor).processPayment(any(Payment.class));
+        verify(bulkOperations, times(2)).insert(insertedCaptor.capture());
+        assertThat(insertedCaptor.getAllValues().get(0)).hasSize(1);
+        verify(orderEventDeduplicator).markProcessed(orderCreatedEvent.getOrderId().toString());
+    }
+
+    @Test
+    void processOrderCreatedEvents_WithOrderAlreadyReserved_ShouldSkipCompletedPaymentWithoutCharging() {
+        // Given
+        OrderCreatedEvent secondOrderEvent = createOrderCreatedEvent();
+        String secondOrderId = secondOrderEvent.getOrderId().toString();
+        payment.setStatus(PaymentStatus.SUCCESS);
+
+        ExternalPaymentApiResponse apiResponse = new ExternalPaymentApiResponse();
+        apiResponse.setPaymentStatusNumber(2);
+        apiResponse.setTransactionId("tx_batch_123");
+
+        BulkOperationException bulkException = mock(BulkOperationException.class);
+
+        when(mongoTemplate.bulkOps(eq(BulkOperations.BulkMode.UNORDERED), any(Class.class))).thenReturn(bulkOperations);
+        when(bulkOperations.insert(anyList())).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenThrow(bulkException).thenReturn(null);
+        when(bulkException.getErrors()).thenReturn(List.of(new BulkWriteError(11000, "duplicate key", new BsonDocument(), 1)));
+        when(paymentRepository.findByOrderIdAndSource(secondOrderId, PaymentSource.ORDER_EVENT)).thenReturn(Optional.of(payment));
+        when(paymentProcessor.processPayment(any(Payment.class))).thenReturn(apiResponse);
+        when(paymentRepository.completeCharges(anyList())).thenReturn(1);
+
+        // When
+        paymentService.processOrderCreatedEvents(List.of(orderCreatedEvent, secondOrderEvent));
+
+        // Then
+        verify(paymentProcessor, times(1)).processPayment(any(Payment.class));
+        verify(paymentProcessor, never()).processPayment(payment);
+        verify(orderEventDeduplicator).markProcessed(secondOrderId);
+        verify(orderEventDeduplicator).markProcessed(orderCreatedEvent.getOrderId().toString());
+    }
+
+    @Test
+    void processOrderCreatedEvents_WithPaymentCompletedByConcurrentDelivery_ShouldCompleteRemainingOneByOne() {
+        // Given
+        OrderCreatedEvent secondOrderEvent = createOrderCreatedEvent();
+
+        ExternalPaymentApiResponse apiResponse = new ExternalPaymentApiResponse();
+        apiResponse.setPaymentStatusNumber(2);
+        apiResponse.setTransactionId("tx_batch_123");
+
+        when(mongoTemplate.bulkOps(eq(BulkOperations.BulkMode.UNORDERED), any(Class.class))).thenReturn(bulkOperations);
+        when(bulkOperations.insert(anyList())).thenReturn(bulkOperations);
+        when(paymentProcessor.processPayment(any(Payment.class))).thenReturn(apiResponse);
+        when(paymentRepository.completeCharges(anyList())).thenReturn(1);
+        when(paymentRepository.completeCharge(any(Payment.class)))
+                .thenAnswer(invocation -> orderCreatedEvent.getOrderId().toString()
+                        .equals(((Payment) invocation.getArgument(0)).getOrderId()));
+
+        // When
+        paymentService.processOrderCreatedEvents(List.of(orderCreatedEvent, secondOrderEvent));
+
+        // Then
+        verify(bulkOperations, times(1)).insert(anyList());
+        verify(outboxEventRepository).save(outboxEventCaptor.capture());
+        assertThat(outboxEventCaptor.getValue().getOrderId()).isEqualTo(orderCreatedEvent.getOrderId().toString());
+        verify(orderEventDeduplicator).markProcessed(orderCreatedEvent.getOrderId().toString());
+        verify(orderEventDeduplicator).markProcessed(secondOrderEvent.getOrderId().toString());
+    }
+
+    @Test
+    void processOrderCreatedEvents_WithProcessorThrottled_ShouldStoreEarlierPaymentsAndFailAtThatIndex() {
+        // Given
+        OrderCreatedEvent secondOrderEvent = createOrderCreatedEvent();
+        OrderCreatedEvent thirdOrderEvent = createOrderCreatedEvent();
+
+        ExternalPaymentApiResponse apiResponse = new ExternalPaymentApiResponse();
+        apiResponse.setPaymentStatusNumber(2);
+        apiResponse.setTransactionId("tx_batch_123");
+
+        when(mongoTemplate.bulkOps(eq(BulkOperations.BulkMode.UNORDERED), any(Class.class))).thenReturn(bulkOperations);
+        when(bulkOperations.insert(anyList())).thenReturn(bulkOperations);
+        when(paymentProcessor.processPayment(any(Payment.class)))
+                .thenReturn(apiResponse)
+                .thenThrow(new PaymentProcessorException(ResilientPaymentProcessor.THROTTLED, PaymentStatus.FAILED, "Throttled"));
+        when(paymentRepository.completeCharges(anyList())).thenReturn(1);
+
+        // When & Then
+        assertThatThrownBy(() -> paymentService.processOrderCreatedEvents(List.of(orderCreatedEvent, secondOrderEvent, thirdOrderEvent)))
+                .isInstanceOf(BatchListenerFailedException.class)
+                .satisfies(e -> {
+                    assertThat(((BatchListenerFailedException) e).getIndex()).isEqualTo(1);
+                    assertThat(e.getCause()).isInstanceOf(PaymentProcessorException.class);
+                });
+        verify(paymentProcessor, times(2)).processPayment(any(Payment.class));
+        verify(paymentRepository).completeCharges(paymentListCaptor.capture());
+        assertThat(paymentListCaptor.getValue()).singleElement()
+                .satisfies(stored -> assertThat(stored.getOrderId()).isEqualTo(orderCreatedEvent.getOrderId().toString()));
+        verify(orderEventDeduplicator, never()).markProcessed(secondOrderEvent.getOrderId().toString());
+    }
+
+    @Test
+    void processOrderCreatedEvents_WithUnprocessableEvent_ShouldStoreEarlierPaymentsAndFailAtThatIndex() {
+        // Given
+        OrderCreatedEvent brokenEvent = createOrderCreatedEvent();
+        brokenEvent.setOrderId(null);
+
+        ExternalPaymentApiResponse apiResponse = new ExternalPaymentApiResponse();
+        apiResponse.setPaymentStatusNumber(2);
+        apiResponse.setTransactionId("tx_batch_123");
+
+        when(mongoTemplate.bulkOps(eq(BulkOperations.BulkMode.UNORDERED), any(Class.class))).thenReturn(bulkOperations);
+        when(bulkOperations.insert(anyList())).thenReturn(bulkOperations);
+        when(paymentProcessor.processPayment(any(Payment.class))).thenReturn(apiResponse);
+        when(paymentRepository.completeCharges(anyList())).thenReturn(1);
+
+        // When & Then
+        assertThatThrownBy(() -> paymentService.processOrderCreatedEvents(List.of(orderCreatedEvent, brokenEvent, createOrderCreatedEvent())))
+                .isInstanceOf(BatchListenerFailedException.class)
+                .hasCauseInstanceOf(InvalidOrderEventException.class)
+                .satisfies(e -> assertThat(((BatchListenerFailedException) e).getIndex()).isEqualTo(1));
+        verify(paymentProcessor, times(1)).processPayment(any(Payment.class));
+        verify(orderEventDeduplicator).markProcessed(orderCreatedEvent.getOrderId().toString());
+    }
+
+    @Test
+    void processOrderCreatedEvent_WithoutTotalAmount_ShouldRejectEventWithoutCharging() {
+        // Given
+        orderCreatedEvent.setTotalAmount(null);
+
+        // When & Then
+        assertThatThrownBy(() -> paymentService.processOrderCreatedEvent(orderCreatedEvent))
+                .isInstanceOf(InvalidOrderEventException.class)
+                .hasMessageContaining("total amount");
+        verify(paymentProcessor, never()).processPayment(any(Payment.class));
+        verify(paymentRepository, never()).insert(any(Payment.class));
     }
 
     @Test
@@ -498,7 +983,7 @@ class PaymentServiceTest {
         String roles = null;
 
         // When & Then
-        assertThatThrownBy(() -> paymentService.processPayment(paymentRequestDto, authenticatedId, roles))
+        assertThatThrownBy(() -> paymentService.processPayment(paymentRequestDto, GatewayPrincipal.of(authenticatedId, roles)))
                 .isInstanceOf(PaymentAuthorizationException.class)
                 .hasMessage("You are not authorized to perform this payment!");
     }
@@ -510,8 +995,144 @@ class PaymentServiceTest {
         String roles = "";
 
         // When & Then
-        assertThatThrownBy(() -> paymentService.processPayment(paymentRequestDto, authenticatedId, roles))
+        assertThatThrownBy(() -> paymentService.processPayment(paymentRequestDto, GatewayPrincipal.of(authenticatedId, roles)))
                 .isInstanceOf(PaymentAuthorizationException.class)
                 .hasMessage("You are not authorized to perform this payment!");
     }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void processPayments_WithMixedItems_ShouldReportPerItemResultsInRequestOrder() {
+        // Given
+        String authenticatedId = "b25c69da-00d6-442a-a922-a8c88ad34b62";
+        PaymentRequestDto invalidRequest = new PaymentRequestDto();
+        PaymentRequestDto foreignRequest = new PaymentRequestDto();
+        foreignRequest.setUserId("another-user");
+        ConstraintViolation<PaymentRequestDto> violation = mock(ConstraintViolation.class);
+        ExternalPaymentApiResponse apiResponse = new ExternalPaymentApiResponse();
+        apiResponse.setPaymentStatusNumber(2);
+        apiResponse.setTransactionId("tx_batch_123");
+
+        when(validator.validate(any(PaymentRequestDto.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0) == invalidRequest ? Set.of(violation) : Set.of());
+        when(violation.getMessage()).thenReturn("Amount is required");
+        when(paymentMapper.toEntity(paymentRequestDto)).thenReturn(payment);
+        when(paymentProcessor.processPayment(payment)).thenReturn(apiResponse);
+        when(mongoTemplate.bulkOps(eq(BulkOperations.BulkMode.UNORDERED), eq(Payment.class))).thenReturn(bulkOperations);
+        when(bulkOperations.insert(anyList())).thenReturn(bulkOperations);
+        when(paymentMapper.toDto(payment)).thenReturn(paymentResponseDto);
+
+        // When
+        List<PaymentBatchItemResultDto> results = paymentService.processPayments(
+                List.of(paymentRequestDto, invalidRequest, foreignRequest), GatewayPrincipal.of(authenticatedId, "ROLE_USER"));
+
+        // Then
+        assertThat(results).extracting(PaymentBatchItemResultDto::index).containsExactly(0, 1, 2);
+        assertThat(results).extracting(PaymentBatchItemResultDto::status).containsExactly(201, 400, 403);
+        assertThat(results.get(0).payment()).isSameAs(paymentResponseDto);
+        assertThat(results.get(1).message()).isEqualTo("Amount is required");
+        assertThat(payment.getStatus()).isEqualTo(PaymentStatus.SUCCESS);
+        verify(bulkOperations).insert(List.of(payment));
+        verify(bulkOperations).execute();
+        assertThat(payment.getChargePending()).isTrue();
+        verify(paymentRepository).completeCharges(List.of(payment));
+    }
+
+    @Test
+    void processPayments_WithFailedBulkWriteItem_ShouldFailOnlyThatItem() {
+        // Given
+        String authenticatedId = "b25c69da-00d6-442a-a922-a8c88ad34b62";
+        PaymentRequestDto secondRequest = new PaymentRequestDto();
+        secondRequest.setUserId(authenticatedId);
+        Payment secondPayment = new Payment();
+        secondPayment.setUserId(authenticatedId);
+        BulkOperationException bulkException = mock(BulkOperationException.class);
+
+        when(paymentMapper.toEntity(paymentRequestDto)).thenReturn(payment);
+        when(paymentMapper.toEntity(secondRequest)).thenReturn(secondPayment);
+        when(paymentProcessor.processPayment(any(Payment.class))).thenThrow(new RuntimeException("Processor down"));
+        when(mongoTemplate.bulkOps(eq(BulkOperations.BulkMode.UNORDERED), eq(Payment.class))).thenReturn(bulkOperations);
+        when(bulkOperations.insert(anyList())).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenThrow(bulkException);
+        when(bulkException.getErrors()).thenReturn(List.of(new BulkWriteError(11000, "duplicate key", new BsonDocument(), 1)));
+        when(paymentMapper.toDto(payment)).thenReturn(paymentResponseDto);
+
+        // When
+        List<PaymentBatchItemResultDto> results = paymentService.processPayments(
+                List.of(paymentRequestDto, secondRequest), GatewayPrincipal.of(authenticatedId, "ROLE_USER"));
+
+        // Then
+        assertThat(results).extracting(PaymentBatchItemResultDto::status).containsExactly(201, 500);
+        assertThat(results.get(1).error()).isEqualTo("PERSISTENCE_ERROR");
+        assertThat(payment.getStatus()).isEqualTo(PaymentStatus.FAILED);
+        assertThat(payment.getErrorCode()).isEqualTo("API_ERROR");
+        verify(paymentProcessor, never()).processPayment(secondPayment);
+        verify(paymentRepository).completeCharges(List.of(payment));
+    }
+
+    @Test
+    void processPayments_WithUnstoredChargeResult_ShouldReportItemAsPending() {
+        // Given
+        String authenticatedId = "b25c69da-00d6-442a-a922-a8c88ad34b62";
+        ExternalPaymentApiResponse apiResponse = new ExternalPaymentApiResponse();
+        apiResponse.setPaymentStatusNumber(2);
+        apiResponse.setTransactionId("tx_batch_123");
+
+        when(paymentMapper.toEntity(paymentRequestDto)).thenReturn(payment);
+        when(paymentProcessor.processPayment(payment)).thenReturn(apiResponse);
+        when(mongoTemplate.bulkOps(eq(BulkOperations.BulkMode.UNORDERED), eq(Payment.class))).thenReturn(bulkOperations);
+        when(bulkOperations.insert(anyList())).thenReturn(bulkOperations);
+        when(paymentRepository.completeCharges(anyList())).thenThrow(new DataAccessResourceFailureException("Mongo unavailable"));
+        when(paymentRepository.completeCharge(payment)).thenThrow(new DataAccessResourceFailureException("Mongo unavailable"));
+        when(paymentMapper.toDto(payment)).thenReturn(paymentResponseDto);
+
+        // When
+        List<PaymentBatchItemResultDto> results = paymentService.processPayments(
+                List.of(paymentRequestDto), GatewayPrincipal.of(authenticatedId, "ROLE_USER"));
+
+        // Then
+        assertThat(results).extracting(PaymentBatchItemResultDto::status).containsExactly(202);
+        assertThat(results.get(0).payment()).isSameAs(paymentResponseDto);
+        assertThat(results.get(0).error()).isNull();
+        assertThat(payment.getStatus()).isEqualTo(PaymentStatus.PENDING);
+        assertThat(payment.getProcessorTransactionId()).isNull();
+        verify(paymentResponseCache, never()).refresh(any(PaymentResponseDto.class));
+    }
+
+    @Test
+    void processPayments_WithTooManyItems_ShouldRejectBatch() {
+        // Given
+        List<PaymentRequestDto> requests = List.of(paymentRequestDto, paymentRequestDto, paymentRequestDto, paymentRequestDto);
+
+        // When & Then
+        assertThatThrownBy(() -> paymentService.processPayments(requests, GatewayPrincipal.of("b25c69da-00d6-442a-a922-a8c88ad34b62", "ROLE_USER")))
+                .isInstanceOf(InvalidPaymentBatchException.class);
+        verify(paymentProcessor, never()).processPayment(any(Payment.class));
+    }
+
+    @Test
+    void getRevenue_ShouldReadRollups() {
+        // Given
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 2, 1, 0, 0);
+        RevenueReportDto report = new RevenueReportDto("USD", from, to, List.of());
+        when(revenueRollupService.report("USD", from, to)).thenReturn(report);
+
+        // When
+        RevenueReportDto result = paymentService.getRevenue("USD", from, to);
+
+        // Then
+        assertThat(result).isSameAs(report);
+        verify(paymentRepository, never()).sumPaymentAmountByPeriod(any(), any());
+    }
+
+    private OrderCreatedEvent createOrderCreatedEvent() {
+        OrderCreatedEvent event = new OrderCreatedEvent();
+        event.setOrderId(UUID.randomUUID());
+        event.setUserId(UUID.randomUUID());
+        event.setTotalAmount(new BigDecimal("20.00"));
+        event.setCurrency("USD");
+        event.setPaymentMethodToken("pm_token_789");
+        return event;
+    }
 }
@@ -0,0 +1,197 @@
+package com.example.tasks.paymentservice.unit;
+
+import com.example.tasks.paymentservice.cache.PaymentResponseCache;
+import com.example.tasks.paymentservice.dto.ExternalPaymentApiResponse;
+import com.example.tasks.paymentservice.dto.PaymentRequestDto;
+import com.example.tasks.paymentservice.dto.PaymentResponseDto;
+import com.example.tasks.paymentservice.dto.mapper.PaymentMapper;
+import com.example.tasks.paymentservice.exception.PaymentAuthorizationException;
+import com.example.tasks.paymentservice.exception.PaymentNotFoundException;
+import com.example.tasks.paymentservice.model.Payment;
+import com.example.tasks.paymentservice.monitoring.PaymentMetrics;
+import com.example.tasks.paymentservice.repository.ReactivePaymentRepository;
+import com.example.tasks.paymentservice.repository.projection.PaymentOwnerView;
+import com.example.tasks.paymentservice.security.GatewayPrincipal;
+import com.example.tasks.paymentservice.service.PaymentService;
+import com.example.tasks.paymentservice.service.ReactiveExternalPaymentApiClient;
+import com.example.tasks.paymentservice.service.ReactivePaymentService;
+import com.example.tasks.paymentservice.service.RevenueRollupService;
+import org.example.tasks.model.PaymentStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReactivePaymentServiceTest {
+
+    @Mock
+    private ReactivePaymentRepository paymentRepository;
+
+    @Mock
+    private ReactiveExternalPaymentApiClient externalPaymentApiClient;
+
+    @Mock
+    private PaymentMapper paymentMapper;
+
+    @Mock
+    private PaymentResponseCache paymentResponseCache;
+
+    @Mock
+    private RevenueRollupService revenueRollupService;
+
+    @Mock
+    private PaymentMetrics paymentMetrics;
+
+    @Mock
+    private PaymentService blockingPaymentService;
+
+    @InjectMocks
+    private ReactivePaymentService paymentService;
+
+    @Captor
+    private ArgumentCaptor<Payment> paymentCaptor;
+
+    private final String userId = "b25c69da-00d6-442a-a922-a8c88ad34b62";
+    private PaymentRequestDto paymentRequestDto;
+    private Payment payment;
+    private PaymentResponseDto paymentResponseDto;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(paymentService, "maxPageSize", 500);
+
+        paymentRequestDto = new PaymentRequestDto();
+        paymentRequestDto.setPaymentMethodToken("pm_token_123");
+        paymentRequestDto.setAmount(new BigDecimal("100.50"));
+        paymentRequestDto.setCurrency("USD");
+        paymentRequestDto.setOrderId("68d6ccaa-bec0-4d1a-a328-f771c5b78d44");
+        paymentRequestDto.setUserId(userId);
+
+        payment = new Payment();
+        payment.setId("payment-123");
+        payment.setOrderId("68d6ccaa-bec0-4d1a-a328-f771c5b78d44");
+        payment.setUserId(userId);
+        payment.setPaymentAmount(new BigDecimal("100.50"));
+        payment.setCurrency("USD");
+        payment.setTimestamp(LocalDateTime.of(2024, 1, 15, 10, 30));
+
+        paymentResponseDto = new PaymentResponseDto();
+        paymentResponseDto.setId("payment-123");
+        paymentResponseDto.setUserId(userId);
+    }
+
+    @Test
+    void processPayment_WithApprovedPayment_ShouldSaveSuccessfulPayment() {
+        // Given
+        ExternalPaymentApiResponse apiResponse = new ExternalPaymentApiResponse();
+        apiResponse.setPaymentStatusNumber(2);
+        apiResponse.setTransactionId("tx_success_123");
+
+        when(paymentMapper.toEntity(paymentRequestDto)).thenReturn(payment);
+        when(externalPaymentApiClient.processPayment(payment)).thenReturn(Mono.just(apiResponse));
+        when(paymentRepository.save(any(Payment.class))).thenReturn(Mono.just(payment));
+        when(paymentMapper.toDto(payment)).thenReturn(paymentResponseDto);
+
+        // When & Then
+        StepVerifier.create(paymentService.processPayment(paymentRequestDto, GatewayPrincipal.of(userId, "ROLE_USER")))
+                .expectNext(paymentResponseDto)
+                .verifyComplete();
+        verify(paymentRepository).save(paymentCaptor.capture());
+        assertThat(paymentCaptor.getValue().getStatus()).isEqualTo(PaymentStatus.SUCCESS);
+        assertThat(paymentCaptor.getValue().getProcessorTransactionId()).isEqualTo("tx_success_123");
+        assertThat(paymentCaptor.getValue().getRollupPending()).isTrue();
+        verify(paymentResponseCache).refresh(paymentResponseDto);
+    }
+
+    @Test
+    void processPayment_WithProcessorError_ShouldSaveFailedPayment() {
+        // Given
+        when(paymentMapper.toEntity(paymentRequestDto)).thenReturn(payment);
+        when(externalPaymentApiClient.processPayment(payment))
+                .thenReturn(Mono.error(new RuntimeException("External API unavailable")));
+        when(paymentRepository.save(any(Payment.class))).thenReturn(Mono.just(payment));
+        when(paymentMapper.toDto(payment)).thenReturn(paymentResponseDto);
+
+        // When & Then
+        StepVerifier.create(paymentService.processPayment(paymentRequestDto, GatewayPrincipal.of(userId, "ROLE_USER")))
+                .expectNext(paymentResponseDto)
+                .verifyComplete();
+        verify(paymentRepository).save(paymentCaptor.capture());
+        assertThat(paymentCaptor.getValue().getStatus()).isEqualTo(PaymentStatus.FAILED);
+        assertThat(paymentCaptor.getValue().getErrorCode()).isEqualTo("API_ERROR");
+        verify(paymentMetrics).recordProcessorCall(any(), eq("USD"), eq("ERROR"));
+    }
+
+    @Test
+    void processPayment_WithUnauthorizedUser_ShouldFailWithoutCallingProcessor() {
+        // When & Then
+        StepVerifier.create(paymentService.processPayment(paymentRequestDto, GatewayPrincipal.of("other-user", "ROLE_USER")))
+                .expectError(PaymentAuthorizationException.class)
+                .verify();
+        verify(externalPaymentApiClient, never()).processPayment(any());
+    }
+
+    @Test
+    void getPaymentById_WithNonExistingPayment_ShouldFailWithNotFound() {
+        // Given
+        when(paymentRepository.findResponseViewById("missing")).thenReturn(Mono.empty());
+        when(paymentRepository.findArchivedResponseViewById("missing")).thenReturn(Mono.empty());
+
+        // When & Then
+        StepVerifier.create(paymentService.getPaymentById("missing", GatewayPrincipal.of(userId, "ROLE_USER")))
+                .expectError(PaymentNotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void getAllPaymentsByOrderId_WithForeignPayment_ShouldFailWithAuthorizationError() {
+        // Given
+        PaymentOwnerView owner = () -> "other-user";
+        when(paymentRepository.findOwnersByOrderId("order-1")).thenReturn(Flux.just(owner));
+        when(paymentRepository.findArchivedOwnersByOrderId("order-1")).thenReturn(Flux.empty());
+
+        // When & Then
+        StepVerifier.create(paymentService.getAllPaymentsByOrderId("order-1", GatewayPrincipal.of(userId, "ROLE_USER")))
+                .expectError(PaymentAuthorizationException.class)
+                .verify();
+        verify(paymentRepository, never()).findResponseViewByOrderId(any());
+        verify(paymentRepository, never()).findArchivedResponseViewByOrderId(any());
+    }
+
+    @Test
+    void getPaymentsByUserId_WithMorePaymentsThanLimit_ShouldReturnCursor() {
+        // Given
+        Payment newer = new Payment();
+        newer.setId("payment-200");
+        newer.setTimestamp(LocalDateTime.of(2024, 1, 16, 10, 30));
+        when(paymentRepository.findPageByUserId(userId, null, 2)).thenReturn(Flux.just(newer, payment));
+        when(paymentMapper.toDto(newer)).thenReturn(paymentResponseDto);
+
+        // When & Then
+        StepVerifier.create(paymentService.getPaymentsByUserId(userId, null, 1, GatewayPrincipal.of(userId, "ROLE_USER")))
+                .assertNext(page -> {
+                    assertThat(page.items()).containsExactly(paymentResponseDto);
+                    assertThat(page.nextCursor()).isNotNull();
+                })
+                .verifyComplete();
+    }
+}
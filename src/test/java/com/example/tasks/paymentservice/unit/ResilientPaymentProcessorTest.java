@@ -0,0 +1,160 @@
+package com.example.tasks.paymentservice.unit;
+
+import com.example.tasks.paymentservice.dto.ExternalPaymentApiResponse;
+import com.example.tasks.paymentservice.exception.PaymentProcessorException;
+import com.example.tasks.paymentservice.model.Payment;
+import com.example.tasks.paymentservice.processor.AdaptiveTimeout;
+import com.example.tasks.paymentservice.processor.CircuitBreaker;
+import com.example.tasks.paymentservice.processor.ProcessorHealthIndicator;
+import com.example.tasks.paymentservice.processor.ResilientPaymentProcessor;
+import com.example.tasks.paymentservice.processor.gateway.PaymentProcessorGateway;
+import com.example.tasks.paymentservice.processor.gateway.ProcessorThrottledException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.tasks.model.PaymentStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ResilientPaymentProcessorTest {
+
+    @Mock
+    private PaymentProcessorGateway gateway;
+
+    private final AtomicLong clock = new AtomicLong();
+    private SimpleMeterRegistry meterRegistry;
+    private CircuitBreaker circuitBreaker;
+    private AdaptiveTimeout adaptiveTimeout;
+    private ResilientPaymentProcessor processor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        circuitBreaker = new CircuitBreaker(4, 4, 50, 100, Duration.ofSeconds(1), Duration.ofSeconds(10), 1, clock::get);
+        adaptiveTimeout = new AdaptiveTimeout(16, 0.99, 3, 0.95, Duration.ofMillis(10), Duration.ofMillis(100));
+        processor = new ResilientPaymentProcessor(gateway, circuitBreaker, adaptiveTimeout, meterRegistry, false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        processor.shutdown();
+    }
+
+    @Test
+    void processPayment_WithFailingProcessor_ShouldOpenCircuitAndRejectWithoutCalling() {
+        // Given
+        when(gateway.processPayment(any(Payment.class))).thenThrow(new RuntimeException("Connection refused"));
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> processor.processPayment(new Payment()))
+                    .isInstanceOf(PaymentProcessorException.class)
+                    .extracting("errorCode").isEqualTo(ResilientPaymentProcessor.PROCESSOR_ERROR);
+        }
+
+        // When & Then
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThatThrownBy(() -> processor.processPayment(new Payment()))
+                .isInstanceOf(PaymentProcessorException.class)
+                .extracting("errorCode", "paymentStatus")
+                .containsExactly(ResilientPaymentProcessor.CIRCUIT_OPEN, PaymentStatus.FAILED);
+        verify(gateway, times(4)).processPayment(any(Payment.class));
+        assertThat(meterRegistry.get("payment.processor.rejected").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void health_WithOpenCircuit_ShouldStayUpAndReportCircuitState() {
+        // Given
+        when(gateway.processPayment(any(Payment.class))).thenThrow(new RuntimeException("Connection refused"));
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> processor.processPayment(new Payment())).isInstanceOf(PaymentProcessorException.class);
+        }
+        ProcessorHealthIndicator healthIndicator = new ProcessorHealthIndicator(circuitBreaker, adaptiveTimeout);
+
+        // When
+        Health health = healthIndicator.health();
+
+        // Then
+        assertThat(health.getStatus()).isEqualTo(Status.UP);
+        assertThat(health.getDetails()).containsEntry("circuitBreaker", CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void processPayment_AfterWaitInOpen_ShouldCloseOnSuccessfulTrialCall() {
+        // Given
+        ExternalPaymentApiResponse response = new ExternalPaymentApiResponse();
+        response.setPaymentStatusNumber(2);
+        when(gateway.processPayment(any(Payment.class)))
+                .thenThrow(new RuntimeException("Connection refused"))
+                .thenThrow(new RuntimeException("Connection refused"))
+                .thenThrow(new RuntimeException("Connection refused"))
+                .thenThrow(new RuntimeException("Connection refused"))
+                .thenReturn(response);
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> processor.processPayment(new Payment())).isInstanceOf(PaymentProcessorException.class);
+        }
+
+        // When
+        clock.addAndGet(Duration.ofSeconds(10).toNanos());
+        ExternalPaymentApiResponse result = processor.processPayment(new Payment());
+
+        // Then
+        assertThat(result).isSameAs(response);
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void processPayment_WithSlowProcessor_ShouldTimeOutAsPending() {
+        // Given
+        when(gateway.processPayment(any(Payment.class))).thenAnswer(invocation -> {
+            Thread.sleep(1_000);
+            return new ExternalPaymentApiResponse();
+        });
+
+        // When & Then
+        assertThatThrownBy(() -> processor.processPayment(new Payment()))
+                .isInstanceOf(PaymentProcessorException.class)
+                .extracting("errorCode", "paymentStatus")
+                .containsExactly(ResilientPaymentProcessor.TIMEOUT, PaymentStatus.PENDING);
+        assertThat(meterRegistry.get("payment.processor.timeouts").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void processPayment_WithThrottledProcessor_ShouldFailAsThrottled() {
+        // Given
+        when(gateway.processPayment(any(Payment.class)))
+                .thenThrow(new ProcessorThrottledException("Too many requests", Duration.ofSeconds(1)));
+
+        // When & Then
+        assertThatThrownBy(() -> processor.processPayment(new Payment()))
+                .isInstanceOf(PaymentProcessorException.class)
+                .extracting("errorCode", "paymentStatus")
+                .containsExactly(ResilientPaymentProcessor.THROTTLED, PaymentStatus.FAILED);
+    }
+
+    @Test
+    void processPayment_WhenOpen_ShouldNotCallProcessor() {
+        // Given
+        for (int i = 0; i < 4; i++) {
+            circuitBreaker.onError(0);
+        }
+
+        // When & Then
+        assertThatThrownBy(() -> processor.processPayment(new Payment())).isInstanceOf(PaymentProcessorException.class);
+        verify(gateway, never()).processPayment(any(Payment.class));
+    }
+}
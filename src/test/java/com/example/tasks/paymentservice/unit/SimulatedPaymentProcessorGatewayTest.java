@@ -0,0 +1,71 @@
+package com.example.tasks.paymentservice.unit;
+
+import com.example.tasks.paymentservice.dto.ExternalPaymentApiResponse;
+import com.example.tasks.paymentservice.model.Payment;
+import com.example.tasks.paymentservice.processor.gateway.LatencyDistribution;
+import com.example.tasks.paymentservice.processor.gateway.ProcessorThrottledException;
+import com.example.tasks.paymentservice.processor.gateway.SimulatedPaymentProcessorGateway;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SimulatedPaymentProcessorGatewayTest {
+
+    @Test
+    void processPayment_WithFixedLatency_ShouldApproveAfterLatency() {
+        // Given
+        SimulatedPaymentProcessorGateway gateway = simulator(LatencyDistribution.FIXED, 1.0, 0.0, 0.0);
+
+        // When
+        long startNanos = System.nanoTime();
+        ExternalPaymentApiResponse response = gateway.processPayment(new Payment());
+
+        // Then
+        assertThat(Duration.ofNanos(System.nanoTime() - startNanos)).isGreaterThanOrEqualTo(Duration.ofMillis(20));
+        assertThat(response.isApproved()).isTrue();
+        assertThat(response.getTransactionId()).startsWith("sim_tx_");
+    }
+
+    @Test
+    void processPayment_WithZeroApprovalRate_ShouldDecline() {
+        // Given
+        SimulatedPaymentProcessorGateway gateway = simulator(LatencyDistribution.LONG_TAIL, 0.0, 0.0, 0.0);
+
+        // When
+        ExternalPaymentApiResponse response = gateway.processPayment(new Payment());
+
+        // Then
+        assertThat(response.isApproved()).isFalse();
+    }
+
+    @Test
+    void processPayment_WithThrottling_ShouldThrowWithRetryAfter() {
+        // Given
+        SimulatedPaymentProcessorGateway gateway = simulator(LatencyDistribution.LOG_NORMAL, 1.0, 0.0, 1.0);
+
+        // When & Then
+        assertThatThrownBy(() -> gateway.processPayment(new Payment()))
+                .isInstanceOf(ProcessorThrottledException.class)
+                .extracting("retryAfter").isEqualTo(Duration.ofSeconds(1));
+    }
+
+    @Test
+    void processPayment_WithErrors_ShouldThrow() {
+        // Given
+        SimulatedPaymentProcessorGateway gateway = simulator(LatencyDistribution.FIXED, 1.0, 1.0, 0.0);
+
+        // When & Then
+        assertThatThrownBy(() -> gateway.processPayment(new Payment()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Simulated processor error");
+    }
+
+    private SimulatedPaymentProcessorGateway simulator(LatencyDistribution distribution, double approvalRate,
+                                                       double errorRate, double throttleRate) {
+        return new SimulatedPaymentProcessorGateway(distribution, Duration.ofMillis(20), 0.3, 0.5, 1.5,
+                Duration.ofMillis(200), approvalRate, errorRate, throttleRate, 0.0, Duration.ofSeconds(30), Duration.ofSeconds(1));
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.tasks.paymentservice.unit;
+
+import com.example.tasks.paymentservice.config.VirtualThreadConfig;
+import org.apache.coyote.ProtocolHandler;
+import org.apache.coyote.http11.Http11NioProtocol;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VirtualThreadConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(VirtualThreadConfig.class);
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void protocolHandlerCustomizer_WithHttpVirtualThreadsEnabled_ShouldInstallVirtualThreadExecutor() {
+        contextRunner.withPropertyValues("payment.virtual-threads.http.enabled=true").run(context -> {
+            // Given
+            TomcatProtocolHandlerCustomizer<ProtocolHandler> customizer = context.getBean(TomcatProtocolHandlerCustomizer.class);
+            Http11NioProtocol protocolHandler = new Http11NioProtocol();
+
+            // When
+            customizer.customize(protocolHandler);
+
+            // Then
+            Executor executor = protocolHandler.getExecutor();
+            assertThat(executor).isNotNull();
+            CompletableFuture<Thread> requestThread = new CompletableFuture<>();
+            executor.execute(() -> requestThread.complete(Thread.currentThread()));
+            Thread thread = requestThread.get(5, TimeUnit.SECONDS);
+            assertThat(thread.isVirtual()).isTrue();
+            assertThat(thread.getName()).startsWith("http-vt-");
+        });
+    }
+
+    @Test
+    void protocolHandlerCustomizer_WithHttpVirtualThreadsDisabled_ShouldKeepPlatformThreadPool() {
+        contextRunner.run(context -> assertThat(context).doesNotHaveBean(TomcatProtocolHandlerCustomizer.class));
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.tasks.paymentservice.unit;
+
+import com.example.tasks.paymentservice.monitoring.VirtualThreadPinningMonitor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VirtualThreadPinningMonitorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private VirtualThreadPinningMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        monitor = new VirtualThreadPinningMonitor(meterRegistry, Duration.ofMillis(20));
+    }
+
+    @AfterEach
+    void tearDown() {
+        monitor.stop();
+    }
+
+    @Test
+    void start_WhenVirtualThreadPinnedAboveThreshold_ShouldReportPinnedEvent() throws Exception {
+        // Given
+        monitor.start();
+        Object lock = new Object();
+
+        // When
+        // Sleeping while holding a monitor keeps the virtual thread mounted on its carrier.
+        Thread.ofVirtual().start(() -> {
+            synchronized (lock) {
+                sleep(200);
+            }
+        }).join();
+
+        // Then
+        // The recording stream delivers events in periodic flushes, about once a second.
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (meterRegistry.get("payment.virtual-threads.pinned").counter().count() == 0 && System.nanoTime() < deadline) {
+            sleep(50);
+        }
+        assertThat(monitor.isRunning()).isTrue();
+        assertThat(meterRegistry.get("payment.virtual-threads.pinned").counter().count()).isGreaterThanOrEqualTo(1.0);
+        assertThat(meterRegistry.get("payment.virtual-threads.pinned.duration").timer().totalTime(TimeUnit.MILLISECONDS))
+                .isGreaterThanOrEqualTo(20.0);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}